@@ -0,0 +1,49 @@
+package com.graduation.orderservice.config;
+
+import com.graduation.orderservice.constant.Constant;
+import com.graduation.orderservice.repository.ProcessedMessageRepository;
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Idempotency configuration for Order Service
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Daily partitions of processed_messages, shared implementation from saga coordination
+     */
+    @Bean
+    public ProcessedMessagePartitionService processedMessagePartitionService(
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            @Value("${idempotency.partitioning.enabled:true}") boolean enabled,
+            @Value("${idempotency.partitioning.precreate-days:7}") int precreateDays,
+            @Value("${idempotency.retention-hours:30}") int retentionHours) {
+        return new ProcessedMessagePartitionService(jdbcTemplate, transactionTemplate,
+                Constant.TABLE_PROCESSED_MESSAGES,
+                Map.of(Constant.INDEX_PROCESSED_MESSAGE_PROCESSED_AT, Constant.COLUMN_PROCESSED_AT),
+                Duration.ofHours(retentionHours), precreateDays, enabled);
+    }
+
+    /**
+     * In-memory front tier of the idempotency check, shared implementation from saga coordination
+     */
+    @Bean
+    public ProcessedMessageFilter processedMessageFilter(ProcessedMessageRepository processedMessageRepository,
+                                                        MeterRegistry meterRegistry) {
+        return new ProcessedMessageFilter((after, afterMessageId, limit) ->
+                processedMessageRepository.findProcessedKeysAfter(after, afterMessageId, PageRequest.of(0, limit)),
+                meterRegistry);
+    }
+}
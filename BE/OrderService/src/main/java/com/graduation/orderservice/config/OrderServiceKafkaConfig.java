@@ -1,5 +1,9 @@
 package com.graduation.orderservice.config;
 
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagawirecodec.SagaWireDeserializer;
+import com.graduation.sagawirecodec.SagaWireFormat;
+import com.graduation.sagawirecodec.SagaWireSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -14,7 +18,6 @@ import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
@@ -36,13 +39,18 @@ public class OrderServiceKafkaConfig {
     @Value("${kafka.topics.dlq}")
     private String dlqTopic;
 
+    // Value format written by this producer: json, or binary once every consumer reads it
+    @Value("${saga.wire.format:json}")
+    private String wireFormat;
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaWireSerializer.class);
+        configProps.put(SagaWireFormat.CONFIG_WRITE_FORMAT, wireFormat);
 
         // Producer reliability settings
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -72,7 +80,7 @@ public class OrderServiceKafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         // Configure JSON deserializer with error handling
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, SagaWireDeserializer.class.getName());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "java.lang.Object");
 
@@ -88,7 +96,8 @@ public class OrderServiceKafkaConfig {
 
     // Listener Container Factory
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ProcessedMessageFilter processedMessageFilter) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
@@ -96,6 +105,8 @@ public class OrderServiceKafkaConfig {
         factory.setConcurrency(2);
         factory.getContainerProperties().setAckMode(
                 org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Reload the idempotency filter when partitions (and their redeliveries) move here
+        factory.getContainerProperties().setConsumerRebalanceListener(processedMessageFilter);
 
         // Configure error handling with dead letter topic
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
@@ -145,6 +145,7 @@ public class Constant {
     public static final String LOG_FAILED_TO_RECORD_PROCESSING = "Failed to record processing for messageId: {}, sagaId: {}";
     public static final String LOG_CLEANING_OLD_MESSAGES = "Cleaning up old processed messages";
     public static final String LOG_DELETED_OLD_MESSAGES = "Deleted {} old processed messages";
+    public static final String LOG_DROPPED_OLD_PARTITIONS = "Dropped {} processed message partitions ending before {}";
     public static final String LOG_OLD_MESSAGES_CLEANUP_SUCCESS = "Old processed messages cleanup completed successfully";
     public static final String LOG_NO_OLD_MESSAGES = "No old processed messages to clean up";
     public static final String LOG_ORDER_CREATED_SUCCESS = "Order created successfully with ID: {}";
@@ -156,8 +157,6 @@ public class Constant {
     public static final String LOG_ORDER_CANCELLED_SUCCESS = "Order {} cancelled successfully";
     public static final String LOG_UPDATING_ORDER_CONFIRMED = "Updating order {} to CONFIRMED for saga: {}";
     public static final String LOG_UPDATING_ORDER_DELIVERED = "Updating order {} to DELIVERED for saga: {}";
-    public static final String LOG_PROCESSING_DELIVERY_WAIT = "Processing order delivery update for saga: {} - waiting 10 seconds...";
-    public static final String LOG_THREAD_INTERRUPTED = "Thread interrupted during delay for saga: {}";
     public static final String LOG_SAGA_COMPLETED = "Saga {} completed successfully - Order {} delivered";
     public static final String LOG_SAGA_FAILED = "Saga {} failed - Order {} delivery update failed: {}";
     public static final String LOG_ERROR_UPDATING_CONFIRMED = "Error updating order to confirmed: {}";
@@ -209,8 +208,10 @@ public class Constant {
     public static final String COLUMN_CHANGED_BY = "changed_by";
     public static final String COLUMN_MESSAGE_ID = "message_id";
     public static final String COLUMN_PROCESSED_AT = "processed_at";
+    public static final String COLUMN_SENT_AT = "sent_at";
 
     // ===================== INDEX NAMES =====================
+    public static final String INDEX_PROCESSED_MESSAGE_PROCESSED_AT = "idx_processed_message_processed_at";
     public static final String INDEX_ORDER_USER_ID = "idx_order_user_id";
     public static final String INDEX_ORDER_STATUS = "idx_order_status";
     public static final String INDEX_ORDER_SAGA_ID = "idx_order_saga_id";
@@ -2,7 +2,10 @@ package com.graduation.orderservice.listener;
 
 import com.graduation.orderservice.constant.Constant;
 import com.graduation.orderservice.service.OrderCommandHandlerService;
-import lombok.RequiredArgsConstructor;
+import com.graduation.sagawirecodec.message.CancelOrderCommand;
+import com.graduation.sagawirecodec.message.SagaCommandType;
+import com.graduation.sagawirecodec.message.SagaMessageDispatcher;
+import com.graduation.sagawirecodec.message.UpdateOrderStatusCommand;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
@@ -17,13 +20,19 @@ import java.util.Map;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderServiceKafkaListener {
 
-    // TODO: Inject OrderCommandHandlerService when implemented
-    // private final OrderCommandHandlerService commandHandlerService;
+    private final SagaMessageDispatcher commandDispatcher;
 
-    private final OrderCommandHandlerService orderCommandHandlerService;
+    public OrderServiceKafkaListener(OrderCommandHandlerService orderCommandHandlerService) {
+        this.commandDispatcher = new SagaMessageDispatcher()
+                .on(SagaCommandType.ORDER_UPDATE_CONFIRMED, UpdateOrderStatusCommand.class,
+                        orderCommandHandlerService::handleUpdateOrderConfirmed)
+                .on(SagaCommandType.ORDER_UPDATE_DELIVERED, UpdateOrderStatusCommand.class,
+                        orderCommandHandlerService::handleUpdateOrderDelivered)
+                .on(SagaCommandType.ORDER_CANCEL, CancelOrderCommand.class,
+                        orderCommandHandlerService::handleCancelOrder);
+    }
 
     /**
      * Listen to order commands from Saga Orchestrator
@@ -43,20 +52,9 @@ public class OrderServiceKafkaListener {
             log.info(Constant.LOG_PROCESSING_ORDER_COMMAND,
                     commandType, sagaId, messageId);
 
-            // Route to appropriate handler based on command type
-            switch (commandType) {
-                case Constant.COMMAND_ORDER_UPDATE_CONFIRMED:
-                    orderCommandHandlerService.handleUpdateOrderConfirmed(command);
-                    break;
-                case Constant.COMMAND_ORDER_UPDATE_DELIVERED:
-                    orderCommandHandlerService.handleUpdateOrderDelivered(command);
-                    break;
-                case Constant.COMMAND_ORDER_CANCEL:
-                    orderCommandHandlerService.handleCancelOrder(command);
-                    break;
-                default:
-                    log.warn(Constant.LOG_UNKNOWN_ORDER_COMMAND, commandType, sagaId);
-                    break;
+            // Decode into the typed command and route to its handler
+            if (!commandDispatcher.dispatch(command)) {
+                log.warn(Constant.LOG_UNKNOWN_ORDER_COMMAND, commandType, sagaId);
             }
 
             // Acknowledge the message
@@ -69,4 +67,4 @@ public class OrderServiceKafkaListener {
             throw new RuntimeException(Constant.ERROR_ORDER_COMMAND_PROCESSING_FAILED, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -5,16 +5,21 @@ import com.graduation.orderservice.constant.Constant;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 @Data
 @Entity
-@Table(name = Constant.TABLE_PROCESSED_MESSAGES)
-@AllArgsConstructor
+@Table(name = Constant.TABLE_PROCESSED_MESSAGES, indexes = {
+        @Index(name = Constant.INDEX_PROCESSED_MESSAGE_PROCESSED_AT, columnList = Constant.COLUMN_PROCESSED_AT)
+})
 @NoArgsConstructor
-public class ProcessedMessage {
+public class ProcessedMessage implements Persistable<String> {
 
     @Id
     @Column(name = Constant.COLUMN_MESSAGE_ID)
@@ -23,6 +28,10 @@ public class ProcessedMessage {
     @Column(name = Constant.COLUMN_SAGA_ID)
     private String sagaId;
 
+    // The message's own timestamp, the same for every delivery; partition key of the table
+    @Column(name = Constant.COLUMN_SENT_AT, nullable = false)
+    private Instant sentAt;
+
     @Column(name = Constant.COLUMN_PROCESSED_AT)
     private Instant processedAt;
 
@@ -30,6 +39,37 @@ public class ProcessedMessage {
     @Column(name = Constant.COLUMN_STATUS)
     private ProcessStatus status;
 
+    // Rows are only ever inserted: save() persists without the SELECT a merge would issue
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    public ProcessedMessage(String messageId, String sagaId, Instant sentAt, Instant processedAt, ProcessStatus status) {
+        this.messageId = messageId;
+        this.sagaId = sagaId;
+        this.sentAt = sentAt;
+        this.processedAt = processedAt;
+        this.status = status;
+    }
+
+    @Override
+    public String getId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
     // Status Enum
     public enum ProcessStatus {
         SUCCESS, FAILED, COMPENSATED
@@ -5,6 +5,7 @@ import com.graduation.orderservice.model.OrderStatus;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -33,6 +34,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.id = :orderId")
     Optional<Order> findByIdForAtomicUpdate(@Param("orderId") Long orderId);
 
+    /**
+     * Database-side fencing: record the token only if no newer token has been applied
+     * Returns 0 if the token is stale or the order does not exist
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.fencingToken = :token WHERE o.id = :orderId AND o.fencingToken <= :token")
+    int claimFencingToken(@Param("orderId") Long orderId, @Param("token") Long token);
+
 
 
 }
\ No newline at end of file
@@ -3,9 +3,12 @@ package com.graduation.orderservice.service;
 import com.graduation.orderservice.constant.Constant;
 import com.graduation.orderservice.model.ProcessedMessage;
 import com.graduation.orderservice.repository.ProcessedMessageRepository;
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -17,21 +20,31 @@ import java.time.temporal.ChronoUnit;
 @RequiredArgsConstructor
 public class IdempotencyService {
     private final ProcessedMessageRepository processedMessageRepository;
+    private final ProcessedMessageFilter processedMessageFilter;
+    private final ProcessedMessagePartitionService partitionService;
+
+    @Value("${idempotency.retention-hours:30}")
+    private int retentionHours;
 
     /**
      * Check if a message has been processed before
      * This handles different scenarios:
      * 1. Message with messageId
      * 2. Message identified by sagaId combination
+     * The in-memory filter answers first; only ids it cannot rule out are looked up.
+     * sentAtMillis is the command's timestamp.
      */
-    public boolean isProcessed(String messageId, String sagaId) {
+    public boolean isProcessed(String messageId, String sagaId, Long sentAtMillis) {
         // Validate messageId is provided (sagaId is only for context/logging)
         if (messageId == null || messageId.isEmpty()) {
             throw new IllegalArgumentException(Constant.ERROR_MESSAGE_ID_REQUIRED);
         }
 
         // Check by messageId only (each command should have unique messageId)
-        if (processedMessageRepository.findByMessageId(messageId).isPresent()) {
+        ProcessedMessageFilter.Verdict verdict = processedMessageFilter.check(messageId, sentAtMillis);
+        if (verdict == ProcessedMessageFilter.Verdict.PROCESSED
+                || (verdict == ProcessedMessageFilter.Verdict.UNKNOWN
+                && processedMessageRepository.findByMessageId(messageId).isPresent())) {
             log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId, sagaId);
             return true;
         }
@@ -40,7 +53,8 @@ public class IdempotencyService {
         return false;
     }
 
-    public void recordProcessing(String messageId, String sagaId, ProcessedMessage.ProcessStatus status) {
+    public void recordProcessing(String messageId, String sagaId, Long sentAtMillis,
+                                 ProcessedMessage.ProcessStatus status) {
         if (messageId == null || messageId.isEmpty()) {
             throw new IllegalArgumentException(Constant.ERROR_MESSAGE_ID_REQUIRED_RECORD);
         }
@@ -48,8 +62,10 @@ public class IdempotencyService {
             throw new IllegalArgumentException(Constant.ERROR_SAGA_ID_REQUIRED);
         }
         try {
-            ProcessedMessage processedMessage = new ProcessedMessage(messageId, sagaId, Instant.now(), status);
+            ProcessedMessage processedMessage = new ProcessedMessage(messageId, sagaId,
+                    partitionService.partitionKey(sentAtMillis), Instant.now(), status);
             processedMessageRepository.save(processedMessage);
+            processedMessageFilter.recordProcessed(messageId);
             log.info(Constant.LOG_RECORDED_PROCESSING, messageId, sagaId, status);
 
         } catch (Exception ex) {
@@ -61,6 +77,8 @@ public class IdempotencyService {
     /**
      * Clean up old processed messages
      * This can be scheduled to run periodically to remove old entries
+     * On a partitioned table it drops expired daily partitions (and creates upcoming ones)
+     * instead of deleting rows
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional
@@ -68,7 +86,13 @@ public class IdempotencyService {
         log.info(Constant.LOG_CLEANING_OLD_MESSAGES);
 
         try {
-            Instant cutoffTime = Instant.now().minus(30, ChronoUnit.HOURS);
+            Instant cutoffTime = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+
+            if (partitionService.isPartitioned()) {
+                int droppedCount = partitionService.maintain();
+                log.info(Constant.LOG_DROPPED_OLD_PARTITIONS, droppedCount, cutoffTime);
+                return;
+            }
 
             int deletedCount = processedMessageRepository.deleteByProcessedAtBefore(cutoffTime);
 
@@ -1,25 +1,36 @@
 package com.graduation.orderservice.service;
 
 import com.graduation.orderservice.constant.Constant;
-import com.graduation.orderservice.model.FencingLockResult;
 import com.graduation.orderservice.model.Order;
 import com.graduation.orderservice.model.OrderStatus;
 import com.graduation.orderservice.model.ProcessedMessage;
 import com.graduation.orderservice.repository.OrderRepository;
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagacoordination.model.FencingLockResult;
+import com.graduation.sagawirecodec.message.CancelOrderCommand;
+import com.graduation.sagawirecodec.message.CancelRequestEvent;
+import com.graduation.sagawirecodec.message.OrderCreatedEvent;
+import com.graduation.sagawirecodec.message.SagaEventType;
+import com.graduation.sagawirecodec.message.SagaReplyEvent;
+import com.graduation.sagawirecodec.message.UpdateOrderStatusCommand;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Service for Order business logic
+ * Service for Order business logic.
+ *
+ * Saga command handlers run the order change and its SUCCESS record in one transaction and
+ * publish the reply after it commits. A failed command is rolled back first; the FAILED
+ * record and reply are written afterwards, outside the rolled back transaction.
  */
 @Slf4j
 @Service
@@ -29,7 +40,8 @@ public class OrderCommandHandlerService {
     private final OrderRepository orderRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final IdempotencyService idempotencyService;
-    private final RedisLockService redisLockService;
+    private final LockProvider lockProvider;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Create a new order and trigger saga
@@ -67,24 +79,20 @@ public class OrderCommandHandlerService {
      */
     public void publishOrderCreatedEvent(Order order) {
         try {
-            // Create event payload
-            Map<String, Object> event = new HashMap<>();
-            event.put(Constant.FIELD_MESSAGE_ID, generateMessageId());
-            event.put(Constant.FIELD_TYPE, Constant.EVENT_ORDER_CREATED);
-            event.put(Constant.FIELD_TIMESTAMP, System.currentTimeMillis());
-
-            // Order data for saga
-            event.put(Constant.FIELD_ORDER_ID, order.getId());
-            event.put(Constant.FIELD_USER_ID, order.getUserId());
-            event.put(Constant.FIELD_USER_EMAIL, order.getUserEmail());
-            event.put(Constant.FIELD_USER_NAME, order.getUserName());
-            event.put(Constant.FIELD_ORDER_DESCRIPTION, order.getOrderDescription());
-            event.put(Constant.FIELD_TOTAL_AMOUNT, order.getTotalAmount());
-            event.put(Constant.FIELD_ORDER_STATUS, order.getStatus().name());
-            event.put(Constant.FIELD_CREATED_AT, order.getCreatedAt().toString());
-
-            // Publish to saga events topic
-            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, order.getId().toString(), event);
+            OrderCreatedEvent event = new OrderCreatedEvent(
+                    generateMessageId(),
+                    System.currentTimeMillis(),
+                    order.getId(),
+                    order.getUserId(),
+                    order.getUserEmail(),
+                    order.getUserName(),
+                    order.getOrderDescription(),
+                    order.getTotalAmount(),
+                    order.getStatus().name(),
+                    order.getCreatedAt().toString());
+
+            // Publish to saga events topic; no saga exists yet, so key by order id
+            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, order.getId().toString(), event.toMessage());
 
             log.info(Constant.LOG_PUBLISHED_ORDER_CREATED, order.getId());
 
@@ -102,40 +110,36 @@ public class OrderCommandHandlerService {
      */
     @Transactional
     public void updateOrderStatus(Long orderId, OrderStatus newStatus, String reason,
-                                             String sagaId, String fencingToken) {
+                                             String sagaId, Long fencingToken) {
         log.info("Updating order status with fencing token: orderId={}, status={}, sagaId={}, token={}",
                 orderId, newStatus, sagaId, fencingToken);
 
-        // PHASE 3: Acquire distributed lock with fencing token for order updates
+        // PHASE 3: Acquire the order lock and validate the fencing token in one call
         String lockKey = RedisLockService.buildOrderLockKey(orderId.toString());
-        FencingLockResult lockResult = redisLockService.acquireLockWithFencing(lockKey, 30, TimeUnit.SECONDS);
+        String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
+        FencingLockResult lockResult = lockProvider.acquire(
+                lockKey, 30, TimeUnit.SECONDS, resourceTokenKey, fencingToken);
+
+        if (lockResult.isStaleToken()) {
+            log.error("Order status update rejected due to stale fencing token: orderId={}, token={}",
+                    orderId, fencingToken);
+            throw new RuntimeException("Order update rejected due to stale operation");
+        }
 
         if (lockResult.isAcquired() && lockResult.isValid()) {
             try {
-                // PRESERVE EXISTING - Find order
-                Optional<Order> optionalOrder = orderRepository.findByIdWithHistories(orderId);
-                if (optionalOrder.isEmpty()) {
-                    throw new RuntimeException(String.format(Constant.ERROR_ORDER_NOT_FOUND_ID, orderId));
-                }
-
-                Order order = optionalOrder.get();
+                // PRESERVE EXISTING - Find order (after the database-side fencing check)
+                Order order = loadOrderWithFencing(orderId, fencingToken,
+                        "Order update rejected due to stale operation");
 
                 // Update saga ID if provided (preserve existing logic)
                 if (sagaId != null && order.getSagaId() == null) {
                     order.setSagaId(sagaId);
                 }
 
-                // PHASE 3: Validate fencing token with Redis
-                String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
-                if (!redisLockService.validateFencingToken(resourceTokenKey, fencingToken)) {
-                    log.error("Order status update rejected due to stale fencing token: orderId={}, token={}",
-                            orderId, fencingToken);
-                    throw new RuntimeException("Order update rejected due to stale operation");
-                }
-
                 // PHASE 3: Update status with fencing token validation
                 boolean updateSuccessful = order.updateStatusWithFencing(
-                        newStatus, reason, Constant.ACTOR_SAGA_ORCHESTRATOR, Long.valueOf(fencingToken));
+                        newStatus, reason, Constant.ACTOR_SAGA_ORCHESTRATOR, fencingToken);
 
                 if (!updateSuccessful) {
                     log.error("Order status update failed due to fencing token validation: orderId={}, token={}",
@@ -149,7 +153,7 @@ public class OrderCommandHandlerService {
                         orderId, newStatus, fencingToken);
 
             } finally {
-                redisLockService.releaseLock(lockKey);
+                lockProvider.release(lockResult);
             }
         } else {
             log.error("Failed to acquire order lock for status update: orderId={}", orderId);
@@ -163,34 +167,30 @@ public class OrderCommandHandlerService {
      * Enhanced version of existing cancelOrder method
      */
     @Transactional
-    public void cancelOrderWithFencing(Long orderId, String reason, String sagaId, String fencingToken) {
+    public void cancelOrderWithFencing(Long orderId, String reason, String sagaId, Long fencingToken) {
         log.info("Cancelling order with fencing token: orderId={}, sagaId={}, token={}", orderId, sagaId, fencingToken);
 
-        // PHASE 3: Acquire distributed lock with fencing token for order cancellation
+        // PHASE 3: Acquire the order lock and validate the fencing token in one call
         String lockKey = RedisLockService.buildOrderLockKey(orderId.toString());
-        FencingLockResult lockResult = redisLockService.acquireLockWithFencing(lockKey, 30, TimeUnit.SECONDS);
+        String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
+        FencingLockResult lockResult = lockProvider.acquire(
+                lockKey, 30, TimeUnit.SECONDS, resourceTokenKey, fencingToken);
+
+        if (lockResult.isStaleToken()) {
+            log.error("Order cancellation rejected due to stale fencing token: orderId={}, token={}",
+                    orderId, fencingToken);
+            throw new RuntimeException("Order cancellation rejected due to stale operation");
+        }
 
         if (lockResult.isAcquired() && lockResult.isValid()) {
             try {
-                // PRESERVE EXISTING - Find order
-                Optional<Order> optionalOrder = orderRepository.findByIdWithHistories(orderId);
-                if (optionalOrder.isEmpty()) {
-                    throw new RuntimeException(String.format(Constant.ERROR_ORDER_NOT_FOUND_ID, orderId));
-                }
-
-                Order order = optionalOrder.get();
-
-                // PHASE 3: Validate fencing token with Redis
-                String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
-                if (!redisLockService.validateFencingToken(resourceTokenKey, fencingToken)) {
-                    log.error("Order cancellation rejected due to stale fencing token: orderId={}, token={}",
-                            orderId, fencingToken);
-                    throw new RuntimeException("Order cancellation rejected due to stale operation");
-                }
+                // PRESERVE EXISTING - Find order (after the database-side fencing check)
+                Order order = loadOrderWithFencing(orderId, fencingToken,
+                        "Order cancellation rejected due to stale operation");
 
                 // PHASE 3: Cancel order with fencing token validation
                 boolean cancellationSuccessful = order.cancelWithFencing(
-                        reason, Constant.ACTOR_SAGA_COMPENSATION, Long.valueOf(fencingToken));
+                        reason, Constant.ACTOR_SAGA_COMPENSATION, fencingToken);
 
                 if (!cancellationSuccessful) {
                     log.error("Order cancellation failed due to fencing token validation: orderId={}, token={}",
@@ -203,7 +203,7 @@ public class OrderCommandHandlerService {
                 log.info("Order cancelled successfully with fencing token: orderId={}, token={}", orderId, fencingToken);
 
             } finally {
-                redisLockService.releaseLock(lockKey);
+                lockProvider.release(lockResult);
             }
         } else {
             log.error("Failed to acquire order lock for cancellation: orderId={}", orderId);
@@ -212,39 +212,41 @@ public class OrderCommandHandlerService {
     }
 
 
-     /**
+    /**
      * PHASE 3: Handle order update confirmed command with fencing token
      */
-    public void handleUpdateOrderConfirmed(Map<String, Object> command) {
-        Map<String, Object> payload = (Map<String, Object>) command.get(Constant.FIELD_PAYLOAD);
-        String messageId = (String) command.get(Constant.FIELD_MESSAGE_ID);
-        String sagaId = command.get(Constant.FIELD_SAGA_ID).toString();
-        String fencingToken = (String) command.get("fencingToken"); // PHASE 3: Extract fencing token
+    public void handleUpdateOrderConfirmed(UpdateOrderStatusCommand command) {
+        String messageId = command.messageId();
+        String sagaId = command.sagaId();
+        Long fencingToken = command.fencingToken();
 
         // PRESERVE EXISTING - Idempotency check
-        if (idempotencyService.isProcessed(messageId, sagaId)) {
+        if (idempotencyService.isProcessed(messageId, sagaId, command.timestamp())) {
             log.info(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId, sagaId);
             return;
         }
 
-        String reason = (String) payload.getOrDefault(Constant.FIELD_REASON, Constant.REASON_ORDER_CONFIRMED);
-        Long orderId = Long.valueOf(payload.get(Constant.FIELD_ORDER_ID).toString());
+        String reason = command.reason() != null ? command.reason() : Constant.REASON_ORDER_CONFIRMED;
+        Long orderId = command.orderId();
 
         try {
             // PRESERVE EXISTING - Validate payload
-            if (validatePayload(sagaId, messageId, orderId, reason)) return;
+            if (validatePayload(sagaId, messageId, command.timestamp(), orderId, reason)) return;
 
-            // PHASE 3: Update order status with fencing token
-            updateOrderStatus(orderId, OrderStatus.CONFIRMED, reason, sagaId, fencingToken);
+            // PHASE 3: Update order status with fencing token, recorded as processed in the same transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                updateOrderStatus(orderId, OrderStatus.CONFIRMED, reason, sagaId, fencingToken);
+                idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(),
+                        ProcessedMessage.ProcessStatus.SUCCESS);
+            });
 
-            // PRESERVE EXISTING - Record success and publish event
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.SUCCESS);
+            // Publish once committed
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_STATUS_UPDATED_CONFIRMED, true,
                     Constant.STATUS_DESC_CONFIRMED, null);
 
         } catch (Exception e) {
             log.error(Constant.LOG_ERROR_UPDATING_CONFIRMED, e.getMessage(), e);
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.FAILED);
+            idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(), ProcessedMessage.ProcessStatus.FAILED);
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_STATUS_UPDATE_FAILED, false,
                     null, e.getMessage());
         }
@@ -253,41 +255,32 @@ public class OrderCommandHandlerService {
     /**
      * Handle order update delivered command
      */
-    public void handleUpdateOrderDelivered(Map<String, Object> command) {
-        String sagaId = (String) command.get(Constant.FIELD_SAGA_ID);
-        String messageId = (String) command.get(Constant.FIELD_MESSAGE_ID);
-        String fencingToken = (String) command.get("fencingToken"); // PHASE 3: Extract fencing token
+    public void handleUpdateOrderDelivered(UpdateOrderStatusCommand command) {
+        String sagaId = command.sagaId();
+        String messageId = command.messageId();
+        Long fencingToken = command.fencingToken();
 
         // Idempotency check
-        if (idempotencyService.isProcessed(messageId, sagaId)) {
+        if (idempotencyService.isProcessed(messageId, sagaId, command.timestamp())) {
             log.info(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId, sagaId);
             return; // Skip processing if already handled
         }
 
-        // Extract payload first (consistent with other handlers)
-        Map<String, Object> payload = (Map<String, Object>) command.get(Constant.FIELD_PAYLOAD);
-
-        Long orderId = Long.valueOf(payload.get(Constant.FIELD_ORDER_ID).toString());
-        String reason = (String) payload.getOrDefault(Constant.FIELD_REASON, Constant.REASON_ORDER_DELIVERED_SUCCESS);
+        Long orderId = command.orderId();
+        String reason = command.reason() != null ? command.reason() : Constant.REASON_ORDER_DELIVERED_SUCCESS;
         // Validate orderId and reason
-        if (validatePayload(sagaId, messageId, orderId, reason)) return;
+        if (validatePayload(sagaId, messageId, command.timestamp(), orderId, reason)) return;
 
         log.info(Constant.LOG_UPDATING_ORDER_DELIVERED, orderId, sagaId);
 
         try {
 
-            // Update order status to DELIVERED
-            updateOrderStatus(orderId, OrderStatus.DELIVERED, reason, sagaId, fencingToken);
-
-            // Add 10-second delay before sending event to saga
-            log.info(Constant.LOG_PROCESSING_DELIVERY_WAIT, sagaId);
-            try {
-                Thread.sleep(10000); // 10 seconds delay
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                log.warn(Constant.LOG_THREAD_INTERRUPTED, sagaId);
-            }
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.SUCCESS);
+            // Update order status to DELIVERED, recorded as processed in the same transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                updateOrderStatus(orderId, OrderStatus.DELIVERED, reason, sagaId, fencingToken);
+                idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(),
+                        ProcessedMessage.ProcessStatus.SUCCESS);
+            });
 
             // Publish success event
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_STATUS_UPDATED_DELIVERED, true,
@@ -298,7 +291,7 @@ public class OrderCommandHandlerService {
 
         } catch (Exception e) {
             log.error(Constant.LOG_ERROR_UPDATING_DELIVERED, e.getMessage(), e);
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.FAILED);
+            idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(), ProcessedMessage.ProcessStatus.FAILED);
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_STATUS_UPDATE_FAILED, false,
                     null, e.getMessage());
 
@@ -307,10 +300,10 @@ public class OrderCommandHandlerService {
         }
     }
 
-    private boolean validatePayload(String sagaId, String messageId, Long orderId, String reason) {
+    private boolean validatePayload(String sagaId, String messageId, Long sentAtMillis, Long orderId, String reason) {
         if (orderId <= 0 || reason == null || reason.isEmpty()) {
             log.error(Constant.LOG_INVALID_ORDER_ID, orderId, sagaId);
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.FAILED);
+            idempotencyService.recordProcessing(messageId, sagaId, sentAtMillis, ProcessedMessage.ProcessStatus.FAILED);
             publishOrderEvent(sagaId, null, Constant.EVENT_ORDER_STATUS_UPDATE_FAILED, false,
                     null, Constant.ERROR_INVALID_ORDER_ID);
             return true;
@@ -321,31 +314,33 @@ public class OrderCommandHandlerService {
     /**
      * PHASE 3: Handle order cancellation with fencing token validation
      */
-    public void handleCancelOrder(Map<String, Object> command) {
-        String sagaId = (String) command.get(Constant.FIELD_SAGA_ID);
-        String messageId = (String) command.get(Constant.FIELD_MESSAGE_ID);
-        String fencingToken = (String) command.get("fencingToken"); // PHASE 3: Extract fencing token
-        Map<String, Object> payload = (Map<String, Object>) command.get(Constant.FIELD_PAYLOAD);
+    public void handleCancelOrder(CancelOrderCommand command) {
+        String sagaId = command.sagaId();
+        String messageId = command.messageId();
+        Long fencingToken = command.fencingToken();
 
-        Long orderId = Long.valueOf(payload.get(Constant.FIELD_ORDER_ID).toString());
-        String reason = (String) payload.getOrDefault(Constant.FIELD_REASON, Constant.REASON_ORDER_CANCELLED_SAGA);
+        Long orderId = command.orderId();
+        String reason = command.reason() != null ? command.reason() : Constant.REASON_ORDER_CANCELLED_SAGA;
 
         try {
             // PRESERVE EXISTING - Validate payload
-            if (validatePayload(sagaId, messageId, orderId, reason)) return;
+            if (validatePayload(sagaId, messageId, command.timestamp(), orderId, reason)) return;
 
-            // PHASE 3: Cancel order with fencing token validation
-            cancelOrderWithFencing(orderId, reason, sagaId, fencingToken);
+            // PHASE 3: Cancel order with fencing token validation, recorded as processed in the same transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                cancelOrderWithFencing(orderId, reason, sagaId, fencingToken);
+                idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(),
+                        ProcessedMessage.ProcessStatus.SUCCESS);
+            });
 
-            // PRESERVE EXISTING - Record success and publish event
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.SUCCESS);
+            // Publish once committed
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_CANCELLED, true,
                     Constant.STATUS_DESC_CANCELLED, null);
 
         } catch (Exception e) {
             log.error(Constant.LOG_ERROR_CANCELLING_ORDER, e.getMessage(), e);
 
-            idempotencyService.recordProcessing(messageId, sagaId, ProcessedMessage.ProcessStatus.FAILED);
+            idempotencyService.recordProcessing(messageId, sagaId, command.timestamp(), ProcessedMessage.ProcessStatus.FAILED);
             publishOrderEvent(sagaId, orderId, Constant.EVENT_ORDER_CANCELLATION_FAILED, false,
                     null, e.getMessage());
         }
@@ -378,31 +373,39 @@ public class OrderCommandHandlerService {
     @Transactional
     public boolean updateOrderStatusAtomicallyWithFencing(Long orderId, OrderStatus expectedCurrentStatus,
                                                           OrderStatus newStatus, String reason, String changedBy,
-                                                          String fencingToken) {
+                                                          Long fencingToken) {
         log.info("Attempting atomic status update with fencing token: orderId={}, from={}, to={}, token={}",
                 orderId, expectedCurrentStatus, newStatus, fencingToken);
 
-        // PHASE 3: Acquire distributed lock with fencing token
+        // PHASE 3: Acquire the order lock and validate the fencing token in one call
         String lockKey = RedisLockService.buildOrderLockKey(orderId.toString());
-        FencingLockResult lockResult = redisLockService.acquireLockWithFencing(lockKey, 30, TimeUnit.SECONDS);
+        String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
+        FencingLockResult lockResult = lockProvider.acquire(
+                lockKey, 30, TimeUnit.SECONDS, resourceTokenKey, fencingToken);
+
+        if (lockResult.isStaleToken()) {
+            log.error("Atomic order update rejected due to stale fencing token: orderId={}, token={}",
+                    orderId, fencingToken);
+            return false;
+        }
 
         if (lockResult.isAcquired() && lockResult.isValid()) {
+            long token = lockResult.getFencingToken();
             try {
-                // PHASE 3: Validate fencing token with Redis first
-                String resourceTokenKey = RedisLockService.buildOrderResourceTokenKey(orderId.toString());
-                if (!redisLockService.validateFencingToken(resourceTokenKey, fencingToken)) {
-                    log.error("Atomic order update rejected due to stale fencing token: orderId={}, token={}",
-                            orderId, fencingToken);
+                // Database-side fencing check before the atomic update
+                if (orderRepository.claimFencingToken(orderId, token) == 0) {
+                    log.error("Atomic order update rejected by database fencing check: orderId={}, token={}",
+                            orderId, token);
                     return false;
                 }
 
                 // PHASE 3: Use the existing atomic update method with fencing token
                 boolean success = updateOrderStatusAtomicallyWithFencingValidation(
-                        orderId, expectedCurrentStatus, newStatus, reason, changedBy, Long.valueOf(fencingToken));
+                        orderId, expectedCurrentStatus, newStatus, reason, changedBy, token);
 
                 if (success) {
                     log.info("Atomic order status update successful with fencing token: orderId={}, token={}",
-                            orderId, fencingToken);
+                            orderId, token);
                 } else {
                     log.warn("Atomic order status update failed - status mismatch or stale token: orderId={}, expected={}, actual=?",
                             orderId, expectedCurrentStatus);
@@ -411,7 +414,7 @@ public class OrderCommandHandlerService {
                 return success;
 
             } finally {
-                redisLockService.releaseLock(lockKey);
+                lockProvider.release(lockResult);
             }
         } else {
             log.error("Failed to acquire order lock for atomic update: orderId={}", orderId);
@@ -550,24 +553,22 @@ public class OrderCommandHandlerService {
      */
     private void publishCancelRequestEvent(Order order, String reason) {
         try {
-            // Create cancel request event payload
-            Map<String, Object> event = new HashMap<>();
-            event.put(Constant.FIELD_MESSAGE_ID, generateMessageId());
-            event.put(Constant.FIELD_TYPE, Constant.EVENT_CANCEL_REQUEST_RECEIVED);
-            event.put(Constant.FIELD_TIMESTAMP, System.currentTimeMillis());
-
-            // Order data for saga
-            event.put(Constant.FIELD_ORDER_ID, order.getId());
-            event.put(Constant.FIELD_USER_ID, order.getUserId());
-            event.put(Constant.FIELD_SAGA_ID, order.getSagaId());
-            event.put(Constant.FIELD_ORDER_STATUS, order.getStatus().name());
-            event.put(Constant.FIELD_REASON, reason);
-            event.put(Constant.FIELD_USER_EMAIL, order.getUserEmail());
-            event.put(Constant.FIELD_USER_NAME, order.getUserName());
-            event.put(Constant.FIELD_TOTAL_AMOUNT, order.getTotalAmount());
-
-            // Publish to saga events topic
-            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, order.getId().toString(), event);
+            CancelRequestEvent event = new CancelRequestEvent(
+                    generateMessageId(),
+                    order.getSagaId(),
+                    System.currentTimeMillis(),
+                    order.getId(),
+                    order.getUserId(),
+                    order.getStatus().name(),
+                    reason,
+                    order.getUserEmail(),
+                    order.getUserName(),
+                    order.getTotalAmount());
+
+            // Key by sagaId so the event lands on the partition that owns the saga; an order
+            // cancelled before its saga was linked has only its id
+            String key = order.getSagaId() != null ? order.getSagaId() : order.getId().toString();
+            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, key, event.toMessage());
 
             log.info("Published cancel request event for order: {} with saga: {}",
                     order.getId(), order.getSagaId());
@@ -596,27 +597,36 @@ public class OrderCommandHandlerService {
                 log.error(Constant.LOG_ORDER_EVENT_FAILURE, errorMessage);
             }
 
-            Map<String, Object> event = new HashMap<>();
-            event.put(Constant.FIELD_MESSAGE_ID, Constant.PREFIX_ORDER_EVENT + System.currentTimeMillis());
-            event.put(Constant.FIELD_SAGA_ID, sagaId);
-            event.put(Constant.FIELD_TYPE, eventType);
-            event.put(Constant.FIELD_SUCCESS, success);
-            event.put(Constant.FIELD_ORDER_ID, orderId);
-            event.put(Constant.FIELD_TIMESTAMP, System.currentTimeMillis());
-
-            if (success) {
-                event.put(Constant.RESPONSE_MESSAGE, successMessage);
-            } else {
-                event.put(Constant.FIELD_ERROR_MESSAGE, errorMessage);
-            }
+            long now = System.currentTimeMillis();
+            SagaReplyEvent event = new SagaReplyEvent(Constant.PREFIX_ORDER_EVENT + now, sagaId,
+                    SagaEventType.valueOf(eventType), now, success,
+                    orderId != null ? orderId.toString() : null, null, successMessage, errorMessage);
 
-            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, sagaId, event);
+            kafkaTemplate.send(Constant.TOPIC_ORDER_EVENTS, sagaId, event.toMessage());
 
         } catch (Exception e) {
             log.error(Constant.LOG_ERROR_PUBLISHING_EVENT, e.getMessage(), e);
         }
     }
 
+    /**
+     * Database-side fencing check, then load the order. The conditional UPDATE runs before
+     * the order is read, so the loaded entity already carries the claimed token.
+     */
+    private Order loadOrderWithFencing(Long orderId, Long fencingToken, String staleMessage) {
+        int claimed = orderRepository.claimFencingToken(orderId, fencingToken);
+
+        Optional<Order> optionalOrder = orderRepository.findByIdWithHistories(orderId);
+        if (optionalOrder.isEmpty()) {
+            throw new RuntimeException(String.format(Constant.ERROR_ORDER_NOT_FOUND_ID, orderId));
+        }
+        if (claimed == 0) {
+            log.error("Order write rejected by database fencing check: orderId={}, token={}", orderId, fencingToken);
+            throw new RuntimeException(staleMessage);
+        }
+        return optionalOrder.get();
+    }
+
     /**
      * Generate unique message ID
      */
@@ -0,0 +1,91 @@
+package com.graduation.orderservice.service;
+
+import com.graduation.sagacoordination.lock.LockMetrics;
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagacoordination.lock.PostgresAdvisoryLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagacoordination.model.FencingLockResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the Redis and Postgres advisory lock providers on an uncontended critical
+ * section: begin transaction, acquire with an issued token, release, commit.
+ *
+ * Needs the local Redis and Postgres from application-local.properties; run with
+ * mvn test -Dtest=LockProviderBenchmarkTest -Dlock.benchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "lock.benchmark", matches = "true")
+class LockProviderBenchmarkTest {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 5000;
+
+    @Autowired
+    private RedisLockService redisLockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LockMetrics lockMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareProviders() {
+        PostgresAdvisoryLockProvider postgres = new PostgresAdvisoryLockProvider(jdbcTemplate, lockMetrics);
+        postgres.initialize();
+
+        report(new RedisLockProvider(redisLockService));
+        report(postgres);
+    }
+
+    private void report(LockProvider provider) {
+        run(provider, WARMUP);
+        long[] nanos = run(provider, ITERATIONS);
+        Arrays.sort(nanos);
+        long total = Arrays.stream(nanos).sum();
+
+        System.out.printf("%-8s ops/s=%8.0f p50=%6.1fus p99=%7.1fus max=%8.1fus%n",
+                provider.getName(),
+                ITERATIONS / (total / 1e9),
+                nanos[ITERATIONS / 2] / 1e3,
+                nanos[(int) (ITERATIONS * 0.99)] / 1e3,
+                nanos[ITERATIONS - 1] / 1e3);
+    }
+
+    private long[] run(LockProvider provider, int iterations) {
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            String lockKey = RedisLockService.buildOrderLockKey("bench-" + (i % 64));
+            String resourceKey = RedisLockService.buildOrderResourceTokenKey("bench-" + (i % 64));
+
+            long start = System.nanoTime();
+            Boolean acquired = transactionTemplate.execute(status -> {
+                FencingLockResult lock = provider.acquire(lockKey, 30, TimeUnit.SECONDS, resourceKey, null);
+                if (lock.isAcquired()) {
+                    provider.release(lock);
+                }
+                return lock.isAcquired();
+            });
+            nanos[i] = System.nanoTime() - start;
+
+            assertTrue(Boolean.TRUE.equals(acquired), provider.getName() + " failed to acquire " + lockKey);
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,154 @@
+package com.graduation.orderservice.service;
+
+import com.graduation.orderservice.constant.Constant;
+import com.graduation.orderservice.model.Order;
+import com.graduation.orderservice.model.OrderStatus;
+import com.graduation.orderservice.model.ProcessedMessage;
+import com.graduation.orderservice.repository.OrderRepository;
+import com.graduation.sagacoordination.lock.LockMetrics;
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagacoordination.lock.PostgresAdvisoryLockProvider;
+import com.graduation.sagawirecodec.message.CancelOrderCommand;
+import com.graduation.sagawirecodec.message.SagaCommandType;
+import com.graduation.sagawirecodec.message.UpdateOrderStatusCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the command handlers with the Postgres advisory lock provider, which refuses to
+ * lock outside a transaction
+ */
+@SpringJUnitConfig(OrderCommandHandlerServiceTransactionTest.Config.class)
+class OrderCommandHandlerServiceTransactionTest {
+
+    private static final long ORDER_ID = 42L;
+    private static final String SAGA_ID = "SAGA_1";
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import(OrderCommandHandlerService.class)
+    static class Config {
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:mem:order-handler"));
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+
+        @Bean
+        LockProvider lockProvider(JdbcTemplate jdbcTemplate) {
+            return new PostgresAdvisoryLockProvider(jdbcTemplate,
+                    new LockMetrics(new SimpleMeterRegistry(), 16, Duration.ofMinutes(10)));
+        }
+    }
+
+    @MockitoBean
+    private OrderRepository orderRepository;
+
+    @MockitoBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderCommandHandlerService orderCommandHandlerService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = Order.builder().id(ORDER_ID).userId("user-1").userEmail("user@example.com").userName("User")
+                .orderDescription("order").totalAmount(BigDecimal.TEN).status(OrderStatus.CREATED)
+                .fencingToken(0L).build();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(orderRepository.claimFencingToken(ORDER_ID, 5L)).thenReturn(1);
+        when(orderRepository.findByIdWithHistories(ORDER_ID)).thenReturn(Optional.of(order));
+    }
+
+    @Test
+    void confirmedHandlerLocksInsideItsTransaction() {
+        orderCommandHandlerService.handleUpdateOrderConfirmed(new UpdateOrderStatusCommand("m1", SAGA_ID, 2,
+                SagaCommandType.ORDER_UPDATE_CONFIRMED, 1_000L, 5L, ORDER_ID, null));
+
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        verify(orderRepository).save(order);
+        verify(idempotencyService).recordProcessing("m1", SAGA_ID, 1_000L, ProcessedMessage.ProcessStatus.SUCCESS);
+    }
+
+    @Test
+    void cancelHandlerLocksInsideItsTransaction() {
+        orderCommandHandlerService.handleCancelOrder(new CancelOrderCommand("m2", SAGA_ID, 102, 2_000L, 5L,
+                ORDER_ID, null, Constant.ACTOR_SAGA_COMPENSATION));
+
+        assertEquals(OrderStatus.CANCELLATION_PENDING, order.getStatus());
+        verify(orderRepository).save(order);
+        verify(idempotencyService).recordProcessing("m2", SAGA_ID, 2_000L, ProcessedMessage.ProcessStatus.SUCCESS);
+    }
+
+    @Test
+    void deliveredHandlerLocksInsideItsTransaction() {
+        order.setStatus(OrderStatus.CONFIRMED);
+
+        orderCommandHandlerService.handleUpdateOrderDelivered(new UpdateOrderStatusCommand("m3", SAGA_ID, 3,
+                SagaCommandType.ORDER_UPDATE_DELIVERED, 3_000L, 5L, ORDER_ID, null));
+
+        assertEquals(OrderStatus.DELIVERED, order.getStatus());
+        verify(orderRepository).save(order);
+        verify(idempotencyService).recordProcessing("m3", SAGA_ID, 3_000L, ProcessedMessage.ProcessStatus.SUCCESS);
+    }
+
+    @Test
+    void failedCommandIsRecordedAndAnsweredAfterRollback() {
+        when(orderRepository.claimFencingToken(ORDER_ID, 5L)).thenReturn(0);
+        doAnswer(invocation -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        }).when(idempotencyService).recordProcessing("m4", SAGA_ID, 4_000L, ProcessedMessage.ProcessStatus.FAILED);
+
+        orderCommandHandlerService.handleUpdateOrderConfirmed(new UpdateOrderStatusCommand("m4", SAGA_ID, 2,
+                SagaCommandType.ORDER_UPDATE_CONFIRMED, 4_000L, 5L, ORDER_ID, null));
+
+        verify(orderRepository, never()).save(any());
+        verify(idempotencyService, never())
+                .recordProcessing("m4", SAGA_ID, 4_000L, ProcessedMessage.ProcessStatus.SUCCESS);
+        verify(idempotencyService).recordProcessing("m4", SAGA_ID, 4_000L, ProcessedMessage.ProcessStatus.FAILED);
+        verify(kafkaTemplate).send(eq(Constant.TOPIC_ORDER_EVENTS), eq(SAGA_ID), any());
+    }
+}
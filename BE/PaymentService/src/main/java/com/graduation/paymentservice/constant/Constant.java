@@ -128,6 +128,7 @@ public class Constant {
     public static final String LOG_FAILED_TO_RECORD_PROCESSING = "Failed to record processing for messageId: {}, sagaId: {}";
     public static final String LOG_CLEANING_OLD_MESSAGES = "Cleaning up old processed messages";
     public static final String LOG_DELETED_OLD_MESSAGES = "Deleted {} old processed messages";
+    public static final String LOG_DROPPED_OLD_PARTITIONS = "Dropped {} processed message partitions ending before {}";
     public static final String LOG_OLD_MESSAGES_CLEANUP_SUCCESS = "Old processed messages cleanup completed successfully";
     public static final String LOG_NO_OLD_MESSAGES = "No old processed messages to clean up";
     public static final String LOG_COMMAND_ALREADY_PROCESSED = "Command already processed: sagaId={}, messageId={}";
@@ -168,6 +169,7 @@ public class Constant {
     public static final String COLUMN_AUTH_TOKEN = "auth_token";
     public static final String COLUMN_MOCK_DECISION_REASON = "mock_decision_reason";
     public static final String COLUMN_PROCESSED_AT = "processed_at";
+    public static final String COLUMN_SENT_AT = "sent_at";
     public static final String COLUMN_SAGA_ID = "saga_id";
     public static final String COLUMN_PAYMENT_METHOD = "payment_method";
     public static final String COLUMN_TRANSACTION_REFERENCE = "transaction_reference";
@@ -178,6 +180,7 @@ public class Constant {
     public static final String COLUMN_MESSAGE_ID = "message_id";
 
     // ===================== INDEX NAMES =====================
+    public static final String INDEX_PROCESSED_MESSAGE_PROCESSED_AT = "idx_processed_message_processed_at";
     public static final String INDEX_PAYMENT_ORDER_ID = "idx_payment_order_id";
     public static final String INDEX_PAYMENT_USER_ID = "idx_payment_user_id";
     public static final String INDEX_PAYMENT_STATUS = "idx_payment_status";
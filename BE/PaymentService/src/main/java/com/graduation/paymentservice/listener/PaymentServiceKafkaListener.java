@@ -2,7 +2,10 @@ package com.graduation.paymentservice.listener;
 
 import com.graduation.paymentservice.constant.Constant;
 import com.graduation.paymentservice.service.PaymentCommandHandlerService;
-import lombok.RequiredArgsConstructor;
+import com.graduation.sagawirecodec.message.ProcessPaymentCommand;
+import com.graduation.sagawirecodec.message.ReversePaymentCommand;
+import com.graduation.sagawirecodec.message.SagaCommandType;
+import com.graduation.sagawirecodec.message.SagaMessageDispatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
@@ -17,10 +20,17 @@ import java.util.Map;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class PaymentServiceKafkaListener {
 
-    private final PaymentCommandHandlerService commandHandlerService;
+    private final SagaMessageDispatcher commandDispatcher;
+
+    public PaymentServiceKafkaListener(PaymentCommandHandlerService commandHandlerService) {
+        this.commandDispatcher = new SagaMessageDispatcher()
+                .on(SagaCommandType.PAYMENT_PROCESS, ProcessPaymentCommand.class,
+                        commandHandlerService::handleProcessPayment)
+                .on(SagaCommandType.PAYMENT_REVERSE, ReversePaymentCommand.class,
+                        commandHandlerService::handleReversePayment);
+    }
 
     /**
      * Listen to payment commands from Saga Orchestrator
@@ -39,17 +49,9 @@ public class PaymentServiceKafkaListener {
 
             log.info(Constant.LOG_PROCESSING_PAYMENT_COMMAND, commandType, sagaId, messageId);
 
-            // Route to appropriate handler based on command type
-            switch (commandType) {
-                case Constant.COMMAND_PAYMENT_PROCESS:
-                    commandHandlerService.handleProcessPayment(command);
-                    break;
-                case Constant.COMMAND_PAYMENT_REVERSE:
-                    commandHandlerService.handleReversePayment(command);
-                    break;
-                default:
-                    log.warn(Constant.LOG_UNKNOWN_PAYMENT_COMMAND, commandType, sagaId);
-                    break;
+            // Decode into the typed command and route to its handler
+            if (!commandDispatcher.dispatch(command)) {
+                log.warn(Constant.LOG_UNKNOWN_PAYMENT_COMMAND, commandType, sagaId);
             }
 
             // Acknowledge the message
@@ -62,4 +64,4 @@ public class PaymentServiceKafkaListener {
             throw new RuntimeException(Constant.ERROR_PAYMENT_COMMAND_PROCESSING_FAILED, e);
         }
     }
-}
\ No newline at end of file
+}
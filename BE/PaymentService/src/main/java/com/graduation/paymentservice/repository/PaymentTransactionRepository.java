@@ -3,6 +3,7 @@ package com.graduation.paymentservice.repository;
 import com.graduation.paymentservice.model.PaymentTransaction;
 import com.graduation.paymentservice.model.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -196,4 +197,32 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
      * Check if order has payment transaction
      */
     boolean existsByOrderId(String orderId);
+
+    /**
+     * Database-side fencing for a new payment: insert it only if the order has no payment
+     * written under a newer fencing token. Check and insert are one statement, so a newer
+     * write cannot land in between. Returns 0 if the token is stale
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO payment_transactions (order_id, user_id, amount, status, auth_token, mock_decision_reason,
+                                          processed_at, saga_id, payment_method, transaction_reference,
+                                          external_transaction_id, failure_reason, retry_count,
+                                          fencing_token, last_token_update)
+        SELECT :#{#tx.orderId}, :#{#tx.userId}, :#{#tx.amount}, :#{#tx.status.name()}, :#{#tx.authToken},
+               :#{#tx.mockDecisionReason}, now(), :#{#tx.sagaId}, :#{#tx.paymentMethod},
+               :#{#tx.transactionReference}, :#{#tx.externalTransactionId}, :#{#tx.failureReason},
+               :#{#tx.retryCount}, :#{#tx.fencingToken}, :#{#tx.lastTokenUpdate}
+        WHERE NOT EXISTS (SELECT 1 FROM payment_transactions
+                          WHERE order_id = :#{#tx.orderId} AND fencing_token > :#{#tx.fencingToken})
+        """, nativeQuery = true)
+    int insertUnlessFenced(@Param("tx") PaymentTransaction transaction);
+
+    /**
+     * Database-side fencing: record the token on the order's payments only if no newer token
+     * has been applied. Returns 0 if the token is stale or there is no payment
+     */
+    @Modifying
+    @Query("UPDATE PaymentTransaction pt SET pt.fencingToken = :token WHERE pt.orderId = :orderId AND pt.fencingToken <= :token")
+    int claimFencingToken(@Param("orderId") String orderId, @Param("token") Long token);
 }
\ No newline at end of file
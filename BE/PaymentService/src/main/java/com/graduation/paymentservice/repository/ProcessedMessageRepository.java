@@ -1,13 +1,16 @@
 package com.graduation.paymentservice.repository;
 
 import com.graduation.paymentservice.model.ProcessedMessage;
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter.ProcessedKey;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
@@ -20,4 +23,14 @@ public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessa
     @Transactional
     @Query("DELETE FROM ProcessedMessage pm WHERE pm.processedAt < :cutoffTime")
     int deleteByProcessedAtBefore(@Param("cutoffTime") Instant cutoffTime);
+
+    /**
+     * Keyset page of processed message ids after (processedAt, messageId), for the idempotency filter
+     */
+    @Query("SELECT pm.messageId AS messageId, pm.processedAt AS processedAt FROM ProcessedMessage pm "
+            + "WHERE pm.processedAt > :after OR (pm.processedAt = :after AND pm.messageId > :afterMessageId) "
+            + "ORDER BY pm.processedAt ASC, pm.messageId ASC")
+    List<ProcessedKey> findProcessedKeysAfter(@Param("after") Instant after,
+                                              @Param("afterMessageId") String afterMessageId,
+                                              Pageable pageable);
 }
@@ -3,9 +3,12 @@ package com.graduation.paymentservice.service;
 import com.graduation.paymentservice.constant.Constant;
 import com.graduation.paymentservice.model.ProcessedMessage;
 import com.graduation.paymentservice.repository.ProcessedMessageRepository;
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -21,21 +24,31 @@ import java.time.temporal.ChronoUnit;
 public class IdempotencyService {
 
     private final ProcessedMessageRepository processedMessageRepository;
+    private final ProcessedMessageFilter processedMessageFilter;
+    private final ProcessedMessagePartitionService partitionService;
+
+    @Value("${idempotency.retention-hours:30}")
+    private int retentionHours;
 
     /**
      * Check if a message has been processed before
      * This handles different scenarios:
      * 1. Message with messageId
      * 2. Message identified by sagaId combination
+     * The in-memory filter answers first; only ids it cannot rule out are looked up.
+     * sentAtMillis is the command's timestamp.
      */
-    public boolean isProcessed(String messageId, String sagaId) {
+    public boolean isProcessed(String messageId, String sagaId, Long sentAtMillis) {
         // Validate messageId is provided (sagaId is only for context/logging)
         if (messageId == null || messageId.isEmpty()) {
             throw new IllegalArgumentException(Constant.ERROR_MESSAGE_ID_REQUIRED);
         }
 
         // Check by messageId only (each command should have unique messageId)
-        if (processedMessageRepository.findByMessageId(messageId).isPresent()) {
+        ProcessedMessageFilter.Verdict verdict = processedMessageFilter.check(messageId, sentAtMillis);
+        if (verdict == ProcessedMessageFilter.Verdict.PROCESSED
+                || (verdict == ProcessedMessageFilter.Verdict.UNKNOWN
+                && processedMessageRepository.findByMessageId(messageId).isPresent())) {
             log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId);
             return true;
         }
@@ -45,9 +58,10 @@ public class IdempotencyService {
     }
 
     /**
-     * Record that a message has been processed
+     * Record that a message has been processed; sentAtMillis is the command's timestamp
      */
-    public void recordProcessing(String messageId, String sagaId, ProcessedMessage.ProcessStatus status) {
+    public void recordProcessing(String messageId, String sagaId, Long sentAtMillis,
+                                 ProcessedMessage.ProcessStatus status) {
         if (messageId == null || messageId.isEmpty()) {
             throw new IllegalArgumentException(Constant.ERROR_MESSAGE_ID_REQUIRED_RECORD);
         }
@@ -56,8 +70,10 @@ public class IdempotencyService {
         }
 
         try {
-            ProcessedMessage processedMessage = new ProcessedMessage(messageId, sagaId, Instant.now(), status);
+            ProcessedMessage processedMessage = new ProcessedMessage(messageId, sagaId,
+                    partitionService.partitionKey(sentAtMillis), Instant.now(), status);
             processedMessageRepository.save(processedMessage);
+            processedMessageFilter.recordProcessed(messageId);
             log.info(Constant.LOG_RECORDED_PROCESSING, messageId, sagaId, status);
 
         } catch (Exception ex) {
@@ -69,6 +85,8 @@ public class IdempotencyService {
     /**
      * Clean up old processed messages
      * This can be scheduled to run periodically to remove old entries
+     * On a partitioned table it drops expired daily partitions (and creates upcoming ones)
+     * instead of deleting rows
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional
@@ -76,7 +94,13 @@ public class IdempotencyService {
         log.info(Constant.LOG_CLEANING_OLD_MESSAGES);
 
         try {
-            Instant cutoffTime = Instant.now().minus(Constant.CLEANUP_HOURS_THRESHOLD, ChronoUnit.HOURS);
+            Instant cutoffTime = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+
+            if (partitionService.isPartitioned()) {
+                int droppedCount = partitionService.maintain();
+                log.info(Constant.LOG_DROPPED_OLD_PARTITIONS, droppedCount, cutoffTime);
+                return;
+            }
 
             int deletedCount = processedMessageRepository.deleteByProcessedAtBefore(cutoffTime);
 
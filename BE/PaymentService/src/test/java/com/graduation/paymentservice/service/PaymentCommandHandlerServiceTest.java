@@ -1,7 +1,8 @@
 package com.graduation.paymentservice.service;
 
-import com.graduation.paymentservice.constant.Constant;
 import com.graduation.paymentservice.repository.PaymentTransactionRepository;
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagawirecodec.message.ProcessPaymentCommand;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,8 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.math.BigDecimal;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit; // Import TimeUnit
 
@@ -34,7 +34,7 @@ class PaymentCommandHandlerServiceTest {
     private IdempotencyService idempotencyService;
 
     @Mock
-    private RedisLockService redisLockService;
+    private LockProvider lockProvider;
 
     @Mock
     private PaymentTransactionRepository paymentRepository;
@@ -45,7 +45,7 @@ class PaymentCommandHandlerServiceTest {
     @InjectMocks
     private PaymentCommandHandlerService paymentCommandHandlerService;
 
-    private Map<String, Object> command;
+    private ProcessPaymentCommand command;
     private String sagaId;
     private String messageId;
 
@@ -54,28 +54,26 @@ class PaymentCommandHandlerServiceTest {
         sagaId = UUID.randomUUID().toString();
         messageId = "msg-" + UUID.randomUUID().toString();
 
-        command = new HashMap<>();
-        command.put(Constant.FIELD_SAGA_ID, sagaId);
-        command.put(Constant.FIELD_MESSAGE_ID, messageId);
+        command = new ProcessPaymentCommand(messageId, sagaId, 1, System.currentTimeMillis(), null,
+                "42", "user-1", new BigDecimal("10.00"), null);
     }
 
     @Test
     @DisplayName("handleProcessPayment should skip processing for an already processed message")
     void handleProcessPayment_whenMessageAlreadyProcessed_shouldSkipProcessing() {
         // --- Arrange ---
-        when(idempotencyService.isProcessed(messageId, sagaId)).thenReturn(true);
+        when(idempotencyService.isProcessed(messageId, sagaId, command.timestamp())).thenReturn(true);
 
         // --- Act ---
         paymentCommandHandlerService.handleProcessPayment(command);
 
         // --- Assert ---
-        verify(idempotencyService, times(1)).isProcessed(messageId, sagaId);
+        verify(idempotencyService, times(1)).isProcessed(messageId, sagaId, command.timestamp());
 
-        // **FIXED LINE**: Use anyLong() for the primitive long argument.
-        verify(redisLockService, never()).acquireLock(anyString(), anyLong(), any(TimeUnit.class));
+        verify(lockProvider, never()).acquire(anyString(), anyLong(), any(TimeUnit.class), anyString(), any());
 
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).insertUnlessFenced(any());
         verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
-        verify(idempotencyService, never()).recordProcessing(anyString(), anyString(), any());
+        verify(idempotencyService, never()).recordProcessing(anyString(), anyString(), any(), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.graduation.sagacoordination.config;
+
+import com.graduation.sagacoordination.lock.LockLeaseWatchdog;
+import com.graduation.sagacoordination.lock.LockMetrics;
+import com.graduation.sagacoordination.lock.LockMonitoringService;
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagacoordination.lock.LocksEndpoint;
+import com.graduation.sagacoordination.lock.PostgresAdvisoryLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockScripts;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Distributed locking and fencing for every saga service.
+ *
+ * Runs after Spring Boot's Redis auto-configuration and uses its StringRedisTemplate, so
+ * all lock traffic of a service is multiplexed over the one shared Lettuce connection
+ * (and client resources) configured by spring.data.redis.*. Any bean defined by the
+ * service itself takes precedence.
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+        "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
+@ConditionalOnClass(StringRedisTemplate.class)
+@ConditionalOnBean(StringRedisTemplate.class)
+public class SagaCoordinationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LockMetrics lockMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${saga.lock.telemetry.hot-key-capacity:128}") int hotKeyCapacity,
+                                   @Value("${saga.lock.telemetry.hot-key-window-seconds:600}") long hotKeyWindowSeconds) {
+        return new LockMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                hotKeyCapacity, Duration.ofSeconds(hotKeyWindowSeconds));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisLockScripts redisLockScripts(StringRedisTemplate redisTemplate) {
+        return new RedisLockScripts(redisTemplate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisLockService redisLockService(StringRedisTemplate redisTemplate, RedisLockScripts redisLockScripts,
+                                             LockMetrics lockMetrics) {
+        return new RedisLockService(redisTemplate, redisLockScripts, lockMetrics);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LockLeaseWatchdog lockLeaseWatchdog(RedisLockService redisLockService) {
+        return new LockLeaseWatchdog(redisLockService);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LockMonitoringService lockMonitoringService(RedisLockService redisLockService) {
+        return new LockMonitoringService(redisLockService);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LockProvider.class)
+    @ConditionalOnProperty(name = "saga.lock.provider", havingValue = "redis", matchIfMissing = true)
+    public RedisLockProvider redisLockProvider(RedisLockService redisLockService) {
+        return new RedisLockProvider(redisLockService);
+    }
+
+    /**
+     * Lock holdings and hot keys on /actuator/locks, in services that have actuator
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class LocksEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public LocksEndpoint locksEndpoint(RedisLockService redisLockService, LockMetrics lockMetrics) {
+            return new LocksEndpoint(redisLockService, lockMetrics);
+        }
+    }
+
+    /**
+     * Transaction-scoped advisory locks, for services whose critical sections only touch
+     * their own Postgres database
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(JdbcTemplate.class)
+    @ConditionalOnProperty(name = "saga.lock.provider", havingValue = "postgres")
+    static class PostgresLockProviderConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(LockProvider.class)
+        public PostgresAdvisoryLockProvider postgresAdvisoryLockProvider(JdbcTemplate jdbcTemplate,
+                                                                         LockMetrics lockMetrics) {
+            return new PostgresAdvisoryLockProvider(jdbcTemplate, lockMetrics);
+        }
+    }
+}
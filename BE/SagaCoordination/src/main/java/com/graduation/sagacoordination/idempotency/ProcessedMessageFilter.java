@@ -0,0 +1,365 @@
+package com.graduation.sagacoordination.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory front tier of the idempotency check.
+ *
+ * A sliding-window Bloom filter of time-bucketed generations holds every key processed
+ * within the window, and a small LRU holds the most recent ones. Keys are message ids,
+ * plus any secondary key a processed row carries (the orchestrator's saga step key).
+ * A Bloom miss proves a message is new only if it was sent after the filter's coverage
+ * start. Keys processed by other instances are loaded from the database whenever
+ * partitions are assigned, since that is when their messages can be redelivered here.
+ * Anything the filter cannot prove falls through to the database.
+ *
+ * Shared by the Order, Payment and orchestrator services; each registers it as a bean
+ * over its own processed_messages table and as its listener containers' rebalance listener.
+ * Verdicts are counted in {@value #METRIC_FILTER_CHECKS}, tagged by verdict.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ProcessedMessageFilter implements ConsumerAwareRebalanceListener {
+
+    public static final String METRIC_FILTER_CHECKS = "saga.idempotency.filter.checks";
+    public static final String TAG_VERDICT = "verdict";
+
+    private final ProcessedKeySource processedKeySource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${idempotency.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${idempotency.filter.window-hours:24}")
+    private long windowHours;
+
+    @Value("${idempotency.filter.generations:4}")
+    private int generationCount;
+
+    @Value("${idempotency.filter.expected-insertions:200000}")
+    private long expectedInsertions;
+
+    @Value("${idempotency.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${idempotency.filter.recent-ids:10000}")
+    private int recentIdsCapacity;
+
+    @Value("${idempotency.filter.clock-skew-seconds:300}")
+    private long clockSkewSeconds;
+
+    @Value("${idempotency.filter.catch-up.overlap-seconds:60}")
+    private long catchUpOverlapSeconds;
+
+    @Value("${idempotency.filter.catch-up.page-size:5000}")
+    private int catchUpPageSize;
+
+    /**
+     * A processed message id and when it was processed; usable as a Spring Data projection
+     */
+    public interface ProcessedKey {
+        String getMessageId();
+
+        Instant getProcessedAt();
+
+        /**
+         * Secondary key checked alongside the message id, or null if there is none
+         */
+        default String getStepKey() {
+            return null;
+        }
+    }
+
+    /**
+     * Keyset page of processed message ids after (processedAt, messageId), in that order
+     */
+    @FunctionalInterface
+    public interface ProcessedKeySource {
+        List<? extends ProcessedKey> findAfter(Instant after, String afterMessageId, int limit);
+    }
+
+    /**
+     * Answer of the front tier for one key
+     */
+    public enum Verdict {
+        /** Never processed; no database lookup needed */
+        NEW,
+        /** Processed recently by this instance */
+        PROCESSED,
+        /** Possibly processed; ask the database */
+        UNKNOWN
+    }
+
+    private BloomGeneration[] generations;
+    private long generationMillis;
+    private int hashCount;
+    private final Map<Verdict, Counter> verdictCounters = new EnumMap<>(Verdict.class);
+
+    private LinkedHashMap<String, Boolean> recentIds;
+
+    // Null until the first catch-up has loaded the window
+    private Instant warmedSince;
+    private Instant catchUpAfter;
+
+    @PostConstruct
+    public void initialize() {
+        generationMillis = Duration.ofHours(windowHours).toMillis() / generationCount;
+        long insertionsPerGeneration = Math.max(1, expectedInsertions / generationCount);
+        double bits = -insertionsPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int bitsPerGeneration = (int) Math.min(Integer.MAX_VALUE - 64, Math.max(64, (long) Math.ceil(bits)));
+        hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitsPerGeneration / insertionsPerGeneration * Math.log(2))));
+
+        generations = new BloomGeneration[generationCount];
+        for (int i = 0; i < generationCount; i++) {
+            generations[i] = new BloomGeneration(bitsPerGeneration);
+        }
+        recentIds = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentIdsCapacity;
+            }
+        };
+
+        for (Verdict verdict : Verdict.values()) {
+            verdictCounters.put(verdict, Counter.builder(METRIC_FILTER_CHECKS)
+                    .tag(TAG_VERDICT, verdict.name())
+                    .description("Idempotency checks answered by the in-memory filter, by verdict")
+                    .register(meterRegistry));
+        }
+
+        log.info("Idempotency filter: {} generations of {} bits, {} hashes, window {}h",
+                generationCount, bitsPerGeneration, hashCount, windowHours);
+    }
+
+    /**
+     * Classify a key. sentAtMillis is the message's own timestamp; without it the filter
+     * cannot tell whether the message predates the window, so it never answers NEW.
+     */
+    public synchronized Verdict check(String key, Long sentAtMillis) {
+        Verdict verdict = classify(key, sentAtMillis);
+        verdictCounters.get(verdict).increment();
+        return verdict;
+    }
+
+    /**
+     * Key of a saga step for the saga + step + action type duplicate check
+     */
+    public static String stepKey(String sagaId, Integer stepId, Object actionType) {
+        return "step:" + sagaId + ":" + stepId + ":" + actionType;
+    }
+
+    private Verdict classify(String key, Long sentAtMillis) {
+        if (!enabled || key == null) {
+            return Verdict.UNKNOWN;
+        }
+        if (recentIds.get(key) != null) {
+            return Verdict.PROCESSED;
+        }
+        if (warmedSince == null || sentAtMillis == null) {
+            return Verdict.UNKNOWN;
+        }
+
+        long oldestBucket = oldestLiveBucket(System.currentTimeMillis());
+        long coveredFrom = Math.max(warmedSince.toEpochMilli(), oldestBucket * generationMillis);
+        if (sentAtMillis - clockSkewSeconds * 1000 < coveredFrom) {
+            return Verdict.UNKNOWN;
+        }
+
+        long hash = hash64(key);
+        for (BloomGeneration generation : generations) {
+            if (generation.bucket >= oldestBucket && generation.mightContain(hash, hashCount)) {
+                return Verdict.UNKNOWN;
+            }
+        }
+        return Verdict.NEW;
+    }
+
+    /**
+     * Remember a processed key once the surrounding transaction commits
+     */
+    public void recordProcessed(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(key, System.currentTimeMillis(), true);
+                }
+            });
+        } else {
+            add(key, System.currentTimeMillis(), true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        catchUp();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // A newly assigned partition may redeliver messages another instance already processed
+        catchUp();
+    }
+
+    /**
+     * Load keys processed since the last catch-up (the whole window on the first run),
+     * restarting a little before the previous watermark to cover late commits
+     */
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant after;
+        synchronized (this) {
+            after = catchUpAfter == null
+                    ? now.minus(Duration.ofHours(windowHours))
+                    : catchUpAfter.minusSeconds(catchUpOverlapSeconds);
+        }
+        String afterMessageId = "";
+
+        try {
+            int loaded = 0;
+            List<? extends ProcessedKey> page;
+            do {
+                page = processedKeySource.findAfter(after, afterMessageId, catchUpPageSize);
+                for (ProcessedKey row : page) {
+                    long processedAt = row.getProcessedAt().toEpochMilli();
+                    add(row.getMessageId(), processedAt, false);
+                    String stepKey = row.getStepKey();
+                    if (stepKey != null) {
+                        add(stepKey, processedAt, false);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    ProcessedKey last = page.get(page.size() - 1);
+                    after = last.getProcessedAt();
+                    afterMessageId = last.getMessageId();
+                }
+                loaded += page.size();
+            } while (page.size() == catchUpPageSize);
+
+            synchronized (this) {
+                catchUpAfter = after.isAfter(now) ? after : now;
+                if (warmedSince == null) {
+                    warmedSince = now.minus(Duration.ofHours(windowHours));
+                    log.info("Idempotency filter warmed with {} processed messages", loaded);
+                } else {
+                    log.debug("Idempotency filter caught up with {} processed messages", loaded);
+                }
+            }
+        } catch (Exception e) {
+            // The filter stays conservative (or cold) and every check falls through to the database
+            log.warn("Idempotency filter catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void add(String key, long processedAtMillis, boolean recent) {
+        long bucket = processedAtMillis / generationMillis;
+        if (bucket < oldestLiveBucket(System.currentTimeMillis())) {
+            return;
+        }
+
+        BloomGeneration generation = generations[(int) (bucket % generationCount)];
+        if (generation.bucket != bucket) {
+            if (generation.bucket > bucket) {
+                // Slot already reused by a newer bucket; the key is older than the window
+                return;
+            }
+            generation.reset(bucket);
+        }
+        generation.put(hash64(key), hashCount);
+
+        if (recent) {
+            recentIds.put(key, Boolean.TRUE);
+        }
+    }
+
+    private long oldestLiveBucket(long nowMillis) {
+        return nowMillis / generationMillis - generationCount + 1;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer
+     */
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * One time bucket of the sliding window
+     */
+    private static final class BloomGeneration {
+
+        private final long[] words;
+        private final int bitCount;
+        private long bucket = Long.MIN_VALUE;
+
+        BloomGeneration(int bitCount) {
+            this.bitCount = bitCount;
+            this.words = new long[(bitCount + 63) >>> 6];
+        }
+
+        void reset(long newBucket) {
+            Arrays.fill(words, 0L);
+            bucket = newBucket;
+        }
+
+        void put(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.graduation.sagacoordination.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Daily range partitions of a service's processed_messages table on sent_at (UTC days).
+ *
+ * sent_at is the message's own timestamp, identical for every delivery of a message, so the
+ * primary key (message_id, sent_at) still rejects a redelivered message; Postgres requires
+ * the partition key in every unique constraint, which rules out processed_at. Partitions are
+ * created ahead of time and retention detaches and drops whole partitions instead of
+ * deleting rows. An unpartitioned table is converted in place at startup: it is renamed and
+ * attached as a single partition covering everything up to the day after tomorrow, so no
+ * rows are copied, and it is dropped like any daily partition once all of it has aged out.
+ *
+ * There is no default partition, because DETACH PARTITION CONCURRENTLY refuses to run
+ * with one; {@link #partitionKey} rejects sent_at values outside the range the partitions cover.
+ */
+@Slf4j
+public class ProcessedMessagePartitionService {
+
+    public static final String COLUMN_MESSAGE_ID = "message_id";
+    public static final String COLUMN_SENT_AT = "sent_at";
+    public static final String COLUMN_PROCESSED_AT = "processed_at";
+
+    private static final String LEGACY_INDEX_SUFFIX = "_legacy";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** How far ahead of this clock a sender's timestamp is still trusted */
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofDays(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String table;
+    private final String dailyPrefix;
+    private final String legacyPrefix;
+    private final Map<String, String> secondaryIndexes;
+    private final Duration retention;
+    private final int precreateDays;
+    private final boolean enabled;
+
+    private volatile boolean partitioned = false;
+
+    /**
+     * @param secondaryIndexes index name to column list, created on the partitioned parent
+     */
+    public ProcessedMessagePartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                            String table, Map<String, String> secondaryIndexes,
+                                            Duration retention, int precreateDays, boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.table = table;
+        this.dailyPrefix = table + "_p";
+        this.legacyPrefix = table + "_legacy_";
+        this.secondaryIndexes = secondaryIndexes;
+        this.retention = retention;
+        this.precreateDays = precreateDays;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Convert the table if needed and create the upcoming partitions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Boolean ready = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('" + maintenanceLockName() + "'))");
+                String kind = tableKind();
+                if ("r".equals(kind)) {
+                    convertToPartitioned();
+                } else if (!"p".equals(kind)) {
+                    log.warn("Table {} not found, leaving processed message retention on row deletes", table);
+                    return false;
+                } else if (!isPartitionedOnSentAt()) {
+                    log.warn("Table {} is not partitioned on {}, leaving processed message retention on row deletes",
+                            table, COLUMN_SENT_AT);
+                    return false;
+                }
+                createUpcomingPartitions(jdbcTemplate);
+                return true;
+            });
+            partitioned = Boolean.TRUE.equals(ready);
+        } catch (Exception e) {
+            log.error("Failed to set up partitions for {}, falling back to row deletes", table, e);
+        }
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Value to store in sent_at: the message's own timestamp, so every delivery of a message
+     * maps to the same primary key. A message without a timestamp, or with one outside the
+     * range covered by the partitions, is rejected rather than keyed by the current time,
+     * which would differ between deliveries and let a duplicate past the primary key.
+     */
+    public Instant partitionKey(Long sentAtMillis) {
+        if (sentAtMillis == null) {
+            throw new IllegalArgumentException("Message timestamp is required to record it as processed");
+        }
+        Instant now = Instant.now();
+        Instant sentAt = Instant.ofEpochMilli(sentAtMillis);
+        if (sentAt.isBefore(now.minus(retention)) || sentAt.isAfter(now.plus(MAX_CLOCK_SKEW))) {
+            throw new IllegalArgumentException("Message timestamp " + sentAt
+                    + " is outside the retained processed message range");
+        }
+        return sentAt;
+    }
+
+    /**
+     * Create the upcoming partitions, then detach and drop every partition whose range ends
+     * at or before now minus the retention. Returns the number of dropped partitions.
+     *
+     * DETACH ... CONCURRENTLY only takes a SHARE UPDATE EXCLUSIVE lock on the parent, so
+     * inserts and idempotency lookups keep running, but it cannot run in a transaction block.
+     * The pass therefore runs on a connection of its own in autocommit mode, never on one
+     * bound to the caller's transaction, serialized across instances by a session-level
+     * advisory lock. A detach interrupted half-way is completed with FINALIZE.
+     */
+    public int maintain() {
+        Instant cutoff = Instant.now().minus(retention);
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource(), "dataSource");
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+            if (!Boolean.TRUE.equals(session.queryForObject(
+                    "SELECT pg_try_advisory_lock(hashtext(?))", Boolean.class, maintenanceLockName()))) {
+                log.info("Partition maintenance of {} is running on another instance", table);
+                return 0;
+            }
+            try {
+                createUpcomingPartitions(session);
+
+                int count = 0;
+                for (Partition partition : listPartitions(session)) {
+                    LocalDate upperBound = upperBoundOf(partition.name());
+                    if (upperBound == null || startOf(upperBound).isAfter(cutoff)) {
+                        continue;
+                    }
+                    session.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name()
+                            + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                    session.execute("DROP TABLE IF EXISTS " + partition.name());
+                    log.info("Dropped processed message partition {}", partition.name());
+                    count++;
+                }
+                return count;
+            } finally {
+                session.queryForObject("SELECT pg_advisory_unlock(hashtext(?))", Boolean.class, maintenanceLockName());
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Partition maintenance of " + table + " failed", e);
+        }
+    }
+
+    private void convertToPartitioned() {
+        LocalDate legacyUpperBound = LocalDate.now(ZoneOffset.UTC).plusDays(2);
+        String legacy = legacyPrefix + SUFFIX_FORMAT.format(legacyUpperBound);
+        log.info("Converting {} to daily partitions, existing rows become partition {}", table, legacy);
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+        for (String constraint : jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'",
+                String.class, legacy)) {
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT " + constraint);
+        }
+        // Secondary indexes keep their names on the parent; the old ones become its partition indexes
+        for (String index : secondaryIndexes.keySet()) {
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index + " RENAME TO " + index + LEGACY_INDEX_SUFFIX);
+        }
+
+        // Rows written before sent_at existed use processed_at, the closest value they have
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ADD COLUMN IF NOT EXISTS " + COLUMN_SENT_AT
+                + " timestamp(6) with time zone");
+        jdbcTemplate.execute("UPDATE " + legacy + " SET " + COLUMN_PROCESSED_AT + " = now()"
+                + " WHERE " + COLUMN_PROCESSED_AT + " IS NULL");
+        jdbcTemplate.execute("UPDATE " + legacy + " SET " + COLUMN_SENT_AT + " = " + COLUMN_PROCESSED_AT
+                + " WHERE " + COLUMN_SENT_AT + " IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN " + COLUMN_SENT_AT + " SET NOT NULL");
+
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS)"
+                + " PARTITION BY RANGE (" + COLUMN_SENT_AT + ")");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY ("
+                + COLUMN_MESSAGE_ID + ", " + COLUMN_SENT_AT + ")");
+        secondaryIndexes.forEach((index, columns) ->
+                jdbcTemplate.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")"));
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + legacy
+                + " FOR VALUES FROM (MINVALUE) TO ('" + startOf(legacyUpperBound) + "')");
+    }
+
+    /**
+     * Daily partitions from the end of the newest existing range up to precreateDays ahead
+     */
+    private void createUpcomingPartitions(JdbcOperations jdbc) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = today;
+        for (Partition partition : listPartitions(jdbc)) {
+            LocalDate upperBound = upperBoundOf(partition.name());
+            if (upperBound != null && partition.name().startsWith(legacyPrefix) && upperBound.isAfter(from)) {
+                from = upperBound;
+            }
+        }
+
+        for (LocalDate day = from; !day.isAfter(today.plusDays(precreateDays)); day = day.plusDays(1)) {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + dailyPrefix + SUFFIX_FORMAT.format(day)
+                    + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + startOf(day) + "') TO ('" + startOf(day.plusDays(1)) + "')");
+        }
+    }
+
+    private List<Partition> listPartitions(JdbcOperations jdbc) {
+        return jdbc.query(
+                "SELECT c.relname, i.inhdetachpending FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                        + " WHERE i.inhparent = to_regclass(?)",
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getBoolean(2)), table);
+    }
+
+    /**
+     * Exclusive upper bound encoded in a partition name, or null if it is not one of ours
+     */
+    LocalDate upperBoundOf(String partition) {
+        try {
+            if (partition.startsWith(legacyPrefix)) {
+                return LocalDate.parse(partition.substring(legacyPrefix.length()), SUFFIX_FORMAT);
+            }
+            if (partition.startsWith(dailyPrefix)) {
+                return LocalDate.parse(partition.substring(dailyPrefix.length()), SUFFIX_FORMAT).plusDays(1);
+            }
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring partition with unexpected name: {}", partition);
+        }
+        return null;
+    }
+
+    private boolean isPartitionedOnSentAt() {
+        String partitionKey = jdbcTemplate.queryForObject(
+                "SELECT pg_get_partkeydef(to_regclass(?))", String.class, table);
+        return partitionKey != null && partitionKey.contains(COLUMN_SENT_AT);
+    }
+
+    /**
+     * Partition DDL is serialized across instances under this advisory lock name
+     */
+    private String maintenanceLockName() {
+        return table + "_partitions";
+    }
+
+    private String tableKind() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private record Partition(String name, boolean detachPending) {
+    }
+}
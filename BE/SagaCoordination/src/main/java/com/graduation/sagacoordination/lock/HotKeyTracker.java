@@ -0,0 +1,208 @@
+package com.graduation.sagacoordination.lock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top-K of the most frequent ids in a stream (Space-Saving), in fixed memory.
+ *
+ * At most capacity ids are counted. A new id replaces the one with the lowest count and
+ * inherits that count as its error bound, so any id occurring more than total/capacity
+ * times is guaranteed to be tracked. Counts are halved every window so the ranking
+ * follows current traffic rather than all-time totals.
+ *
+ * Ids are kept in a stream-summary: a list of buckets in ascending count order, each
+ * holding the ids with that count. Incrementing an id moves it to the next bucket and
+ * the eviction victim is any id of the first bucket, so record() is O(1) and top(k) is
+ * O(k). Only the decay once per window touches every id.
+ */
+public class HotKeyTracker {
+
+    private final int capacity;
+    private final long windowMillis;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private Bucket minBucket;
+    private Bucket maxBucket;
+    private long windowStartMillis = System.currentTimeMillis();
+
+    public HotKeyTracker(int capacity, long windowMillis) {
+        this.capacity = capacity;
+        this.windowMillis = windowMillis;
+    }
+
+    public synchronized void record(String id) {
+        decayIfDue();
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            Bucket from = entry.bucket;
+            from.remove(entry);
+            placeAfter(from, entry, from.count + 1);
+            removeIfEmpty(from);
+            return;
+        }
+        if (entries.size() < capacity) {
+            entry = new Entry(id, 0);
+            entries.put(id, entry);
+            placeAfter(null, entry, 1);
+            return;
+        }
+
+        Bucket lowest = minBucket;
+        Entry victim = lowest.head;
+        lowest.remove(victim);
+        entries.remove(victim.id);
+        entry = new Entry(id, lowest.count);
+        entries.put(id, entry);
+        placeAfter(lowest, entry, lowest.count + 1);
+        removeIfEmpty(lowest);
+    }
+
+    /**
+     * The k ids with the highest counts, highest first
+     */
+    public synchronized List<HotKey> top(int k) {
+        decayIfDue();
+        List<HotKey> result = new ArrayList<>(Math.min(k, entries.size()));
+        for (Bucket bucket = maxBucket; bucket != null && result.size() < k; bucket = bucket.prev) {
+            for (Entry entry = bucket.head; entry != null && result.size() < k; entry = entry.next) {
+                result.add(new HotKey(entry.id, bucket.count, entry.error));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add entry to the bucket for count, which is anchor itself or comes right after it
+     * (or first if anchor is null)
+     */
+    private void placeAfter(Bucket anchor, Entry entry, long count) {
+        if (anchor != null && anchor.count == count) {
+            anchor.add(entry);
+            return;
+        }
+        Bucket next = anchor != null ? anchor.next : minBucket;
+        if (next == null || next.count != count) {
+            Bucket bucket = new Bucket(count);
+            bucket.prev = anchor;
+            bucket.next = next;
+            if (anchor != null) {
+                anchor.next = bucket;
+            } else {
+                minBucket = bucket;
+            }
+            if (next != null) {
+                next.prev = bucket;
+            } else {
+                maxBucket = bucket;
+            }
+            next = bucket;
+        }
+        next.add(entry);
+    }
+
+    private void removeIfEmpty(Bucket bucket) {
+        if (bucket.head != null) {
+            return;
+        }
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            minBucket = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        } else {
+            maxBucket = bucket.prev;
+        }
+    }
+
+    /**
+     * Halve all counts; halving keeps the order, so the buckets are rebuilt in one pass
+     */
+    private void decayIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - windowStartMillis < windowMillis) {
+            return;
+        }
+        windowStartMillis = now;
+
+        Bucket bucket = minBucket;
+        minBucket = null;
+        maxBucket = null;
+        while (bucket != null) {
+            long halved = bucket.count / 2;
+            Entry entry = bucket.head;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.error /= 2;
+                if (halved == 0) {
+                    entries.remove(entry.id);
+                } else {
+                    placeAfter(maxBucket, entry, halved);
+                }
+                entry = next;
+            }
+            bucket = bucket.next;
+        }
+    }
+
+    /**
+     * A tracked id; its true count lies between count - error and count
+     */
+    public record HotKey(String id, long count, long error) {
+    }
+
+    /**
+     * The ids sharing one count, as an intrusive doubly linked list
+     */
+    private static final class Bucket {
+        private final long count;
+        private Bucket prev;
+        private Bucket next;
+        private Entry head;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    private static final class Entry {
+        private final String id;
+        private long error;
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry(String id, long error) {
+            this.id = id;
+            this.error = error;
+        }
+    }
+}
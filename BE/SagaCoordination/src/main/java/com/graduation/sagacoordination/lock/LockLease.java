@@ -0,0 +1,37 @@
+package com.graduation.sagacoordination.lock;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A held Redis lock that {@link LockLeaseWatchdog} keeps renewing until the lease is closed.
+ * Closing releases the lock, so open it in try-with-resources (or close it in a finally
+ * block) around the work the lock guards.
+ */
+public final class LockLease implements AutoCloseable {
+
+    private final RedisLockService redisLockService;
+    private final String lockKey;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    LockLease(RedisLockService redisLockService, String lockKey) {
+        this.redisLockService = redisLockService;
+        this.lockKey = lockKey;
+    }
+
+    public String getLockKey() {
+        return lockKey;
+    }
+
+    /**
+     * Stop renewing and release the lock; only the first call releases.
+     * Returns false if the lock was already released or lost.
+     */
+    public boolean release() {
+        return closed.compareAndSet(false, true) && redisLockService.releaseLock(lockKey);
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
@@ -0,0 +1,69 @@
+package com.graduation.sagacoordination.lock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps leased locks ({@link LockLease}, {@link RedisLockService#renewUntilReleased}) alive
+ * until they are released, so lock TTLs can stay short and a crashed instance's locks expire
+ * quickly. A lease whose owner thread died without closing it is released on the next tick;
+ * max-hold-seconds only guards against a lease that is never closed.
+ *
+ * Runs on its own daemon thread rather than the shared @Scheduled pool, where a long job
+ * would delay renewals past the TTL.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LockLeaseWatchdog {
+
+    private final RedisLockService redisLockService;
+
+    @Value("${saga.lock.watchdog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${saga.lock.watchdog.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${saga.lock.watchdog.max-hold-seconds:600}")
+    private long maxHoldSeconds;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lock-lease-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::renew, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void renew() {
+        try {
+            int renewed = redisLockService.renewExpiringLocks(TimeUnit.SECONDS.toMillis(maxHoldSeconds));
+            if (renewed > 0) {
+                log.debug("Lock watchdog renewed {} locks", renewed);
+            }
+        } catch (Exception e) {
+            log.error("Error renewing held locks", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
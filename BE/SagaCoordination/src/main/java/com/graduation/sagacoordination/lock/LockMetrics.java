@@ -0,0 +1,212 @@
+package com.graduation.sagacoordination.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock telemetry shared by every service, per lock namespace (saga, order, payment):
+ * <ul>
+ *   <li>saga.lock.acquire: one acquisition round trip, by outcome; the busy count is
+ *       contention, stale and error are failures</li>
+ *   <li>saga.lock.wait: from the first refused attempt on a key to its acquisition, i.e.
+ *       how long a caller really waited (just the round trip if it got the lock at once)</li>
+ *   <li>saga.lock.hold: from acquisition to release</li>
+ * </ul>
+ * All three publish percentile histograms, so TTLs can be sized from the hold-time tail.
+ * Contended resource ids are fed to a {@link HotKeyTracker} per namespace, exposed by
+ * {@link LocksEndpoint}. All meters are registered up front.
+ */
+public class LockMetrics {
+
+    public static final String METRIC_LOCK_ACQUIRE = "saga.lock.acquire";
+    public static final String METRIC_LOCK_WAIT = "saga.lock.wait";
+    public static final String METRIC_LOCK_HOLD = "saga.lock.hold";
+    public static final String METRIC_LOCK_RENEWALS = "saga.lock.renewals";
+    public static final String METRIC_LOCK_HELD = "saga.lock.held";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_NAMESPACE = "namespace";
+
+    private static final int MAX_PENDING_WAITS = 10_000;
+    private static final long PENDING_WAIT_MAX_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    public enum Outcome {
+        ACQUIRED("acquired"),
+        BUSY("busy"),
+        STALE("stale"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Lock namespace, derived from the key formats built by {@link RedisLockService}
+     */
+    public enum Namespace {
+        SAGA("saga"),
+        ORDER("order"),
+        PAYMENT("payment"),
+        OTHER("other");
+
+        private static final String SAGA_PREFIX = "saga:lock:saga:";
+        private static final String ORDER_PREFIX = "saga:lock:order:";
+        private static final String ORDER_SUFFIX = ":order";
+        private static final String PAYMENT_SUFFIX = ":payment";
+
+        private final String tag;
+
+        Namespace(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public static Namespace of(String lockKey) {
+            if (lockKey.startsWith(SAGA_PREFIX)) {
+                return SAGA;
+            }
+            if (lockKey.startsWith(ORDER_PREFIX)) {
+                if (lockKey.endsWith(PAYMENT_SUFFIX)) {
+                    return PAYMENT;
+                }
+                if (lockKey.endsWith(ORDER_SUFFIX)) {
+                    return ORDER;
+                }
+            }
+            return OTHER;
+        }
+
+        /**
+         * The resource id in a lock key of this namespace (saga id or order id)
+         */
+        public String resourceId(String lockKey) {
+            return switch (this) {
+                case SAGA -> lockKey.substring(SAGA_PREFIX.length());
+                case ORDER -> lockKey.substring(ORDER_PREFIX.length(), lockKey.length() - ORDER_SUFFIX.length());
+                case PAYMENT -> lockKey.substring(ORDER_PREFIX.length(), lockKey.length() - PAYMENT_SUFFIX.length());
+                case OTHER -> lockKey;
+            };
+        }
+    }
+
+    private static final Namespace[] NAMESPACES = Namespace.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer[][] acquireTimers = new Timer[NAMESPACES.length][OUTCOMES.length];
+    private final Timer[] waitTimers = new Timer[NAMESPACES.length];
+    private final Timer[] holdTimers = new Timer[NAMESPACES.length];
+    private final HotKeyTracker[] hotKeys = new HotKeyTracker[NAMESPACES.length];
+    private final Counter renewals;
+    private final Map<String, Long> pendingWaits = new ConcurrentHashMap<>();
+
+    public LockMetrics(MeterRegistry meterRegistry, int hotKeyCapacity, Duration hotKeyWindow) {
+        this.meterRegistry = meterRegistry;
+        for (Namespace namespace : NAMESPACES) {
+            int n = namespace.ordinal();
+            for (Outcome outcome : OUTCOMES) {
+                acquireTimers[n][outcome.ordinal()] = histogram(METRIC_LOCK_ACQUIRE, "Lock acquisition round trips", namespace)
+                        .tag(TAG_OUTCOME, outcome.tag)
+                        .register(meterRegistry);
+            }
+            waitTimers[n] = histogram(METRIC_LOCK_WAIT, "Time from first refused attempt to acquisition", namespace)
+                    .register(meterRegistry);
+            holdTimers[n] = histogram(METRIC_LOCK_HOLD, "Time locks are held", namespace)
+                    .register(meterRegistry);
+            hotKeys[n] = new HotKeyTracker(hotKeyCapacity, hotKeyWindow.toMillis());
+        }
+        renewals = Counter.builder(METRIC_LOCK_RENEWALS)
+                .description("Lock leases extended by the watchdog")
+                .register(meterRegistry);
+    }
+
+    private static Timer.Builder histogram(String name, String description, Namespace namespace) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(TAG_NAMESPACE, namespace.tag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofMinutes(10));
+    }
+
+    /**
+     * Record an acquisition attempt on lockKey that started at startNanos (System.nanoTime)
+     */
+    public void recordAcquire(String lockKey, Outcome outcome, long startNanos) {
+        long now = System.nanoTime();
+        Namespace namespace = Namespace.of(lockKey);
+        acquireTimers[namespace.ordinal()][outcome.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+
+        switch (outcome) {
+            case ACQUIRED -> {
+                Long firstAttempt = pendingWaits.remove(lockKey);
+                long waitStart = firstAttempt != null && now - firstAttempt <= PENDING_WAIT_MAX_NANOS
+                        ? firstAttempt : startNanos;
+                waitTimers[namespace.ordinal()].record(now - waitStart, TimeUnit.NANOSECONDS);
+            }
+            case BUSY -> {
+                hotKeys[namespace.ordinal()].record(namespace.resourceId(lockKey));
+                rememberFirstAttempt(lockKey, startNanos, now);
+            }
+            case STALE -> hotKeys[namespace.ordinal()].record(namespace.resourceId(lockKey));
+            case ERROR -> {
+            }
+        }
+    }
+
+    /**
+     * Record the release of a lock acquired at acquiredAtMillis (System.currentTimeMillis)
+     */
+    public void recordHold(String lockKey, long acquiredAtMillis) {
+        holdTimers[Namespace.of(lockKey).ordinal()].record(
+                Math.max(0L, System.currentTimeMillis() - acquiredAtMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordRenewals(int count) {
+        if (count > 0) {
+            renewals.increment(count);
+        }
+    }
+
+    /**
+     * Most contended resource ids of a namespace, highest first
+     */
+    public List<HotKeyTracker.HotKey> hotKeys(Namespace namespace, int limit) {
+        return hotKeys[namespace.ordinal()].top(limit);
+    }
+
+    /**
+     * Expose the size of the local held-lock registry as a gauge
+     */
+    public void bindHeldLocks(Map<String, ?> heldLocks) {
+        Gauge.builder(METRIC_LOCK_HELD, heldLocks, Map::size)
+                .description("Locks currently held by this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Callers that give up never acquire, so their entries are dropped once old
+     */
+    private void rememberFirstAttempt(String lockKey, long startNanos, long now) {
+        if (pendingWaits.size() >= MAX_PENDING_WAITS) {
+            pendingWaits.values().removeIf(first -> now - first > PENDING_WAIT_MAX_NANOS);
+            if (pendingWaits.size() >= MAX_PENDING_WAITS) {
+                return;
+            }
+        }
+        pendingWaits.putIfAbsent(lockKey, startNanos);
+    }
+}
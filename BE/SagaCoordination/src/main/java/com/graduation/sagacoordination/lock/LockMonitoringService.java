@@ -0,0 +1,67 @@
+package com.graduation.sagacoordination.lock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Simple service to monitor lock health
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LockMonitoringService {
+
+    private final RedisLockService redisLockService;
+
+    @Value("${saga.lock.audit.enabled:true}")
+    private boolean auditEnabled;
+
+    /**
+     * Monitor lock health every 2 minutes (simple monitoring)
+     * Reads the local lock registry only, no Redis round trip
+     */
+    @Scheduled(fixedRate = 120000) // Every 2 minutes
+    public void monitorLockHealth() {
+        try {
+            var heldLocks = redisLockService.getLocksHeldByThisInstance();
+
+            if (!heldLocks.isEmpty()) {
+                log.info("Lock health check - currently holding {} locks: {}",
+                        heldLocks.size(), heldLocks);
+            } else {
+                log.debug("Lock health check - no locks currently held");
+            }
+
+        } catch (Exception e) {
+            log.error("Error during lock health monitoring", e);
+        }
+    }
+
+    /**
+     * Cross-instance lock audit (SCAN + MGET over all lock keys), every 15 minutes by default
+     */
+    @Scheduled(fixedRateString = "${saga.lock.audit.interval-seconds:900}000",
+            initialDelayString = "${saga.lock.audit.interval-seconds:900}000")
+    public void auditLocks() {
+        if (!auditEnabled) {
+            return;
+        }
+
+        try {
+            RedisLockService.LockAudit audit = redisLockService.auditLocks();
+            log.info("Lock audit - {} locks in Redis by instance: {}", audit.totalLocks(), audit.locksByInstance());
+
+            if (!audit.untrackedOwnLocks().isEmpty()) {
+                log.warn("Lock audit - locks owned by this instance ({}) but not tracked locally: {}",
+                        redisLockService.getServiceInstanceId(), audit.untrackedOwnLocks());
+            }
+            if (!audit.lostOwnLocks().isEmpty()) {
+                log.warn("Lock audit - locally tracked locks no longer held in Redis: {}", audit.lostOwnLocks());
+            }
+
+        } catch (Exception e) {
+            log.error("Error during lock audit", e);
+        }
+    }
+}
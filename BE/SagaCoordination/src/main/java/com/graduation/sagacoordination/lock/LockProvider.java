@@ -0,0 +1,34 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock backend for this service's critical sections, selected by saga.lock.provider:
+ * {@link RedisLockProvider} (default) or {@link PostgresAdvisoryLockProvider}.
+ *
+ * Every lock comes with a fencing token for the guarded resource. Callers still claim the
+ * token on their rows in the database; the provider only decides who gets to try.
+ */
+public interface LockProvider {
+
+    /**
+     * Try to acquire a lock without waiting. A null fencingToken asks the provider to issue
+     * a new one for resourceKey; a supplied token may be refused as stale.
+     */
+    FencingLockResult acquire(String lockKey, long ttl, TimeUnit timeUnit, String resourceKey, Long fencingToken);
+
+    /**
+     * Release a lock returned by {@link #acquire}, always in a finally block: a Redis lock is
+     * renewed until it is released. A no-op if the provider releases on commit.
+     */
+    void release(FencingLockResult lock);
+
+    /**
+     * Who holds the lock, for logging, or null if unknown or free
+     */
+    String getLockHolder(String lockKey);
+
+    String getName();
+}
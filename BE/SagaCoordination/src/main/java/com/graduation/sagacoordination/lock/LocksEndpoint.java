@@ -0,0 +1,43 @@
+package com.graduation.sagacoordination.lock;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Actuator endpoint /actuator/locks: locks held by this instance and the most contended
+ * resource ids per namespace. Optional query parameter limit (default 20).
+ */
+@Endpoint(id = "locks")
+public class LocksEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RedisLockService redisLockService;
+    private final LockMetrics lockMetrics;
+
+    public LocksEndpoint(RedisLockService redisLockService, LockMetrics lockMetrics) {
+        this.redisLockService = redisLockService;
+        this.lockMetrics = lockMetrics;
+    }
+
+    @ReadOperation
+    public LocksReport locks(@Nullable Integer limit) {
+        int k = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        Map<String, List<HotKeyTracker.HotKey>> hotKeys = new LinkedHashMap<>();
+        for (LockMetrics.Namespace namespace : LockMetrics.Namespace.values()) {
+            hotKeys.put(namespace.getTag(), lockMetrics.hotKeys(namespace, k));
+        }
+        return new LocksReport(redisLockService.getServiceInstanceId(),
+                redisLockService.getLocksHeldByThisInstance(), hotKeys);
+    }
+
+    public record LocksReport(String instanceId, Set<String> heldLocks,
+                              Map<String, List<HotKeyTracker.HotKey>> hotKeys) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction-scoped Postgres advisory locks (pg_try_advisory_xact_lock) on this service's
+ * own database.
+ *
+ * The lock lives in the caller's transaction and is released by Postgres on commit or
+ * rollback, so there is no TTL, no renewal and no extra network hop. Must be called inside
+ * a transaction. Only suitable for sections that touch nothing but this database.
+ *
+ * Issued fencing tokens come from a sequence, so they increase across all resources.
+ * Tokens issued by Redis are per-resource counters; sagas in flight when the provider is
+ * switched may see their next token refused as stale by the database claim.
+ *
+ * Acquisitions are reported through {@link LockMetrics} like the Redis locks; the hold
+ * time runs until the transaction completes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PostgresAdvisoryLockProvider implements LockProvider {
+
+    private static final String TOKEN_SEQUENCE = "saga_fencing_token_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LockMetrics lockMetrics;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + TOKEN_SEQUENCE);
+        } catch (Exception e) {
+            log.error("Failed to create fencing token sequence {}", TOKEN_SEQUENCE, e);
+        }
+    }
+
+    @Override
+    public FencingLockResult acquire(String lockKey, long ttl, TimeUnit timeUnit, String resourceKey, Long fencingToken) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Advisory lock requires an active transaction: " + lockKey);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtextextended(?, 0))", Boolean.class, lockKey);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Advisory lock busy: lockKey={}", lockKey);
+                lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.BUSY, startNanos);
+                return FencingLockResult.failure(lockKey);
+            }
+
+            long token = fencingToken != null
+                    ? fencingToken
+                    : jdbcTemplate.queryForObject("SELECT nextval('" + TOKEN_SEQUENCE + "')", Long.class);
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ACQUIRED, startNanos);
+            recordHoldOnCompletion(lockKey);
+            return FencingLockResult.success(lockKey, token, getName());
+        } catch (RuntimeException e) {
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ERROR, startNanos);
+            throw e;
+        }
+    }
+
+    private void recordHoldOnCompletion(String lockKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long acquiredAtMillis = System.currentTimeMillis();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lockMetrics.recordHold(lockKey, acquiredAtMillis);
+            }
+        });
+    }
+
+    @Override
+    public void release(FencingLockResult lock) {
+        // Released by Postgres when the transaction ends
+    }
+
+    @Override
+    public String getLockHolder(String lockKey) {
+        List<String> pids = jdbcTemplate.queryForList(
+                "SELECT pid::text FROM pg_locks WHERE locktype = 'advisory' AND granted AND objsubid = 1"
+                        + " AND ((classid::bigint << 32) | objid::bigint) = hashtextextended(?, 0)",
+                String.class, lockKey);
+        return pids.isEmpty() ? null : "pg backend " + String.join(",", pids);
+    }
+
+    @Override
+    public String getName() {
+        return "postgres";
+    }
+}
@@ -0,0 +1,43 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis locks with TTL and lease renewal; the lock and its fencing token are handled in one
+ * script call by {@link RedisLockService}. An acquired lock is renewed until {@link #release},
+ * which callers run in a finally block.
+ */
+@RequiredArgsConstructor
+public class RedisLockProvider implements LockProvider {
+
+    private final RedisLockService redisLockService;
+
+    @Override
+    public FencingLockResult acquire(String lockKey, long ttl, TimeUnit timeUnit, String resourceKey, Long fencingToken) {
+        FencingLockResult result = fencingToken != null
+                ? redisLockService.acquireLockWithFencingToken(lockKey, ttl, timeUnit, resourceKey, fencingToken)
+                : redisLockService.acquireLockIssuingToken(lockKey, ttl, timeUnit, resourceKey);
+        if (result.isAcquired()) {
+            redisLockService.renewUntilReleased(lockKey);
+        }
+        return result;
+    }
+
+    @Override
+    public void release(FencingLockResult lock) {
+        redisLockService.releaseLock(lock.getLockKey());
+    }
+
+    @Override
+    public String getLockHolder(String lockKey) {
+        return redisLockService.getLockHolder(lockKey);
+    }
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+}
@@ -0,0 +1,201 @@
+package com.graduation.sagacoordination.lock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Lua scripts used by {@link RedisLockService}, created once so their SHA1 is computed once.
+ *
+ * All scripts are loaded into Redis at startup. RedisTemplate calls them with EVALSHA and
+ * falls back to EVAL on NOSCRIPT (after a Redis restart or SCRIPT FLUSH), which caches the
+ * script again; pipelined calls go through EVALSHA only and reload with {@link #load()}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisLockScripts {
+
+    // PHASE 3: Lua script for atomic lock acquisition WITH fencing token generation
+    public static final DefaultRedisScript<List<Object>> ACQUIRE_LOCK_WITH_FENCING = listScript(
+            "local lockKey = KEYS[1]\n" +
+                    "local tokenKey = KEYS[2]\n" +
+                    "local lockValue = ARGV[1]\n" +
+                    "local ttlSeconds = ARGV[2]\n" +
+                    "\n" +
+                    "-- Try to acquire the lock\n" +
+                    "local acquired = redis.call('SET', lockKey, lockValue, 'NX', 'EX', ttlSeconds)\n" +
+                    "if acquired then\n" +
+                    "    -- Generate fencing token (atomic increment)\n" +
+                    "    local fencingToken = redis.call('INCR', tokenKey)\n" +
+                    "    -- Set expiration for token key (longer than lock to prevent reuse)\n" +
+                    "    redis.call('EXPIRE', tokenKey, ttlSeconds * 2)\n" +
+                    "    return {1, fencingToken}\n" +
+                    "else\n" +
+                    "    return {0, nil}\n" +
+                    "end");
+
+    public static final DefaultRedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "    return redis.call('DEL', KEYS[1]) " +
+                    "else " +
+                    "    return 0 " +
+                    "end",
+            Long.class);
+
+    public static final DefaultRedisScript<Long> EXTEND_LOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "    return redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "else " +
+                    "    return 0 " +
+                    "end",
+            Long.class);
+
+    // PHASE 3: Lua script for validating fencing token and performing operation
+    public static final DefaultRedisScript<List<Object>> VALIDATE_TOKEN_AND_EXECUTE = listScript(
+            "local resourceKey = KEYS[1]\n" +
+                    "local incomingToken = tonumber(ARGV[1])\n" +
+                    "local operation = ARGV[2]\n" +
+                    "\n" +
+                    "-- Get current token for this resource\n" +
+                    "local currentToken = redis.call('GET', resourceKey)\n" +
+                    "if currentToken == false then\n" +
+                    "    currentToken = 0\n" +
+                    "else\n" +
+                    "    currentToken = tonumber(currentToken)\n" +
+                    "end\n" +
+                    "\n" +
+                    "-- Only allow operation if incoming token is newer or equal\n" +
+                    "if incomingToken >= currentToken then\n" +
+                    "    redis.call('SET', resourceKey, incomingToken)\n" +
+                    "    return {1, incomingToken, currentToken}\n" +
+                    "else\n" +
+                    "    return {0, incomingToken, currentToken}\n" +
+                    "end");
+
+    /**
+     * Acquire the lock and fence the resource in one call.
+     * KEYS: lock, lock token counter, resource token. ARGV: lock value, TTL seconds, and the
+     * caller's fencing token, or "" to issue one from the counter (never below the recorded
+     * resource token). A stale caller token releases the lock again.
+     * Returns {0} when the lock is held, {1, token, previous} when acquired and recorded,
+     * {2, token, current} when the caller's token is stale.
+     */
+    public static final DefaultRedisScript<List<Object>> ACQUIRE_LOCK_AND_FENCE = listScript(
+            "local lockKey = KEYS[1]\n" +
+                    "local tokenKey = KEYS[2]\n" +
+                    "local resourceKey = KEYS[3]\n" +
+                    "local ttlSeconds = tonumber(ARGV[2])\n" +
+                    "local token = tonumber(ARGV[3])\n" +
+                    "\n" +
+                    "if not redis.call('SET', lockKey, ARGV[1], 'NX', 'EX', ttlSeconds) then\n" +
+                    "    return {0}\n" +
+                    "end\n" +
+                    "\n" +
+                    "local current = tonumber(redis.call('GET', resourceKey) or '0')\n" +
+                    "if token == nil then\n" +
+                    "    token = redis.call('INCR', tokenKey)\n" +
+                    "    if token <= current then\n" +
+                    "        token = current + 1\n" +
+                    "        redis.call('SET', tokenKey, token)\n" +
+                    "    end\n" +
+                    "    redis.call('EXPIRE', tokenKey, ttlSeconds * 2)\n" +
+                    "elseif token < current then\n" +
+                    "    redis.call('DEL', lockKey)\n" +
+                    "    return {2, token, current}\n" +
+                    "end\n" +
+                    "\n" +
+                    "redis.call('SET', resourceKey, token)\n" +
+                    "return {1, token, current}");
+
+    /**
+     * Acquire N locks all-or-nothing. KEYS: the N lock keys, then their N token counters.
+     * ARGV: lock value, TTL seconds. Returns {1, token1..tokenN}, or {0, i} where i is the
+     * first lock that is already held (nothing is acquired then).
+     */
+    public static final DefaultRedisScript<List<Object>> ACQUIRE_LOCKS_WITH_FENCING = listScript(
+            "local n = #KEYS / 2\n" +
+                    "local ttlSeconds = tonumber(ARGV[2])\n" +
+                    "for i = 1, n do\n" +
+                    "    if redis.call('EXISTS', KEYS[i]) == 1 then\n" +
+                    "        return {0, i}\n" +
+                    "    end\n" +
+                    "end\n" +
+                    "local result = {1}\n" +
+                    "for i = 1, n do\n" +
+                    "    redis.call('SET', KEYS[i], ARGV[1], 'EX', ttlSeconds)\n" +
+                    "    result[i + 1] = redis.call('INCR', KEYS[n + i])\n" +
+                    "    redis.call('EXPIRE', KEYS[n + i], ttlSeconds * 2)\n" +
+                    "end\n" +
+                    "return result");
+
+    /**
+     * Release every given lock still held with the value in ARGV[1]; returns the number released
+     */
+    public static final DefaultRedisScript<Long> RELEASE_LOCKS = new DefaultRedisScript<>(
+            "local released = 0\n" +
+                    "for i = 1, #KEYS do\n" +
+                    "    if redis.call('GET', KEYS[i]) == ARGV[1] then\n" +
+                    "        released = released + redis.call('DEL', KEYS[i])\n" +
+                    "    end\n" +
+                    "end\n" +
+                    "return released",
+            Long.class);
+
+    private static final List<DefaultRedisScript<?>> ALL = List.of(
+            ACQUIRE_LOCK_WITH_FENCING, RELEASE_LOCK, EXTEND_LOCK, VALIDATE_TOKEN_AND_EXECUTE, ACQUIRE_LOCK_AND_FENCE,
+            ACQUIRE_LOCKS_WITH_FENCING, RELEASE_LOCKS);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * Script returning a Lua table, which Redis replies with as a list of longs, strings and nils
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static DefaultRedisScript<List<Object>> listScript(String script) {
+        return new DefaultRedisScript<>(script, (Class<List<Object>>) (Class) List.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            load();
+            log.info("Loaded {} lock scripts into Redis", ALL.size());
+        } catch (Exception e) {
+            // Not fatal: the first EVALSHA of each script falls back to EVAL
+            log.warn("Could not preload lock scripts into Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * SCRIPT LOAD every lock script, on one connection
+     */
+    public void load() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            RedisScriptingCommands scripting = connection.scriptingCommands();
+            for (DefaultRedisScript<?> script : ALL) {
+                scripting.scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * True if the failure (or one of its causes) is a NOSCRIPT reply
+     */
+    public static boolean isNoScriptError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
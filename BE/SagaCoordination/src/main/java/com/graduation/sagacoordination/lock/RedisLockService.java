@@ -0,0 +1,771 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+import com.graduation.sagacoordination.model.MultiFencingLockResult;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PHASE 3: Redis-based distributed lock service with FENCING TOKEN support
+ * Enhanced to provide split-brain protection through monotonically increasing tokens
+ *
+ * Locks acquired by this instance are tracked in a local registry (key, lock value and
+ * expiry), so listing, releasing and extending own locks needs no keyspace walk.
+ * Only {@link #auditLocks()} reads all lock keys, with SCAN and batched MGET.
+ * The registry also drives lease renewal: only locks opened as a {@link LockLease} (or marked
+ * with {@link #renewUntilReleased}) are renewed, and only until they are released, see
+ * {@link #renewExpiringLocks}. Other locks simply expire at their TTL.
+ *
+ * Lua scripts come from {@link RedisLockScripts} and run by SHA. Release and extend are
+ * one script call each, keyed by the lock value held locally; {@link #releaseLocks} and
+ * {@link #extendLocks} pipeline the calls for several keys into one round trip.
+ *
+ * Shared by all services through {@code SagaCoordinationAutoConfiguration}; acquisitions,
+ * renewals and held locks are reported through {@link LockMetrics}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisLockService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisLockScripts redisLockScripts;
+    private final LockMetrics lockMetrics;
+    private final String serviceInstanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+
+    private static final String LOCK_KEY_PATTERN = "saga:lock:*";
+    private static final String FENCING_TOKEN_SUFFIX = ":token";
+    private static final int AUDIT_BATCH_SIZE = 500;
+
+    @PostConstruct
+    public void bindMetrics() {
+        lockMetrics.bindHeldLocks(heldLocks);
+    }
+
+    /**
+     * PHASE 3: Acquire a distributed lock WITH fencing token
+     * This prevents split-brain scenarios by providing a unique, increasing token
+     */
+    public FencingLockResult acquireLockWithFencing(String lockKey, long ttl, TimeUnit timeUnit) {
+        long startNanos = System.nanoTime();
+        try {
+            String lockValue = serviceInstanceId + ":" + Instant.now().toEpochMilli();
+            String tokenKey = buildFencingTokenKey(lockKey);
+            long ttlSeconds = timeUnit.toSeconds(ttl);
+
+            log.debug("Attempting to acquire lock with fencing: lockKey={}, tokenKey={}", lockKey, tokenKey);
+
+            List<Object> result = redisTemplate.execute(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING,
+                    Arrays.asList(lockKey, tokenKey),
+                    lockValue,
+                    String.valueOf(ttlSeconds));
+
+            if (result != null && result.size() == 2) {
+                int acquired = ((Number) result.get(0)).intValue();
+                if (acquired == 1) {
+                    long fencingToken = ((Number) result.get(1)).longValue();
+                    heldLocks.put(lockKey, HeldLock.acquired(lockValue, ttlSeconds));
+
+                    lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ACQUIRED, startNanos);
+                    log.info("Lock acquired with fencing token: lockKey={}, token={}, ttl={}s",
+                            lockKey, fencingToken, ttlSeconds);
+
+                    return FencingLockResult.success(lockKey, fencingToken, lockValue);
+                }
+            }
+
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.BUSY, startNanos);
+            log.warn("Failed to acquire lock with fencing: lockKey={}", lockKey);
+            return FencingLockResult.failure(lockKey);
+
+        } catch (Exception e) {
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ERROR, startNanos);
+            log.error("Error acquiring lock with fencing: lockKey={}", lockKey, e);
+            return FencingLockResult.failure(lockKey);
+        }
+    }
+
+    /**
+     * PHASE 3: Try to acquire lock with fencing (non-blocking)
+     */
+    public FencingLockResult tryLockWithFencing(String lockKey, long ttl, TimeUnit timeUnit) {
+        log.debug("Attempting to acquire lock with fencing atomically: key={}", lockKey);
+        return acquireLockWithFencing(lockKey, ttl, timeUnit);
+    }
+
+    /**
+     * Acquire several locks all-or-nothing in one round trip, each with its own fencing token.
+     * Keys are taken in canonical (sorted) order, so concurrent callers asking for overlapping
+     * sets all contend on the same first key instead of holding one lock while waiting on
+     * another. All keys must hash to the same slot if Redis is ever clustered.
+     */
+    public MultiFencingLockResult tryLockAllWithFencing(Collection<String> lockKeys, long ttl, TimeUnit timeUnit) {
+        List<String> keys = new ArrayList<>(new TreeSet<>(lockKeys));
+        long startNanos = System.nanoTime();
+        try {
+            String lockValue = serviceInstanceId + ":" + Instant.now().toEpochMilli();
+            long ttlSeconds = timeUnit.toSeconds(ttl);
+
+            List<String> scriptKeys = new ArrayList<>(keys);
+            for (String key : keys) {
+                scriptKeys.add(buildFencingTokenKey(key));
+            }
+
+            List<Object> result = redisTemplate.execute(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING,
+                    scriptKeys, lockValue, String.valueOf(ttlSeconds));
+
+            if (result != null && result.size() == keys.size() + 1 && ((Number) result.get(0)).intValue() == 1) {
+                Map<String, Long> tokens = new LinkedHashMap<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    tokens.put(keys.get(i), ((Number) result.get(i + 1)).longValue());
+                    heldLocks.put(keys.get(i), HeldLock.acquired(lockValue, ttlSeconds));
+                }
+                for (String key : keys) {
+                    lockMetrics.recordAcquire(key, LockMetrics.Outcome.ACQUIRED, startNanos);
+                }
+                log.info("Locks acquired with fencing tokens: {}", tokens);
+                return MultiFencingLockResult.success(keys, tokens, lockValue);
+            }
+
+            String blockedBy = result != null && result.size() == 2
+                    ? keys.get(((Number) result.get(1)).intValue() - 1) : null;
+            lockMetrics.recordAcquire(blockedBy != null ? blockedBy : keys.get(0), LockMetrics.Outcome.BUSY, startNanos);
+            log.warn("Failed to acquire locks with fencing: keys={}, blockedBy={}", keys, blockedBy);
+            return MultiFencingLockResult.failure(keys, blockedBy);
+
+        } catch (Exception e) {
+            if (!keys.isEmpty()) {
+                lockMetrics.recordAcquire(keys.get(0), LockMetrics.Outcome.ERROR, startNanos);
+            }
+            log.error("Error acquiring locks with fencing: keys={}", keys, e);
+            return MultiFencingLockResult.failure(keys, null);
+        }
+    }
+
+    /**
+     * Release all locks of a multi-lock acquisition in one round trip
+     */
+    public int releaseAll(MultiFencingLockResult locks) {
+        if (!locks.isAcquired()) {
+            return 0;
+        }
+        for (String lockKey : locks.getLockKeys()) {
+            HeldLock held = heldLocks.remove(lockKey);
+            if (held != null) {
+                lockMetrics.recordHold(lockKey, held.acquiredAtMillis());
+            }
+        }
+        try {
+            Long released = redisTemplate.execute(RedisLockScripts.RELEASE_LOCKS, locks.getLockKeys(), locks.getLockValue());
+            int count = released != null ? released.intValue() : 0;
+            log.info("Locks released: {}/{} keys={}", count, locks.getLockKeys().size(), locks.getLockKeys());
+            return count;
+        } catch (Exception e) {
+            log.error("Error releasing locks: keys={}", locks.getLockKeys(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Acquire a lock and validate and record the caller's fencing token for a resource in
+     * one round trip. Replaces acquireLockWithFencing followed by validateFencingToken.
+     * A stale token is reported by {@link FencingLockResult#isStaleToken()}.
+     */
+    public FencingLockResult acquireLockWithFencingToken(String lockKey, long ttl, TimeUnit timeUnit,
+                                                         String resourceKey, Long fencingToken) {
+        if (fencingToken == null) {
+            log.warn("Fencing token is null for resource: {}", resourceKey);
+            return FencingLockResult.failure(lockKey);
+        }
+        return acquireLockAndFence(lockKey, ttl, timeUnit, resourceKey, fencingToken.toString());
+    }
+
+    /**
+     * Acquire a lock, issue a new fencing token and record it for the resource, in one round trip
+     */
+    public FencingLockResult acquireLockIssuingToken(String lockKey, long ttl, TimeUnit timeUnit, String resourceKey) {
+        return acquireLockAndFence(lockKey, ttl, timeUnit, resourceKey, "");
+    }
+
+    private FencingLockResult acquireLockAndFence(String lockKey, long ttl, TimeUnit timeUnit,
+                                                  String resourceKey, String suppliedToken) {
+        long startNanos = System.nanoTime();
+        try {
+            String lockValue = serviceInstanceId + ":" + Instant.now().toEpochMilli();
+            long ttlSeconds = timeUnit.toSeconds(ttl);
+
+            List<Object> result = redisTemplate.execute(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE,
+                    Arrays.asList(lockKey, buildFencingTokenKey(lockKey), buildResourceTokenKey(resourceKey)),
+                    lockValue,
+                    String.valueOf(ttlSeconds),
+                    suppliedToken);
+
+            int outcome = result != null && !result.isEmpty() ? ((Number) result.get(0)).intValue() : 0;
+            if (outcome == 1) {
+                long fencingToken = ((Number) result.get(1)).longValue();
+                heldLocks.put(lockKey, HeldLock.acquired(lockValue, ttlSeconds));
+                lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ACQUIRED, startNanos);
+                log.info("Lock acquired and resource fenced: lockKey={}, resource={}, token={}, previous={}",
+                        lockKey, resourceKey, fencingToken, result.get(2));
+                return FencingLockResult.success(lockKey, fencingToken, lockValue);
+            }
+            if (outcome == 2) {
+                lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.STALE, startNanos);
+                log.warn("Fencing token rejected - stale operation detected: resource={}, incoming={}, current={}",
+                        resourceKey, result.get(1), result.get(2));
+                return FencingLockResult.staleToken(lockKey, ((Number) result.get(1)).longValue());
+            }
+
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.BUSY, startNanos);
+            log.warn("Failed to acquire lock with fencing: lockKey={}", lockKey);
+            return FencingLockResult.failure(lockKey);
+
+        } catch (Exception e) {
+            lockMetrics.recordAcquire(lockKey, LockMetrics.Outcome.ERROR, startNanos);
+            log.error("Error acquiring lock with fencing: lockKey={}, resource={}", lockKey, resourceKey, e);
+            return FencingLockResult.failure(lockKey);
+        }
+    }
+
+    /**
+     * PHASE 3: Validate fencing token for a resource operation
+     * Returns true if the token is valid (equal or newer than current)
+     */
+    public boolean validateFencingToken(String resourceKey, long fencingToken) {
+        try {
+            String tokenValidationKey = buildResourceTokenKey(resourceKey);
+
+            List<Object> result = redisTemplate.execute(RedisLockScripts.VALIDATE_TOKEN_AND_EXECUTE,
+                    Collections.singletonList(tokenValidationKey),
+                    String.valueOf(fencingToken),
+                    "validate");
+
+            if (result != null && result.size() == 3) {
+                int valid = ((Number) result.get(0)).intValue();
+                String incomingToken = result.get(1).toString();
+                String currentToken = result.get(2).toString();
+
+                if (valid == 1) {
+                    log.debug("Fencing token validated successfully: resource={}, token={}, previous={}",
+                            resourceKey, incomingToken, currentToken);
+                    return true;
+                } else {
+                    log.warn("Fencing token rejected - stale operation detected: resource={}, incoming={}, current={}",
+                            resourceKey, incomingToken, currentToken);
+                    return false;
+                }
+            }
+
+            log.error("Unexpected result from token validation script: {}", result);
+            return false;
+
+        } catch (Exception e) {
+            log.error("Error validating fencing token: resource={}, token={}", resourceKey, fencingToken, e);
+            return false;
+        }
+    }
+
+    /**
+     * Issue a new owner epoch for a saga event partition
+     * Called once per partition assignment by the partition-affine executor
+     */
+    public long generatePartitionEpoch(int partition) {
+        Long epoch = redisTemplate.opsForValue().increment(buildPartitionEpochKey(partition));
+        if (epoch == null) {
+            throw new IllegalStateException("Failed to generate owner epoch for partition " + partition);
+        }
+        return epoch;
+    }
+
+    // ===================== PRESERVE EXISTING METHODS =====================
+
+    /**
+     * Acquire a distributed lock (backward compatibility)
+     */
+    public boolean acquireLock(String lockKey, long ttl, TimeUnit timeUnit) {
+        FencingLockResult result = acquireLockWithFencing(lockKey, ttl, timeUnit);
+        return result.isAcquired();
+    }
+
+    /**
+     * Try to acquire a distributed lock (backward compatibility)
+     */
+    public boolean tryLock(String lockKey, long ttl, TimeUnit timeUnit) {
+        return acquireLock(lockKey, ttl, timeUnit);
+    }
+
+    /**
+     * Try to acquire a lock as a lease: the lock is renewed until the lease is closed,
+     * which releases it. Returns null if the lock is held elsewhere.
+     */
+    public LockLease tryLease(String lockKey, long ttl, TimeUnit timeUnit) {
+        if (!acquireLock(lockKey, ttl, timeUnit)) {
+            return null;
+        }
+        renewUntilReleased(lockKey);
+        return new LockLease(this, lockKey);
+    }
+
+    /**
+     * Keep renewing a lock held by this instance until {@link #releaseLock} is called for it.
+     * The caller must release it in a finally block; {@link #tryLease} does that through close().
+     * The calling thread becomes the lease owner: if it dies without releasing, the watchdog
+     * releases the lock instead of renewing it.
+     */
+    public void renewUntilReleased(String lockKey) {
+        Thread owner = Thread.currentThread();
+        if (heldLocks.computeIfPresent(lockKey, (key, held) -> held.leased(owner)) == null) {
+            throw new IllegalStateException("Lock not held by this instance: " + lockKey);
+        }
+    }
+
+    /**
+     * Release a distributed lock
+     */
+    public boolean releaseLock(String lockKey) {
+        HeldLock held = heldLocks.remove(lockKey);
+        if (held == null) {
+            log.warn("Attempted to release lock not held by this instance: key={}", lockKey);
+            return false;
+        }
+        lockMetrics.recordHold(lockKey, held.acquiredAtMillis());
+
+        try {
+            Long result = redisTemplate.execute(RedisLockScripts.RELEASE_LOCK,
+                    Collections.singletonList(lockKey), held.value());
+
+            boolean released = result != null && result == 1L;
+            if (released) {
+                log.info("Lock released successfully: key={}", lockKey);
+            } else {
+                log.warn("Failed to release lock (not owned by this instance): key={}", lockKey);
+            }
+
+            return released;
+
+        } catch (Exception e) {
+            log.error("Error releasing lock: key={}", lockKey, e);
+            return false;
+        }
+    }
+
+    /**
+     * Check if a lock is currently held
+     */
+    public boolean isLocked(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            log.error("Error checking lock status: key={}", lockKey, e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the current lock holder information
+     */
+    public String getLockHolder(String lockKey) {
+        try {
+            return redisTemplate.opsForValue().get(lockKey);
+        } catch (Exception e) {
+            log.error("Error getting lock holder: key={}", lockKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Extend an existing lock TTL
+     */
+    public boolean extendLock(String lockKey, long ttl, TimeUnit timeUnit) {
+        HeldLock held = heldLocks.get(lockKey);
+        if (held == null) {
+            return false;
+        }
+
+        try {
+            Long result = redisTemplate.execute(RedisLockScripts.EXTEND_LOCK,
+                    Collections.singletonList(lockKey),
+                    held.value(),
+                    String.valueOf(timeUnit.toSeconds(ttl)));
+
+            boolean extended = result != null && result == 1L;
+            if (extended) {
+                heldLocks.replace(lockKey, held, held.renewed(timeUnit.toSeconds(ttl)));
+                log.info("Lock extended successfully: key={}, new_ttl={}s", lockKey, timeUnit.toSeconds(ttl));
+            } else if (result != null) {
+                // The lock expired or was taken over; it is no longer ours
+                heldLocks.remove(lockKey, held);
+            }
+
+            return extended;
+
+        } catch (Exception e) {
+            log.error("Error extending lock: key={}", lockKey, e);
+            return false;
+        }
+    }
+
+    /**
+     * Release several locks held by this instance in one pipelined round trip
+     * Returns the number of locks actually released
+     */
+    public int releaseLocks(Collection<String> lockKeys) {
+        List<String> keys = new ArrayList<>();
+        List<byte[][]> calls = new ArrayList<>();
+        for (String lockKey : lockKeys) {
+            HeldLock held = heldLocks.remove(lockKey);
+            if (held != null) {
+                lockMetrics.recordHold(lockKey, held.acquiredAtMillis());
+                keys.add(lockKey);
+                calls.add(new byte[][]{bytes(lockKey), bytes(held.value())});
+            }
+        }
+
+        int released = countSuccesses(keys, pipelineScript(RedisLockScripts.RELEASE_LOCK, calls));
+        log.info("Released {}/{} locks in one pipeline", released, keys.size());
+        return released;
+    }
+
+    /**
+     * Extend several locks held by this instance in one pipelined round trip
+     * Returns the keys that were extended; the others are no longer held
+     */
+    public Set<String> extendLocks(Collection<String> lockKeys, long ttl, TimeUnit timeUnit) {
+        long ttlSeconds = timeUnit.toSeconds(ttl);
+        List<String> keys = new ArrayList<>();
+        List<HeldLock> values = new ArrayList<>();
+        List<byte[][]> calls = new ArrayList<>();
+        for (String lockKey : lockKeys) {
+            HeldLock held = heldLocks.get(lockKey);
+            if (held != null) {
+                keys.add(lockKey);
+                values.add(held);
+                calls.add(new byte[][]{bytes(lockKey), bytes(held.value()), bytes(String.valueOf(ttlSeconds))});
+            }
+        }
+
+        List<Object> results = pipelineScript(RedisLockScripts.EXTEND_LOCK, calls);
+        Set<String> extended = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object result = results != null && i < results.size() ? results.get(i) : null;
+            if (result instanceof Number number && number.longValue() == 1L) {
+                heldLocks.replace(keys.get(i), values.get(i), values.get(i).renewed(ttlSeconds));
+                extended.add(keys.get(i));
+            } else if (result instanceof Number) {
+                heldLocks.remove(keys.get(i), values.get(i));
+            }
+        }
+        return extended;
+    }
+
+    /**
+     * Lease renewal tick, called by {@link LockLeaseWatchdog}: every leased lock past half its
+     * TTL is extended by its original TTL, all in one pipeline. A lock stops being renewed
+     * once it is released (its lease closed) or, as a guard against a lease that is never
+     * closed, once it has been held for maxHoldMillis; it then simply expires.
+     * A lease whose owner thread has died is released right away.
+     * Returns the number of renewed locks.
+     */
+    public int renewExpiringLocks(long maxHoldMillis) {
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>();
+        List<HeldLock> values = new ArrayList<>();
+        List<byte[][]> calls = new ArrayList<>();
+        List<byte[][]> releaseCalls = new ArrayList<>();
+
+        for (Map.Entry<String, HeldLock> entry : heldLocks.entrySet()) {
+            String lockKey = entry.getKey();
+            HeldLock held = entry.getValue();
+            if (held.expiresAtMillis() <= now) {
+                heldLocks.remove(lockKey, held);
+                continue;
+            }
+            if (held.renewable() && held.owner() != null && !held.owner().isAlive()) {
+                if (heldLocks.remove(lockKey, held)) {
+                    log.warn("Releasing lease whose owner thread died: key={}, owner={}",
+                            lockKey, held.owner().getName());
+                    lockMetrics.recordHold(lockKey, held.acquiredAtMillis());
+                    releaseCalls.add(new byte[][]{bytes(lockKey), bytes(held.value())});
+                }
+                continue;
+            }
+            if (!held.renewable() || held.expiresAtMillis() - now > TimeUnit.SECONDS.toMillis(held.ttlSeconds()) / 2) {
+                continue;
+            }
+            if (now - held.acquiredAtMillis() >= maxHoldMillis) {
+                log.warn("Stopped renewing lock held past the maximum hold time: key={}, heldMs={}",
+                        lockKey, now - held.acquiredAtMillis());
+                heldLocks.replace(lockKey, held, held.withoutRenewal());
+                continue;
+            }
+            keys.add(lockKey);
+            values.add(held);
+            calls.add(new byte[][]{bytes(lockKey), bytes(held.value()), bytes(String.valueOf(held.ttlSeconds()))});
+        }
+
+        List<Object> results = pipelineScript(RedisLockScripts.EXTEND_LOCK, calls);
+        int renewed = 0;
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            HeldLock held = values.get(i);
+            if (results.get(i) instanceof Number number && number.longValue() == 1L) {
+                heldLocks.replace(keys.get(i), held, held.renewed(held.ttlSeconds()));
+                renewed++;
+            } else if (results.get(i) instanceof Number) {
+                log.warn("Lock lost before renewal: key={}", keys.get(i));
+                heldLocks.remove(keys.get(i), held);
+            }
+        }
+        if (!releaseCalls.isEmpty()) {
+            pipelineScript(RedisLockScripts.RELEASE_LOCK, releaseCalls);
+        }
+        lockMetrics.recordRenewals(renewed);
+        return renewed;
+    }
+
+    /**
+     * Get all locks held by this service instance, from the local registry
+     * Entries whose TTL has passed are dropped here, since Redis has expired them too
+     */
+    public Set<String> getLocksHeldByThisInstance() {
+        long now = System.currentTimeMillis();
+        heldLocks.entrySet().removeIf(entry -> entry.getValue().expiresAtMillis() <= now);
+        return Set.copyOf(heldLocks.keySet());
+    }
+
+    /**
+     * Release all locks held by this service instance
+     */
+    public void releaseAllLocksForInstance() {
+        try {
+            Set<String> locks = getLocksHeldByThisInstance();
+            int released = releaseLocks(locks);
+            log.info("Released {} of {} locks during shutdown", released, locks.size());
+        } catch (Exception e) {
+            log.error("Error releasing locks during shutdown", e);
+        }
+    }
+
+    /**
+     * Cross-instance audit of all lock keys: SCAN in batches, one MGET per batch.
+     * Also compares this instance's locks in Redis with the local registry.
+     */
+    public LockAudit auditLocks() {
+        Map<String, Integer> locksByInstance = new HashMap<>();
+        Set<String> ownInRedis = new HashSet<>();
+        int total = 0;
+
+        ScanOptions options = ScanOptions.scanOptions().match(LOCK_KEY_PATTERN).count(AUDIT_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(AUDIT_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (!key.endsWith(FENCING_TOKEN_SUFFIX)) {
+                    batch.add(key);
+                }
+                if (batch.size() == AUDIT_BATCH_SIZE || (!cursor.hasNext() && !batch.isEmpty())) {
+                    total += auditBatch(batch, locksByInstance, ownInRedis);
+                    batch.clear();
+                }
+            }
+        }
+
+        Set<String> tracked = getLocksHeldByThisInstance();
+        Set<String> untracked = new HashSet<>(ownInRedis);
+        untracked.removeAll(tracked);
+        Set<String> lost = new HashSet<>(tracked);
+        lost.removeAll(ownInRedis);
+        return new LockAudit(total, locksByInstance, untracked, lost);
+    }
+
+    private int auditBatch(List<String> keys, Map<String, Integer> locksByInstance, Set<String> ownInRedis) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return 0;
+        }
+
+        int found = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            found++;
+            int separator = value.indexOf(':');
+            String owner = separator > 0 ? value.substring(0, separator) : value;
+            locksByInstance.merge(owner, 1, Integer::sum);
+            if (owner.equals(serviceInstanceId)) {
+                ownInRedis.add(keys.get(i));
+            }
+        }
+        return found;
+    }
+
+    public String getServiceInstanceId() {
+        return serviceInstanceId;
+    }
+
+    // ===================== Lock Key Builders =====================
+
+    public static String buildPaymentLockKey(String orderId) {
+        return "saga:lock:order:" + orderId + ":payment";
+    }
+
+    public static String buildOrderLockKey(String orderId) {
+        return "saga:lock:order:" + orderId + ":order";
+    }
+
+    public static String buildSagaLockKey(String sagaId) {
+        return "saga:lock:saga:" + sagaId;
+    }
+
+    public static String buildPartitionEpochKey(int partition) {
+        return "saga:partition:epoch:" + partition;
+    }
+
+    public static String buildArchiverLockKey() {
+        return "saga:lock:archiver";
+    }
+
+    // ===================== PHASE 3: Fencing Token Key Builders =====================
+
+    /**
+     * Build fencing token key for lock-based tokens
+     */
+    private String buildFencingTokenKey(String lockKey) {
+        return lockKey + ":token";
+    }
+
+    /**
+     * Build resource token key for operation validation
+     */
+    private String buildResourceTokenKey(String resourceKey) {
+        return "saga:token:resource:" + resourceKey;
+    }
+
+    /**
+     * Build payment resource token key
+     */
+    public static String buildPaymentResourceTokenKey(String orderId) {
+        return "saga:token:resource:payment:" + orderId;
+    }
+
+    /**
+     * Build order resource token key
+     */
+    public static String buildOrderResourceTokenKey(String orderId) {
+        return "saga:token:resource:order:" + orderId;
+    }
+
+    // ===================== Helper Methods =====================
+
+    /**
+     * EVALSHA one script once per call in a single pipeline; one key per call
+     * On NOSCRIPT the scripts are loaded again and the pipeline is retried once
+     */
+    private List<Object> pipelineScript(RedisScript<?> script, List<byte[][]> calls) {
+        if (calls.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return executeScriptPipeline(script, calls);
+        } catch (Exception e) {
+            if (!RedisLockScripts.isNoScriptError(e)) {
+                log.error("Error executing pipelined lock script for {} keys", calls.size(), e);
+                return Collections.emptyList();
+            }
+            log.warn("Lock scripts missing from Redis, reloading");
+            try {
+                redisLockScripts.load();
+                return executeScriptPipeline(script, calls);
+            } catch (Exception retryError) {
+                log.error("Error executing pipelined lock script after reload", retryError);
+                return Collections.emptyList();
+            }
+        }
+    }
+
+    private List<Object> executeScriptPipeline(RedisScript<?> script, List<byte[][]> calls) {
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisScriptingCommands scripting = connection.scriptingCommands();
+            for (byte[][] keysAndArgs : calls) {
+                scripting.evalSha(script.getSha1(), ReturnType.INTEGER, 1, keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    private static int countSuccesses(List<String> keys, List<Object> results) {
+        int count = 0;
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            if (results.get(i) instanceof Number number && number.longValue() == 1L) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A lock acquired by this instance: the value it was set with, its TTL and local expiry,
+     * whether the watchdog renews it (only while it is leased) and the thread that leased it
+     */
+    private record HeldLock(String value, long ttlSeconds, long acquiredAtMillis, long expiresAtMillis,
+                            boolean renewable, Thread owner) {
+
+        static HeldLock acquired(String value, long ttlSeconds) {
+            long now = System.currentTimeMillis();
+            return new HeldLock(value, ttlSeconds, now, now + TimeUnit.SECONDS.toMillis(ttlSeconds), false, null);
+        }
+
+        HeldLock renewed(long newTtlSeconds) {
+            return new HeldLock(value, ttlSeconds, acquiredAtMillis,
+                    System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(newTtlSeconds), renewable, owner);
+        }
+
+        HeldLock leased(Thread leaseOwner) {
+            return new HeldLock(value, ttlSeconds, acquiredAtMillis, expiresAtMillis, true, leaseOwner);
+        }
+
+        HeldLock withoutRenewal() {
+            return new HeldLock(value, ttlSeconds, acquiredAtMillis, expiresAtMillis, false, owner);
+        }
+    }
+
+    /**
+     * Result of a cross-instance lock audit
+     * untrackedOwnLocks: in Redis under this instance's id but not in the registry
+     * lostOwnLocks: in the registry but gone from Redis (expired or taken over)
+     */
+    public record LockAudit(int totalLocks, Map<String, Integer> locksByInstance,
+                            Set<String> untrackedOwnLocks, Set<String> lostOwnLocks) {
+    }
+}
\ No newline at end of file
@@ -1,4 +1,4 @@
-package com.graduation.sagaorchestratorservice.model;
+package com.graduation.sagacoordination.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +13,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class FencingLockResult {
 
+    /**
+     * Fencing token of a result that carries none; issued tokens start at 1
+     */
+    public static final long NO_TOKEN = 0L;
+
     /**
      * Whether the lock was successfully acquired
      */
@@ -22,7 +27,7 @@ public class FencingLockResult {
      * The fencing token - a unique, monotonically increasing number
      * This token must be passed to all resource operations to prevent stale operations
      */
-    private String fencingToken;
+    private long fencingToken;
 
     /**
      * The lock key that was acquired
@@ -42,7 +47,7 @@ public class FencingLockResult {
     /**
      * Factory method for successful lock acquisition
      */
-    public static FencingLockResult success(String lockKey, String fencingToken, String lockValue) {
+    public static FencingLockResult success(String lockKey, long fencingToken, String lockValue) {
         return new FencingLockResult(
                 true,
                 fencingToken,
@@ -58,7 +63,21 @@ public class FencingLockResult {
     public static FencingLockResult failure(String lockKey) {
         return new FencingLockResult(
                 false,
+                NO_TOKEN,
+                lockKey,
                 null,
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * Factory method for a lock that was free but refused because the caller's fencing
+     * token is older than the one already recorded for the resource
+     */
+    public static FencingLockResult staleToken(String lockKey, long fencingToken) {
+        return new FencingLockResult(
+                false,
+                fencingToken,
                 lockKey,
                 null,
                 System.currentTimeMillis()
@@ -66,23 +85,16 @@ public class FencingLockResult {
     }
 
     /**
-     * Check if the lock acquisition was successful and we have a valid fencing token
+     * True if the acquisition was refused because of a stale fencing token
      */
-    public boolean isValid() {
-        return acquired && fencingToken != null && !fencingToken.trim().isEmpty();
+    public boolean isStaleToken() {
+        return !acquired && fencingToken != NO_TOKEN;
     }
 
     /**
-     * Get fencing token as Long for database operations
+     * Check if the lock acquisition was successful and we have a valid fencing token
      */
-    public Long getFencingTokenAsLong() {
-        if (fencingToken == null) {
-            return null;
-        }
-        try {
-            return Long.parseLong(fencingToken);
-        } catch (NumberFormatException e) {
-            return null;
-        }
+    public boolean isValid() {
+        return acquired && fencingToken != NO_TOKEN;
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.graduation.sagacoordination.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of acquiring several distributed locks at once, all-or-nothing
+ * On success every lock has its own fencing token; on failure none is held
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiFencingLockResult {
+
+    /**
+     * Whether all locks were acquired
+     */
+    private boolean acquired;
+
+    /**
+     * Lock keys in canonical (sorted) order
+     */
+    private List<String> lockKeys;
+
+    /**
+     * Fencing token per lock key, empty on failure
+     */
+    private Map<String, Long> fencingTokens;
+
+    /**
+     * The value all locks were set with
+     */
+    private String lockValue;
+
+    /**
+     * First lock key (in canonical order) that was already held, on failure
+     */
+    private String blockedBy;
+
+    public static MultiFencingLockResult success(List<String> lockKeys, Map<String, Long> fencingTokens,
+                                                 String lockValue) {
+        return new MultiFencingLockResult(true, lockKeys, fencingTokens, lockValue, null);
+    }
+
+    public static MultiFencingLockResult failure(List<String> lockKeys, String blockedBy) {
+        return new MultiFencingLockResult(false, lockKeys, Map.of(), null, blockedBy);
+    }
+
+    /**
+     * Fencing token for one of the acquired locks, or {@link FencingLockResult#NO_TOKEN}
+     */
+    public long getFencingToken(String lockKey) {
+        return fencingTokens.getOrDefault(lockKey, FencingLockResult.NO_TOKEN);
+    }
+}
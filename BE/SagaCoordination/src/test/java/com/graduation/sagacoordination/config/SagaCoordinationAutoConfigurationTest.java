@@ -0,0 +1,56 @@
+package com.graduation.sagacoordination.config;
+
+import com.graduation.sagacoordination.lock.LockProvider;
+import com.graduation.sagacoordination.lock.LocksEndpoint;
+import com.graduation.sagacoordination.lock.PostgresAdvisoryLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockProvider;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SagaCoordinationAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(SagaCoordinationAutoConfiguration.class))
+            .withPropertyValues("saga.lock.watchdog.enabled=false")
+            .withBean(StringRedisTemplate.class, () -> mock(StringRedisTemplate.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void registersRedisLockingByDefault() {
+        runner.run(context -> {
+            assertThat(context).hasSingleBean(RedisLockService.class);
+            assertThat(context.getBean(LockProvider.class)).isInstanceOf(RedisLockProvider.class);
+            assertThat(context.getBean(MeterRegistry.class).find("saga.lock.held").gauge()).isNotNull();
+        });
+    }
+
+    @Test
+    void exposesLocksEndpointWhenIncluded() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=locks")
+                .run(context -> assertThat(context).hasSingleBean(LocksEndpoint.class));
+    }
+
+    @Test
+    void switchesToAdvisoryLocksOnProperty() {
+        runner.withPropertyValues("saga.lock.provider=postgres")
+                .withBean(JdbcTemplate.class, () -> mock(JdbcTemplate.class))
+                .run(context -> assertThat(context.getBean(LockProvider.class))
+                        .isInstanceOf(PostgresAdvisoryLockProvider.class));
+    }
+
+    @Test
+    void backsOffWithoutRedis() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(SagaCoordinationAutoConfiguration.class))
+                .run(context -> assertThat(context).doesNotHaveBean(RedisLockService.class));
+    }
+}
@@ -0,0 +1,108 @@
+package com.graduation.sagacoordination.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessedMessageFilterTest {
+
+    private final List<Key> processed = new ArrayList<>();
+    private final List<String> requestedPages = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProcessedMessageFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ProcessedMessageFilter((after, afterMessageId, limit) -> {
+            requestedPages.add(afterMessageId);
+            return processed.stream()
+                    .filter(key -> key.getProcessedAt().isAfter(after)
+                            || (key.getProcessedAt().equals(after) && key.getMessageId().compareTo(afterMessageId) > 0))
+                    .limit(limit)
+                    .toList();
+        }, meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "windowHours", 24L);
+        ReflectionTestUtils.setField(filter, "generationCount", 4);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "recentIdsCapacity", 100);
+        ReflectionTestUtils.setField(filter, "clockSkewSeconds", 300L);
+        ReflectionTestUtils.setField(filter, "catchUpOverlapSeconds", 60L);
+        ReflectionTestUtils.setField(filter, "catchUpPageSize", 2);
+        filter.initialize();
+    }
+
+    @Test
+    void coldFilterNeverAnswersNew() {
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN, filter.check("m1", System.currentTimeMillis()));
+    }
+
+    @Test
+    void warmFilterProvesRecentCommandsNew() {
+        filter.catchUp();
+        long now = System.currentTimeMillis();
+
+        assertEquals(ProcessedMessageFilter.Verdict.NEW, filter.check("m1", now));
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN, filter.check("m1", null));
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN,
+                filter.check("m1", now - Duration.ofHours(25).toMillis()));
+
+        filter.recordProcessed("m1");
+        assertEquals(ProcessedMessageFilter.Verdict.PROCESSED, filter.check("m1", now));
+
+        assertEquals(1, verdictCount(ProcessedMessageFilter.Verdict.NEW));
+        assertEquals(2, verdictCount(ProcessedMessageFilter.Verdict.UNKNOWN));
+        assertEquals(1, verdictCount(ProcessedMessageFilter.Verdict.PROCESSED));
+    }
+
+    @Test
+    void catchUpPagesThroughIdsProcessedElsewhere() {
+        Instant processedAt = Instant.now().minusSeconds(30);
+        processed.add(new Key("a", processedAt));
+        processed.add(new Key("b", processedAt));
+        processed.add(new Key("c", processedAt));
+
+        filter.catchUp();
+
+        assertEquals(List.of("", "b"), requestedPages);
+        long now = System.currentTimeMillis();
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN, filter.check("a", now));
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN, filter.check("c", now));
+    }
+
+    @Test
+    void catchUpLoadsStepKeysAlongsideMessageIds() {
+        String stepKey = ProcessedMessageFilter.stepKey("SAGA_1", 2, "PROCESS_PAYMENT");
+        processed.add(new Key("a", Instant.now().minusSeconds(30), stepKey));
+
+        filter.catchUp();
+
+        long now = System.currentTimeMillis();
+        assertEquals(ProcessedMessageFilter.Verdict.UNKNOWN, filter.check(stepKey, now));
+        assertEquals(ProcessedMessageFilter.Verdict.NEW,
+                filter.check(ProcessedMessageFilter.stepKey("SAGA_1", 3, "PROCESS_PAYMENT"), now));
+    }
+
+    private double verdictCount(ProcessedMessageFilter.Verdict verdict) {
+        return meterRegistry.get(ProcessedMessageFilter.METRIC_FILTER_CHECKS)
+                .tag(ProcessedMessageFilter.TAG_VERDICT, verdict.name())
+                .counter().count();
+    }
+
+    private record Key(String getMessageId, Instant getProcessedAt, String getStepKey)
+            implements ProcessedMessageFilter.ProcessedKey {
+
+        Key(String messageId, Instant processedAt) {
+            this(messageId, processedAt, null);
+        }
+    }
+}
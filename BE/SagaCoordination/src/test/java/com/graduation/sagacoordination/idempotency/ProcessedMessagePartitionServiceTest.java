@@ -0,0 +1,46 @@
+package com.graduation.sagacoordination.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProcessedMessagePartitionServiceTest {
+
+    private final ProcessedMessagePartitionService service = new ProcessedMessagePartitionService(
+            null, null, "processed_messages", Map.of(), Duration.ofHours(30), 7, true);
+
+    @Test
+    void keepsSentTimestampInsideRetainedRange() {
+        long sentAt = Instant.now().minus(Duration.ofHours(2)).toEpochMilli();
+
+        // Every delivery of the message maps to the same key
+        assertEquals(Instant.ofEpochMilli(sentAt), service.partitionKey(sentAt));
+        assertEquals(service.partitionKey(sentAt), service.partitionKey(sentAt));
+    }
+
+    @Test
+    void rejectsMissingOrOutOfRangeTimestamp() {
+        Instant now = Instant.now();
+
+        assertThrows(IllegalArgumentException.class, () -> service.partitionKey(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.partitionKey(now.minus(Duration.ofDays(3)).toEpochMilli()));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.partitionKey(now.plus(Duration.ofDays(3)).toEpochMilli()));
+    }
+
+    @Test
+    void readsUpperBoundFromPartitionName() {
+        assertEquals(LocalDate.of(2026, 1, 2), service.upperBoundOf("processed_messages_p20260101"));
+        assertEquals(LocalDate.of(2026, 1, 3), service.upperBoundOf("processed_messages_legacy_20260103"));
+        assertNull(service.upperBoundOf("processed_messages_pnotadate"));
+        assertNull(service.upperBoundOf("other_table"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.graduation.sagacoordination.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LockLeaseWatchdogTest {
+
+    @Mock
+    private RedisLockService redisLockService;
+
+    @InjectMocks
+    private LockLeaseWatchdog watchdog;
+
+    @AfterEach
+    void tearDown() {
+        watchdog.stop();
+    }
+
+    @Test
+    void renewsOnEveryTickWithMaxHoldInMillis() {
+        configure(true);
+        when(redisLockService.renewExpiringLocks(anyLong())).thenThrow(new IllegalStateException("redis down"))
+                .thenReturn(1);
+
+        watchdog.start();
+
+        // A failed tick does not stop the schedule
+        verify(redisLockService, timeout(2000).atLeast(3)).renewExpiringLocks(120_000L);
+    }
+
+    @Test
+    void disabledWatchdogNeverRenews() {
+        configure(false);
+
+        watchdog.start();
+
+        verify(redisLockService, after(100).never()).renewExpiringLocks(anyLong());
+    }
+
+    private void configure(boolean enabled) {
+        ReflectionTestUtils.setField(watchdog, "enabled", enabled);
+        ReflectionTestUtils.setField(watchdog, "intervalMs", 10L);
+        ReflectionTestUtils.setField(watchdog, "maxHoldSeconds", 120L);
+    }
+}
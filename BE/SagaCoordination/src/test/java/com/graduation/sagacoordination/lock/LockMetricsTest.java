@@ -0,0 +1,111 @@
+package com.graduation.sagacoordination.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockMetricsTest {
+
+    @Test
+    void derivesNamespaceAndResourceIdFromLockKeys() {
+        String paymentKey = RedisLockService.buildPaymentLockKey("42");
+        String orderKey = RedisLockService.buildOrderLockKey("42");
+        String sagaKey = RedisLockService.buildSagaLockKey("SAGA_1");
+
+        assertEquals(LockMetrics.Namespace.PAYMENT, LockMetrics.Namespace.of(paymentKey));
+        assertEquals("42", LockMetrics.Namespace.PAYMENT.resourceId(paymentKey));
+        assertEquals(LockMetrics.Namespace.ORDER, LockMetrics.Namespace.of(orderKey));
+        assertEquals("42", LockMetrics.Namespace.ORDER.resourceId(orderKey));
+        assertEquals(LockMetrics.Namespace.SAGA, LockMetrics.Namespace.of(sagaKey));
+        assertEquals("SAGA_1", LockMetrics.Namespace.SAGA.resourceId(sagaKey));
+        assertEquals(LockMetrics.Namespace.OTHER, LockMetrics.Namespace.of(RedisLockService.buildArchiverLockKey()));
+    }
+
+    @Test
+    void recordsWaitFromFirstRefusedAttempt() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LockMetrics metrics = new LockMetrics(registry, 16, Duration.ofMinutes(10));
+        String key = RedisLockService.buildSagaLockKey("SAGA_1");
+
+        metrics.recordAcquire(key, LockMetrics.Outcome.BUSY, System.nanoTime());
+        Thread.sleep(20);
+        metrics.recordAcquire(key, LockMetrics.Outcome.ACQUIRED, System.nanoTime());
+
+        double waitedMs = registry.get(LockMetrics.METRIC_LOCK_WAIT)
+                .tag(LockMetrics.TAG_NAMESPACE, "saga").timer().max(TimeUnit.MILLISECONDS);
+        assertTrue(waitedMs >= 20, "wait should span the refused attempt, was " + waitedMs);
+        assertEquals(List.of(new HotKeyTracker.HotKey("SAGA_1", 1, 0)),
+                metrics.hotKeys(LockMetrics.Namespace.SAGA, 5));
+    }
+
+    @Test
+    void hotKeyTrackerKeepsHeavyHittersWithinCapacity() {
+        HotKeyTracker tracker = new HotKeyTracker(4, Duration.ofMinutes(10).toMillis());
+        for (int i = 0; i < 100; i++) {
+            tracker.record("hot");
+            tracker.record("cold-" + i);
+        }
+
+        List<HotKeyTracker.HotKey> top = tracker.top(2);
+        assertEquals(2, top.size());
+        assertEquals("hot", top.get(0).id());
+        assertEquals(100, top.get(0).count());
+    }
+
+    @Test
+    void hotKeyTrackerReplacesLowestCountAndInheritsItAsError() {
+        HotKeyTracker tracker = new HotKeyTracker(2, Duration.ofMinutes(10).toMillis());
+        tracker.record("a");
+        tracker.record("a");
+        tracker.record("a");
+        tracker.record("b");
+        tracker.record("c");
+
+        assertEquals(List.of(new HotKeyTracker.HotKey("a", 3, 0), new HotKeyTracker.HotKey("c", 2, 1)),
+                tracker.top(5));
+        tracker.record("c");
+        tracker.record("c");
+        assertEquals(new HotKeyTracker.HotKey("c", 4, 1), tracker.top(1).get(0));
+    }
+
+    @Test
+    void hotKeyTrackerHalvesCountsEveryWindow() throws InterruptedException {
+        HotKeyTracker tracker = new HotKeyTracker(4, 50);
+        for (int i = 0; i < 6; i++) {
+            tracker.record("hot");
+        }
+        tracker.record("once");
+        Thread.sleep(60);
+
+        assertEquals(List.of(new HotKeyTracker.HotKey("hot", 3, 0)), tracker.top(5));
+    }
+
+    @Test
+    void hotKeyTrackerEvictsLowestCountAfterDecay() throws InterruptedException {
+        HotKeyTracker tracker = new HotKeyTracker(3, 50);
+        record(tracker, "a", 2);
+        record(tracker, "b", 3);
+        record(tracker, "c", 8);
+        Thread.sleep(60);
+
+        // a and b both halve to 1 and share a bucket with c=4 above it
+        record(tracker, "a", 1);
+        record(tracker, "d", 4);
+
+        // d replaces b, the lowest count, not a
+        assertEquals(List.of(new HotKeyTracker.HotKey("d", 5, 1), new HotKeyTracker.HotKey("c", 4, 0),
+                new HotKeyTracker.HotKey("a", 2, 0)), tracker.top(5));
+    }
+
+    private static void record(HotKeyTracker tracker, String id, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(id);
+        }
+    }
+}
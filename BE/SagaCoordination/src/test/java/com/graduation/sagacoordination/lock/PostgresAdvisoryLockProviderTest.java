@@ -0,0 +1,88 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostgresAdvisoryLockProviderTest {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtextextended(?, 0))";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PostgresAdvisoryLockProvider provider = new PostgresAdvisoryLockProvider(
+            jdbcTemplate, new LockMetrics(registry, 16, Duration.ofMinutes(10)));
+    private final String lockKey = RedisLockService.buildOrderLockKey("42");
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void recordsAcquisitionAndHoldUntilTransactionCompletes() {
+        when(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, lockKey)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(7L);
+
+        FencingLockResult result = provider.acquire(lockKey, 30, TimeUnit.SECONDS, "42", null);
+
+        assertTrue(result.isAcquired());
+        assertEquals(1, acquireCount("acquired"));
+        assertEquals(0, registry.get(LockMetrics.METRIC_LOCK_HOLD).tag(LockMetrics.TAG_NAMESPACE, "order").timer().count());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(1, registry.get(LockMetrics.METRIC_LOCK_HOLD).tag(LockMetrics.TAG_NAMESPACE, "order").timer().count());
+    }
+
+    @Test
+    void recordsBusyAsContention() {
+        when(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, lockKey)).thenReturn(false);
+
+        FencingLockResult result = provider.acquire(lockKey, 30, TimeUnit.SECONDS, "42", null);
+
+        assertFalse(result.isAcquired());
+        assertEquals(1, acquireCount("busy"));
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void recordsFailedQueryAsError() {
+        when(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, lockKey)).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> provider.acquire(lockKey, 30, TimeUnit.SECONDS, "42", null));
+        assertEquals(1, acquireCount("error"));
+    }
+
+    private long acquireCount(String outcome) {
+        return registry.get(LockMetrics.METRIC_LOCK_ACQUIRE)
+                .tag(LockMetrics.TAG_NAMESPACE, "order")
+                .tag(LockMetrics.TAG_OUTCOME, outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,74 @@
+package com.graduation.sagacoordination.lock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockScriptsTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisScriptingCommands scripting;
+
+    @InjectMocks
+    private RedisLockScripts redisLockScripts;
+
+    @Test
+    void loadSendsEveryScriptOnOneConnection() {
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRedis(connection);
+        });
+
+        redisLockScripts.load();
+
+        ArgumentCaptor<byte[]> scripts = ArgumentCaptor.forClass(byte[].class);
+        verify(scripting, times(7)).scriptLoad(scripts.capture());
+        List<String> loaded = scripts.getAllValues().stream()
+                .map(script -> new String(script, StandardCharsets.UTF_8)).toList();
+        assertTrue(loaded.contains(RedisLockScripts.RELEASE_LOCK.getScriptAsString()));
+        assertTrue(loaded.contains(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING.getScriptAsString()));
+    }
+
+    @Test
+    void preloadFailureIsNotFatal() {
+        when(redisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisSystemException("down", null));
+
+        assertDoesNotThrow(redisLockScripts::preload);
+    }
+
+    @Test
+    void noScriptIsDetectedInNestedCauses() {
+        assertTrue(RedisLockScripts.isNoScriptError(new RedisSystemException("Error in execution",
+                new IllegalStateException("NOSCRIPT No matching script. Please use EVAL."))));
+        assertFalse(RedisLockScripts.isNoScriptError(new RedisSystemException("Error in execution",
+                new IllegalStateException("ERR wrong number of arguments"))));
+        assertFalse(RedisLockScripts.isNoScriptError(new IllegalStateException()));
+    }
+}
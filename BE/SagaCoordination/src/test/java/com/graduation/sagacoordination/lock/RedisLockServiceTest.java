@@ -0,0 +1,391 @@
+package com.graduation.sagacoordination.lock;
+
+import com.graduation.sagacoordination.model.FencingLockResult;
+import com.graduation.sagacoordination.model.MultiFencingLockResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockServiceTest {
+
+    private static final String KEY = RedisLockService.buildSagaLockKey("SAGA_1");
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisLockScripts redisLockScripts;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisScriptingCommands scripting;
+
+    private RedisLockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        lockService = new RedisLockService(redisTemplate, redisLockScripts,
+                new LockMetrics(new SimpleMeterRegistry(), 16, Duration.ofMinutes(10)));
+        lockService.bindMetrics();
+    }
+
+    @Test
+    void acquiredLockIsTrackedAndReleasedWithItsValue() {
+        acquire(KEY, 30);
+        assertEquals(Set.of(KEY), lockService.getLocksHeldByThisInstance());
+
+        when(redisTemplate.execute(eq(RedisLockScripts.RELEASE_LOCK), anyList(), any())).thenReturn(1L);
+        assertTrue(lockService.releaseLock(KEY));
+
+        ArgumentCaptor<Object> value = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(eq(RedisLockScripts.RELEASE_LOCK), eq(List.of(KEY)), value.capture());
+        assertTrue(value.getValue().toString().startsWith(lockService.getServiceInstanceId() + ":"));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void releasingUntrackedLockSkipsRedis() {
+        assertFalse(lockService.releaseLock(KEY));
+        verify(redisTemplate, never()).execute(eq(RedisLockScripts.RELEASE_LOCK), anyList(), any());
+    }
+
+    @Test
+    void busyLockIsNotTracked() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(Arrays.asList(0L, null));
+
+        assertFalse(lockService.tryLock(KEY, 30, TimeUnit.SECONDS));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void lostLockIsDroppedWhenExtendFails() {
+        acquire(KEY, 30);
+        when(redisTemplate.execute(eq(RedisLockScripts.EXTEND_LOCK), anyList(), any(), any())).thenReturn(0L);
+
+        assertFalse(lockService.extendLock(KEY, 30, TimeUnit.SECONDS));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void expiredEntriesAreDroppedFromListing() {
+        acquire(KEY, 0);
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void auditComparesRedisWithRegistry() {
+        String lost = RedisLockService.buildSagaLockKey("SAGA_2");
+        String untracked = RedisLockService.buildSagaLockKey("SAGA_3");
+        String foreign = RedisLockService.buildOrderLockKey("9");
+        acquire(KEY, 30);
+        acquire(lost, 30);
+
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        Iterator<String> keys = List.of(KEY, KEY + ":token", untracked, foreign, lost).iterator();
+        when(cursor.hasNext()).thenAnswer(invocation -> keys.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> keys.next());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        String own = lockService.getServiceInstanceId() + ":1";
+        when(valueOperations.multiGet(List.of(KEY, untracked, foreign, lost)))
+                .thenReturn(Arrays.asList(own, own, "other:1", null));
+
+        RedisLockService.LockAudit audit = lockService.auditLocks();
+
+        assertEquals(3, audit.totalLocks());
+        assertEquals(Map.of(lockService.getServiceInstanceId(), 2, "other", 1), audit.locksByInstance());
+        assertEquals(Set.of(untracked), audit.untrackedOwnLocks());
+        assertEquals(Set.of(lost), audit.lostOwnLocks());
+    }
+
+    @Test
+    void releaseLocksPipelinesOneEvalShaPerTrackedKey() {
+        String other = RedisLockService.buildSagaLockKey("SAGA_2");
+        acquire(KEY, 30);
+        acquire(other, 30);
+        pipelineReturns(List.of(1L, 1L));
+
+        assertEquals(2, lockService.releaseLocks(List.of(KEY, other, RedisLockService.buildArchiverLockKey())));
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(scripting, times(2)).evalSha(eq(RedisLockScripts.RELEASE_LOCK.getSha1()), eq(ReturnType.INTEGER),
+                eq(1), any(byte[].class), any(byte[].class));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void extendLocksKeepsOnlyKeysThatAreStillOwned() {
+        String lost = RedisLockService.buildSagaLockKey("SAGA_2");
+        acquire(KEY, 30);
+        acquire(lost, 30);
+        pipelineReturns(List.of(1L, 0L));
+
+        Set<String> extended = lockService.extendLocks(List.of(KEY, lost), 30, TimeUnit.SECONDS);
+
+        assertEquals(Set.of(KEY), extended);
+        assertEquals(Set.of(KEY), lockService.getLocksHeldByThisInstance());
+    }
+
+    @Test
+    void pipelineIsRetriedOnceAfterReloadingScriptsOnNoScript() {
+        acquire(KEY, 30);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisSystemException("Error in execution",
+                        new IllegalStateException("NOSCRIPT No matching script")))
+                .thenReturn(List.of(1L));
+
+        assertEquals(1, lockService.releaseLocks(List.of(KEY)));
+        verify(redisLockScripts).load();
+    }
+
+    @Test
+    void otherPipelineFailuresAreNotRetried() {
+        acquire(KEY, 30);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisSystemException("Connection reset", new IllegalStateException("reset")));
+
+        assertEquals(0, lockService.releaseLocks(List.of(KEY)));
+        verify(redisLockScripts, never()).load();
+    }
+
+    @Test
+    void onlyOpenLeasesPastHalfTheirTtlAreRenewed() throws InterruptedException {
+        String plain = RedisLockService.buildSagaLockKey("SAGA_2");
+        String closed = RedisLockService.buildSagaLockKey("SAGA_3");
+        LockLease lease = lease(KEY, 1);
+        acquire(plain, 1);
+        when(redisTemplate.execute(eq(RedisLockScripts.RELEASE_LOCK), anyList(), any())).thenReturn(1L);
+        lease(closed, 1).close();
+        pipelineReturns(List.of(1L));
+
+        Thread.sleep(600);
+        assertEquals(1, lockService.renewExpiringLocks(TimeUnit.MINUTES.toMillis(10)));
+
+        ArgumentCaptor<byte[]> renewedKey = ArgumentCaptor.forClass(byte[].class);
+        verify(scripting).evalSha(eq(RedisLockScripts.EXTEND_LOCK.getSha1()), eq(ReturnType.INTEGER), eq(1),
+                renewedKey.capture(), any(byte[].class), any(byte[].class));
+        assertEquals(KEY, new String(renewedKey.getValue(), StandardCharsets.UTF_8));
+
+        lease.close();
+        assertFalse(lease.release());
+        assertEquals(Set.of(plain), lockService.getLocksHeldByThisInstance());
+    }
+
+    @Test
+    void leaseHeldPastMaxHoldIsNoLongerRenewed() throws InterruptedException {
+        lease(KEY, 1);
+
+        Thread.sleep(600);
+        assertEquals(0, lockService.renewExpiringLocks(0));
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void leaseOfDeadOwnerThreadIsReleasedInsteadOfRenewed() throws InterruptedException {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 7L));
+        Thread owner = new Thread(() -> lockService.tryLease(KEY, 30, TimeUnit.SECONDS));
+        owner.start();
+        owner.join();
+        pipelineReturns(List.of(1L));
+
+        assertEquals(0, lockService.renewExpiringLocks(TimeUnit.MINUTES.toMillis(10)));
+
+        verify(scripting).evalSha(eq(RedisLockScripts.RELEASE_LOCK.getSha1()), eq(ReturnType.INTEGER), eq(1),
+                any(byte[].class), any(byte[].class));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void leaseIsNotOpenedForBusyLock() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(Arrays.asList(0L, null));
+
+        assertNull(lockService.tryLease(KEY, 30, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> lockService.renewUntilReleased(KEY));
+    }
+
+    @Test
+    void fenceScriptGetsLockTokenCounterAndResourceKeysWithSuppliedToken() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), any(), any()))
+                .thenReturn(List.of(1L, 12L, 11L));
+
+        FencingLockResult result = lockService.acquireLockWithFencingToken(KEY, 30, TimeUnit.SECONDS, "order:42", 12L);
+
+        assertTrue(result.isAcquired());
+        assertEquals(12L, result.getFencingToken());
+        verify(redisTemplate).execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE),
+                eq(List.of(KEY, KEY + ":token", "saga:token:resource:order:42")),
+                any(), eq("30"), eq("12"));
+        assertEquals(Set.of(KEY), lockService.getLocksHeldByThisInstance());
+    }
+
+    @Test
+    void fenceScriptIssuesTokenWhenNoneIsSupplied() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), any(), any()))
+                .thenReturn(List.of(1L, 5L, 4L));
+
+        FencingLockResult result = lockService.acquireLockIssuingToken(KEY, 30, TimeUnit.SECONDS, "order:42");
+
+        assertEquals(5L, result.getFencingToken());
+        verify(redisTemplate).execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), eq("30"), eq(""));
+    }
+
+    @Test
+    void staleTokenReplyIsReportedAndNotTracked() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), any(), any()))
+                .thenReturn(List.of(2L, 3L, 9L));
+
+        FencingLockResult result = lockService.acquireLockWithFencingToken(KEY, 30, TimeUnit.SECONDS, "order:42", 3L);
+
+        assertFalse(result.isAcquired());
+        assertTrue(result.isStaleToken());
+        assertEquals(3L, result.getFencingToken());
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    @Test
+    void heldLockReplyIsBusy() {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), any(), any()))
+                .thenReturn(List.of(0L));
+
+        FencingLockResult result = lockService.acquireLockIssuingToken(KEY, 30, TimeUnit.SECONDS, "order:42");
+
+        assertFalse(result.isAcquired());
+        assertFalse(result.isStaleToken());
+    }
+
+    @Test
+    void nullSuppliedTokenIsRefusedWithoutCallingRedis() {
+        FencingLockResult result = lockService.acquireLockWithFencingToken(KEY, 30, TimeUnit.SECONDS, "order:42", null);
+
+        assertFalse(result.isAcquired());
+        verify(redisTemplate, never()).execute(eq(RedisLockScripts.ACQUIRE_LOCK_AND_FENCE), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void validateTokenReadsValidityFromTheScriptReply() {
+        when(redisTemplate.execute(eq(RedisLockScripts.VALIDATE_TOKEN_AND_EXECUTE),
+                eq(List.of("saga:token:resource:order:42")), eq("7"), eq("validate")))
+                .thenReturn(List.of(1L, 7L, 6L), List.of(0L, 7L, 8L));
+
+        assertTrue(lockService.validateFencingToken("order:42", 7L));
+        assertFalse(lockService.validateFencingToken("order:42", 7L));
+    }
+
+    @Test
+    void multiLockTakesKeysInCanonicalOrderWithTokenCountersAfterThem() {
+        String order = RedisLockService.buildOrderLockKey("42");
+        String payment = RedisLockService.buildPaymentLockKey("42");
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 3L, 8L));
+
+        MultiFencingLockResult result = lockService.tryLockAllWithFencing(
+                List.of(payment, order, payment), 30, TimeUnit.SECONDS);
+
+        assertTrue(result.isAcquired());
+        assertEquals(List.of(order, payment), result.getLockKeys());
+        assertEquals(3L, result.getFencingToken(order));
+        assertEquals(8L, result.getFencingToken(payment));
+        verify(redisTemplate).execute(eq(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING),
+                eq(List.of(order, payment, order + ":token", payment + ":token")), any(), eq("30"));
+        assertEquals(Set.of(order, payment), lockService.getLocksHeldByThisInstance());
+    }
+
+    @Test
+    void multiLockReportsTheFirstHeldKeyAndTracksNothing() {
+        String order = RedisLockService.buildOrderLockKey("42");
+        String payment = RedisLockService.buildPaymentLockKey("42");
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(0L, 2L));
+
+        MultiFencingLockResult result = lockService.tryLockAllWithFencing(List.of(payment, order), 30, TimeUnit.SECONDS);
+
+        assertFalse(result.isAcquired());
+        assertEquals(payment, result.getBlockedBy());
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+        assertEquals(0, lockService.releaseAll(result));
+    }
+
+    @Test
+    void releaseAllReleasesEveryKeyWithTheSharedValueInOneCall() {
+        String order = RedisLockService.buildOrderLockKey("42");
+        String payment = RedisLockService.buildPaymentLockKey("42");
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCKS_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 3L, 8L));
+        MultiFencingLockResult result = lockService.tryLockAllWithFencing(List.of(order, payment), 30, TimeUnit.SECONDS);
+        when(redisTemplate.execute(RedisLockScripts.RELEASE_LOCKS, List.of(order, payment), result.getLockValue()))
+                .thenReturn(2L);
+
+        assertEquals(2, lockService.releaseAll(result));
+        assertTrue(lockService.getLocksHeldByThisInstance().isEmpty());
+    }
+
+    private LockLease lease(String lockKey, long ttlSeconds) {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 7L));
+        LockLease lease = lockService.tryLease(lockKey, ttlSeconds, TimeUnit.SECONDS);
+        assertNotNull(lease);
+        return lease;
+    }
+
+    private void pipelineReturns(List<Object> results) {
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return results;
+        });
+    }
+
+    private void acquire(String lockKey, long ttlSeconds) {
+        when(redisTemplate.execute(eq(RedisLockScripts.ACQUIRE_LOCK_WITH_FENCING), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 7L));
+        assertTrue(lockService.tryLock(lockKey, ttlSeconds, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,52 @@
+package com.graduation.sagaorchestratorservice.config;
+
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Idempotency configuration for Saga Orchestrator Service
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Daily partitions of processed_messages, shared implementation from saga coordination
+     */
+    @Bean
+    public ProcessedMessagePartitionService processedMessagePartitionService(
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            @Value("${idempotency.partitioning.enabled:true}") boolean enabled,
+            @Value("${idempotency.partitioning.precreate-days:7}") int precreateDays,
+            @Value("${idempotency.retention-days:30}") int retentionDays) {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        indexes.put(Constant.INDEX_PROCESSED_MESSAGE_SAGA_STEP, Constant.COLUMN_SAGA_ID + ", " + Constant.COLUMN_STEP_ID);
+        indexes.put(Constant.INDEX_PROCESSED_MESSAGE_PROCESSED_AT, Constant.COLUMN_PROCESSED_AT);
+        return new ProcessedMessagePartitionService(jdbcTemplate, transactionTemplate,
+                Constant.TABLE_PROCESSED_MESSAGES, indexes, Duration.ofDays(retentionDays), precreateDays, enabled);
+    }
+
+    /**
+     * In-memory front tier of the idempotency check, shared implementation from saga coordination;
+     * catch-up also loads saga step keys
+     */
+    @Bean
+    public ProcessedMessageFilter processedMessageFilter(ProcessedMessageRepository processedMessageRepository,
+                                                        MeterRegistry meterRegistry) {
+        return new ProcessedMessageFilter((after, afterMessageId, limit) ->
+                processedMessageRepository.findProcessedKeysAfter(after, afterMessageId, PageRequest.of(0, limit)),
+                meterRegistry);
+    }
+}
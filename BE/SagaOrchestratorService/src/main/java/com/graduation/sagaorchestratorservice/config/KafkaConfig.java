@@ -1,9 +1,15 @@
 package com.graduation.sagaorchestratorservice.config;
 
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
 import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.service.SagaPartitionOwnershipService;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import com.graduation.sagawirecodec.SagaWireDeserializer;
+import com.graduation.sagawirecodec.SagaWireFormat;
+import com.graduation.sagawirecodec.SagaWireSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.RangeAssignor;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -55,6 +61,13 @@ public class KafkaConfig {
     @Value("${kafka.topics.dlq}")
     private String dlqTopic;
 
+    // Value format written by this producer: json, or binary once every consumer reads it
+    @Value("${saga.wire.format:json}")
+    private String wireFormat;
+
+    @Value("${saga.listener.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
     // Kafka Admin Configuration
     @Bean
     public KafkaAdmin kafkaAdmin() {
@@ -100,7 +113,8 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaWireSerializer.class);
+        configProps.put(SagaWireFormat.CONFIG_WRITE_FORMAT, wireFormat);
 
         // Producer reliability settings
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -134,7 +148,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         // Configure JSON deserializer with error handling
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, SagaWireDeserializer.class.getName());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "java.lang.Object");
 
@@ -189,7 +203,8 @@ public class KafkaConfig {
 
     // Order Events specific container factory
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> orderEventKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> orderEventKafkaListenerContainerFactory(
+            ProcessedMessageFilter processedMessageFilter) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
@@ -197,6 +212,7 @@ public class KafkaConfig {
         factory.setConcurrency(2);
         factory.getContainerProperties().setAckMode(
                 org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(processedMessageFilter);
 
         // Custom error handling for order events
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
@@ -214,7 +230,8 @@ public class KafkaConfig {
      * Payment Events specific container factory
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> paymentEventKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> paymentEventKafkaListenerContainerFactory(
+            ProcessedMessageFilter processedMessageFilter) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
@@ -222,6 +239,7 @@ public class KafkaConfig {
         factory.setConcurrency(2);
         factory.getContainerProperties().setAckMode(
                 org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(processedMessageFilter);
 
         // Custom error handling for payment events
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
@@ -235,6 +253,88 @@ public class KafkaConfig {
         return factory;
     }
 
+    /**
+     * Batch-mode order events container factory: the listener receives a whole poll at once
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> orderEventBatchKafkaListenerContainerFactory(
+            ProcessedMessageFilter processedMessageFilter) {
+        return createBatchEventListenerContainerFactory(groupId + Constant.GROUP_SUFFIX_ORDER_EVENTS,
+                new ExponentialBackOff(2000, 2), processedMessageFilter);
+    }
+
+    /**
+     * Batch-mode payment events container factory
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> paymentEventBatchKafkaListenerContainerFactory(
+            ProcessedMessageFilter processedMessageFilter) {
+        return createBatchEventListenerContainerFactory(groupId + Constant.GROUP_SUFFIX_PAYMENT_EVENTS,
+                new ExponentialBackOff(1500, 2), processedMessageFilter);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, Object> createBatchEventListenerContainerFactory(
+            String groupId, ExponentialBackOff backOff, ProcessedMessageFilter processedMessageFilter) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        factory.setConsumerFactory(createEventConsumerFactory(groupId, overrides));
+        factory.setConcurrency(2);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(
+                org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(processedMessageFilter);
+
+        // A failed batch is retried as a whole, then each of its records goes to the DLQ
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(kafkaTemplate(),
+                        (record, exception) -> new org.apache.kafka.common.TopicPartition(dlqTopic, 0)),
+                backOff
+        );
+
+        factory.setCommonErrorHandler(errorHandler);
+
+        return factory;
+    }
+
+    /**
+     * Partition-affine container factory: one group consumes both order and payment events.
+     * The range assignor gives partition N of both topics to the same consumer, and the
+     * rebalance listener tracks which saga partitions this instance owns.
+     * The group is new when partition-affine mode is switched on and has no committed
+     * offsets, so it starts from the earliest offset like the other event groups: events
+     * already applied under those groups are skipped by the processed message check, and
+     * nothing published during the switch-over is missed.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> sagaPartitionedEventKafkaListenerContainerFactory(
+            SagaPartitionOwnershipService partitionOwnershipService) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, RangeAssignor.class.getName());
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        factory.setConsumerFactory(createEventConsumerFactory(
+                groupId + Constant.GROUP_SUFFIX_PARTITIONED_EVENTS, overrides));
+        factory.setConcurrency(2);
+        factory.getContainerProperties().setAckMode(
+                org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(partitionOwnershipService);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(kafkaTemplate(),
+                        (record, exception) -> new org.apache.kafka.common.TopicPartition(dlqTopic, 0)),
+                new ExponentialBackOff(1500, 2)
+        );
+
+        factory.setCommonErrorHandler(errorHandler);
+
+        return factory;
+    }
+
     // Helper methods for specific consumer factories
     private ConsumerFactory<String, Object> createOrderEventConsumerFactory() {
         return createEventConsumerFactory(groupId + Constant.GROUP_SUFFIX_ORDER_EVENTS);
@@ -245,12 +345,16 @@ public class KafkaConfig {
     }
 
     private ConsumerFactory<String, Object> createEventConsumerFactory(String groupId) {
+        return createEventConsumerFactory(groupId, Map.of());
+    }
+
+    private ConsumerFactory<String, Object> createEventConsumerFactory(String groupId, Map<String, Object> overrides) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, SagaWireDeserializer.class.getName());
 
         // Set trusted packages
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -262,6 +366,8 @@ public class KafkaConfig {
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, true);
         props.put(JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false);
 
+        props.putAll(overrides);
+
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
@@ -0,0 +1,44 @@
+package com.graduation.sagaorchestratorservice.config;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates indexes that JPA annotations cannot express (partial indexes).
+ * Idempotent, so it is safe with both ddl-auto=update and validate.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaIndexInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartialIndexes() {
+        try {
+            // Only active sagas carry a step deadline, so the index stays as small as the active set
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + Constant.INDEX_SAGA_STEP_DEADLINE_ACTIVE
+                    + " ON " + Constant.TABLE_ORDER_PURCHASE_SAGAS
+                    + " (" + Constant.COLUMN_STEP_DEADLINE + ", " + Constant.COLUMN_SAGA_ID + ")"
+                    + " WHERE " + Constant.COLUMN_STEP_DEADLINE + " IS NOT NULL");
+        } catch (Exception e) {
+            log.error("Failed to create partial index {}", Constant.INDEX_SAGA_STEP_DEADLINE_ACTIVE, e);
+        }
+
+        try {
+            // Only finished sagas have an end time; the archiver walks this index in keyset order
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + Constant.INDEX_SAGA_END_TIME_FINISHED
+                    + " ON " + Constant.TABLE_ORDER_PURCHASE_SAGAS
+                    + " (" + Constant.COLUMN_END_TIME + ", " + Constant.COLUMN_SAGA_ID + ")"
+                    + " WHERE " + Constant.COLUMN_END_TIME + " IS NOT NULL");
+        } catch (Exception e) {
+            log.error("Failed to create partial index {}", Constant.INDEX_SAGA_END_TIME_FINISHED, e);
+        }
+    }
+}
@@ -24,6 +24,8 @@ public class Constant {
     public static final String RESPONSE_FAILURE_REASON = "failureReason";
     public static final String RESPONSE_COMPLETED_STEPS = "completedSteps";
     public static final String RESPONSE_SAGA_EVENTS = "sagaEvents";
+    public static final String RESPONSE_EVENT_COUNT = "eventCount";
+    public static final String RESPONSE_ARCHIVED = "archived";
     public static final String RESPONSE_ACTIVE_COUNT = "activeCount";
     public static final String RESPONSE_TOTAL_PROCESSED = "totalProcessed";
     public static final String RESPONSE_TOTAL_FAILURES = "totalFailures";
@@ -92,6 +94,7 @@ public class Constant {
     public static final String SAGA_EVENT_COMPENSATION_STEP = "COMPENSATION_STEP";
     public static final String SAGA_EVENT_COMPENSATION_RETRY = "COMPENSATION_RETRY";
     public static final String SAGA_EVENT_COMPENSATION_FAILED = "COMPENSATION_FAILED";
+    public static final String SAGA_EVENT_BRANCH_JOINED = "BRANCH_JOINED";
     public static final String SAGA_EVENT_SAGA_COMPLETED = "SAGA_COMPLETED";
     public static final String SAGA_EVENT_SAGA_FAILED = "SAGA_FAILED";
     public static final String SAGA_EVENT_RETRY = "RETRY";
@@ -127,6 +130,7 @@ public class Constant {
     public static final String FIELD_CANCELLATION_REASON = "cancellationReason";
     public static final String FIELD_CURRENT_STEP = "currentStep";
     public static final String FIELD_COMPENSATION_STRATEGY = "compensationStrategy";
+    public static final String FIELD_FORWARD_HOPS = "partitionForwardHops";
 
     // ===================== MESSAGE TYPES =====================
     public static final String MESSAGE_TYPE_COMMAND = "COMMAND";
@@ -152,6 +156,7 @@ public class Constant {
     public static final String GROUP_SUFFIX_SAGA_EVENTS = "-saga-events";
     public static final String GROUP_SUFFIX_DLQ = "-dlq";
     public static final String GROUP_SUFFIX_HEALTH = "-health";
+    public static final String GROUP_SUFFIX_PARTITIONED_EVENTS = "-partitioned-events";
 
     // ===================== DLQ TOPIC SUFFIX =====================
     public static final String DLQ_TOPIC_SUFFIX = ".dlq";
@@ -167,6 +172,11 @@ public class Constant {
     // Table names
     public static final String TABLE_PROCESSED_MESSAGES = "processed_messages";
     public static final String TABLE_ORDER_PURCHASE_SAGAS = "order_purchase_sagas";
+    public static final String TABLE_SAGA_OUTBOX = "saga_outbox";
+    public static final String TABLE_SAGA_RETRY_QUEUE = "saga_retry_queue";
+    public static final String TABLE_SAGA_PARKED_EVENTS = "saga_parked_events";
+    public static final String TABLE_SAGA_EVENT_LOG = "saga_events";
+    public static final String TABLE_SAGA_ARCHIVE_INDEX = "saga_archive_index";
 
     // ProcessedMessage columns
     public static final String COLUMN_MESSAGE_ID = "message_id";
@@ -175,6 +185,7 @@ public class Constant {
     public static final String COLUMN_MESSAGE_TYPE = "message_type";
     public static final String COLUMN_RESULT_JSON = "result_json";
     public static final String COLUMN_PROCESSED_AT = "processed_at";
+    public static final String COLUMN_SENT_AT = "sent_at";
     public static final String COLUMN_ACTION_TYPE = "action_type";
 
     // OrderPurchaseSagaState columns
@@ -198,6 +209,50 @@ public class Constant {
     public static final String COLUMN_MAX_RETRIES = "max_retries";
     public static final String COLUMN_COMPENSATION_RETRY_COUNT = "compensation_retry_count";
     public static final String COLUMN_MAX_COMPENSATION_RETRIES = "max_compensation_retries";
+    public static final String COLUMN_OWNER_EPOCH = "owner_epoch";
+    public static final String COLUMN_STEP_DEADLINE = "step_deadline";
+    public static final String COLUMN_JOINED_BRANCHES = "joined_branches";
+    public static final String COLUMN_EVENT_COUNT = "event_count";
+    public static final String COLUMN_VERSION = "version";
+
+    // SagaEventRecord columns
+    public static final String COLUMN_EVENT_LOG_ID = "id";
+    public static final String COLUMN_EVENT_LOG_SEQUENCE = "seq_no";
+    public static final String COLUMN_EVENT_LOG_TYPE = "type";
+    public static final String COLUMN_EVENT_LOG_DESCRIPTION = "description";
+    public static final String COLUMN_EVENT_LOG_OCCURRED_AT = "occurred_at";
+
+    // SagaOutboxMessage columns
+    public static final String COLUMN_OUTBOX_ID = "id";
+    public static final String COLUMN_OUTBOX_TOPIC = "topic";
+    public static final String COLUMN_OUTBOX_MESSAGE_KEY = "message_key";
+    public static final String COLUMN_OUTBOX_PAYLOAD_JSON = "payload_json";
+    public static final String COLUMN_OUTBOX_STATUS = "status";
+    public static final String COLUMN_OUTBOX_ATTEMPTS = "attempts";
+    public static final String COLUMN_OUTBOX_LAST_ERROR = "last_error";
+    public static final String COLUMN_OUTBOX_CREATED_AT = "created_at";
+    public static final String COLUMN_OUTBOX_PUBLISHED_AT = "published_at";
+    public static final String COLUMN_OUTBOX_NEXT_ATTEMPT_AT = "next_attempt_at";
+
+    // SagaRetryTask columns
+    public static final String COLUMN_RETRY_TASK_ID = "id";
+    public static final String COLUMN_RETRY_DUE_AT = "due_at";
+    public static final String COLUMN_RETRY_ATTEMPT = "attempt";
+    public static final String COLUMN_RETRY_LEASE_OWNER = "lease_owner";
+    public static final String COLUMN_RETRY_LEASE_UNTIL = "lease_until";
+    public static final String COLUMN_RETRY_CREATED_AT = "created_at";
+
+    // SagaParkedEvent columns
+    public static final String COLUMN_PARKED_EVENT_ID = "id";
+    public static final String COLUMN_PARKED_EVENT_DATA = "event_data";
+    public static final String COLUMN_PARKED_AT = "parked_at";
+    public static final String COLUMN_PARKED_LEASE_OWNER = "lease_owner";
+    public static final String COLUMN_PARKED_LEASE_UNTIL = "lease_until";
+
+    // SagaArchiveEntry columns
+    public static final String COLUMN_ARCHIVE_SEGMENT = "segment";
+    public static final String COLUMN_ARCHIVE_FRAME_OFFSET = "frame_offset";
+    public static final String COLUMN_ARCHIVED_AT = "archived_at";
 
     // ===================== INDEX NAMES =====================
     // ProcessedMessage indexes
@@ -209,6 +264,22 @@ public class Constant {
     public static final String INDEX_SAGA_USER_ID = "idx_saga_user_id";
     public static final String INDEX_SAGA_STATUS = "idx_saga_status";
     public static final String INDEX_SAGA_START_TIME = "idx_saga_start_time";
+    public static final String INDEX_SAGA_STEP_DEADLINE_ACTIVE = "idx_saga_step_deadline_active";
+    public static final String INDEX_SAGA_END_TIME_FINISHED = "idx_saga_end_time_finished";
+
+    // SagaOutboxMessage indexes
+    public static final String INDEX_OUTBOX_STATUS_ID = "idx_saga_outbox_status_id";
+    public static final String INDEX_OUTBOX_PUBLISHED_AT = "idx_saga_outbox_published_at";
+
+    // SagaRetryTask indexes
+    public static final String INDEX_RETRY_DUE_AT = "idx_saga_retry_due_at";
+    public static final String UK_RETRY_SAGA_ID = "uk_saga_retry_saga_id";
+
+    // SagaParkedEvent indexes
+    public static final String INDEX_PARKED_LEASE_UNTIL = "idx_saga_parked_lease_until";
+
+    // SagaEventRecord indexes
+    public static final String UK_EVENT_LOG_SAGA_SEQUENCE = "uk_saga_events_saga_seq_no";
 
     // ===================== METRICS NAMES =====================
     public static final String METRIC_SAGA_ACTIVE_COUNT = "saga.active.count";
@@ -222,6 +293,24 @@ public class Constant {
     public static final String METRIC_SAGA_MESSAGE_FAILED = "saga.message.failed";
     public static final String METRIC_SAGA_EXECUTION_TIME = "saga.execution.time";
     public static final String METRIC_SAGA_MESSAGE_PROCESSING_TIME = "saga.message.processing.time";
+    public static final String METRIC_SAGA_OUTBOX_PUBLISHED = "saga.outbox.published";
+    public static final String METRIC_SAGA_OUTBOX_FAILED = "saga.outbox.failed";
+    public static final String METRIC_SAGA_OUTBOX_BATCH_TIME = "saga.outbox.batch.time";
+    public static final String METRIC_SAGA_ARCHIVED = "saga.archive.archived";
+    public static final String METRIC_SAGA_DEFERRED_DEPTH = "saga.deferred.depth";
+    public static final String METRIC_SAGA_DEFERRED_PARKED = "saga.deferred.parked";
+    public static final String METRIC_SAGA_DEFERRED_PARK_TIME = "saga.deferred.park.time";
+    public static final String METRIC_SAGA_DEFERRED_FAILED = "saga.deferred.failed";
+    public static final String METRIC_SAGA_RETRY_SCHEDULED = "saga.retry.scheduled";
+    public static final String METRIC_SAGA_RETRY_FIRED = "saga.retry.fired";
+    public static final String METRIC_SAGA_RETRY_WHEEL_SIZE = "saga.retry.wheel.size";
+    public static final String METRIC_SAGA_STATE_CACHE_HITS = "saga.state.cache.hits";
+    public static final String METRIC_SAGA_STATE_CACHE_MISSES = "saga.state.cache.misses";
+    public static final String METRIC_SAGA_STATE_CACHE_EVICTIONS = "saga.state.cache.evictions";
+    public static final String METRIC_SAGA_STATE_CACHE_SIZE = "saga.state.cache.size";
+    public static final String METRIC_SAGA_STEP_LATENCY = "saga.step.latency";
+    public static final String METRIC_TAG_STEP = "step";
+    public static final String METRIC_TAG_PHASE = "phase";
 
     // ===================== METRIC DESCRIPTIONS =====================
     public static final String METRIC_DESC_SAGA_STARTED = "Number of sagas started";
@@ -231,6 +320,22 @@ public class Constant {
     public static final String METRIC_DESC_MESSAGE_FAILED = "Number of message processing failures";
     public static final String METRIC_DESC_EXECUTION_TIME = "Time taken to complete sagas";
     public static final String METRIC_DESC_MESSAGE_PROCESSING_TIME = "Time taken to process individual messages";
+    public static final String METRIC_DESC_OUTBOX_PUBLISHED = "Number of outbox messages relayed to Kafka";
+    public static final String METRIC_DESC_OUTBOX_FAILED = "Number of outbox messages that failed to relay";
+    public static final String METRIC_DESC_OUTBOX_BATCH_TIME = "Time taken to relay one outbox batch";
+    public static final String METRIC_DESC_SAGA_ARCHIVED = "Number of finished sagas moved to the archive";
+    public static final String METRIC_DESC_DEFERRED_DEPTH = "Number of events parked waiting for a contended saga lock";
+    public static final String METRIC_DESC_DEFERRED_PARKED = "Number of events parked because the saga lock was contended";
+    public static final String METRIC_DESC_DEFERRED_PARK_TIME = "Time events spent parked before being re-driven";
+    public static final String METRIC_DESC_DEFERRED_FAILED = "Number of parked events whose re-drive failed and were re-parked";
+    public static final String METRIC_DESC_RETRY_SCHEDULED = "Number of saga step retries written to the retry queue";
+    public static final String METRIC_DESC_RETRY_FIRED = "Number of saga step retries fired by the timing wheel";
+    public static final String METRIC_DESC_RETRY_WHEEL_SIZE = "Number of claimed retries waiting in the timing wheel";
+    public static final String METRIC_DESC_STATE_CACHE_HITS = "Saga state lookups served from the in-process cache";
+    public static final String METRIC_DESC_STATE_CACHE_MISSES = "Saga state lookups that had to read the database";
+    public static final String METRIC_DESC_STATE_CACHE_EVICTIONS = "Saga states evicted from the in-process cache";
+    public static final String METRIC_DESC_STATE_CACHE_SIZE = "Number of saga states held in the in-process cache";
+    public static final String METRIC_DESC_STEP_LATENCY = "Time spent per saga step, by phase (queue wait, lock wait, handler CPU, DB, publish)";
 
     // ===================== LOG MESSAGES =====================
     // Controller log messages
@@ -319,9 +424,6 @@ public class Constant {
     public static final String LOG_CHECKING_ACTIVE_SAGAS = "Checking {} active sagas for timeouts";
     public static final String LOG_CHECKING_TIMED_OUT_SAGAS = "Checking for timed-out saga steps with timeout: {}";
     public static final String LOG_FOUND_TIMED_OUT_SAGAS = "Found {} timed-out sagas with timeout {}";
-    public static final String LOG_TRIGGERING_COMPENSATION = "Triggering compensation for saga {} due to: {}";
-    public static final String LOG_TIMEOUT_COMPENSATION_TRIGGERED = "Timeout compensation triggered for saga: {}";
-    public static final String LOG_ERROR_TRIGGERING_COMPENSATION = "Error triggering compensation for saga {}: {}";
     public static final String LOG_STARTING_DAILY_CLEANUP = "Starting daily saga cleanup task";
     public static final String LOG_DAILY_SUMMARY = "Daily summary: {} timeout checks performed, {} sagas timed out";
     public static final String LOG_ERROR_DAILY_CLEANUP = "Error during daily cleanup";
@@ -340,6 +442,7 @@ public class Constant {
     public static final String LOG_FAILED_CLEANUP_SAGA_MESSAGES = "Failed to cleanup processed messages for saga {}";
     public static final String LOG_STARTING_CLEANUP_OLD_MESSAGES = "Starting cleanup of old processed messages";
     public static final String LOG_COMPLETED_CLEANUP = "Completed cleanup: deleted {} old processed messages";
+    public static final String LOG_COMPLETED_PARTITION_CLEANUP = "Completed cleanup: dropped {} processed message partitions ending before {}";
     public static final String LOG_NO_OLD_MESSAGES_CLEANUP = "No old processed messages to cleanup";
     public static final String LOG_FAILED_CLEANUP_OLD_MESSAGES = "Failed to cleanup old processed messages";
     public static final String LOG_MANUAL_CLEANUP = "Manual cleanup: deleted {} processed messages older than {} days";
@@ -400,6 +503,7 @@ public class Constant {
     public static final String DESC_SAGA_COMPLETED = "Order purchase saga completed successfully";
     public static final String DESC_SAGA_FAILED = "Saga execution failed: ";
     public static final String DESC_COMPENSATION_STEP = "Starting compensation with step: ";
+    public static final String DESC_BRANCH_JOINED = "Parallel step completed: ";
     public static final String DESC_COMPENSATION_RETRY = "Retrying compensation step %s (attempt %d)";
     public static final String DESC_COMPENSATION_FAILED = "Compensation failed after %d retries: %s";
     public static final String DESC_RETRY_STEP = "Retrying step %s after timeout (attempt %d)";
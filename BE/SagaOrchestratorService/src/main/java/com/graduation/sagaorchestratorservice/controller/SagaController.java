@@ -2,7 +2,10 @@ package com.graduation.sagaorchestratorservice.controller;
 
 import com.graduation.sagaorchestratorservice.constants.Constant;
 import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveRecord;
 import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
+import com.graduation.sagaorchestratorservice.service.SagaArchiveStore;
+import com.graduation.sagaorchestratorservice.service.SagaEventLogService;
 import com.graduation.sagaorchestratorservice.service.SagaMonitoringService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,20 +29,33 @@ public class SagaController {
 
     private final OrderPurchaseSagaService orderPurchaseSagaService;
     private final SagaMonitoringService monitoringService;
+    private final SagaEventLogService eventLogService;
+    private final SagaArchiveStore archiveStore;
 
     /**
      * Get saga by ID
+     * Sagas moved to the archive are served from there
      */
     @GetMapping("/{sagaId}")
     public ResponseEntity<Map<String, Object>> getSaga(@PathVariable String sagaId) {
         try {
             log.debug(Constant.LOG_GETTING_SAGA, sagaId);
             Optional<OrderPurchaseSagaState> saga = orderPurchaseSagaService.findById(sagaId);
+            Optional<SagaArchiveRecord> archived = saga.isPresent() ? Optional.empty() : archiveStore.find(sagaId);
 
             if (saga.isPresent()) {
                 Map<String, Object> response = Map.of(
                         Constant.RESPONSE_SUCCESS, true,
-                        Constant.RESPONSE_SAGA, createSagaResponse(saga.get())
+                        Constant.RESPONSE_SAGA, createSagaResponse(saga.get(), true)
+                );
+                return ResponseEntity.ok(response);
+            } else if (archived.isPresent()) {
+                Map<String, Object> sagaResponse = createSagaResponse(archived.get().toSagaState(), false);
+                sagaResponse.put(Constant.RESPONSE_SAGA_EVENTS, archived.get().events());
+                sagaResponse.put(Constant.RESPONSE_ARCHIVED, true);
+                Map<String, Object> response = Map.of(
+                        Constant.RESPONSE_SUCCESS, true,
+                        Constant.RESPONSE_SAGA, sagaResponse
                 );
                 return ResponseEntity.ok(response);
             } else {
@@ -72,7 +88,7 @@ public class SagaController {
             if (saga.isPresent()) {
                 Map<String, Object> response = Map.of(
                         Constant.RESPONSE_SUCCESS, true,
-                        Constant.RESPONSE_SAGA, createSagaResponse(saga.get())
+                        Constant.RESPONSE_SAGA, createSagaResponse(saga.get(), true)
                 );
                 return ResponseEntity.ok(response);
             } else {
@@ -103,7 +119,7 @@ public class SagaController {
             List<OrderPurchaseSagaState> sagas = orderPurchaseSagaService.findByUserId(userId);
 
             List<Map<String, Object>> sagaResponses = sagas.stream()
-                    .map(this::createSagaResponse)
+                    .map(saga -> createSagaResponse(saga, false))
                     .toList();
 
             Map<String, Object> response = Map.of(
@@ -134,7 +150,7 @@ public class SagaController {
             List<OrderPurchaseSagaState> activeSagas = orderPurchaseSagaService.findActiveSagas();
 
             List<Map<String, Object>> sagaResponses = activeSagas.stream()
-                    .map(this::createSagaResponse)
+                    .map(saga -> createSagaResponse(saga, false))
                     .toList();
 
             Map<String, Object> response = Map.of(
@@ -230,8 +246,9 @@ public class SagaController {
 
     /**
      * Create response object for saga
+     * The event history is only loaded for single-saga lookups; lists carry the event count
      */
-    private Map<String, Object> createSagaResponse(OrderPurchaseSagaState saga) {
+    private Map<String, Object> createSagaResponse(OrderPurchaseSagaState saga, boolean includeHistory) {
         Map<String, Object> response = new HashMap<>();
         response.put(Constant.RESPONSE_SAGA_ID, saga.getSagaId());
         response.put(Constant.RESPONSE_ORDER_ID, saga.getOrderId());
@@ -244,7 +261,10 @@ public class SagaController {
         response.put(Constant.RESPONSE_RETRY_COUNT, saga.getRetryCount());
         response.put(Constant.RESPONSE_FAILURE_REASON, saga.getFailureReason());
         response.put(Constant.RESPONSE_COMPLETED_STEPS, saga.getCompletedSteps());
-        response.put(Constant.RESPONSE_SAGA_EVENTS, saga.getSagaEvents());
+        response.put(Constant.RESPONSE_EVENT_COUNT, saga.getEventCount() != null ? saga.getEventCount() : 0);
+        if (includeHistory) {
+            response.put(Constant.RESPONSE_SAGA_EVENTS, eventLogService.loadHistory(saga));
+        }
         return response;
     }
 }
\ No newline at end of file
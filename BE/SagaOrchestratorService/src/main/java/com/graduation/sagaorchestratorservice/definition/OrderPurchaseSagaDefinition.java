@@ -0,0 +1,72 @@
+package com.graduation.sagaorchestratorservice.definition;
+
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.enums.EventType;
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import com.graduation.sagawirecodec.message.CancelOrderCommand;
+import com.graduation.sagawirecodec.message.ProcessPaymentCommand;
+import com.graduation.sagawirecodec.message.ReversePaymentCommand;
+import com.graduation.sagawirecodec.message.SagaCommandType;
+import com.graduation.sagawirecodec.message.UpdateOrderStatusCommand;
+
+import java.time.Duration;
+
+import static com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep.*;
+
+/**
+ * Step graph of the Order Purchase Saga:
+ * Payment → Order (CONFIRMED) → Order (DELIVERED) → Complete,
+ * compensated by Cancel payment ∥ Cancel order → Complete.
+ *
+ * The forward steps stay sequential, each depends on the outcome of the previous one.
+ * The refund and the order cancellation touch different services and are independent,
+ * so compensation sends both at once and completes when both have answered.
+ *
+ * Payment steps hold the order's payment lock, order status steps its order lock.
+ */
+public final class OrderPurchaseSagaDefinition {
+
+    public static final SagaStepLock<OrderPurchaseSagaState> PAYMENT_LOCK = new SagaStepLock<>(
+            saga -> RedisLockService.buildPaymentLockKey(saga.getOrderId().toString()), Duration.ofMinutes(1));
+
+    public static final SagaStepLock<OrderPurchaseSagaState> ORDER_LOCK = new SagaStepLock<>(
+            saga -> RedisLockService.buildOrderLockKey(saga.getOrderId().toString()), Duration.ofSeconds(30));
+
+    public static final SagaDefinition<OrderPurchaseSagaStep, OrderPurchaseSagaState> DEFINITION =
+            SagaDefinition.<OrderPurchaseSagaStep, OrderPurchaseSagaState>builder("ORDER_PURCHASE", OrderPurchaseSagaStep.class)
+                    .step(PROCESS_PAYMENT, UPDATE_ORDER_STATUS_CONFIRMED,
+                            (saga, messageId, stepId, timestamp, token) -> new ProcessPaymentCommand(
+                                    messageId, saga.getSagaId(), stepId, timestamp, token,
+                                    saga.getOrderId().toString(), saga.getUserId(), saga.getTotalAmount(), null),
+                            EventType.PAYMENT_PROCESSED, EventType.PAYMENT_FAILED)
+                    .step(UPDATE_ORDER_STATUS_CONFIRMED, UPDATE_ORDER_STATUS_DELIVERED,
+                            (saga, messageId, stepId, timestamp, token) -> new UpdateOrderStatusCommand(
+                                    messageId, saga.getSagaId(), stepId, SagaCommandType.ORDER_UPDATE_CONFIRMED,
+                                    timestamp, token, saga.getOrderId(), Constant.REASON_PAYMENT_PROCESSED_SUCCESS),
+                            EventType.ORDER_STATUS_UPDATED_CONFIRMED, EventType.ORDER_STATUS_UPDATE_FAILED)
+                    .step(UPDATE_ORDER_STATUS_DELIVERED, COMPLETE_SAGA,
+                            (saga, messageId, stepId, timestamp, token) -> new UpdateOrderStatusCommand(
+                                    messageId, saga.getSagaId(), stepId, SagaCommandType.ORDER_UPDATE_DELIVERED,
+                                    timestamp, token, saga.getOrderId(), Constant.REASON_ORDER_CONFIRMED_SUCCESS),
+                            EventType.ORDER_STATUS_UPDATED_DELIVERED)
+                    .terminalStep(COMPLETE_SAGA)
+                    .compensationStep(CANCEL_PAYMENT, CANCEL_ORDER,
+                            (saga, messageId, stepId, timestamp, token) -> new ReversePaymentCommand(
+                                    messageId, saga.getSagaId(), stepId, timestamp, token,
+                                    saga.getOrderId().toString(), saga.getPaymentTransactionId(), saga.getFailureReason()),
+                            EventType.PAYMENT_REVERSED, EventType.PAYMENT_REVERSED_FAILED)
+                    .compensationStep(CANCEL_ORDER, COMPLETE_SAGA,
+                            (saga, messageId, stepId, timestamp, token) -> new CancelOrderCommand(
+                                    messageId, saga.getSagaId(), stepId, timestamp, token,
+                                    saga.getOrderId(), saga.getFailureReason(), Constant.ACTOR_SAGA_COMPENSATION),
+                            EventType.ORDER_CANCELLED, EventType.ORDER_CANCELLATION_FAILED)
+                    .lock(PAYMENT_LOCK, PROCESS_PAYMENT, CANCEL_PAYMENT)
+                    .lock(ORDER_LOCK, UPDATE_ORDER_STATUS_CONFIRMED, UPDATE_ORDER_STATUS_DELIVERED, CANCEL_ORDER)
+                    .parallel(CANCEL_PAYMENT, CANCEL_ORDER)
+                    .build();
+
+    private OrderPurchaseSagaDefinition() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.graduation.sagaorchestratorservice.definition;
+
+import com.graduation.sagawirecodec.message.SagaCommand;
+
+/**
+ * Builds the command a saga step sends, from the saga state and the envelope fields
+ * the engine assigns (message id, step id, timestamp and the fencing token of the held lock)
+ */
+@FunctionalInterface
+public interface SagaCommandFactory<T> {
+
+    SagaCommand create(T saga, String messageId, int stepId, long timestamp, Long fencingToken);
+}
@@ -0,0 +1,368 @@
+package com.graduation.sagaorchestratorservice.definition;
+
+import com.graduation.sagaorchestratorservice.model.enums.EventType;
+import com.graduation.sagawirecodec.message.SagaCommand;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative definition of a saga as a graph of steps.
+ *
+ * Each step declares the step that follows it, the factory for the command it sends and
+ * the events that answer it. {@link Builder#build()} validates the graph and compiles it
+ * into arrays indexed by step and event ordinal, so resolving the next step, the command
+ * or the step an event belongs to is a single array lookup on the event path.
+ *
+ * Every step that sends a command declares the {@link SagaStepLock} guarding the resource
+ * the command changes, so the engine locks by declaration rather than by step name.
+ *
+ * A run of chained steps can be declared parallel (fork/join): entering the run sends the
+ * commands of all its remaining steps at once, and the saga leaves the run once every one
+ * of them has answered. Answered branches are tracked by the caller as a bitset over step
+ * ordinals, so a step enum may have at most 64 constants.
+ *
+ * @param <S> step enum of the saga
+ * @param <T> saga state the command factories read from
+ */
+public final class SagaDefinition<S extends Enum<S>, T> {
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final String name;
+    private final S[] nextStep;
+    private final S[] nextCompensationStep;
+    private final SagaCommandFactory<T>[] commandFactories;
+    private final SagaStepLock<T>[] locks;
+    private final S[] stepByEvent;
+    private final long[] branchMask;
+    private final List<S>[] branches;
+    private final S[] joinStep;
+
+    private SagaDefinition(String name, S[] nextStep, S[] nextCompensationStep,
+                           SagaCommandFactory<T>[] commandFactories, SagaStepLock<T>[] locks,
+                           S[] stepByEvent, long[] branchMask, List<S>[] branches, S[] joinStep) {
+        this.name = name;
+        this.nextStep = nextStep;
+        this.nextCompensationStep = nextCompensationStep;
+        this.commandFactories = commandFactories;
+        this.locks = locks;
+        this.stepByEvent = stepByEvent;
+        this.branchMask = branchMask;
+        this.branches = branches;
+        this.joinStep = joinStep;
+    }
+
+    /**
+     * Bit of a step in a joined-branches bitset
+     */
+    public static long bit(Enum<?> step) {
+        return 1L << step.ordinal();
+    }
+
+    public static <S extends Enum<S>, T> Builder<S, T> builder(String name, Class<S> stepType) {
+        return new Builder<>(name, stepType);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Next step in the forward flow, or null after the last step and for compensation steps
+     */
+    public S nextStep(S step) {
+        return nextStep[step.ordinal()];
+    }
+
+    /**
+     * Next step in the compensation flow, or null for forward steps
+     */
+    public S nextCompensationStep(S step) {
+        return nextCompensationStep[step.ordinal()];
+    }
+
+    /**
+     * The step an event answers, or null if no step of this saga expects it
+     */
+    public S stepForEvent(EventType eventType) {
+        return eventType != null ? stepByEvent[eventType.ordinal()] : null;
+    }
+
+    /**
+     * Check if the event is one the given step waits for. When the step starts a parallel
+     * run, events of every branch not yet in joinedBranches match.
+     */
+    public boolean isEventForStep(S step, EventType eventType, long joinedBranches) {
+        if (step == null || eventType == null) {
+            return false;
+        }
+        S eventStep = stepByEvent[eventType.ordinal()];
+        return eventStep != null && (branchMask[step.ordinal()] & ~joinedBranches & bit(eventStep)) != 0;
+    }
+
+    /**
+     * Steps whose commands are sent when the saga enters the given step: the step itself,
+     * plus the rest of its run when it is part of a parallel run
+     */
+    public List<S> branches(S step) {
+        return branches[step.ordinal()];
+    }
+
+    /**
+     * Bitset of the steps the saga waits for while it is at the given step
+     */
+    public long branchMask(S step) {
+        return branchMask[step.ordinal()];
+    }
+
+    /**
+     * Branches of the given step not yet in joinedBranches, in run order; the commands to
+     * (re)send while the saga waits at the step
+     */
+    public List<S> pendingBranches(S step, long joinedBranches) {
+        List<S> all = branches[step.ordinal()];
+        List<S> pending = new ArrayList<>(all.size());
+        for (S branch : all) {
+            if ((joinedBranches & bit(branch)) == 0) {
+                pending.add(branch);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Check if every branch the saga waits for at the given step is in joinedBranches,
+     * whatever order they answered in
+     */
+    public boolean isJoined(S step, long joinedBranches) {
+        long mask = branchMask[step.ordinal()];
+        return (joinedBranches & mask) == mask;
+    }
+
+    /**
+     * Check if the given step starts more than one branch
+     */
+    public boolean isParallel(S step) {
+        return branches[step.ordinal()].size() > 1;
+    }
+
+    /**
+     * Last step of the parallel run the given step belongs to (the step itself outside a run).
+     * Its successor is where the saga goes once all branches joined.
+     */
+    public S joinStep(S step) {
+        return joinStep[step.ordinal()];
+    }
+
+    /**
+     * Build the command of a step, or null if the step sends none
+     */
+    public SagaCommand createCommand(S step, T saga, String messageId, int stepId,
+                                     long timestamp, Long fencingToken) {
+        SagaCommandFactory<T> factory = commandFactories[step.ordinal()];
+        return factory != null ? factory.create(saga, messageId, stepId, timestamp, fencingToken) : null;
+    }
+
+    /**
+     * Lock guarding the resource the step's command changes, or null if the step sends none
+     */
+    public SagaStepLock<T> lock(S step) {
+        return locks[step.ordinal()];
+    }
+
+    public static final class Builder<S extends Enum<S>, T> {
+
+        private final String name;
+        private final Class<S> stepType;
+        private final Map<S, StepSpec<S, T>> steps;
+        private final Map<S, SagaStepLock<T>> locks;
+        private final List<List<S>> parallelRuns = new ArrayList<>();
+
+        private Builder(String name, Class<S> stepType) {
+            this.name = name;
+            this.stepType = stepType;
+            this.steps = new EnumMap<>(stepType);
+            this.locks = new EnumMap<>(stepType);
+        }
+
+        /**
+         * Declare a forward step; next is null for the last step before completion
+         */
+        public Builder<S, T> step(S step, S next, SagaCommandFactory<T> command, EventType... expectedEvents) {
+            return declare(step, new StepSpec<>(false, next, command, expectedEvents));
+        }
+
+        /**
+         * Declare a compensation step; next is the step that ends compensation after the last one
+         */
+        public Builder<S, T> compensationStep(S step, S next, SagaCommandFactory<T> command,
+                                              EventType... expectedEvents) {
+            return declare(step, new StepSpec<>(true, next, command, expectedEvents));
+        }
+
+        /**
+         * Declare a terminal step: it sends no command and waits for no event
+         */
+        public Builder<S, T> terminalStep(S step) {
+            return declare(step, new StepSpec<>(false, null, null, new EventType[0]));
+        }
+
+        /**
+         * Run a chain of declared steps in parallel; each step must be the successor of the
+         * previous one, and the successor of the last is where the run joins
+         */
+        @SafeVarargs
+        public final Builder<S, T> parallel(S... run) {
+            if (run.length < 2) {
+                throw new IllegalStateException("Saga " + name + " parallel run needs at least two steps");
+            }
+            parallelRuns.add(List.of(run));
+            return this;
+        }
+
+        /**
+         * Guard the commands of the given steps with a lock; steps changing the same
+         * resource share one lock
+         */
+        @SafeVarargs
+        public final Builder<S, T> lock(SagaStepLock<T> lock, S... lockedSteps) {
+            for (S step : lockedSteps) {
+                if (locks.putIfAbsent(step, lock) != null) {
+                    throw new IllegalStateException("Saga " + name + " declares a lock for step " + step + " twice");
+                }
+            }
+            return this;
+        }
+
+        private Builder<S, T> declare(S step, StepSpec<S, T> spec) {
+            if (steps.putIfAbsent(step, spec) != null) {
+                throw new IllegalStateException("Saga " + name + " declares step " + step + " twice");
+            }
+            return this;
+        }
+
+        /**
+         * Validate the step graph and compile it into lookup tables
+         */
+        @SuppressWarnings("unchecked")
+        public SagaDefinition<S, T> build() {
+            int stepCount = stepType.getEnumConstants().length;
+            S[] nextStep = (S[]) Array.newInstance(stepType, stepCount);
+            S[] nextCompensationStep = (S[]) Array.newInstance(stepType, stepCount);
+            SagaCommandFactory<T>[] commandFactories = new SagaCommandFactory[stepCount];
+            SagaStepLock<T>[] stepLocks = new SagaStepLock[stepCount];
+            S[] stepByEvent = (S[]) Array.newInstance(stepType, EVENT_TYPES.length);
+
+            for (Map.Entry<S, StepSpec<S, T>> entry : steps.entrySet()) {
+                S step = entry.getKey();
+                StepSpec<S, T> spec = entry.getValue();
+
+                if (spec.next != null && !steps.containsKey(spec.next)) {
+                    throw new IllegalStateException("Saga " + name + " step " + step
+                            + " points to undeclared step " + spec.next);
+                }
+                if (spec.compensation) {
+                    nextCompensationStep[step.ordinal()] = spec.next;
+                } else {
+                    nextStep[step.ordinal()] = spec.next;
+                }
+                commandFactories[step.ordinal()] = spec.command;
+                stepLocks[step.ordinal()] = locks.get(step);
+                if (spec.command != null && !locks.containsKey(step)) {
+                    throw new IllegalStateException("Saga " + name + " step " + step
+                            + " sends a command but declares no lock");
+                }
+
+                for (EventType event : spec.expectedEvents) {
+                    S previous = stepByEvent[event.ordinal()];
+                    if (previous != null) {
+                        throw new IllegalStateException("Saga " + name + " maps event " + event
+                                + " to both " + previous + " and " + step);
+                    }
+                    stepByEvent[event.ordinal()] = step;
+                }
+            }
+
+            for (S step : locks.keySet()) {
+                StepSpec<S, T> spec = steps.get(step);
+                if (spec == null || spec.command == null) {
+                    throw new IllegalStateException("Saga " + name + " locks step " + step
+                            + " which is not declared with a command");
+                }
+            }
+
+            checkAcyclic(nextStep);
+            checkAcyclic(nextCompensationStep);
+
+            S[] constants = stepType.getEnumConstants();
+            if (constants.length > Long.SIZE) {
+                throw new IllegalStateException("Saga " + name + " has more than " + Long.SIZE + " steps");
+            }
+            long[] branchMask = new long[stepCount];
+            List<S>[] branches = new List[stepCount];
+            S[] joinStep = (S[]) Array.newInstance(stepType, stepCount);
+            for (S step : constants) {
+                branchMask[step.ordinal()] = bit(step);
+                branches[step.ordinal()] = List.of(step);
+                joinStep[step.ordinal()] = step;
+            }
+
+            boolean[] inRun = new boolean[stepCount];
+            for (List<S> run : parallelRuns) {
+                for (int i = 0; i < run.size(); i++) {
+                    S step = run.get(i);
+                    StepSpec<S, T> spec = steps.get(step);
+                    if (spec == null || spec.command == null) {
+                        throw new IllegalStateException("Saga " + name + " parallel step " + step
+                                + " is not declared with a command");
+                    }
+                    if (i + 1 < run.size() && spec.next != run.get(i + 1)) {
+                        throw new IllegalStateException("Saga " + name + " parallel run " + run
+                                + " is not a chain at step " + step);
+                    }
+                    if (inRun[step.ordinal()]) {
+                        throw new IllegalStateException("Saga " + name + " step " + step
+                                + " is in more than one parallel run");
+                    }
+                    inRun[step.ordinal()] = true;
+                }
+                // Entering the run at any step forks that step and the ones after it
+                for (int i = 0; i < run.size(); i++) {
+                    List<S> remaining = run.subList(i, run.size());
+                    long mask = 0L;
+                    for (S branch : remaining) {
+                        mask |= bit(branch);
+                    }
+                    S step = run.get(i);
+                    branchMask[step.ordinal()] = mask;
+                    branches[step.ordinal()] = List.copyOf(remaining);
+                    joinStep[step.ordinal()] = run.get(run.size() - 1);
+                }
+            }
+
+            return new SagaDefinition<>(name, nextStep, nextCompensationStep, commandFactories, stepLocks,
+                    stepByEvent, branchMask, branches, joinStep);
+        }
+
+        private void checkAcyclic(S[] transitions) {
+            S[] constants = stepType.getEnumConstants();
+            for (S start : constants) {
+                S step = start;
+                for (int hops = 0; step != null; hops++) {
+                    if (hops > constants.length) {
+                        throw new IllegalStateException("Saga " + name + " has a cycle through step " + start);
+                    }
+                    step = transitions[step.ordinal()];
+                }
+            }
+        }
+    }
+
+    private record StepSpec<S, T>(boolean compensation, S next, SagaCommandFactory<T> command,
+                                  EventType[] expectedEvents) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.graduation.sagaorchestratorservice.definition;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Lock guarding the resource a saga step's command changes: the lock key for a saga
+ * and how long the lock is held while the command is enqueued.
+ * Steps declaring the same lock contend for the same resource.
+ */
+public record SagaStepLock<T>(Function<T, String> keyFactory, Duration ttl) {
+
+    public String key(T saga) {
+        return keyFactory.apply(saga);
+    }
+}
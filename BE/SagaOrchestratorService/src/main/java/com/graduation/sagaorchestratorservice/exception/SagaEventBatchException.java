@@ -0,0 +1,20 @@
+package com.graduation.sagaorchestratorservice.exception;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Exception thrown when one event of a batch fails; events received before it have been applied
+ */
+@Getter
+public class SagaEventBatchException extends RuntimeException {
+
+    private final transient Map<String, Object> event;
+
+    public SagaEventBatchException(Map<String, Object> event, Throwable cause) {
+        super("Saga event batch failed at event " + event.get(Constant.FIELD_MESSAGE_ID) + ": " + cause.getMessage(), cause);
+        this.event = event;
+    }
+}
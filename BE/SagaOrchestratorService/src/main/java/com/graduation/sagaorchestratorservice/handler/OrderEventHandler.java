@@ -3,20 +3,35 @@
 package com.graduation.sagaorchestratorservice.handler;
 
 import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.exception.SagaEventBatchException;
 import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
-import lombok.RequiredArgsConstructor;
+import com.graduation.sagawirecodec.message.CancelRequestEvent;
+import com.graduation.sagawirecodec.message.OrderCreatedEvent;
+import com.graduation.sagawirecodec.message.SagaEventType;
+import com.graduation.sagawirecodec.message.SagaMessageDispatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderEventHandler {
 
     private final OrderPurchaseSagaService orderPurchaseSagaService;
 
+    // Events that start or cancel a saga; every other order event is a saga step reply
+    private final SagaMessageDispatcher sagaLifecycleDispatcher;
+
+    public OrderEventHandler(OrderPurchaseSagaService orderPurchaseSagaService) {
+        this.orderPurchaseSagaService = orderPurchaseSagaService;
+        this.sagaLifecycleDispatcher = new SagaMessageDispatcher()
+                .on(SagaEventType.ORDER_CREATED, OrderCreatedEvent.class, this::handleOrderCreatedEvent)
+                .on(SagaEventType.CANCEL_REQUEST_RECEIVED, CancelRequestEvent.class, this::handleCancelRequestReceived);
+    }
+
     /**
      * Handle order events from Order Service
      */
@@ -26,34 +41,57 @@ public class OrderEventHandler {
 
         log.debug(Constant.LOG_PROCESSING_ORDER_EVENT, eventType, sagaId);
 
-        if (eventType.equals(Constant.EVENT_ORDER_CREATED)) {
-            handleOrderCreatedEvent(event);
-        } else if (eventType.equals(Constant.EVENT_CANCEL_REQUEST_RECEIVED)) {
-            handleCancelRequestReceived(event);
-        }
-        else {
+        if (!sagaLifecycleDispatcher.dispatch(event)) {
             orderPurchaseSagaService.handleEventMessage(event);
         }
     }
 
+    /**
+     * Handle a batch of order events (batch listener mode).
+     * Saga step events are applied together; ORDER_CREATED and cancel requests are handled
+     * one by one, after the saga events received before them. A failing event is reported
+     * as a {@link SagaEventBatchException} so the listener can point at its record.
+     */
+    public void handleOrderEventBatch(List<Map<String, Object>> events) {
+        List<Map<String, Object>> sagaEvents = new ArrayList<>();
+
+        for (Map<String, Object> event : events) {
+            if (sagaLifecycleDispatcher.handles((String) event.get(Constant.FIELD_TYPE))) {
+                flushSagaEvents(sagaEvents);
+                try {
+                    handleOrderEvent(event);
+                } catch (RuntimeException e) {
+                    throw new SagaEventBatchException(event, e);
+                }
+            } else if (event.get(Constant.FIELD_SAGA_ID) == null) {
+                log.warn("Received order event without sagaId, ignoring: {}", event);
+            } else {
+                sagaEvents.add(event);
+            }
+        }
+
+        flushSagaEvents(sagaEvents);
+    }
+
+    private void flushSagaEvents(List<Map<String, Object>> sagaEvents) {
+        if (!sagaEvents.isEmpty()) {
+            orderPurchaseSagaService.handleEventBatch(new ArrayList<>(sagaEvents));
+            sagaEvents.clear();
+        }
+    }
+
     /**
      * Handle ORDER_CREATED event to start new saga
      */
-    private void handleOrderCreatedEvent(Map<String, Object> event) {
+    private void handleOrderCreatedEvent(OrderCreatedEvent event) {
         try {
-            Long orderId = Long.valueOf(event.get(Constant.FIELD_ORDER_ID).toString());
-            String userId = (String) event.get(Constant.FIELD_USER_ID);
-            String userEmail = (String) event.get(Constant.FIELD_USER_EMAIL);
-            String userName = (String) event.get(Constant.FIELD_USER_NAME);
-            String orderDescription = (String) event.get(Constant.FIELD_ORDER_DESCRIPTION);
-            java.math.BigDecimal totalAmount = new java.math.BigDecimal(event.get(Constant.FIELD_TOTAL_AMOUNT).toString());
-
             log.info(Constant.LOG_STARTING_SAGA_FOR_ORDER,
-                    orderId, userId, totalAmount);
+                    event.orderId(), event.userId(), event.totalAmount());
 
-            orderPurchaseSagaService.startSaga(userId, orderId, userEmail, userName, orderDescription, totalAmount);
+            orderPurchaseSagaService.startSaga(event.userId(), event.orderId(), event.userEmail(), event.userName(),
+                    event.orderDescription(), event.totalAmount());
 
-            log.info(Constant.LOG_SAGA_STARTED_SUCCESS, orderId);
+            log.info(Constant.LOG_SAGA_STARTED_SUCCESS, event.orderId());
 
         } catch (Exception e) {
             log.error(Constant.ERROR_HANDLING_ORDER_CREATED, e);
@@ -64,10 +102,10 @@ public class OrderEventHandler {
     /**
      * Handle cancel request received from Order Service
      */
-    private void handleCancelRequestReceived(Map<String, Object> event) {
-        String sagaId = (String) event.get(Constant.FIELD_SAGA_ID);
-        String orderId = (String) event.get(Constant.FIELD_ORDER_ID);
-        String reason = (String) event.get(Constant.FIELD_REASON);
+    private void handleCancelRequestReceived(CancelRequestEvent event) {
+        String sagaId = event.sagaId();
+        String orderId = String.valueOf(event.orderId());
+        String reason = event.reason();
 
         log.info(Constant.LOG_CANCEL_REQUEST_RECEIVED, sagaId, orderId, reason);
 
@@ -83,4 +121,4 @@ public class OrderEventHandler {
             log.error("Error handling cancel request for saga: {}, orderId: {}", sagaId, orderId, e);
         }
     }
-}
\ No newline at end of file
+}
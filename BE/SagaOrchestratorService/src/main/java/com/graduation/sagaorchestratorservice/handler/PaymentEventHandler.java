@@ -8,6 +8,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -35,4 +37,23 @@ public class PaymentEventHandler {
         // Route event to saga service
         orderPurchaseSagaService.handleEventMessage(event);
     }
+
+    /**
+     * Handle a batch of payment events (batch listener mode)
+     */
+    public void handlePaymentEventBatch(List<Map<String, Object>> events) {
+        List<Map<String, Object>> sagaEvents = new ArrayList<>(events.size());
+        for (Map<String, Object> event : events) {
+            String sagaId = (String) event.get(Constant.FIELD_SAGA_ID);
+            if (sagaId == null || sagaId.trim().isEmpty()) {
+                log.warn("Received payment event without sagaId, ignoring: {}", event);
+                continue;
+            }
+            sagaEvents.add(event);
+        }
+
+        if (!sagaEvents.isEmpty()) {
+            orderPurchaseSagaService.handleEventBatch(sagaEvents);
+        }
+    }
 }
\ No newline at end of file
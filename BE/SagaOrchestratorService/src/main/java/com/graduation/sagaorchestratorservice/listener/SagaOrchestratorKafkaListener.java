@@ -1,17 +1,30 @@
 package com.graduation.sagaorchestratorservice.listener;
 
 import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.exception.SagaEventBatchException;
 import com.graduation.sagaorchestratorservice.handler.OrderEventHandler;
 import com.graduation.sagaorchestratorservice.handler.PaymentEventHandler;
 import com.graduation.sagaorchestratorservice.handler.SagaEventHandler;
+import com.graduation.sagaorchestratorservice.service.KafkaMessagePublisher;
+import com.graduation.sagaorchestratorservice.service.SagaPartitionOwnershipService;
+import com.graduation.sagaorchestratorservice.service.SagaStepLatencyRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Kafka listener for Saga Orchestrator Service
@@ -25,6 +38,12 @@ public class SagaOrchestratorKafkaListener {
     private final OrderEventHandler orderEventHandler;
     private final PaymentEventHandler paymentEventHandler;
     private final SagaEventHandler sagaEventHandler;
+    private final SagaPartitionOwnershipService partitionOwnership;
+    private final KafkaMessagePublisher messagePublisher;
+    private final SagaStepLatencyRecorder latencyRecorder;
+
+    /** Upper bound on re-keying hops before an event is handed to the error handler */
+    private static final int MAX_FORWARD_HOPS = 3;
 
     /**
      * Listen to order events from Order Service
@@ -32,9 +51,13 @@ public class SagaOrchestratorKafkaListener {
     @KafkaListener(
             topics = "${kafka.topics.order-events}",
             containerFactory = "orderEventKafkaListenerContainerFactory",
-            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_ORDER_EVENTS
+            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_ORDER_EVENTS,
+            autoStartup = "#{!${saga.executor.partition-affine.enabled:false} && !${saga.listener.batch.enabled:false}}"
     )
-    public void consumeOrderEvents(@Payload Map<String, Object> event, Acknowledgment ack) {
+    public void consumeOrderEvents(@Payload Map<String, Object> event,
+                                   @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp,
+                                   Acknowledgment ack) {
+        latencyRecorder.beginEvent(recordTimestamp);
         try {
             String eventType = (String) event.get(Constant.FIELD_TYPE);
             String sagaId = (String) event.get(Constant.FIELD_SAGA_ID);
@@ -54,6 +77,8 @@ public class SagaOrchestratorKafkaListener {
             log.error(Constant.LOG_ERROR_PROCESSING_ORDER_EVENT, e.getMessage(), e);
             // Don't acknowledge - will be retried or sent to DLQ
             throw new RuntimeException(Constant.ERROR_ORDER_EVENT_PROCESSING_FAILED, e);
+        } finally {
+            latencyRecorder.endEvent();
         }
     }
 
@@ -63,9 +88,13 @@ public class SagaOrchestratorKafkaListener {
     @KafkaListener(
             topics = "${kafka.topics.payment-events}",
             containerFactory = "paymentEventKafkaListenerContainerFactory",
-            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_PAYMENT_EVENTS
+            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_PAYMENT_EVENTS,
+            autoStartup = "#{!${saga.executor.partition-affine.enabled:false} && !${saga.listener.batch.enabled:false}}"
     )
-    public void consumePaymentEvents(@Payload Map<String, Object> event, Acknowledgment ack) {
+    public void consumePaymentEvents(@Payload Map<String, Object> event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long recordTimestamp,
+                                     Acknowledgment ack) {
+        latencyRecorder.beginEvent(recordTimestamp);
         try {
             String eventType = (String) event.get(Constant.FIELD_TYPE);
             String sagaId = (String) event.get(Constant.FIELD_SAGA_ID);
@@ -85,9 +114,184 @@ public class SagaOrchestratorKafkaListener {
             log.error(Constant.LOG_ERROR_PROCESSING_PAYMENT_EVENT, e.getMessage(), e);
             // Don't acknowledge - will be retried or sent to DLQ
             throw new RuntimeException(Constant.ERROR_PAYMENT_EVENT_PROCESSING_FAILED, e);
+        } finally {
+            latencyRecorder.endEvent();
+        }
+    }
+
+    /**
+     * Batch mode: order events, one poll at a time (same consumer group as the record listener)
+     */
+    @KafkaListener(
+            topics = "${kafka.topics.order-events}",
+            containerFactory = "orderEventBatchKafkaListenerContainerFactory",
+            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_ORDER_EVENTS,
+            autoStartup = "#{!${saga.executor.partition-affine.enabled:false} && ${saga.listener.batch.enabled:false}}"
+    )
+    public void consumeOrderEventBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment ack) {
+        try {
+            log.info("Received order event batch: size={}", records.size());
+
+            handleEventBatch(records, orderEventHandler::handleOrderEventBatch,
+                    Constant.ERROR_ORDER_EVENT_PROCESSING_FAILED);
+
+            ack.acknowledge();
+
+        } catch (BatchListenerFailedException e) {
+            log.error(Constant.LOG_ERROR_PROCESSING_ORDER_EVENT, e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error(Constant.LOG_ERROR_PROCESSING_ORDER_EVENT, e.getMessage(), e);
+            // Don't acknowledge - will be retried or sent to DLQ
+            throw new RuntimeException(Constant.ERROR_ORDER_EVENT_PROCESSING_FAILED, e);
         }
     }
 
+    /**
+     * Batch mode: payment events, one poll at a time (same consumer group as the record listener)
+     */
+    @KafkaListener(
+            topics = "${kafka.topics.payment-events}",
+            containerFactory = "paymentEventBatchKafkaListenerContainerFactory",
+            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_PAYMENT_EVENTS,
+            autoStartup = "#{!${saga.executor.partition-affine.enabled:false} && ${saga.listener.batch.enabled:false}}"
+    )
+    public void consumePaymentEventBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment ack) {
+        try {
+            log.info("Received payment event batch: size={}", records.size());
+
+            handleEventBatch(records, paymentEventHandler::handlePaymentEventBatch,
+                    Constant.ERROR_PAYMENT_EVENT_PROCESSING_FAILED);
+
+            ack.acknowledge();
+
+        } catch (BatchListenerFailedException e) {
+            log.error(Constant.LOG_ERROR_PROCESSING_PAYMENT_EVENT, e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error(Constant.LOG_ERROR_PROCESSING_PAYMENT_EVENT, e.getMessage(), e);
+            // Don't acknowledge - will be retried or sent to DLQ
+            throw new RuntimeException(Constant.ERROR_PAYMENT_EVENT_PROCESSING_FAILED, e);
+        }
+    }
+
+    /**
+     * Hand the records, in poll order, to a batch handler. Failures are reported with the index
+     * of the failing record so the error handler commits the records before it and retries or
+     * dead-letters only that record. A record that failed deserialization carries no value: the
+     * records before it are handled first, then it is reported the same way.
+     */
+    @SuppressWarnings("unchecked")
+    private void handleEventBatch(List<ConsumerRecord<String, Object>> records,
+                                  Consumer<List<Map<String, Object>>> batchHandler, String errorMessage) {
+        List<Map<String, Object>> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof Map<?, ?> value)) {
+                break;
+            }
+            events.add((Map<String, Object>) value);
+        }
+
+        if (!events.isEmpty()) {
+            try {
+                batchHandler.accept(events);
+            } catch (SagaEventBatchException e) {
+                // events is a prefix of records, so the index is the record's index too
+                throw new BatchListenerFailedException(errorMessage, e.getCause(), indexOf(events, e.getEvent()));
+            }
+        }
+
+        if (events.size() < records.size()) {
+            ConsumerRecord<String, Object> record = records.get(events.size());
+            throw new BatchListenerFailedException("Undecodable record in batch: topic=" + record.topic()
+                    + ", partition=" + record.partition() + ", offset=" + record.offset(), events.size());
+        }
+    }
+
+    private static int indexOf(List<Map<String, Object>> events, Map<String, Object> event) {
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i) == event) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Failed event is not part of the batch");
+    }
+
+    /**
+     * Partition-affine mode: one consumer group for order and payment events.
+     * Events for sagas owned by this instance run under the in-process partition lock
+     * instead of the per-event Redis saga lock. Events whose key does not map to the
+     * saga's partition (e.g. legacy orderId keys) are re-published keyed by sagaId.
+     */
+    @KafkaListener(
+            topics = {"${kafka.topics.order-events}", "${kafka.topics.payment-events}"},
+            containerFactory = "sagaPartitionedEventKafkaListenerContainerFactory",
+            groupId = "${spring.kafka.consumer.group-id}" + Constant.GROUP_SUFFIX_PARTITIONED_EVENTS,
+            autoStartup = "${saga.executor.partition-affine.enabled:false}"
+    )
+    public void consumePartitionedSagaEvents(ConsumerRecord<String, Object> record, Acknowledgment ack) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> event = (Map<String, Object>) record.value();
+        String eventType = (String) event.get(Constant.FIELD_TYPE);
+        String sagaId = (String) event.get(Constant.FIELD_SAGA_ID);
+
+        latencyRecorder.beginEvent(record.timestamp());
+        try {
+            log.info("Received partitioned saga event: topic={}, partition={}, type={}, sagaId={}",
+                    record.topic(), record.partition(), eventType, sagaId);
+
+            if (sagaId == null) {
+                // ORDER_CREATED has no saga yet; the new saga is created by whoever consumes it
+                dispatchSagaEvent(record.topic(), event);
+            } else {
+                long lockWaitStart = latencyRecorder.mark();
+                boolean owned = partitionOwnership.runExclusively(sagaId, () -> {
+                    latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, lockWaitStart);
+                    dispatchSagaEvent(record.topic(), event);
+                });
+                if (!owned) {
+                    forwardToOwningPartition(record.topic(), sagaId, event);
+                }
+            }
+
+            ack.acknowledge();
+            log.debug(Constant.LOG_EVENT_ACKNOWLEDGED, eventType, sagaId);
+
+        } catch (Exception e) {
+            log.error("Error processing partitioned saga event: type={}, sagaId={}, error={}",
+                    eventType, sagaId, e.getMessage(), e);
+            // Don't acknowledge - will be retried or sent to DLQ
+            throw new RuntimeException("Partitioned saga event processing failed", e);
+        } finally {
+            latencyRecorder.endEvent();
+        }
+    }
+
+    private void dispatchSagaEvent(String topic, Map<String, Object> event) {
+        if (topic.equals(partitionOwnership.getPaymentEventsTopic())) {
+            paymentEventHandler.handlePaymentEvent(event);
+        } else {
+            orderEventHandler.handleOrderEvent(event);
+        }
+    }
+
+    /**
+     * Re-publish an event keyed by sagaId so it lands on the partition that owns the saga
+     */
+    private void forwardToOwningPartition(String topic, String sagaId, Map<String, Object> event) throws Exception {
+        int hops = event.get(Constant.FIELD_FORWARD_HOPS) instanceof Number number ? number.intValue() : 0;
+        if (hops >= MAX_FORWARD_HOPS) {
+            throw new IllegalStateException("Saga partition owner not reachable after " + hops + " hops: " + sagaId);
+        }
+
+        Map<String, Object> forwarded = new HashMap<>(event);
+        forwarded.put(Constant.FIELD_FORWARD_HOPS, hops + 1);
+
+        // Wait for the broker ack so the event is never lost between ack and forward
+        messagePublisher.publishMessage(forwarded, topic, sagaId).get(10, TimeUnit.SECONDS);
+        log.debug("Forwarded saga event to owning partition: sagaId={}, hops={}", sagaId, hops + 1);
+    }
+
     /**
      * Listen to saga-specific events (for monitoring and coordination)
      */
@@ -26,6 +26,7 @@ import java.util.List;
  */
 @Slf4j
 @Entity
+@EntityListeners({SagaStepDeadlineListener.class, SagaEventLogListener.class})
 @Table(name = Constant.TABLE_ORDER_PURCHASE_SAGAS, indexes = {
         @Index(name = Constant.INDEX_SAGA_ORDER_ID, columnList = Constant.COLUMN_ORDER_ID),
         @Index(name = Constant.INDEX_SAGA_USER_ID, columnList = Constant.COLUMN_USER_ID),
@@ -79,9 +80,15 @@ public class OrderPurchaseSagaState {
     @Column(name = Constant.COLUMN_COMPLETED_STEPS, columnDefinition = "TEXT")
     private String completedStepsJson;
 
+    // Legacy event history blob; read-only, new events go to the saga_events table
     @Column(name = Constant.COLUMN_SAGA_EVENTS, columnDefinition = "TEXT")
     private String sagaEventsJson;
 
+    // Number of events recorded in the saga_events table
+    @Column(name = Constant.COLUMN_EVENT_COUNT)
+    @Builder.Default
+    private Integer eventCount = 0;
+
     @Column(name = Constant.COLUMN_FAILURE_REASON, length = 1000)
     private String failureReason;
 
@@ -98,6 +105,10 @@ public class OrderPurchaseSagaState {
     @Column(name = Constant.COLUMN_CURRENT_STEP_START_TIME)
     private Instant currentStepStartTime;
 
+    // When the current step times out; null once the saga is no longer active (see SagaStepDeadlineListener)
+    @Column(name = Constant.COLUMN_STEP_DEADLINE)
+    private Instant stepDeadline;
+
     // Retry information
     @Column(name = Constant.COLUMN_RETRY_COUNT)
     @Builder.Default
@@ -125,8 +136,9 @@ public class OrderPurchaseSagaState {
     @Transient
     private List<String> completedSteps;
 
+    // Events added since the last write, appended to the event log by SagaEventLogListener
     @Transient
-    private List<SagaEvent> sagaEvents;
+    private List<SagaEvent> pendingEvents;
 
     @Column(name = "fencing_token", nullable = false)
     private Long fencingToken = 0L;
@@ -134,6 +146,21 @@ public class OrderPurchaseSagaState {
     @Column(name = "last_token_update")
     private LocalDateTime lastTokenUpdate;
 
+    // Optimistic concurrency: every UPDATE is a compare-and-set on this column.
+    // Null on new sagas so Spring Data persists instead of merging; existing rows default to 0.
+    @Version
+    @Column(name = Constant.COLUMN_VERSION, nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Epoch of the partition owner that last wrote this saga (partition-affine executor only)
+    @Column(name = Constant.COLUMN_OWNER_EPOCH)
+    private Long ownerEpoch;
+
+    // Bitset over step ordinals of the parallel branches of the current step that already answered
+    @Column(name = Constant.COLUMN_JOINED_BRANCHES, nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long joinedBranches = 0L;
+
     /**
      * Factory method to initiate a new order purchase saga
      */
@@ -178,6 +205,7 @@ public class OrderPurchaseSagaState {
         OrderPurchaseSagaStep nextStep = currentStep.getNextStep();
         currentStep = nextStep;
         currentStepStartTime = Instant.now();
+        joinedBranches = 0L;
 
         if (nextStep == OrderPurchaseSagaStep.COMPLETE_SAGA) {
             log.info("Saga [{}] completed successfully", sagaId);
@@ -216,6 +244,7 @@ public class OrderPurchaseSagaState {
 
         currentStep = OrderPurchaseSagaStep.determineFirstCompensationStep(
                 paymentProcessed, orderStatusConfirmed, orderStatusDelivered);
+        joinedBranches = 0L;
 
         currentStepStartTime = Instant.now();
         lastUpdatedTime = Instant.now();
@@ -224,6 +253,14 @@ public class OrderPurchaseSagaState {
                 Constant.DESC_COMPENSATION_STEP + currentStep.getDescription()));
     }
 
+    /**
+     * Record that a parallel branch of the current step has answered
+     */
+    public void markBranchJoined(OrderPurchaseSagaStep branch) {
+        joinedBranches |= 1L << branch.ordinal();
+        lastUpdatedTime = Instant.now();
+    }
+
     /**
      * Complete compensation process
      */
@@ -231,6 +268,7 @@ public class OrderPurchaseSagaState {
         log.info("✅ Compensation completed for saga [{}]", sagaId);
         status = SagaStatus.COMPENSATION_COMPLETED;
         currentStep = OrderPurchaseSagaStep.COMPLETE_SAGA;
+        joinedBranches = 0L;
         endTime = Instant.now();
         addEvent(SagaEvent.compensationCompleted());
         lastUpdatedTime = Instant.now();
@@ -240,10 +278,31 @@ public class OrderPurchaseSagaState {
      * Add an event to the saga history
      */
     public void addEvent(SagaEvent event) {
-        if (sagaEvents == null) {
-            sagaEvents = new ArrayList<>();
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        pendingEvents.add(event);
+        eventCount = (eventCount != null ? eventCount : 0) + 1;
+    }
+
+    /**
+     * Sequence number the first pending event will get in the event log
+     */
+    public int getFirstPendingEventSequence() {
+        int count = eventCount != null ? eventCount : 0;
+        return count - (pendingEvents != null ? pendingEvents.size() : 0) + 1;
+    }
+
+    /**
+     * Take the events added since the last write
+     */
+    public List<SagaEvent> drainPendingEvents() {
+        if (pendingEvents == null || pendingEvents.isEmpty()) {
+            return List.of();
         }
-        sagaEvents.add(event);
+        List<SagaEvent> drained = pendingEvents;
+        pendingEvents = new ArrayList<>();
+        return drained;
     }
 
     /**
@@ -291,22 +350,18 @@ public class OrderPurchaseSagaState {
     }
 
     /**
-     * Get saga events list
+     * Events stored in the legacy JSON column by sagas written before the event log existed
      */
-    public List<SagaEvent> getSagaEvents() {
-        if (sagaEvents == null) {
-            if (sagaEventsJson != null && !sagaEventsJson.trim().isEmpty()) {
-                try {
-                    sagaEvents = objectMapper.readValue(sagaEventsJson, new TypeReference<List<SagaEvent>>() {});
-                } catch (JsonProcessingException e) {
-                    log.error(Constant.ERROR_PARSE_SAGA_EVENTS, sagaId, sagaEventsJson, e);
-                    sagaEvents = new ArrayList<>();
-                }
-            } else {
-                sagaEvents = new ArrayList<>();
-            }
+    public List<SagaEvent> getLegacySagaEvents() {
+        if (sagaEventsJson == null || sagaEventsJson.trim().isEmpty()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(sagaEventsJson, new TypeReference<List<SagaEvent>>() {});
+        } catch (JsonProcessingException e) {
+            log.error(Constant.ERROR_PARSE_SAGA_EVENTS, sagaId, sagaEventsJson, e);
+            return List.of();
         }
-        return sagaEvents;
     }
 
     /**
@@ -316,8 +371,8 @@ public class OrderPurchaseSagaState {
         if (completedSteps == null) {
             completedSteps = new ArrayList<>();
         }
-        if (sagaEvents == null) {
-            sagaEvents = new ArrayList<>();
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
         }
     }
 
@@ -340,15 +395,6 @@ public class OrderPurchaseSagaState {
             }
         }
 
-        if (sagaEvents != null) {
-            try {
-                sagaEventsJson = objectMapper.writeValueAsString(sagaEvents);
-            } catch (JsonProcessingException e) {
-                log.error(Constant.ERROR_SERIALIZE_SAGA_EVENTS, sagaId, e);
-                sagaEventsJson = Constant.DEFAULT_EMPTY_ARRAY;
-            }
-        }
-
         if (lastUpdatedTime == null) {
             lastUpdatedTime = Instant.now();
         }
@@ -359,9 +405,8 @@ public class OrderPurchaseSagaState {
      */
     @PostLoad
     public void postLoad() {
-        // Initialize transient collections from JSON
+        // Initialize transient collections from JSON (event history is loaded on demand only)
         getCompletedSteps();
-        getSagaEvents();
     }
 
     @Override
@@ -7,11 +7,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graduation.sagaorchestratorservice.constants.Constant;
 import com.graduation.sagaorchestratorservice.model.enums.ActionType;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -31,7 +36,7 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class ProcessedMessage {
+public class ProcessedMessage implements Persistable<String> {
 
     @Id
     @Column(name = Constant.COLUMN_MESSAGE_ID, nullable = false)
@@ -49,6 +54,10 @@ public class ProcessedMessage {
     @Column(name = Constant.COLUMN_RESULT_JSON, columnDefinition = "TEXT")
     private String resultJson;
 
+    // The message's own timestamp, the same for every delivery; partition key of the table
+    @Column(name = Constant.COLUMN_SENT_AT, nullable = false)
+    private Instant sentAt;
+
     @Column(name = Constant.COLUMN_PROCESSED_AT, nullable = false)
     private Instant processedAt;
 
@@ -59,17 +68,25 @@ public class ProcessedMessage {
     @Column(name = Constant.COLUMN_ACTION_TYPE)
     private ActionType actionType;
 
+    // Rows are only ever inserted: save() persists without the SELECT a merge would issue
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
     /**
      * Factory method to create a ProcessedMessage
      */
     public static ProcessedMessage create(String messageId, String sagaId, Integer stepId,
-                                          String messageType, Map<String, Object> result) {
+                                          String messageType, Instant sentAt, Map<String, Object> result) {
         return ProcessedMessage.builder()
                 .messageId(messageId)
                 .sagaId(sagaId)
                 .stepId(stepId)
                 .messageType(messageType)
                 .resultJson(mapToJson(result))
+                .sentAt(sentAt)
                 .processedAt(Instant.now())
                 .build();
     }
@@ -113,14 +130,33 @@ public class ProcessedMessage {
         }
     }
 
+    @Override
+    public String getId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markPersisted() {
+        persisted = true;
+    }
+
     /**
-     * Pre-persist callback to ensure processedAt is set
+     * Pre-persist callback to ensure processedAt and sentAt are set
      */
     @PrePersist
     public void prePersist() {
         if (processedAt == null) {
             processedAt = Instant.now();
         }
+        if (sentAt == null) {
+            sentAt = processedAt;
+        }
     }
 
     @Override
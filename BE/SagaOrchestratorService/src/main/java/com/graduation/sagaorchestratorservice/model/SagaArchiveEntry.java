@@ -0,0 +1,38 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Where an archived saga lives: the archive segment file and the offset of the frame
+ * holding it. Rows are written in JDBC batches by SagaArchiver; this mapping is used
+ * for schema generation and lookups.
+ */
+@Entity
+@Table(name = Constant.TABLE_SAGA_ARCHIVE_INDEX)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaArchiveEntry {
+
+    @Id
+    @Column(name = Constant.COLUMN_SAGA_ID, nullable = false)
+    private String sagaId;
+
+    @Column(name = Constant.COLUMN_ARCHIVE_SEGMENT, nullable = false)
+    private String segment;
+
+    @Column(name = Constant.COLUMN_ARCHIVE_FRAME_OFFSET, nullable = false)
+    private long frameOffset;
+
+    @Column(name = Constant.COLUMN_ARCHIVED_AT, nullable = false)
+    private Instant archivedAt;
+}
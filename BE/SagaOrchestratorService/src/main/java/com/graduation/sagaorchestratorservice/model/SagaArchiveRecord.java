@@ -0,0 +1,81 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finished saga as stored in the archive: its columns plus its full event history
+ */
+public record SagaArchiveRecord(
+        String sagaId,
+        String userId,
+        Long orderId,
+        String userEmail,
+        String userName,
+        String orderDescription,
+        BigDecimal totalAmount,
+        Long paymentTransactionId,
+        OrderPurchaseSagaStep currentStep,
+        SagaStatus status,
+        List<String> completedSteps,
+        String failureReason,
+        Instant startTime,
+        Instant endTime,
+        Instant lastUpdatedTime,
+        Integer retryCount,
+        Integer compensationRetryCount,
+        List<SagaEvent> events) {
+
+    public static SagaArchiveRecord of(OrderPurchaseSagaState saga, List<SagaEvent> events) {
+        return new SagaArchiveRecord(
+                saga.getSagaId(),
+                saga.getUserId(),
+                saga.getOrderId(),
+                saga.getUserEmail(),
+                saga.getUserName(),
+                saga.getOrderDescription(),
+                saga.getTotalAmount(),
+                saga.getPaymentTransactionId(),
+                saga.getCurrentStep(),
+                saga.getStatus(),
+                saga.getCompletedSteps(),
+                saga.getFailureReason(),
+                saga.getStartTime(),
+                saga.getEndTime(),
+                saga.getLastUpdatedTime(),
+                saga.getRetryCount(),
+                saga.getCompensationRetryCount(),
+                events);
+    }
+
+    /**
+     * Detached saga state for read-only use (responses); never persist it
+     */
+    public OrderPurchaseSagaState toSagaState() {
+        return OrderPurchaseSagaState.builder()
+                .sagaId(sagaId)
+                .userId(userId)
+                .orderId(orderId)
+                .userEmail(userEmail)
+                .userName(userName)
+                .orderDescription(orderDescription)
+                .totalAmount(totalAmount)
+                .paymentTransactionId(paymentTransactionId)
+                .currentStep(currentStep)
+                .status(status)
+                .completedSteps(completedSteps != null ? new ArrayList<>(completedSteps) : new ArrayList<>())
+                .failureReason(failureReason)
+                .startTime(startTime)
+                .endTime(endTime)
+                .lastUpdatedTime(lastUpdatedTime)
+                .retryCount(retryCount)
+                .compensationRetryCount(compensationRetryCount != null ? compensationRetryCount : 0)
+                .eventCount(events != null ? events.size() : 0)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.service.SagaEventLogService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * Appends a saga's pending events to the event log whenever its state row is written.
+ * Adding an event bumps {@code event_count}, so the row is always dirty when there is
+ * something to append. Instantiated by Spring through Hibernate's bean container.
+ *
+ * The service is resolved on first use: it depends on a repository, which needs the
+ * entityManagerFactory that is still being built when Hibernate creates this listener.
+ */
+public class SagaEventLogListener {
+
+    private final ObjectProvider<SagaEventLogService> eventLogService;
+
+    public SagaEventLogListener(ObjectProvider<SagaEventLogService> eventLogService) {
+        this.eventLogService = eventLogService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void appendPendingEvents(OrderPurchaseSagaState saga) {
+        int firstSequence = saga.getFirstPendingEventSequence();
+        List<SagaEvent> pending = saga.drainPendingEvents();
+        eventLogService.getObject().append(saga.getSagaId(), firstSequence, pending);
+    }
+}
@@ -0,0 +1,58 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One row of a saga's append-only event history.
+ * Rows are inserted in JDBC batches by SagaEventLogService; this mapping is used for
+ * schema generation and for reading the history back.
+ */
+@Entity
+@Table(name = Constant.TABLE_SAGA_EVENT_LOG, uniqueConstraints = @UniqueConstraint(
+        name = Constant.UK_EVENT_LOG_SAGA_SEQUENCE,
+        columnNames = {Constant.COLUMN_SAGA_ID, Constant.COLUMN_EVENT_LOG_SEQUENCE}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaEventRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = Constant.COLUMN_EVENT_LOG_ID)
+    private Long id;
+
+    @Column(name = Constant.COLUMN_SAGA_ID, nullable = false)
+    private String sagaId;
+
+    // Position of the event in the saga's history, starting at 1
+    @Column(name = Constant.COLUMN_EVENT_LOG_SEQUENCE, nullable = false)
+    private int sequence;
+
+    @Column(name = Constant.COLUMN_EVENT_LOG_TYPE, nullable = false)
+    private String type;
+
+    @Column(name = Constant.COLUMN_EVENT_LOG_DESCRIPTION, columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = Constant.COLUMN_EVENT_LOG_OCCURRED_AT, nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * Convert back to the in-memory event representation
+     */
+    public SagaEvent toSagaEvent() {
+        return SagaEvent.builder()
+                .type(type)
+                .description(description)
+                .timestamp(occurredAt)
+                .build();
+    }
+}
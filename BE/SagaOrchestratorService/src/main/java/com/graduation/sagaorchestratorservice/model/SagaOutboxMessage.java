@@ -0,0 +1,91 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Command waiting to be relayed to Kafka.
+ * Written in the same transaction as the saga state so that a saga step and
+ * the command it produces are committed (or rolled back) together.
+ */
+@Entity
+@Table(name = Constant.TABLE_SAGA_OUTBOX, indexes = {
+        @Index(name = Constant.INDEX_OUTBOX_STATUS_ID, columnList = Constant.COLUMN_OUTBOX_STATUS + ", " + Constant.COLUMN_OUTBOX_ID),
+        @Index(name = Constant.INDEX_OUTBOX_PUBLISHED_AT, columnList = Constant.COLUMN_OUTBOX_PUBLISHED_AT)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaOutboxMessage {
+
+    // Sequence (not identity) so Hibernate can batch outbox inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_outbox_seq")
+    @SequenceGenerator(name = "saga_outbox_seq", sequenceName = "saga_outbox_seq", allocationSize = 50)
+    @Column(name = Constant.COLUMN_OUTBOX_ID)
+    private Long id;
+
+    @Column(name = Constant.COLUMN_SAGA_ID, nullable = false)
+    private String sagaId;
+
+    @Column(name = Constant.COLUMN_OUTBOX_TOPIC, nullable = false)
+    private String topic;
+
+    @Column(name = Constant.COLUMN_OUTBOX_MESSAGE_KEY, nullable = false)
+    private String messageKey;
+
+    @Column(name = Constant.COLUMN_OUTBOX_PAYLOAD_JSON, nullable = false, columnDefinition = "TEXT")
+    private String payloadJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = Constant.COLUMN_OUTBOX_STATUS, nullable = false)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = Constant.COLUMN_OUTBOX_ATTEMPTS, nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = Constant.COLUMN_OUTBOX_LAST_ERROR, length = 1000)
+    private String lastError;
+
+    @Column(name = Constant.COLUMN_OUTBOX_CREATED_AT, nullable = false)
+    private Instant createdAt;
+
+    @Column(name = Constant.COLUMN_OUTBOX_PUBLISHED_AT)
+    private Instant publishedAt;
+
+    // Earliest time the relay may pick the row (again); null means right away.
+    // Set to a lease while a relay is sending the row, and to a backoff after a failed send.
+    @Column(name = Constant.COLUMN_OUTBOX_NEXT_ATTEMPT_AT)
+    private Instant nextAttemptAt;
+
+    /**
+     * Factory method for a new pending outbox row
+     */
+    public static SagaOutboxMessage pending(String sagaId, String topic, String messageKey, String payloadJson) {
+        return SagaOutboxMessage.builder()
+                .sagaId(sagaId)
+                .topic(topic)
+                .messageKey(messageKey)
+                .payloadJson(payloadJson)
+                .status(OutboxStatus.PENDING)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
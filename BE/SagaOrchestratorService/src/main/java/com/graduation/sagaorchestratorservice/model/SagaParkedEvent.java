@@ -0,0 +1,54 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Durable copy of an event parked because its saga lock was contended.
+ * The Kafka record is acknowledged once this row is written; the row is deleted in the
+ * transaction that applies the event. The parking instance keeps a renewed lease, so
+ * rows of a crashed instance are adopted by a peer once the lease expires.
+ */
+@Entity
+@Table(name = Constant.TABLE_SAGA_PARKED_EVENTS,
+        indexes = @Index(name = Constant.INDEX_PARKED_LEASE_UNTIL, columnList = Constant.COLUMN_PARKED_LEASE_UNTIL))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaParkedEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_parked_events_seq")
+    @SequenceGenerator(name = "saga_parked_events_seq", sequenceName = "saga_parked_events_seq", allocationSize = 50)
+    @Column(name = Constant.COLUMN_PARKED_EVENT_ID)
+    private Long id;
+
+    @Column(name = Constant.COLUMN_SAGA_ID, nullable = false)
+    private String sagaId;
+
+    @Column(name = Constant.COLUMN_PARKED_EVENT_DATA, nullable = false, columnDefinition = "TEXT")
+    private String eventData;
+
+    @Column(name = Constant.COLUMN_PARKED_AT, nullable = false)
+    private Instant parkedAt;
+
+    @Column(name = Constant.COLUMN_PARKED_LEASE_OWNER)
+    private String leaseOwner;
+
+    @Column(name = Constant.COLUMN_PARKED_LEASE_UNTIL)
+    private Instant leaseUntil;
+
+    @PrePersist
+    public void prePersist() {
+        if (parkedAt == null) {
+            parkedAt = Instant.now();
+        }
+    }
+}
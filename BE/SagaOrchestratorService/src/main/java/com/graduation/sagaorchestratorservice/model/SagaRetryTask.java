@@ -0,0 +1,57 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Pending delayed retry of a saga step.
+ * At most one row per saga; an instance claims due rows by taking a lease, so a
+ * retry survives restarts and is only fired by one instance at a time.
+ */
+@Entity
+@Table(name = Constant.TABLE_SAGA_RETRY_QUEUE,
+        uniqueConstraints = @UniqueConstraint(name = Constant.UK_RETRY_SAGA_ID, columnNames = Constant.COLUMN_SAGA_ID),
+        indexes = @Index(name = Constant.INDEX_RETRY_DUE_AT, columnList = Constant.COLUMN_RETRY_DUE_AT))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaRetryTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_retry_queue_seq")
+    @SequenceGenerator(name = "saga_retry_queue_seq", sequenceName = "saga_retry_queue_seq", allocationSize = 50)
+    @Column(name = Constant.COLUMN_RETRY_TASK_ID)
+    private Long id;
+
+    @Column(name = Constant.COLUMN_SAGA_ID, nullable = false)
+    private String sagaId;
+
+    @Column(name = Constant.COLUMN_RETRY_DUE_AT, nullable = false)
+    private Instant dueAt;
+
+    @Column(name = Constant.COLUMN_RETRY_ATTEMPT, nullable = false)
+    private int attempt;
+
+    @Column(name = Constant.COLUMN_RETRY_LEASE_OWNER)
+    private String leaseOwner;
+
+    @Column(name = Constant.COLUMN_RETRY_LEASE_UNTIL)
+    private Instant leaseUntil;
+
+    @Column(name = Constant.COLUMN_RETRY_CREATED_AT, nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
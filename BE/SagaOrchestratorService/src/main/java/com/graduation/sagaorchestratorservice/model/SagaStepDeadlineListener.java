@@ -0,0 +1,30 @@
+package com.graduation.sagaorchestratorservice.model;
+
+import com.graduation.sagaorchestratorservice.service.SagaStepTimeoutPolicy;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Keeps {@code step_deadline} in sync with the saga's current step on every write.
+ * Inactive sagas get a null deadline so they drop out of the partial deadline index.
+ * Instantiated by Spring through Hibernate's bean container.
+ */
+public class SagaStepDeadlineListener {
+
+    private final SagaStepTimeoutPolicy timeoutPolicy;
+
+    public SagaStepDeadlineListener(SagaStepTimeoutPolicy timeoutPolicy) {
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateStepDeadline(OrderPurchaseSagaState saga) {
+        if (saga.getStatus() == null || !saga.getStatus().isActive() || saga.getCurrentStepStartTime() == null) {
+            saga.setStepDeadline(null);
+            return;
+        }
+
+        saga.setStepDeadline(saga.getCurrentStepStartTime().plus(timeoutPolicy.timeoutFor(saga.getCurrentStep())));
+    }
+}
@@ -2,6 +2,9 @@ package com.graduation.sagaorchestratorservice.model.enums;
 
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Enum defining event types for Order Purchase Saga responses
  * Maps to CommandType for graduation project
@@ -27,12 +30,27 @@ public enum EventType {
     SAGA_COMPLETED("Saga completed successfully"),
     SAGA_FAILED("Saga execution failed");
 
+    private static final Map<String, EventType> BY_NAME = new HashMap<>();
+
+    static {
+        for (EventType type : values()) {
+            BY_NAME.put(type.name(), type);
+        }
+    }
+
     private final String description;
 
     EventType(String description) {
         this.description = description;
     }
 
+    /**
+     * Resolve a wire event type name; unknown names give null instead of throwing
+     */
+    public static EventType fromName(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
+
     /**
      * Get the associated command type for this event
      */
@@ -1,5 +1,6 @@
 package com.graduation.sagaorchestratorservice.model.enums;
 
+import com.graduation.sagaorchestratorservice.definition.OrderPurchaseSagaDefinition;
 import lombok.Getter;
 
 /**
@@ -30,27 +31,17 @@ public enum OrderPurchaseSagaStep {
     }
 
     /**
-     * Get the next step in normal flow
+     * Get the next step in normal flow, as declared in {@link OrderPurchaseSagaDefinition}
      */
     public OrderPurchaseSagaStep getNextStep() {
-        return switch (this) {
-            case PROCESS_PAYMENT -> UPDATE_ORDER_STATUS_CONFIRMED;
-            case UPDATE_ORDER_STATUS_CONFIRMED -> UPDATE_ORDER_STATUS_DELIVERED;
-            case UPDATE_ORDER_STATUS_DELIVERED -> COMPLETE_SAGA;
-            case COMPLETE_SAGA -> null; // End of saga
-            default -> null; // Compensation steps don't have "next"
-        };
+        return OrderPurchaseSagaDefinition.DEFINITION.nextStep(this);
     }
 
     /**
-     * Get the next step in compensation flow
+     * Get the next step in compensation flow, as declared in {@link OrderPurchaseSagaDefinition}
      */
     public OrderPurchaseSagaStep getNextCompensationStep() {
-        return switch (this) {
-            case CANCEL_PAYMENT -> CANCEL_ORDER;
-            case CANCEL_ORDER -> COMPLETE_SAGA; // End compensation
-            default -> null;
-        };
+        return OrderPurchaseSagaDefinition.DEFINITION.nextCompensationStep(this);
     }
 
     /**
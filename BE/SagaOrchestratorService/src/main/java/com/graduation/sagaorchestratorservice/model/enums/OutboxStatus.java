@@ -0,0 +1,10 @@
+package com.graduation.sagaorchestratorservice.model.enums;
+
+/**
+ * Lifecycle of a row in the saga outbox
+ */
+public enum OutboxStatus {
+    PENDING,
+    PUBLISHED,
+    FAILED
+}
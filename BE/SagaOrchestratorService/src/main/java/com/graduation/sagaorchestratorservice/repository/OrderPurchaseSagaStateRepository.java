@@ -2,12 +2,15 @@ package com.graduation.sagaorchestratorservice.repository;
 
 import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
 import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,6 +72,33 @@ public interface OrderPurchaseSagaStateRepository extends JpaRepository<OrderPur
     List<OrderPurchaseSagaState> findSagasWithStepTimeout(@Param("statuses") List<SagaStatus> statuses,
                                                      @Param("cutoffTime") Instant cutoffTime);
 
+    /**
+     * Id and step deadline of an active saga (deadline scan projection, no history JSON)
+     */
+    interface StepDeadlineView {
+        String getSagaId();
+
+        Instant getStepDeadline();
+    }
+
+    /**
+     * Keyset page of step deadlines after (afterDeadline, afterSagaId) and up to upTo,
+     * ordered by (deadline, sagaId). Served by the partial index on active sagas.
+     */
+    @Query("""
+        SELECT s.sagaId AS sagaId, s.stepDeadline AS stepDeadline
+        FROM OrderPurchaseSagaState s
+        WHERE s.stepDeadline IS NOT NULL
+          AND s.stepDeadline <= :upTo
+          AND (s.stepDeadline > :afterDeadline
+               OR (s.stepDeadline = :afterDeadline AND s.sagaId > :afterSagaId))
+        ORDER BY s.stepDeadline, s.sagaId
+        """)
+    List<StepDeadlineView> findStepDeadlinesAfter(@Param("afterDeadline") Instant afterDeadline,
+                                                  @Param("afterSagaId") String afterSagaId,
+                                                  @Param("upTo") Instant upTo,
+                                                  Pageable pageable);
+
     /**
      * Find failed sagas for analysis
      */
@@ -89,7 +119,7 @@ public interface OrderPurchaseSagaStateRepository extends JpaRepository<OrderPur
      */
     @Query("SELECT s FROM OrderPurchaseSagaState s WHERE s.userId = :userId ORDER BY s.startTime DESC")
     List<OrderPurchaseSagaState> findLatestSagasByUser(@Param("userId") String userId,
-                                                  org.springframework.data.domain.Pageable pageable);
+                                                  Pageable pageable);
 
     /**
      * Find sagas by payment transaction ID
@@ -141,6 +171,43 @@ public interface OrderPurchaseSagaStateRepository extends JpaRepository<OrderPur
      */
     void deleteByEndTimeBefore(Instant cutoffTime);
 
+    /**
+     * Next page of finished sagas to archive, keyset-paginated on (endTime, sagaId)
+     */
+    @Query("SELECT s FROM OrderPurchaseSagaState s WHERE s.status IN :statuses AND s.endTime < :cutoffTime"
+            + " AND (s.endTime > :afterEndTime OR (s.endTime = :afterEndTime AND s.sagaId > :afterSagaId))"
+            + " ORDER BY s.endTime ASC, s.sagaId ASC")
+    List<OrderPurchaseSagaState> findArchivableAfter(@Param("statuses") Collection<SagaStatus> statuses,
+                                                     @Param("cutoffTime") Instant cutoffTime,
+                                                     @Param("afterEndTime") Instant afterEndTime,
+                                                     @Param("afterSagaId") String afterSagaId,
+                                                     Pageable pageable);
+
+    /**
+     * Stamp a saga with a partition owner's epoch unless a newer owner already did.
+     * The row lock taken here is held until commit, so a stale owner either commits
+     * before the new owner's claim or finds 0 rows updated.
+     */
+    @Modifying
+    @Query("UPDATE OrderPurchaseSagaState s SET s.ownerEpoch = :epoch "
+            + "WHERE s.sagaId = :sagaId AND (s.ownerEpoch IS NULL OR s.ownerEpoch <= :epoch)")
+    int claimOwnerEpoch(@Param("sagaId") String sagaId, @Param("epoch") long epoch);
+
+    /**
+     * Delete archived sagas; the status check skips any saga that is no longer finished
+     */
+    @Modifying
+    @Query("DELETE FROM OrderPurchaseSagaState s WHERE s.sagaId IN :sagaIds AND s.status IN :statuses")
+    int deleteArchived(@Param("sagaIds") Collection<String> sagaIds,
+                       @Param("statuses") Collection<SagaStatus> statuses);
+
+    /**
+     * Which of the given sagas are in one of the statuses (ids only)
+     */
+    @Query("SELECT s.sagaId FROM OrderPurchaseSagaState s WHERE s.sagaId IN :sagaIds AND s.status IN :statuses")
+    List<String> findIdsWithStatusIn(@Param("sagaIds") Collection<String> sagaIds,
+                                     @Param("statuses") Collection<SagaStatus> statuses);
+
     /**
      * Find sagas by order IDs (bulk lookup)
      */
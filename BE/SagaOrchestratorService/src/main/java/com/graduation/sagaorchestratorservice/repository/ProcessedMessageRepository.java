@@ -1,7 +1,9 @@
 package com.graduation.sagaorchestratorservice.repository;
 
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
 import com.graduation.sagaorchestratorservice.model.ProcessedMessage;
 import com.graduation.sagaorchestratorservice.model.enums.ActionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -88,4 +91,57 @@ public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessa
     Optional<ProcessedMessage> findLatestBySagaId(@Param("sagaId") String sagaId);
 
     Optional<ProcessedMessage> findBySagaIdAndStepIdAndActionType(String sagaId, Integer stepId, ActionType actionType);
-}
\ No newline at end of file
+
+    /**
+     * Message IDs of the given set that were already processed (batch dedupe)
+     */
+    @Query("SELECT pm.messageId FROM ProcessedMessage pm WHERE pm.messageId IN :messageIds")
+    List<String> findProcessedMessageIds(@Param("messageIds") Collection<String> messageIds);
+
+    /**
+     * Processed saga steps with an action type, for a set of sagas (batch dedupe)
+     */
+    @Query("SELECT pm.sagaId AS sagaId, pm.stepId AS stepId, pm.actionType AS actionType FROM ProcessedMessage pm "
+            + "WHERE pm.sagaId IN :sagaIds AND pm.actionType IS NOT NULL")
+    List<ProcessedStepView> findProcessedStepsBySagaIds(@Param("sagaIds") Collection<String> sagaIds);
+
+    /**
+     * Keyset page of processed message keys after (processedAt, messageId), for the idempotency filter
+     */
+    @Query("SELECT pm.messageId AS messageId, pm.sagaId AS sagaId, pm.stepId AS stepId, "
+            + "pm.actionType AS actionType, pm.processedAt AS processedAt FROM ProcessedMessage pm "
+            + "WHERE pm.processedAt > :after OR (pm.processedAt = :after AND pm.messageId > :afterMessageId) "
+            + "ORDER BY pm.processedAt ASC, pm.messageId ASC")
+    List<ProcessedKeyView> findProcessedKeysAfter(@Param("after") Instant after,
+                                                  @Param("afterMessageId") String afterMessageId,
+                                                  Pageable pageable);
+
+    /**
+     * Saga step key of a processed message
+     */
+    interface ProcessedStepView {
+        String getSagaId();
+
+        Integer getStepId();
+
+        ActionType getActionType();
+    }
+
+    /**
+     * Keys of a processed message and when it was processed
+     */
+    interface ProcessedKeyView extends ProcessedMessageFilter.ProcessedKey {
+        String getSagaId();
+
+        Integer getStepId();
+
+        ActionType getActionType();
+
+        @Override
+        default String getStepKey() {
+            return getActionType() != null && getStepId() != null
+                    ? ProcessedMessageFilter.stepKey(getSagaId(), getStepId(), getActionType())
+                    : null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.graduation.sagaorchestratorservice.repository;
+
+import com.graduation.sagaorchestratorservice.model.SagaArchiveEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the archived saga lookup index
+ */
+@Repository
+public interface SagaArchiveEntryRepository extends JpaRepository<SagaArchiveEntry, String> {
+}
@@ -0,0 +1,35 @@
+package com.graduation.sagaorchestratorservice.repository;
+
+import com.graduation.sagaorchestratorservice.model.SagaEventRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for reading the append-only saga event history
+ */
+@Repository
+public interface SagaEventRecordRepository extends JpaRepository<SagaEventRecord, Long> {
+
+    /**
+     * Full history of a saga in the order the events were recorded
+     */
+    List<SagaEventRecord> findBySagaIdOrderBySequenceAsc(String sagaId);
+
+    /**
+     * Histories of several sagas, grouped by saga and in recorded order within each
+     */
+    List<SagaEventRecord> findBySagaIdInOrderBySagaIdAscSequenceAsc(Collection<String> sagaIds);
+
+    /**
+     * Drop the histories of archived sagas
+     */
+    @Modifying
+    @Query("DELETE FROM SagaEventRecord r WHERE r.sagaId IN :sagaIds")
+    int deleteBySagaIds(@Param("sagaIds") Collection<String> sagaIds);
+}
@@ -0,0 +1,92 @@
+package com.graduation.sagaorchestratorservice.repository;
+
+import com.graduation.sagaorchestratorservice.model.SagaOutboxMessage;
+import com.graduation.sagaorchestratorservice.model.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for the saga command outbox
+ */
+@Repository
+public interface SagaOutboxRepository extends JpaRepository<SagaOutboxMessage, Long> {
+
+    /**
+     * Lock the next batch of due pending rows in insertion order.
+     * SKIP LOCKED lets several orchestrator instances relay concurrently without
+     * picking up the same rows; rows that are leased or backing off are not due.
+     */
+    @Query(value = """
+        SELECT * FROM saga_outbox
+        WHERE status = 'PENDING'
+          AND (next_attempt_at IS NULL OR next_attempt_at <= now())
+        ORDER BY id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<SagaOutboxMessage> lockNextPendingBatch(@Param("batchSize") int batchSize);
+
+    /**
+     * Lease claimed rows to this relay: they are not due again until the lease expires,
+     * so the row locks can be released before the rows are sent
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE saga_outbox
+        SET next_attempt_at = now() + :leaseMs * INTERVAL '1 millisecond'
+        WHERE id IN (:ids)
+        """, nativeQuery = true)
+    int leaseClaimed(@Param("ids") List<Long> ids, @Param("leaseMs") long leaseMs);
+
+    /**
+     * Mark a batch of rows as published in one statement
+     */
+    @Modifying
+    @Query("UPDATE SagaOutboxMessage m SET m.status = :status, m.publishedAt = :publishedAt WHERE m.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids,
+                      @Param("status") OutboxStatus status,
+                      @Param("publishedAt") Instant publishedAt);
+
+    /**
+     * Record a failed relay attempt for a batch of rows and back each row off
+     * exponentially: base * 2^attempts, capped at maxBackoffMs
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE saga_outbox
+        SET attempts = attempts + 1,
+            last_error = :error,
+            next_attempt_at = now()
+                + LEAST(:baseBackoffMs * power(2, LEAST(attempts, 30)), :maxBackoffMs) * INTERVAL '1 millisecond'
+        WHERE id IN (:ids)
+        """, nativeQuery = true)
+    int recordFailedAttempt(@Param("ids") List<Long> ids,
+                            @Param("error") String error,
+                            @Param("baseBackoffMs") long baseBackoffMs,
+                            @Param("maxBackoffMs") long maxBackoffMs);
+
+    /**
+     * Give up on rows that exceeded the relay attempt limit
+     */
+    @Modifying
+    @Query("UPDATE SagaOutboxMessage m SET m.status = 'FAILED' WHERE m.id IN :ids AND m.attempts >= :maxAttempts")
+    int markExhausted(@Param("ids") List<Long> ids, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Count rows in a given status
+     */
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Delete relayed rows older than the retention window
+     */
+    @Modifying
+    @Query("DELETE FROM SagaOutboxMessage m WHERE m.status = 'PUBLISHED' AND m.publishedAt < :cutoffTime")
+    int deletePublishedBefore(@Param("cutoffTime") Instant cutoffTime);
+}
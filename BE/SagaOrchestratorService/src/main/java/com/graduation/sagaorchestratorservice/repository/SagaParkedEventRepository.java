@@ -0,0 +1,54 @@
+package com.graduation.sagaorchestratorservice.repository;
+
+import com.graduation.sagaorchestratorservice.model.SagaParkedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for durable copies of parked saga events
+ */
+@Repository
+public interface SagaParkedEventRepository extends JpaRepository<SagaParkedEvent, Long> {
+
+    /**
+     * Lock parked events whose owner stopped renewing its lease, oldest first.
+     * SKIP LOCKED lets several orchestrator instances adopt concurrently without overlap.
+     */
+    @Query(value = """
+        SELECT * FROM saga_parked_events
+        WHERE lease_until IS NULL OR lease_until < :now
+        ORDER BY parked_at, id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<SagaParkedEvent> lockOrphanedBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    /**
+     * Take the lease on a batch of locked rows in one statement
+     */
+    @Modifying
+    @Query("UPDATE SagaParkedEvent e SET e.leaseOwner = :owner, e.leaseUntil = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") List<Long> ids,
+              @Param("owner") String owner,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Extend every lease held by an instance
+     */
+    @Modifying
+    @Query("UPDATE SagaParkedEvent e SET e.leaseUntil = :leaseUntil WHERE e.leaseOwner = :owner")
+    int renewLeases(@Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Give up every lease held by an instance (graceful shutdown)
+     */
+    @Modifying
+    @Query("UPDATE SagaParkedEvent e SET e.leaseOwner = NULL, e.leaseUntil = NULL WHERE e.leaseOwner = :owner")
+    int releaseAllLeases(@Param("owner") String owner);
+}
@@ -0,0 +1,86 @@
+package com.graduation.sagaorchestratorservice.repository;
+
+import com.graduation.sagaorchestratorservice.model.SagaRetryTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for the durable saga retry queue
+ */
+@Repository
+public interface SagaRetryTaskRepository extends JpaRepository<SagaRetryTask, Long> {
+
+    /**
+     * Schedule (or re-schedule) the retry for a saga.
+     * A saga has at most one pending retry; re-scheduling clears any lease so the
+     * new due time is claimed afresh.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO saga_retry_queue (id, saga_id, due_at, attempt, lease_owner, lease_until, created_at)
+        VALUES (nextval('saga_retry_queue_seq'), :sagaId, :dueAt, :attempt, NULL, NULL, :now)
+        ON CONFLICT (saga_id) DO UPDATE
+        SET due_at = EXCLUDED.due_at, attempt = EXCLUDED.attempt, lease_owner = NULL, lease_until = NULL
+        """, nativeQuery = true)
+    int upsert(@Param("sagaId") String sagaId,
+               @Param("dueAt") Instant dueAt,
+               @Param("attempt") int attempt,
+               @Param("now") Instant now);
+
+    /**
+     * Lock retries due before the horizon whose lease is free or expired.
+     * SKIP LOCKED lets several orchestrator instances claim concurrently without overlap.
+     */
+    @Query(value = """
+        SELECT * FROM saga_retry_queue
+        WHERE due_at <= :horizon
+          AND (lease_until IS NULL OR lease_until < :now)
+        ORDER BY due_at
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<SagaRetryTask> lockClaimableBatch(@Param("now") Instant now,
+                                           @Param("horizon") Instant horizon,
+                                           @Param("batchSize") int batchSize);
+
+    /**
+     * Take the lease on a batch of locked rows in one statement
+     */
+    @Modifying
+    @Query("UPDATE SagaRetryTask t SET t.leaseOwner = :owner, t.leaseUntil = :leaseUntil WHERE t.id IN :ids")
+    int lease(@Param("ids") List<Long> ids,
+              @Param("owner") String owner,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Remove a fired retry, unless it was re-scheduled (which clears the lease) in the meantime
+     */
+    @Modifying
+    @Query("DELETE FROM SagaRetryTask t WHERE t.sagaId = :sagaId AND t.leaseOwner = :owner")
+    int deleteLeased(@Param("sagaId") String sagaId, @Param("owner") String owner);
+
+    /**
+     * Hand a leased retry back to the queue with a new due time
+     */
+    @Modifying
+    @Query("""
+        UPDATE SagaRetryTask t SET t.dueAt = :dueAt, t.leaseOwner = NULL, t.leaseUntil = NULL
+        WHERE t.sagaId = :sagaId AND t.leaseOwner = :owner
+        """)
+    int releaseLease(@Param("sagaId") String sagaId,
+                     @Param("owner") String owner,
+                     @Param("dueAt") Instant dueAt);
+
+    /**
+     * Give up every lease held by an instance (graceful shutdown)
+     */
+    @Modifying
+    @Query("UPDATE SagaRetryTask t SET t.leaseOwner = NULL, t.leaseUntil = NULL WHERE t.leaseOwner = :owner")
+    int releaseAllLeases(@Param("owner") String owner);
+}
@@ -0,0 +1,182 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveRecord;
+import com.graduation.sagaorchestratorservice.model.SagaEvent;
+import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+import com.graduation.sagaorchestratorservice.repository.OrderPurchaseSagaStateRepository;
+import com.graduation.sagaorchestratorservice.repository.SagaEventRecordRepository;
+import com.graduation.sagaorchestratorservice.service.SagaArchiveStore;
+import com.graduation.sagaorchestratorservice.service.SagaEventLogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished sagas out of order_purchase_sagas into the archive segments.
+ *
+ * Sagas are streamed in keyset order on (end_time, saga_id), one chunk at a time.
+ * Each chunk is written to the archive and forced to disk, then its index rows are
+ * inserted and its saga and event rows deleted in one short transaction. Only one
+ * instance archives at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaArchiver {
+
+    private static final Set<SagaStatus> ARCHIVABLE_STATUSES =
+            EnumSet.of(SagaStatus.COMPLETED, SagaStatus.COMPENSATION_COMPLETED);
+
+    private static final String INSERT_INDEX_SQL = "INSERT INTO " + Constant.TABLE_SAGA_ARCHIVE_INDEX + " ("
+            + Constant.COLUMN_SAGA_ID + ", "
+            + Constant.COLUMN_ARCHIVE_SEGMENT + ", "
+            + Constant.COLUMN_ARCHIVE_FRAME_OFFSET + ", "
+            + Constant.COLUMN_ARCHIVED_AT + ") VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (" + Constant.COLUMN_SAGA_ID + ") DO UPDATE SET "
+            + Constant.COLUMN_ARCHIVE_SEGMENT + " = EXCLUDED." + Constant.COLUMN_ARCHIVE_SEGMENT + ", "
+            + Constant.COLUMN_ARCHIVE_FRAME_OFFSET + " = EXCLUDED." + Constant.COLUMN_ARCHIVE_FRAME_OFFSET + ", "
+            + Constant.COLUMN_ARCHIVED_AT + " = EXCLUDED." + Constant.COLUMN_ARCHIVED_AT;
+
+    private final OrderPurchaseSagaStateRepository sagaRepository;
+    private final SagaEventRecordRepository eventRecordRepository;
+    private final SagaEventLogService eventLogService;
+    private final SagaArchiveStore archiveStore;
+    private final RedisLockService redisLockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${saga.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${saga.archive.min-age-days:7}")
+    private int minAgeDays;
+
+    @Value("${saga.archive.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${saga.archive.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    @Value("${saga.archive.lock-ttl-seconds:300}")
+    private long lockTtlSeconds;
+
+    private Counter archivedCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        archivedCounter = Counter.builder(Constant.METRIC_SAGA_ARCHIVED)
+                .description(Constant.METRIC_DESC_SAGA_ARCHIVED)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archive sagas that finished more than minAgeDays ago
+     * Runs daily at 3:30 AM by default
+     */
+    @Scheduled(cron = "${saga.archive.cron:0 30 3 * * ?}")
+    public void archiveFinishedSagas() {
+        if (!enabled) {
+            return;
+        }
+
+        String lockKey = RedisLockService.buildArchiverLockKey();
+        if (!redisLockService.tryLock(lockKey, lockTtlSeconds, TimeUnit.SECONDS)) {
+            log.debug("Saga archiver already running on another instance");
+            return;
+        }
+
+        try {
+            Instant cutoffTime = Instant.now().minus(minAgeDays, ChronoUnit.DAYS);
+            Instant afterEndTime = Instant.EPOCH;
+            String afterSagaId = "";
+            int archived = 0;
+
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                List<OrderPurchaseSagaState> sagas = sagaRepository.findArchivableAfter(ARCHIVABLE_STATUSES,
+                        cutoffTime, afterEndTime, afterSagaId, PageRequest.of(0, chunkSize));
+                if (sagas.isEmpty()) {
+                    break;
+                }
+
+                archived += archiveChunk(sagas);
+
+                OrderPurchaseSagaState last = sagas.get(sagas.size() - 1);
+                afterEndTime = last.getEndTime();
+                afterSagaId = last.getSagaId();
+
+                if (sagas.size() < chunkSize || !redisLockService.extendLock(lockKey, lockTtlSeconds, TimeUnit.SECONDS)) {
+                    break;
+                }
+            }
+
+            log.info("Saga archiver moved {} finished sagas older than {} to the archive", archived, cutoffTime);
+        } catch (Exception e) {
+            log.error("Error archiving finished sagas", e);
+        } finally {
+            redisLockService.releaseLock(lockKey);
+        }
+    }
+
+    private int archiveChunk(List<OrderPurchaseSagaState> sagas) throws IOException {
+        Map<String, List<SagaEvent>> histories = eventLogService.loadHistories(sagas);
+        List<SagaArchiveRecord> records = new ArrayList<>(sagas.size());
+        for (OrderPurchaseSagaState saga : sagas) {
+            records.add(SagaArchiveRecord.of(saga, histories.get(saga.getSagaId())));
+        }
+
+        String segment = archiveStore.currentSegment();
+        long frameOffset = archiveStore.append(segment, records);
+        List<String> sagaIds = records.stream().map(SagaArchiveRecord::sagaId).toList();
+        Timestamp archivedAt = Timestamp.from(Instant.now());
+
+        Integer deleted = transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(INSERT_INDEX_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, sagaIds.get(i));
+                    ps.setString(2, segment);
+                    ps.setLong(3, frameOffset);
+                    ps.setTimestamp(4, archivedAt);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return sagaIds.size();
+                }
+            });
+            eventRecordRepository.deleteBySagaIds(sagaIds);
+            return sagaRepository.deleteArchived(sagaIds, ARCHIVABLE_STATUSES);
+        });
+
+        int count = deleted != null ? deleted : 0;
+        archivedCounter.increment(count);
+        log.debug("Archived {} sagas to {} at offset {}", count, segment, frameOffset);
+        return count;
+    }
+}
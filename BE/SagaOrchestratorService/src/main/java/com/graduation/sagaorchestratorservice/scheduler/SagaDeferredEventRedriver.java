@@ -0,0 +1,68 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
+import com.graduation.sagaorchestratorservice.service.SagaDeferredEventQueue;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-drives events parked in SagaDeferredEventQueue once their saga lock frees.
+ * Sagas whose lock is still held are left parked until the next tick. Also keeps the
+ * leases on this instance's parked events alive and adopts those of crashed peers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaDeferredEventRedriver {
+
+    private final SagaDeferredEventQueue deferredEventQueue;
+    private final OrderPurchaseSagaService sagaService;
+
+    @Value("${saga.lock.deferred.adopt-batch-size:500}")
+    private int adoptBatchSize;
+
+    @Scheduled(fixedDelayString = "${saga.lock.deferred.redrive-interval-ms:100}")
+    public void redriveParkedEvents() {
+        if (deferredEventQueue.getParkedDepth() == 0) {
+            return;
+        }
+
+        for (String sagaId : deferredEventQueue.parkedSagaIds()) {
+            try {
+                int redriven = sagaService.redriveParkedEvents(sagaId);
+                if (redriven > 0) {
+                    log.debug("Re-drove {} parked events for saga {}", redriven, sagaId);
+                }
+            } catch (Exception e) {
+                log.error("Error re-driving parked events for saga {}, event kept parked", sagaId, e);
+            }
+        }
+    }
+
+    /**
+     * Renew this instance's leases, then adopt parked events whose lease has lapsed
+     */
+    @Scheduled(fixedDelayString = "${saga.lock.deferred.lease-renew-interval-ms:10000}")
+    public void maintainLeases() {
+        try {
+            deferredEventQueue.renewLeases();
+            deferredEventQueue.adoptOrphaned(adoptBatchSize);
+        } catch (Exception e) {
+            log.error("Error maintaining parked event leases", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            int released = deferredEventQueue.releaseAll();
+            log.info("Released {} parked event leases on shutdown", released);
+        } catch (Exception e) {
+            log.error("Error releasing parked event leases on shutdown", e);
+        }
+    }
+}
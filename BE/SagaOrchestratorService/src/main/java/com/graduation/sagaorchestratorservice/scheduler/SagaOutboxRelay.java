@@ -0,0 +1,242 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.SagaOutboxMessage;
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import com.graduation.sagaorchestratorservice.model.enums.OutboxStatus;
+import com.graduation.sagaorchestratorservice.repository.SagaOutboxRepository;
+import com.graduation.sagaorchestratorservice.service.KafkaMessagePublisher;
+import com.graduation.sagaorchestratorservice.service.SagaOutboxService;
+import com.graduation.sagaorchestratorservice.service.SagaStepLatencyRecorder;
+import com.graduation.sagawirecodec.SagaWireValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays pending outbox rows to Kafka.
+ * Each tick claims a batch in a short transaction that leases the rows to this relay,
+ * sends every row without waiting (the producer pipelines them), then waits for all
+ * acks outside any transaction and marks the batch in a second short transaction.
+ * Rows whose send failed are backed off exponentially; rows of a relay that died
+ * mid-batch become due again when their lease expires.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaOutboxRelay {
+
+    private final SagaOutboxRepository outboxRepository;
+    private final SagaOutboxService outboxService;
+    private final KafkaMessagePublisher messagePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SagaStepLatencyRecorder latencyRecorder;
+
+    @Value("${saga.outbox.relay.enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${saga.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${saga.outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${saga.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${saga.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${saga.outbox.relay.backoff-base-ms:500}")
+    private long backoffBaseMs;
+
+    @Value("${saga.outbox.relay.backoff-max-ms:60000}")
+    private long backoffMaxMs;
+
+    @Value("${saga.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        publishedCounter = Counter.builder(Constant.METRIC_SAGA_OUTBOX_PUBLISHED)
+                .description(Constant.METRIC_DESC_OUTBOX_PUBLISHED)
+                .register(meterRegistry);
+        failedCounter = Counter.builder(Constant.METRIC_SAGA_OUTBOX_FAILED)
+                .description(Constant.METRIC_DESC_OUTBOX_FAILED)
+                .register(meterRegistry);
+        batchTimer = Timer.builder(Constant.METRIC_SAGA_OUTBOX_BATCH_TIME)
+                .description(Constant.METRIC_DESC_OUTBOX_BATCH_TIME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain the outbox; keeps going while batches come back full
+     */
+    @Scheduled(fixedDelayString = "${saga.outbox.relay.poll-interval-ms:200}")
+    public void relayPendingMessages() {
+        if (!relayEnabled) {
+            return;
+        }
+
+        try {
+            for (int run = 0; run < maxBatchesPerRun; run++) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                List<SagaOutboxMessage> batch = transactionTemplate.execute(status -> claimBatch());
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                relayBatch(batch);
+                sample.stop(batchTimer);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error relaying saga outbox", e);
+        }
+    }
+
+    /**
+     * Lock the next due rows and lease them to this relay; the row locks are released at
+     * commit and the lease keeps other instances off the rows while they are being sent
+     */
+    private List<SagaOutboxMessage> claimBatch() {
+        List<SagaOutboxMessage> batch = outboxRepository.lockNextPendingBatch(batchSize);
+        if (!batch.isEmpty()) {
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (SagaOutboxMessage outboxMessage : batch) {
+                ids.add(outboxMessage.getId());
+            }
+            // Twice the ack deadline, so a live relay always marks its rows before the lease runs out
+            outboxRepository.leaseClaimed(ids, 2 * sendTimeoutMs);
+        }
+        return batch;
+    }
+
+    /**
+     * Send a claimed batch, wait for the acks and record the outcome
+     */
+    private void relayBatch(List<SagaOutboxMessage> batch) {
+        // Send everything first so the producer can batch the records
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        for (SagaOutboxMessage outboxMessage : batch) {
+            try {
+                Map<String, Object> message = outboxService.readMessage(outboxMessage);
+                CompletableFuture<SendResult<String, Object>> future = messagePublisher.publishMessage(
+                        message, outboxMessage.getTopic(), outboxMessage.getMessageKey());
+                recordPublishLatency(future, outboxMessage, message);
+                futures.add(future);
+            } catch (Exception e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // Then collect acks against a single deadline for the whole batch
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        String lastError = null;
+
+        for (int i = 0; i < batch.size(); i++) {
+            SagaOutboxMessage outboxMessage = batch.get(i);
+            try {
+                long remainingNanos = Math.max(0L, deadline - System.nanoTime());
+                futures.get(i).get(remainingNanos, TimeUnit.NANOSECONDS);
+                publishedIds.add(outboxMessage.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedIds.add(outboxMessage.getId());
+                lastError = "Interrupted while waiting for Kafka ack";
+            } catch (Exception e) {
+                failedIds.add(outboxMessage.getId());
+                lastError = truncate(e.getMessage());
+                log.warn("Outbox relay failed: outboxId={}, sagaId={}, topic={}, error={}",
+                        outboxMessage.getId(), outboxMessage.getSagaId(), outboxMessage.getTopic(), e.getMessage());
+            }
+        }
+
+        String error = lastError;
+        Integer exhausted = transactionTemplate.execute(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxRepository.markPublished(publishedIds, OutboxStatus.PUBLISHED, Instant.now());
+            }
+            if (failedIds.isEmpty()) {
+                return 0;
+            }
+            outboxRepository.recordFailedAttempt(failedIds, error, backoffBaseMs, backoffMaxMs);
+            return outboxRepository.markExhausted(failedIds, maxAttempts);
+        });
+
+        publishedCounter.increment(publishedIds.size());
+        failedCounter.increment(failedIds.size());
+        if (exhausted != null && exhausted > 0) {
+            log.error("{} outbox messages exceeded {} relay attempts and were marked FAILED",
+                    exhausted, maxAttempts);
+        }
+
+        log.debug("Outbox batch relayed: published={}, failed={}", publishedIds.size(), failedIds.size());
+    }
+
+    /**
+     * Publish phase of the command's step: from enqueue in the saga transaction to the Kafka
+     * ack, so relay polling delay is included
+     */
+    private void recordPublishLatency(CompletableFuture<SendResult<String, Object>> future,
+                                      SagaOutboxMessage outboxMessage, Map<String, Object> message) {
+        Long stepId = SagaWireValues.toLong(message.get(Constant.FIELD_STEP_ID));
+        OrderPurchaseSagaStep step = stepId != null ? OrderPurchaseSagaStep.getByStepNumber(stepId.intValue()) : null;
+        if (step == null || outboxMessage.getCreatedAt() == null) {
+            return;
+        }
+        long createdAtMs = outboxMessage.getCreatedAt().toEpochMilli();
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                latencyRecorder.record(step, SagaStepLatencyRecorder.Phase.PUBLISH,
+                        TimeUnit.MILLISECONDS.toNanos(Math.max(0L, System.currentTimeMillis() - createdAtMs)));
+            }
+        });
+    }
+
+    /**
+     * Remove relayed rows after the retention window
+     * Runs daily at 2:30 AM
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void cleanupPublishedMessages() {
+        try {
+            Instant cutoffTime = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+            Integer deleted = transactionTemplate.execute(status -> outboxRepository.deletePublishedBefore(cutoffTime));
+            log.info("Outbox cleanup removed {} published messages older than {}h", deleted, retentionHours);
+        } catch (Exception e) {
+            log.error("Error cleaning up saga outbox", e);
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,179 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.SagaRetryTask;
+import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
+import com.graduation.sagaorchestratorservice.service.SagaRetryQueueService;
+import com.graduation.sagaorchestratorservice.utils.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires durable saga step retries.
+ *
+ * Every claim interval the scheduler leases the retries due within the lookahead
+ * window and drops them into an in-memory hierarchical timing wheel; the wheel is
+ * ticked on a short interval and fires each retry on a small worker pool. The lease
+ * outlives the lookahead window, so a retry is only re-claimed by a peer if this
+ * instance dies before firing it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaRetryScheduler {
+
+    private final SagaRetryQueueService retryQueueService;
+    private final OrderPurchaseSagaService sagaService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${saga.retry.queue.lookahead-ms:5000}")
+    private long lookaheadMs;
+
+    @Value("${saga.retry.queue.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${saga.retry.queue.batch-size:200}")
+    private int batchSize;
+
+    @Value("${saga.retry.queue.wheel-tick-ms:100}")
+    private long wheelTickMs;
+
+    @Value("${saga.retry.queue.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${saga.retry.queue.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${saga.retry.queue.contended-backoff-ms:1000}")
+    private long contendedBackoffMs;
+
+    private HierarchicalTimingWheel<ScheduledRetry> wheel;
+    private ExecutorService retryExecutor;
+    private Counter firedCounter;
+
+    // Latest due time per saga in the wheel; older wheel entries for the saga are ignored
+    private final Map<String, Long> pendingDueTimes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initialize() {
+        wheel = new HierarchicalTimingWheel<>(wheelTickMs, wheelSize, System.currentTimeMillis());
+        retryExecutor = Executors.newFixedThreadPool(workerThreads);
+
+        firedCounter = Counter.builder(Constant.METRIC_SAGA_RETRY_FIRED)
+                .description(Constant.METRIC_DESC_RETRY_FIRED)
+                .register(meterRegistry);
+        Gauge.builder(Constant.METRIC_SAGA_RETRY_WHEEL_SIZE, pendingDueTimes, Map::size)
+                .description(Constant.METRIC_DESC_RETRY_WHEEL_SIZE)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lease retries due within the lookahead window and load them into the wheel
+     */
+    @Scheduled(fixedDelayString = "${saga.retry.queue.claim-interval-ms:1000}")
+    public void claimDueRetries() {
+        try {
+            Instant now = Instant.now();
+            Instant horizon = now.plusMillis(lookaheadMs);
+            Instant leaseUntil = horizon.plusMillis(leaseMs);
+
+            List<SagaRetryTask> claimed;
+            do {
+                claimed = retryQueueService.claimDue(horizon, leaseUntil, batchSize);
+                for (SagaRetryTask task : claimed) {
+                    enqueue(task.getSagaId(), task.getDueAt().toEpochMilli());
+                }
+            } while (claimed.size() == batchSize);
+
+        } catch (Exception e) {
+            log.error("Error claiming due saga retries", e);
+        }
+    }
+
+    /**
+     * Advance the wheel and fire expired retries
+     */
+    @Scheduled(fixedDelayString = "${saga.retry.queue.wheel-tick-ms:100}")
+    public void tick() {
+        List<ScheduledRetry> expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        expired.forEach(this::fire);
+    }
+
+    private void enqueue(String sagaId, long dueAtMs) {
+        pendingDueTimes.put(sagaId, dueAtMs);
+        ScheduledRetry retry = new ScheduledRetry(sagaId, dueAtMs);
+
+        boolean added;
+        synchronized (wheel) {
+            added = wheel.add(retry, dueAtMs);
+        }
+        if (!added) {
+            fire(retry);
+        }
+    }
+
+    private void fire(ScheduledRetry retry) {
+        // A later claim for the same saga supersedes this wheel entry
+        if (!pendingDueTimes.remove(retry.sagaId(), retry.dueAtMs())) {
+            return;
+        }
+        retryExecutor.execute(() -> runRetry(retry.sagaId()));
+    }
+
+    private void runRetry(String sagaId) {
+        try {
+            firedCounter.increment();
+            if (sagaService.executeScheduledRetry(sagaId)) {
+                retryQueueService.complete(sagaId);
+            } else {
+                // Saga lock held elsewhere or partition not owned here: hand it back
+                retryQueueService.release(sagaId, Instant.now().plusMillis(contendedBackoffMs));
+            }
+        } catch (Exception e) {
+            log.error("Error firing saga retry for {}", sagaId, e);
+            retryQueueService.release(sagaId, Instant.now().plusMillis(contendedBackoffMs));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdown();
+        try {
+            if (!retryExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                retryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            retryExecutor.shutdownNow();
+        }
+
+        try {
+            int released = retryQueueService.releaseAll();
+            log.info("Released {} saga retry leases on shutdown", released);
+        } catch (Exception e) {
+            log.error("Error releasing saga retry leases on shutdown", e);
+        }
+    }
+
+    private record ScheduledRetry(String sagaId, long dueAtMs) {
+    }
+}
@@ -1,9 +1,8 @@
 package com.graduation.sagaorchestratorservice.scheduler;
 
 import com.graduation.sagaorchestratorservice.constants.Constant;
-import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
 import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
-import com.graduation.sagaorchestratorservice.service.SagaMonitoringService;
+import com.graduation.sagaorchestratorservice.service.SagaDeadlineTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +12,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -25,18 +24,15 @@ import java.util.concurrent.atomic.AtomicLong;
 @RequiredArgsConstructor
 public class SagaTimeoutScheduler {
 
-    private final SagaMonitoringService sagaMonitoringService;
     private final OrderPurchaseSagaService sagaService;
+    private final SagaDeadlineTracker deadlineTracker;
 
-    // Configuration values from properties
-    @Value("${saga.timeout.default-minutes:10}")
-    private int defaultTimeoutMinutes;
+    // Step timeouts come from SagaStepTimeoutPolicy when the deadline is tracked
+    @Value("${saga.timeout.scan.contended-recheck-seconds:30}")
+    private long contendedRecheckSeconds;
 
-    @Value("${saga.timeout.payment-minutes:5}")
-    private int paymentTimeoutMinutes;
-
-    @Value("${saga.timeout.order-minutes:15}")
-    private int orderTimeoutMinutes;
+    @Value("${saga.timeout.scan.failed-recheck-seconds:30}")
+    private long failedRecheckSeconds;
 
     // Metrics for monitoring scheduler health
     private final AtomicLong timeoutCheckCount = new AtomicLong(0);
@@ -44,9 +40,9 @@ public class SagaTimeoutScheduler {
     private Instant lastSuccessfulCheck = Instant.now();
 
     /**
-     * Check for timed-out sagas every 30 seconds
+     * Check for timed-out sagas; cheap enough to run often since only expiring sagas are read
      */
-    @Scheduled(fixedRate = 30000)
+    @Scheduled(fixedDelayString = "${saga.timeout.scan.interval-ms:5000}")
     public void checkForTimeouts() {
         long checkNumber = timeoutCheckCount.incrementAndGet();
         log.debug(Constant.LOG_TIMEOUT_CHECK_RUNNING, checkNumber);
@@ -83,15 +79,9 @@ public class SagaTimeoutScheduler {
         int timedOutCount = 0;
 
         try {
-            // Get current health status to check for long-running sagas
-            SagaMonitoringService.HealthStatus health = sagaMonitoringService.getHealthStatus();
-
-            if (health.activeCount > 0) {
-                log.debug(Constant.LOG_CHECKING_ACTIVE_SAGAS, health.activeCount);
-
-                // Actual timeout logic implementation
-                timedOutCount = checkActualTimeouts();
-            }
+            // No in-memory active-count gate: it is per instance and resets on restart,
+            // and the deadline scan is proportional to expiring sagas anyway
+            timedOutCount = checkActualTimeouts();
 
         } catch (Exception e) {
             log.error("Error performing timeout check", e);
@@ -102,136 +92,31 @@ public class SagaTimeoutScheduler {
     }
 
     /**
-     * Check for actual timed-out sagas using repository queries
+     * Fire timeouts for every saga whose step deadline has passed.
+     * pollExpired drops the sagas from the tracker, so one that fails is put back for a
+     * later attempt instead of losing its deadline until the next resync.
      */
     private int checkActualTimeouts() {
         int timedOutCount = 0;
-
-        try {
-            // Check for different timeout scenarios
-            timedOutCount += checkPaymentTimeouts();
-            timedOutCount += checkOrderTimeouts();
-            timedOutCount += checkDefaultTimeouts();
-
-        } catch (Exception e) {
-            log.error("Error checking for timed-out sagas", e);
-            throw e;
-        }
-
-        return timedOutCount;
-    }
-
-    /**
-     * Check for payment step timeouts (5 minutes)
-     */
-    private int checkPaymentTimeouts() {
-        try {
-            return sagaService.checkForTimeoutsWithDuration(Duration.ofMinutes(paymentTimeoutMinutes));
-        } catch (Exception e) {
-            log.error("Error checking payment timeouts", e);
-            return 0;
-        }
-    }
-
-    /**
-     * Check for order step timeouts (15 minutes)
-     */
-    private int checkOrderTimeouts() {
-        try {
-            return sagaService.checkForTimeoutsWithDuration(Duration.ofMinutes(orderTimeoutMinutes));
-        } catch (Exception e) {
-            log.error("Error checking order timeouts", e);
-            return 0;
-        }
-    }
-
-    /**
-     * Check for default timeouts (10 minutes)
-     */
-    private int checkDefaultTimeouts() {
-        try {
-            return sagaService.checkForTimeoutsWithDuration(Duration.ofMinutes(defaultTimeoutMinutes));
-        } catch (Exception e) {
-            log.error("Error checking default timeouts", e);
-            return 0;
-        }
-    }
-
-    /**
-     * Get timeout duration for a specific saga type
-     */
-    public Duration getTimeoutForSagaType(String sagaType) {
-        if (sagaType == null) {
-            return Duration.ofMinutes(defaultTimeoutMinutes);
-        }
-
-        return switch (sagaType.toLowerCase()) {
-            case "payment", "payment-processing" -> Duration.ofMinutes(paymentTimeoutMinutes);
-            case "order", "order-processing" -> Duration.ofMinutes(orderTimeoutMinutes);
-            default -> Duration.ofMinutes(defaultTimeoutMinutes);
-        };
-    }
-
-    /**
-     * Check if a saga has timed out based on its start time and type
-     */
-    public boolean hasSagaTimedOut(String sagaType, Instant sagaStartTime) {
-        if (sagaStartTime == null) {
-            return false;
-        }
-
-        Duration timeout = getTimeoutForSagaType(sagaType);
-        Instant timeoutThreshold = Instant.now().minus(timeout);
-
-        return sagaStartTime.isBefore(timeoutThreshold);
-    }
-
-    /**
-     * Manual timeout check for specific saga
-     */
-    public boolean checkSagaTimeout(String sagaId, String sagaType, Instant startTime) {
-        if (hasSagaTimedOut(sagaType, startTime)) {
-            log.warn("Saga {} of type {} has timed out (started at {})",
-                    sagaId, sagaType, startTime);
-
-            // Here we would trigger compensation logic
-            triggerSagaCompensation(sagaId, "TIMEOUT");
-
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Trigger compensation for a timed-out saga
-     */
-    private void triggerSagaCompensation(String sagaId, String reason) {
-        log.warn(Constant.LOG_TRIGGERING_COMPENSATION, sagaId, reason);
-
-        try {
-            // Find and process timeout through the saga service
-            Optional<OrderPurchaseSagaState> optionalSaga = sagaService.findById(sagaId);
-
-            if (optionalSaga.isPresent()) {
-                OrderPurchaseSagaState saga = optionalSaga.get();
-
-                // Check if saga is still in a state where it can be timed out
-                if (saga.getStatus().isActive()) {
-                    // Trigger timeout handling through the saga service
-                    sagaService.handleSagaTimeoutManually(sagaId, reason);
-                    log.info(Constant.LOG_TIMEOUT_COMPENSATION_TRIGGERED, sagaId);
-                } else {
-                    log.info("Saga {} is no longer active, skipping timeout compensation", sagaId);
+        Instant now = Instant.now();
+        List<String> expiredSagaIds = deadlineTracker.pollExpired(now);
+
+        for (String sagaId : expiredSagaIds) {
+            try {
+                Boolean handled = sagaService.processStepTimeout(sagaId);
+                if (handled == null) {
+                    // Saga lock contended: look at it again shortly
+                    deadlineTracker.recheckAt(sagaId, now.plusSeconds(contendedRecheckSeconds));
+                } else if (handled) {
+                    timedOutCount++;
                 }
-            } else {
-                log.warn("Saga {} not found for timeout compensation", sagaId);
+            } catch (Exception e) {
+                log.error("Error processing timeout for saga {}, rechecking in {}s", sagaId, failedRecheckSeconds, e);
+                deadlineTracker.recheckAt(sagaId, now.plusSeconds(failedRecheckSeconds));
             }
-        } catch (Exception e) {
-            log.error(Constant.LOG_ERROR_TRIGGERING_COMPENSATION, sagaId, e.getMessage());
-            // Record the failure in monitoring
-            sagaMonitoringService.recordSagaFailed(sagaId, reason + " - Compensation trigger failed: " + e.getMessage());
         }
+
+        return timedOutCount;
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.graduation.sagaorchestratorservice.service;
 
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
 import com.graduation.sagaorchestratorservice.constants.Constant;
 import com.graduation.sagaorchestratorservice.model.ProcessedMessage;
 import com.graduation.sagaorchestratorservice.model.enums.ActionType;
@@ -7,14 +9,19 @@ import com.graduation.sagaorchestratorservice.repository.ProcessedMessageReposit
 import com.graduation.sagaorchestratorservice.utils.MessageIdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -26,17 +33,43 @@ import java.util.UUID;
 public class IdempotencyService {
 
     private final ProcessedMessageRepository processedMessageRepository;
+    private final ProcessedMessageFilter processedMessageFilter;
+    private final ProcessedMessagePartitionService partitionService;
+
+    @Value("${idempotency.retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Partition-affine mode tracks ownership itself; catch the filter up when a partition is gained
+     */
+    @EventListener
+    public void onPartitionOwnershipChanged(SagaPartitionOwnershipService.PartitionOwnershipChanged event) {
+        if (event.assigned()) {
+            processedMessageFilter.catchUp();
+        }
+    }
 
     /**
      * Check if a message has been processed before
      * This handles different scenarios:
      * 1. Message with messageId
      * 2. Message identified by sagaId + stepId combination
+     * Each key is first checked against the in-memory filter. A message id the filter
+     * rules out is not looked up; a step key always is unless the filter has seen it.
+     * sentAtMillis is the message timestamp.
      */
-    public boolean isProcessed(String messageId, String sagaId, Integer stepId, String messageType, ActionType actionType) {
+    public boolean isProcessed(String messageId, String sagaId, Integer stepId, String messageType,
+                               ActionType actionType, Long sentAtMillis) {
         // Primary check: by messageId if available
         if (messageId != null && !messageId.trim().isEmpty()) {
-            Optional<ProcessedMessage> processed = processedMessageRepository.findByMessageId(messageId);
+            ProcessedMessageFilter.Verdict verdict = processedMessageFilter.check(messageId, sentAtMillis);
+            if (verdict == ProcessedMessageFilter.Verdict.PROCESSED) {
+                log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId);
+                return true;
+            }
+            Optional<ProcessedMessage> processed = verdict == ProcessedMessageFilter.Verdict.NEW
+                    ? Optional.empty()
+                    : processedMessageRepository.findByMessageId(messageId);
             if (processed.isPresent()) {
                 log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId);
                 return true;
@@ -45,11 +78,14 @@ public class IdempotencyService {
             throw new IllegalArgumentException(Constant.VALIDATION_MESSAGE_ID_REQUIRED);
         }
 
-        // Secondary check: by sagaId + stepId + actionType combination
+        // Secondary check: by sagaId + stepId + actionType combination. Step keys are also
+        // written by timeout, cancel and retry paths and by the other consumer group, none of
+        // which this filter sees, so only a positive answer may skip the database
         if (sagaId != null && stepId != null && actionType != null) {
-            Optional<ProcessedMessage> processed = processedMessageRepository
-                    .findBySagaIdAndStepIdAndActionType(sagaId, stepId, actionType);
-            if (processed.isPresent()) {
+            ProcessedMessageFilter.Verdict verdict = processedMessageFilter.check(
+                    ProcessedMessageFilter.stepKey(sagaId, stepId, actionType), sentAtMillis);
+            if (verdict == ProcessedMessageFilter.Verdict.PROCESSED
+                    || processedMessageRepository.findBySagaIdAndStepIdAndActionType(sagaId, stepId, actionType).isPresent()) {
                 log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED_SAGA_STEP,
                         sagaId, stepId, actionType);
                 return true;
@@ -64,11 +100,32 @@ public class IdempotencyService {
     }
 
     /**
-     * Record that a message has been processed
+     * Load the processed state of a whole batch of messages with one query per key type.
+     * The returned snapshot answers {@link #isProcessed} for the batch and must be told about
+     * messages processed within the batch, since those are not visible until commit.
+     */
+    public ProcessedBatch loadProcessedBatch(Collection<String> messageIds, Collection<String> sagaIds) {
+        Set<String> processedMessageIds = messageIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(processedMessageRepository.findProcessedMessageIds(messageIds));
+
+        Set<String> processedSteps = new HashSet<>();
+        if (!sagaIds.isEmpty()) {
+            for (ProcessedMessageRepository.ProcessedStepView step
+                    : processedMessageRepository.findProcessedStepsBySagaIds(sagaIds)) {
+                processedSteps.add(ProcessedBatch.stepKey(step.getSagaId(), step.getStepId(), step.getActionType()));
+            }
+        }
+
+        return new ProcessedBatch(processedMessageIds, processedSteps);
+    }
+
+    /**
+     * Record that a message has been processed; sentAtMillis is the message timestamp
      */
     @Transactional
     public void recordProcessing(String messageId, String sagaId, Integer stepId,
-                                 String messageType, Map<String, Object> result) {
+                                 String messageType, Long sentAtMillis, Map<String, Object> result) {
 
         // Generate messageId if not provided
         String finalMessageId = messageId;
@@ -90,10 +147,16 @@ public class IdempotencyService {
                     sagaId,
                     stepId,
                     messageType,
+                    partitionService.partitionKey(sentAtMillis),
                     result
             );
 
             processedMessageRepository.save(processedMessage);
+            processedMessageFilter.recordProcessed(finalMessageId);
+            if (processedMessage.getActionType() != null) {
+                processedMessageFilter.recordProcessed(
+                        ProcessedMessageFilter.stepKey(sagaId, stepId, processedMessage.getActionType()));
+            }
             log.debug(Constant.LOG_RECORDED_MESSAGE_PROCESSING,
                     finalMessageId, sagaId, stepId);
 
@@ -201,7 +264,8 @@ public class IdempotencyService {
 
     /**
      * Scheduled task to clean up old processed messages
-     * Runs daily at 2 AM
+     * Runs daily at 2 AM; on a partitioned table it drops expired daily partitions
+     * (and creates upcoming ones) instead of deleting rows
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional
@@ -209,8 +273,13 @@ public class IdempotencyService {
         log.info(Constant.LOG_STARTING_CLEANUP_OLD_MESSAGES);
 
         try {
-            // Keep messages for 30 days (configurable)
-            Instant cutoffTime = Instant.now().minus(30, ChronoUnit.DAYS);
+            Instant cutoffTime = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+
+            if (partitionService.isPartitioned()) {
+                int droppedCount = partitionService.maintain();
+                log.info(Constant.LOG_COMPLETED_PARTITION_CLEANUP, droppedCount, cutoffTime);
+                return;
+            }
 
             int deletedCount = processedMessageRepository.deleteByProcessedAtBefore(cutoffTime);
 
@@ -243,4 +312,44 @@ public class IdempotencyService {
             return 0;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Processed-message snapshot for one batch, same semantics as {@link IdempotencyService#isProcessed}
+     */
+    public static class ProcessedBatch {
+
+        private final Set<String> processedMessageIds;
+        private final Set<String> processedSteps;
+
+        private ProcessedBatch(Set<String> processedMessageIds, Set<String> processedSteps) {
+            this.processedMessageIds = processedMessageIds;
+            this.processedSteps = processedSteps;
+        }
+
+        public boolean isProcessed(String messageId, String sagaId, Integer stepId, ActionType actionType) {
+            if (messageId == null || messageId.trim().isEmpty()) {
+                throw new IllegalArgumentException(Constant.VALIDATION_MESSAGE_ID_REQUIRED);
+            }
+            if (processedMessageIds.contains(messageId)) {
+                log.debug(Constant.LOG_MESSAGE_ALREADY_PROCESSED, messageId);
+                return true;
+            }
+
+            if (sagaId == null || stepId == null || actionType == null) {
+                throw new IllegalArgumentException(Constant.VALIDATION_SAGA_ID_REQUIRED + " and " + Constant.VALIDATION_STEP_ID_REQUIRED);
+            }
+            return processedSteps.contains(stepKey(sagaId, stepId, actionType));
+        }
+
+        /**
+         * Mark a message processed earlier in the same batch (duplicates within one poll)
+         */
+        public void markProcessed(String messageId) {
+            processedMessageIds.add(messageId);
+        }
+
+        private static String stepKey(String sagaId, Integer stepId, ActionType actionType) {
+            return sagaId + ":" + stepId + ":" + actionType;
+        }
+    }
+}
@@ -111,26 +111,6 @@ public class KafkaMessagePublisher {
         return publishMessage(event, topic, sagaId);
     }
 
-    /**
-     * Publish a saga step command
-     */
-    public CompletableFuture<SendResult<String, Object>> publishSagaStepCommand(String sagaId,
-                                                                                Integer stepId,
-                                                                                String commandType,
-                                                                                Map<String, Object> payload,
-                                                                                String topic) {
-        Map<String, Object> command = Map.of(
-                Constant.FIELD_MESSAGE_ID, MessageIdGenerator.generateForSagaStep(sagaId, stepId),
-                Constant.FIELD_SAGA_ID, sagaId,
-                Constant.FIELD_STEP_ID, stepId,
-                Constant.FIELD_TYPE, commandType,
-                Constant.FIELD_TIMESTAMP, System.currentTimeMillis(),
-                Constant.FIELD_PAYLOAD, payload != null ? payload : Map.of()
-        );
-
-        return publishMessage(command, topic, sagaId);
-    }
-
     /**
      * Publish a saga step event
      */
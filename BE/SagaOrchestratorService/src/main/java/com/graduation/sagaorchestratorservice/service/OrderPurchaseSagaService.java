@@ -1,22 +1,40 @@
 package com.graduation.sagaorchestratorservice.service;
 
+import com.graduation.sagacoordination.lock.LockLease;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagacoordination.model.FencingLockResult;
+import com.graduation.sagacoordination.model.MultiFencingLockResult;
 import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.definition.OrderPurchaseSagaDefinition;
+import com.graduation.sagaorchestratorservice.definition.SagaDefinition;
+import com.graduation.sagaorchestratorservice.definition.SagaStepLock;
+import com.graduation.sagaorchestratorservice.exception.SagaEventBatchException;
 import com.graduation.sagaorchestratorservice.exception.SagaExecutionException;
 import com.graduation.sagaorchestratorservice.exception.SagaNotFoundException;
-import com.graduation.sagaorchestratorservice.model.FencingLockResult;
 import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
 import com.graduation.sagaorchestratorservice.model.SagaEvent;
 import com.graduation.sagaorchestratorservice.model.enums.*;
 import com.graduation.sagaorchestratorservice.repository.OrderPurchaseSagaStateRepository;
 import com.graduation.sagaorchestratorservice.utils.MessageIdGenerator;
 import com.graduation.sagaorchestratorservice.utils.SagaIdGenerator;
+import com.graduation.sagawirecodec.SagaWireValues;
+import com.graduation.sagawirecodec.message.SagaCommand;
 import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -35,14 +53,22 @@ import java.util.concurrent.locks.ReentrantLock;
 @RequiredArgsConstructor
 public class OrderPurchaseSagaService {
 
+    private static final SagaDefinition<OrderPurchaseSagaStep, OrderPurchaseSagaState> SAGA_DEFINITION =
+            OrderPurchaseSagaDefinition.DEFINITION;
+
     private final OrderPurchaseSagaStateRepository sagaRepository;
-    private final KafkaMessagePublisher messagePublisher;
+    private final SagaOutboxService outboxService;
     private final IdempotencyService idempotencyService;
     private final SagaMonitoringService monitoringService;
     private final RedisLockService redisLockService;
-
-    @Value("${saga.retry.max-attempts:3}")
-    private int maxRetries;
+    private final SagaPartitionOwnershipService partitionOwnership;
+    private final SagaDeferredEventQueue deferredEventQueue;
+    private final SagaRetryQueueService retryQueueService;
+    private final SagaDeadlineTracker deadlineTracker;
+    private final SagaStateCache stateCache;
+    private final SagaStepLatencyRecorder latencyRecorder;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${saga.timeout.default-minutes:10}")
     private long defaultTimeoutMinutes;
@@ -60,9 +86,20 @@ public class OrderPurchaseSagaService {
     @Value("${saga.retry.delay-seconds:5}")
     private int baseRetryDelaySeconds;
 
+    // Saga lock leases are renewed by the watchdog, so the TTL only bounds recovery after a crash
+    @Value("${saga.lock.lease-ttl-seconds:5}")
+    private long sagaLeaseTtlSeconds;
+
     @Value("${saga.lock.monitoring.enabled:true}")
     private boolean lockMonitoringEnabled;
 
+    // "lock" (Redis saga lock per event) or "optimistic" (version compare-and-set, retried on conflict)
+    @Value("${saga.concurrency.mode:lock}")
+    private String concurrencyMode;
+
+    @Value("${saga.concurrency.optimistic.max-attempts:5}")
+    private int optimisticMaxAttempts;
+
     // Synchronization for preventing race conditions
     private final ConcurrentHashMap<String, ReentrantLock> sagaLocks = new ConcurrentHashMap<>();
 
@@ -90,7 +127,7 @@ public class OrderPurchaseSagaService {
         OrderPurchaseSagaState saga = OrderPurchaseSagaState.initiate(
                 sagaId, userId, orderId, userEmail, userName, orderDescription, totalAmount);
 
-        sagaRepository.save(saga);
+        saveSaga(saga);
 
         // Record in monitoring
         monitoringService.recordSagaStarted(sagaId, "ORDER_PURCHASE");
@@ -152,132 +189,453 @@ public class OrderPurchaseSagaService {
      * PHASE 2 ENHANCEMENT: Handle incoming event messages from services with DISTRIBUTED LOCKING
      * Preserves all existing idempotency, validation, and compensation logic
      * Adds distributed saga locking with retry mechanism
+     * Each event is applied in its own transaction, committed before the saga lock is released
      */
-    @Transactional
     public void handleEventMessage(Map<String, Object> eventData) {
         String sagaId = (String) eventData.get(Constant.FIELD_SAGA_ID);
         String eventType = (String) eventData.get(Constant.FIELD_TYPE);
-        Boolean success = (Boolean) eventData.get(Constant.FIELD_SUCCESS);
 
         log.debug(Constant.LOG_HANDLING_EVENT, eventType, sagaId);
 
+        // Partition-affine mode: the listener already serialized this saga on its partition lock
+        if (partitionOwnership.isHeldByCurrentThread(sagaId)) {
+            processEventInTransaction(eventData);
+            return;
+        }
+
+        // Optimistic mode: no Redis saga lock, the version column detects concurrent writers
+        if (isOptimisticConcurrency()) {
+            processEventOptimistically(sagaId, eventType, eventData);
+            return;
+        }
+
+        // Keep per-saga order: events already parked for this saga go first
+        if (deferredEventQueue.hasParked(sagaId)) {
+            parkContendedEvent(sagaId, eventType, eventData);
+            return;
+        }
+
         // PHASE 2: Use distributed saga lock instead of ReentrantLock
         String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
 
-        // Try to acquire distributed lock with retry mechanism
-        if (acquireSagaLockWithRetry(sagaLockKey, sagaId)) {
+        // Single non-blocking attempt; a contended event is parked so the consumer thread moves on
+        long lockWaitStart = latencyRecorder.mark();
+        LockLease lease = redisLockService.tryLease(sagaLockKey, sagaLeaseTtlSeconds, TimeUnit.SECONDS);
+        latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, lockWaitStart);
+        if (lease != null) {
+            try (lease) {
+                processEventInTransaction(eventData);
+            }
+        } else {
+            parkContendedEvent(sagaId, eventType, eventData);
+        }
+    }
+
+    private void parkContendedEvent(String sagaId, String eventType, Map<String, Object> eventData) {
+        if (!deferredEventQueue.park(sagaId, eventData)) {
+            // Queue full: fail the record so the Kafka error handler retries it with backoff
+            throw new SagaExecutionException(sagaId,
+                    "Saga lock contended and deferred queue full, eventType=" + eventType);
+        }
+        log.debug("Saga lock contended, event parked: sagaId={}, eventType={}", sagaId, eventType);
+    }
+
+    private void processEventInTransaction(Map<String, Object> eventData) {
+        processEventInTransaction(eventData, () -> { });
+    }
+
+    /**
+     * Apply an event in its own transaction; alsoInTransaction commits or rolls back with it
+     */
+    private void processEventInTransaction(Map<String, Object> eventData, Runnable alsoInTransaction) {
+        transactionTemplate.executeWithoutResult(status -> {
+            processEventForSaga(eventData);
+            alsoInTransaction.run();
+            latencyRecorder.beforeCommit();
+        });
+        latencyRecorder.afterCommit();
+    }
+
+    private boolean isOptimisticConcurrency() {
+        return "optimistic".equalsIgnoreCase(concurrencyMode);
+    }
+
+    /**
+     * Apply an event with compare-and-set on the saga version.
+     * The common uncontended case is one conditional UPDATE; on a version conflict the
+     * transaction is rolled back and the event is re-applied to the fresh state.
+     */
+    private void processEventOptimistically(String sagaId, String eventType, Map<String, Object> eventData) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined an outer transaction: a conflict can only surface at the caller's commit
+            processEventForSaga(eventData);
+            return;
+        }
+
+        for (int attempt = 1; attempt <= optimisticMaxAttempts; attempt++) {
             try {
-                // PRESERVE ALL EXISTING LOGIC - Find the saga
-                Optional<OrderPurchaseSagaState> optionalSaga = sagaRepository.findById(sagaId);
-                if (optionalSaga.isEmpty()) {
-                    log.warn("Received event for unknown saga: {}", sagaId);
-                    return;
-                }
+                processEventInTransaction(eventData);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                log.debug("Saga version conflict, re-applying event: sagaId={}, eventType={}, attempt={}/{}",
+                        sagaId, eventType, attempt, optimisticMaxAttempts);
+            }
+        }
+
+        // Let the Kafka error handler retry the record with backoff
+        throw new SagaExecutionException(sagaId,
+                "Saga version conflict persisted after " + optimisticMaxAttempts + " attempts, eventType=" + eventType);
+    }
 
-                OrderPurchaseSagaState saga = optionalSaga.get();
+    /**
+     * Re-drive events parked for a saga while its lock was contended, in arrival order.
+     * Each event's stored copy is deleted in the transaction that applies it, and the event
+     * leaves the queue only after that commit; if applying it fails, it stays at the head
+     * of the saga's queue and the exception propagates.
+     * Returns the number of events processed; 0 if the lock is still held elsewhere.
+     */
+    public int redriveParkedEvents(String sagaId) {
+        if (deferredEventQueue.peek(sagaId) == null) {
+            return 0;
+        }
 
-                // PRESERVE EXISTING - Check idempotency
-                String messageId = (String) eventData.get(Constant.FIELD_MESSAGE_ID);
-                ActionType actionType = isCompensationEvent(eventType) ? ActionType.COMPENSATION : ActionType.FORWARD;
+        LockLease lease = redisLockService.tryLease(RedisLockService.buildSagaLockKey(sagaId), sagaLeaseTtlSeconds, TimeUnit.SECONDS);
+        if (lease == null) {
+            return 0;
+        }
 
-                if (idempotencyService.isProcessed(messageId, sagaId,
-                        saga.getCurrentStep() != null ? saga.getCurrentStep().getStepNumber() : null,
-                        eventType, actionType)) {
-                    log.info(Constant.LOG_EVENT_ALREADY_PROCESSED, eventType, sagaId);
-                    return;
+        int processed = 0;
+        try (lease) {
+            SagaDeferredEventQueue.ParkedEvent event;
+            while ((event = deferredEventQueue.peek(sagaId)) != null) {
+                SagaDeferredEventQueue.ParkedEvent parked = event;
+                try {
+                    processEventInTransaction(parked.getEventData(), () -> deferredEventQueue.deleteStored(parked));
+                } catch (RuntimeException e) {
+                    deferredEventQueue.markFailed(parked);
+                    throw e;
                 }
+                deferredEventQueue.remove(sagaId, parked);
+                processed++;
+            }
+        }
+        return processed;
+    }
 
-                try {
-                    // PRESERVE EXISTING - Validate event matches current step
-                    if (!isEventForCurrentStep(saga, eventType)) {
-                        log.warn(Constant.LOG_EVENT_IGNORED_WRONG_STEP,
-                                eventType, saga.getCurrentStep(), sagaId);
-                        recordEventProcessing(eventData, saga, "Event ignored - doesn't match current step");
-                        return;
-                    }
+    /**
+     * Batch listener mode: apply one poll of saga events at once.
+     * Events are grouped by saga and keep their order within a saga. The whole batch is
+     * deduplicated with one idempotency query, all affected sagas are loaded with one
+     * findAllById, and state, processed messages and outbox commands are written in one
+     * transaction. Events of sagas whose lock is contended are parked as in single-event mode.
+     * An event that still fails on replay is reported as a {@link SagaEventBatchException};
+     * every event received before it has been applied or parked.
+     */
+    public void handleEventBatch(List<Map<String, Object>> events) {
+        Map<String, List<Map<String, Object>>> eventsBySaga = new LinkedHashMap<>();
+        for (Map<String, Object> event : events) {
+            eventsBySaga.computeIfAbsent((String) event.get(Constant.FIELD_SAGA_ID), id -> new ArrayList<>()).add(event);
+        }
 
-                    // PRESERVE EXISTING - Process based on success/failure
-                    if (Boolean.TRUE.equals(success)) {
-                        processSuccessEvent(saga, eventData);
-                    } else {
-                        processFailureEvent(saga, eventData);
-                    }
+        log.debug("Handling saga event batch: events={}, sagas={}", events.size(), eventsBySaga.size());
 
-                    // PRESERVE EXISTING - Record successful processing
-                    recordEventProcessing(eventData, saga, "Event processed successfully");
+        if (isOptimisticConcurrency()) {
+            applyBatchOrReplay(events, eventsBySaga);
+            return;
+        }
 
-                } catch (Exception e) {
-                    log.error("Error handling event {} for saga {}", eventType, sagaId, e);
-                    recordEventProcessing(eventData, saga, "Error processing event: " + e.getMessage());
+        List<LockLease> leases = new ArrayList<>();
+        Map<String, List<Map<String, Object>>> lockedEvents = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, List<Map<String, Object>>> entry : eventsBySaga.entrySet()) {
+                String sagaId = entry.getKey();
+                LockLease lease = deferredEventQueue.hasParked(sagaId) ? null
+                        : redisLockService.tryLease(RedisLockService.buildSagaLockKey(sagaId), sagaLeaseTtlSeconds, TimeUnit.SECONDS);
+
+                if (lease == null) {
+                    for (Map<String, Object> event : entry.getValue()) {
+                        parkContendedEvent(sagaId, (String) event.get(Constant.FIELD_TYPE), event);
+                    }
+                    continue;
                 }
-            } finally {
-                // PHASE 2: Release distributed saga lock
-                boolean released = redisLockService.releaseLock(sagaLockKey);
-                log.debug("Distributed saga lock released: sagaId={}, released={}", sagaId, released);
+
+                leases.add(lease);
+                lockedEvents.put(sagaId, entry.getValue());
             }
-        } else {
-            // Failed to acquire saga lock after retries
-            log.warn("Failed to acquire saga lock after retries, event processing skipped: sagaId={}, eventType={}",
-                    sagaId, eventType);
 
-            // TODO: Could implement event queuing or DLQ here if needed
-            // For now, we'll let the event be reprocessed by Kafka retry mechanism
+            applyBatchOrReplay(events, lockedEvents);
+        } finally {
+            // Released only after the batch transaction has committed or rolled back
+            leases.forEach(LockLease::close);
         }
     }
 
     /**
-     * PHASE 2: Acquire distributed saga lock with retry mechanism using existing retry configuration
-     * Preserves your excellent exponential backoff logic
+     * Apply the batch in one transaction; if that fails (e.g. a version conflict), roll it back
+     * and replay the events one transaction at a time, in arrival order, so a single bad event
+     * cannot block the rest
      */
-    private boolean acquireSagaLockWithRetry(String sagaLockKey, String sagaId) {
-        int maxAttempts = maxRetries; // Use existing saga retry configuration
+    private void applyBatchOrReplay(List<Map<String, Object>> events,
+                                    Map<String, List<Map<String, Object>>> eventsBySaga) {
+        if (eventsBySaga.isEmpty()) {
+            return;
+        }
 
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
-            // Try to acquire the lock (2 minutes TTL for saga processing)
-            if (redisLockService.tryLock(sagaLockKey, 2, TimeUnit.MINUTES)) {
-                log.debug("Distributed saga lock acquired: sagaId={}, attempt={}", sagaId, attempt);
-                return true;
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyEventBatch(eventsBySaga));
+        } catch (RuntimeException e) {
+            log.warn("Saga event batch rolled back, replaying {} sagas one event at a time: {}",
+                    eventsBySaga.size(), e.getMessage());
+            for (Map<String, Object> event : events) {
+                if (eventsBySaga.containsKey((String) event.get(Constant.FIELD_SAGA_ID))) {
+                    replayBatchEvent(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Producer timestamp of an event, standing in for the record timestamp in batch mode; 0 if absent
+     */
+    private static long sentTimestamp(Map<String, Object> event) {
+        Long timestamp = SagaWireValues.toLong(event.get(Constant.FIELD_TIMESTAMP));
+        return timestamp != null ? timestamp : 0L;
+    }
+
+    private void replayBatchEvent(Map<String, Object> event) {
+        latencyRecorder.beginEvent(sentTimestamp(event));
+        try {
+            if (isOptimisticConcurrency()) {
+                processEventOptimistically((String) event.get(Constant.FIELD_SAGA_ID),
+                        (String) event.get(Constant.FIELD_TYPE), event);
+            } else {
+                processEventInTransaction(event);
             }
+        } catch (RuntimeException e) {
+            throw new SagaEventBatchException(event, e);
+        } finally {
+            latencyRecorder.endEvent();
+        }
+    }
+
+    private void applyEventBatch(Map<String, List<Map<String, Object>>> eventsBySaga) {
+        Set<String> messageIds = new HashSet<>();
+        eventsBySaga.values().forEach(sagaEvents -> sagaEvents.forEach(event -> {
+            Object messageId = event.get(Constant.FIELD_MESSAGE_ID);
+            if (messageId != null) {
+                messageIds.add(messageId.toString());
+            }
+        }));
 
-            if (attempt < maxAttempts) {
-                // Use your existing retry delay calculation logic
-                long delayMs = calculateSagaLockRetryDelay(attempt);
+        IdempotencyService.ProcessedBatch processedBatch =
+                idempotencyService.loadProcessedBatch(messageIds, eventsBySaga.keySet());
 
-                log.debug("Saga lock acquisition failed, retrying in {}ms: sagaId={}, attempt={}/{}",
-                        delayMs, sagaId, attempt, maxAttempts);
+        Map<String, OrderPurchaseSagaState> sagas = new HashMap<>();
+        sagaRepository.findAllById(eventsBySaga.keySet()).forEach(saga -> sagas.put(saga.getSagaId(), saga));
 
+        for (Map.Entry<String, List<Map<String, Object>>> entry : eventsBySaga.entrySet()) {
+            OrderPurchaseSagaState saga = sagas.get(entry.getKey());
+            if (saga == null) {
+                log.warn("Received event for unknown saga: {}", entry.getKey());
+                continue;
+            }
+            if (!claimPartitionOwnership(saga)) {
+                continue;
+            }
+
+            for (Map<String, Object> event : entry.getValue()) {
+                // Timed per event; the batch-wide idempotency query and saga load are not attributed
+                latencyRecorder.beginEvent(sentTimestamp(event));
                 try {
-                    Thread.sleep(delayMs);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Saga lock retry interrupted: sagaId={}", sagaId);
-                    return false;
+                    applyEvent(saga, event, processedBatch);
+                } finally {
+                    latencyRecorder.endEvent();
                 }
             }
         }
+    }
 
-        log.warn("Failed to acquire saga lock after {} attempts: sagaId={}", maxAttempts, sagaId);
-        return false;
+    /**
+     * Apply an event to its saga; the caller must already hold the saga lock (Redis or partition)
+     */
+    private void processEventForSaga(Map<String, Object> eventData) {
+        String sagaId = (String) eventData.get(Constant.FIELD_SAGA_ID);
+
+        // PRESERVE ALL EXISTING LOGIC - Find the saga
+        Optional<OrderPurchaseSagaState> optionalSaga = loadSaga(sagaId);
+        if (optionalSaga.isEmpty()) {
+            log.warn("Received event for unknown saga: {}", sagaId);
+            return;
+        }
+
+        OrderPurchaseSagaState saga = optionalSaga.get();
+
+        if (!claimPartitionOwnership(saga)) {
+            return;
+        }
+
+        applyEvent(saga, eventData, null);
     }
 
     /**
-     * PHASE 2: Calculate retry delay for saga lock acquisition using existing retry logic
-     * Reuses your proven exponential backoff algorithm but with shorter delays for locks
+     * Apply one event to a loaded saga. With a batch snapshot the idempotency check is
+     * answered from memory instead of querying processed_messages per event.
      */
-    private long calculateSagaLockRetryDelay(int attempt) {
-        // Use shorter base delay for lock acquisition (500ms vs 5s for saga steps)
-        long baseLockDelayMs = 500L;
+    private void applyEvent(OrderPurchaseSagaState saga, Map<String, Object> eventData,
+                            IdempotencyService.ProcessedBatch processedBatch) {
+        String sagaId = saga.getSagaId();
+        String eventType = (String) eventData.get(Constant.FIELD_TYPE);
+        Boolean success = (Boolean) eventData.get(Constant.FIELD_SUCCESS);
 
-        // Reuse your exponential backoff logic: base * 2^(attempt-1)
-        long exponentialDelay = baseLockDelayMs * (1L << (attempt - 1));
+        // PRESERVE EXISTING - Check idempotency
+        String messageId = (String) eventData.get(Constant.FIELD_MESSAGE_ID);
+        ActionType actionType = isCompensationEvent(eventType) ? ActionType.COMPENSATION : ActionType.FORWARD;
+        Integer stepId = saga.getCurrentStep() != null ? saga.getCurrentStep().getStepNumber() : null;
+        latencyRecorder.step(saga.getCurrentStep());
+
+        long idempotencyStart = latencyRecorder.mark();
+        boolean alreadyProcessed = processedBatch != null
+                ? processedBatch.isProcessed(messageId, sagaId, stepId, actionType)
+                : idempotencyService.isProcessed(messageId, sagaId, stepId, eventType, actionType,
+                        SagaWireValues.toLong(eventData.get(Constant.FIELD_TIMESTAMP)));
+        latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.DB, idempotencyStart);
+        if (alreadyProcessed) {
+            log.info(Constant.LOG_EVENT_ALREADY_PROCESSED, eventType, sagaId);
+            return;
+        }
+        if (processedBatch != null) {
+            // Every path below records the message, so later duplicates in the batch are skipped
+            processedBatch.markProcessed(messageId);
+        }
 
-        // Reuse your jitter logic (±20% random variation)
-        double jitter = 0.8 + (Math.random() * 0.4); // 0.8 to 1.2
-        long delayWithJitter = Math.round(exponentialDelay * jitter);
+        try {
+            // PRESERVE EXISTING - Validate event matches current step
+            if (!isEventForCurrentStep(saga, eventType)) {
+                log.warn(Constant.LOG_EVENT_IGNORED_WRONG_STEP,
+                        eventType, saga.getCurrentStep(), sagaId);
+                recordEventProcessing(eventData, saga, "Event ignored - doesn't match current step");
+                return;
+            }
+
+            // PRESERVE EXISTING - Process based on success/failure
+            if (Boolean.TRUE.equals(success)) {
+                processSuccessEvent(saga, eventData);
+            } else {
+                processFailureEvent(saga, eventData);
+            }
+
+            // PRESERVE EXISTING - Record successful processing
+            recordEventProcessing(eventData, saga, "Event processed successfully");
 
-        // Cap at reasonable maximum for lock retries (2 seconds vs 60s for saga steps)
-        long maxLockDelayMs = 2000L;
-        return Math.min(delayWithJitter, maxLockDelayMs);
+        } catch (OptimisticLockingFailureException e) {
+            // The transaction is rollback-only; let processEventOptimistically re-apply on fresh state
+            throw e;
+        } catch (OptimisticLockException e) {
+            // Raised by an early flush through the raw EntityManager, untranslated
+            throw EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+        } catch (Exception e) {
+            log.error("Error handling event {} for saga {}", eventType, sagaId, e);
+            recordEventProcessing(eventData, saga, "Error processing event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load a saga for processing. Under the partition lock the in-process cache is used and
+     * the cached instance is re-attached to the current persistence context without a
+     * SELECT; otherwise the saga is read from the database.
+     */
+    private Optional<OrderPurchaseSagaState> loadSaga(String sagaId) {
+        long loadStart = latencyRecorder.mark();
+        try {
+            return loadSagaFromCacheOrDatabase(sagaId);
+        } finally {
+            latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.DB, loadStart);
+        }
+    }
+
+    private Optional<OrderPurchaseSagaState> loadSagaFromCacheOrDatabase(String sagaId) {
+        if (!stateCache.isUsable(sagaId) || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return sagaRepository.findById(sagaId);
+        }
+
+        OrderPurchaseSagaState cached = stateCache.get(sagaId);
+        if (cached != null) {
+            try {
+                if (!entityManager.contains(cached)) {
+                    entityManager.unwrap(Session.class).lock(cached, LockMode.NONE);
+                }
+                evictOnRollback(sagaId);
+                return Optional.of(cached);
+            } catch (Exception e) {
+                log.warn("Could not re-attach cached saga {}, reloading: {}", sagaId, e.getMessage());
+                stateCache.evict(sagaId);
+            }
+        }
+
+        Optional<OrderPurchaseSagaState> loaded = sagaRepository.findById(sagaId);
+        loaded.ifPresent(saga -> {
+            stateCache.put(saga);
+            evictOnRollback(sagaId);
+        });
+        return loaded;
+    }
+
+    /**
+     * Save a saga and write the new state through to the cache
+     */
+    private void saveSaga(OrderPurchaseSagaState saga) {
+        long saveStart = latencyRecorder.mark();
+        sagaRepository.save(saga);
+        latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.DB, saveStart);
+        if (stateCache.isUsable(saga.getSagaId())) {
+            // put() drops sagas that reached a final status
+            stateCache.put(saga);
+            evictOnRollback(saga.getSagaId());
+        }
+    }
+
+    /**
+     * The cached instance is mutated in place, so it must not survive a rolled back transaction
+     */
+    private void evictOnRollback(String sagaId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    stateCache.evict(sagaId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Partition-affine mode: stamp the saga with this owner's epoch.
+     * Returns false if a newer partition owner has already written the saga (we are a stale owner).
+     * Always true outside of partition-affine mode.
+     */
+    private boolean claimPartitionOwnership(OrderPurchaseSagaState saga) {
+        if (!partitionOwnership.isHeldByCurrentThread(saga.getSagaId())) {
+            return true;
+        }
+
+        Long epoch = partitionOwnership.currentEpoch(saga.getSagaId());
+        if (epoch == null) {
+            return false;
+        }
+
+        // Compare-and-set in the database: the in-memory epoch may be stale (state cache)
+        if (sagaRepository.claimOwnerEpoch(saga.getSagaId(), epoch) == 0) {
+            log.warn("Stale partition owner, skipping saga write: sagaId={}, ownEpoch={}, sagaEpoch={}",
+                    saga.getSagaId(), epoch, saga.getOwnerEpoch());
+            stateCache.evict(saga.getSagaId());
+            return false;
+        }
+
+        saga.setOwnerEpoch(epoch);
+        return true;
     }
 
     // Helper method to determine if event is compensation
@@ -295,10 +653,16 @@ public class OrderPurchaseSagaService {
         // Update saga with event data
         updateSagaWithEventData(saga, eventData);
 
-        // Record monitoring
-        long processingTime = System.currentTimeMillis(); // Simple timing
+        // Record monitoring: wall time since the listener picked up the event
+        long processingTime = latencyRecorder.elapsedMillis();
         monitoringService.recordMessageProcessed(saga.getSagaId(), eventType, processingTime);
 
+        if (!joinBranch(saga, eventType)) {
+            // Other parallel branches of this step are still outstanding
+            saveSaga(saga);
+            return;
+        }
+
         if (saga.getStatus() == SagaStatus.COMPENSATING) {
             // Handle compensation step success
             handleCompensationStepSuccess(saga);
@@ -309,7 +673,7 @@ public class OrderPurchaseSagaService {
         }
 
         // Save and continue
-        sagaRepository.save(saga);
+        saveSaga(saga);
 
         // Process next step if still active
         if (saga.getStatus() == SagaStatus.IN_PROGRESS || saga.getStatus() == SagaStatus.COMPENSATING) {
@@ -317,6 +681,38 @@ public class OrderPurchaseSagaService {
         }
     }
 
+    /**
+     * Join the answer of a parallel branch. Returns true once every branch of the current step
+     * has answered, with the saga moved to the last step of the run so the usual transition
+     * continues from there; false while other branches are still outstanding.
+     */
+    private boolean joinBranch(OrderPurchaseSagaState saga, String eventType) {
+        OrderPurchaseSagaStep currentStep = saga.getCurrentStep();
+        if (!SAGA_DEFINITION.isParallel(currentStep)) {
+            return true;
+        }
+
+        OrderPurchaseSagaStep branch = SAGA_DEFINITION.stepForEvent(EventType.fromName(eventType));
+        saga.markBranchJoined(branch);
+        saga.addEvent(SagaEvent.of(Constant.SAGA_EVENT_BRANCH_JOINED,
+                Constant.DESC_BRANCH_JOINED + branch.getDescription()));
+
+        if (!SAGA_DEFINITION.isJoined(currentStep, saga.getJoinedBranches())) {
+            log.info("Parallel step {} completed, waiting for remaining branches: sagaId={}", branch, saga.getSagaId());
+            return false;
+        }
+
+        // The transition records the join step itself as completed
+        OrderPurchaseSagaStep joinStep = SAGA_DEFINITION.joinStep(currentStep);
+        for (OrderPurchaseSagaStep step : SAGA_DEFINITION.branches(currentStep)) {
+            if (step != joinStep) {
+                saga.getCompletedSteps().add(step.name());
+            }
+        }
+        saga.setCurrentStep(joinStep);
+        return true;
+    }
+
     /**
      * Process a failure event
      */
@@ -357,7 +753,7 @@ public class OrderPurchaseSagaService {
             monitoringService.recordSagaFailed(saga.getSagaId(), reason);
         }
 
-        sagaRepository.save(saga);
+        saveSaga(saga);
     }
 
     /**
@@ -367,7 +763,7 @@ public class OrderPurchaseSagaService {
         log.info(Constant.LOG_STARTING_COMPENSATION, saga.getSagaId());
 
         saga.startCompensation();
-        sagaRepository.save(saga);
+        saveSaga(saga);
 
         // Process compensation steps
         processNextStepWithFencing(saga);
@@ -377,9 +773,9 @@ public class OrderPurchaseSagaService {
      * PHASE 3: Start compensation with fencing token protection
      * Ensures all compensation steps use fencing tokens to prevent stale operations
      */
-    private void startCompensationWithFencing(OrderPurchaseSagaState saga, String paymentFencingToken) {
-        log.info("Starting compensation with fencing token protection: sagaId={}, paymentToken={}",
-                saga.getSagaId(), paymentFencingToken);
+    private void startCompensationWithFencing(OrderPurchaseSagaState saga, MultiFencingLockResult locks) {
+        log.info("Starting compensation with fencing token protection: sagaId={}, tokens={}",
+                saga.getSagaId(), locks.getFencingTokens());
 
         try {
             // PRESERVE EXISTING - Determine compensation strategy based on completed steps
@@ -387,11 +783,11 @@ public class OrderPurchaseSagaService {
 
             // PHASE 3: Store fencing tokens in saga for use during compensation
             saga.addEvent(SagaEvent.of("COMPENSATION_STARTED_WITH_FENCING",
-                    "Compensation started with fencing token protection, paymentToken=" + paymentFencingToken));
+                    "Compensation started with fencing token protection, tokens=" + locks.getFencingTokens()));
 
-            // PRESERVE EXISTING - Execute compensation steps in reverse order
+            // Execute compensation steps, independent ones are sent together
             // PHASE 3: Pass fencing tokens to compensation methods
-            executeCompensationStepsWithFencing(saga, paymentFencingToken);
+            executeCompensationStepsWithFencing(saga, locks);
 
         } catch (Exception e) {
             log.error("Error starting compensation with fencing tokens: sagaId={}", saga.getSagaId(), e);
@@ -399,122 +795,26 @@ public class OrderPurchaseSagaService {
             saga.setFailureReason("Failed to start compensation: " + e.getMessage());
         }
 
-        sagaRepository.save(saga);
+        saveSaga(saga);
     }
 
     /**
      * PHASE 3: Execute compensation steps with fencing token validation
-     * Preserves existing compensation logic while adding fencing token protection
+     * The first compensation step is derived from the completed steps; its parallel run is
+     * sent at once under the step locks the caller holds, and compensation completes when
+     * all branches have answered
      */
-    private void executeCompensationStepsWithFencing(OrderPurchaseSagaState saga, String paymentFencingToken) {
+    private void executeCompensationStepsWithFencing(OrderPurchaseSagaState saga, MultiFencingLockResult locks) {
         log.info("Executing compensation steps with fencing tokens: sagaId={}", saga.getSagaId());
 
-        // PRESERVE EXISTING - Determine which steps need compensation based on saga state
-        boolean needsPaymentCompensation = saga.getCurrentStep() != null &&
-                saga.getCurrentStep().getStepNumber() >= 2; // Payment step is step 2
-
-        boolean needsOrderCompensation = saga.getCurrentStep() != null &&
-                saga.getCurrentStep().getStepNumber() >= 1; // Order step is step 1
-
-        try {
-            // PHASE 3: Compensate payment with fencing token (if needed)
-            if (needsPaymentCompensation) {
-                compensatePaymentWithFencing(saga, paymentFencingToken);
-            }
-
-            // PHASE 3: Compensate order with fencing token (if needed)
-            if (needsOrderCompensation) {
-                compensateOrderWithFencing(saga);
-            }
-
-            // Mark compensation as completed
-            saga.setStatus(SagaStatus.FAILED); // Failed due to cancellation, but compensated
-            saga.addEvent(SagaEvent.compensationCompleted());
-
-        } catch (Exception e) {
-            log.error("Error during compensation execution with fencing tokens: sagaId={}", saga.getSagaId(), e);
-            saga.setStatus(SagaStatus.FAILED);
-            saga.setFailureReason("Compensation failed: " + e.getMessage());
-        }
-    }
-
-    /**
-     * PHASE 3: Compensate payment with fencing token
-     */
-    private void compensatePaymentWithFencing(OrderPurchaseSagaState saga, String fencingToken) {
-        log.info("Compensating payment with fencing token: sagaId={}, token={}", saga.getSagaId(), fencingToken);
-
-        try {
-            // PRESERVE EXISTING - Build compensation command payload
-            Map<String, Object> payload = Map.of(
-                    Constant.FIELD_ORDER_ID, saga.getOrderId().toString(),
-                    Constant.FIELD_REASON, "Saga compensation with fencing token: " + fencingToken
-            );
-
-            // PHASE 3: Add fencing token to command
-            Map<String, Object> command = Map.of(
-                    Constant.FIELD_MESSAGE_ID, MessageIdGenerator.generateForSagaStep(saga.getSagaId(), 999),
-                    Constant.FIELD_SAGA_ID, saga.getSagaId(),
-                    Constant.FIELD_TYPE, "REVERSE_PAYMENT_WITH_FENCING",
-                    Constant.FIELD_PAYLOAD, payload,
-                    "fencingToken", fencingToken, // PHASE 3: Include fencing token
-                    Constant.FIELD_TIMESTAMP, System.currentTimeMillis()
-            );
-
-            // PRESERVE EXISTING - Publish to payment service
-            messagePublisher.publishCommand(command, paymentCommandsTopic, saga.getSagaId());
-
-            log.info("Payment compensation command with fencing token published: sagaId={}, token={}",
-                    saga.getSagaId(), fencingToken);
-
-        } catch (Exception e) {
-            log.error("Error compensating payment with fencing token: sagaId={}, token={}",
-                    saga.getSagaId(), fencingToken, e);
-            throw e;
-        }
-    }
-
-    /**
-     * PHASE 3: Compensate order with fencing token
-     */
-    private void compensateOrderWithFencing(OrderPurchaseSagaState saga) {
-        log.info("Compensating order with fencing token: sagaId={}", saga.getSagaId());
-
-        // PHASE 3: Acquire order lock with fencing token for compensation
-        String orderLockKey = RedisLockService.buildOrderLockKey(saga.getOrderId().toString());
-        FencingLockResult orderLockResult = redisLockService.tryLockWithFencing(orderLockKey, 30, TimeUnit.SECONDS);
+        saga.startCompensation();
 
-        if (orderLockResult.isAcquired() && orderLockResult.isValid()) {
-            try {
-                // PRESERVE EXISTING - Build compensation command payload
-                Map<String, Object> payload = Map.of(
-                        Constant.FIELD_ORDER_ID, saga.getOrderId().toString(),
-                        Constant.FIELD_REASON, "Saga compensation with fencing token: " + orderLockResult.getFencingToken()
-                );
-
-                // PHASE 3: Add fencing token to command
-                Map<String, Object> command = Map.of(
-                        Constant.FIELD_MESSAGE_ID, MessageIdGenerator.generateForSagaStep(saga.getSagaId(), 998),
-                        Constant.FIELD_SAGA_ID, saga.getSagaId(),
-                        Constant.FIELD_TYPE, "CANCEL_ORDER_WITH_FENCING",
-                        Constant.FIELD_PAYLOAD, payload,
-                        "fencingToken", orderLockResult.getFencingToken(), // PHASE 3: Include fencing token
-                        Constant.FIELD_TIMESTAMP, System.currentTimeMillis()
-                );
-
-                // PRESERVE EXISTING - Publish to order service
-                messagePublisher.publishCommand(command, orderCommandsTopic, saga.getSagaId());
-
-                log.info("Order compensation command with fencing token published: sagaId={}, token={}",
-                        saga.getSagaId(), orderLockResult.getFencingToken());
+        for (OrderPurchaseSagaStep step : SAGA_DEFINITION.branches(saga.getCurrentStep())) {
+            long fencingToken = locks.getFencingToken(buildStepLockKey(saga, step));
+            enqueueStepCommand(saga, step, fencingToken);
 
-            } finally {
-                redisLockService.releaseLock(orderLockKey);
-            }
-        } else {
-            log.error("Failed to acquire order lock for compensation: sagaId={}, orderId={}",
-                    saga.getSagaId(), saga.getOrderId());
-            throw new RuntimeException("Failed to acquire order lock for compensation");
+            log.info("Compensation command with fencing token enqueued: step={}, sagaId={}, token={}",
+                    step, saga.getSagaId(), fencingToken);
         }
     }
 
@@ -528,43 +828,29 @@ public class OrderPurchaseSagaService {
             return;
         }
 
+        if (SAGA_DEFINITION.isParallel(saga.getCurrentStep())) {
+            processParallelStepsWithFencing(saga);
+            return;
+        }
+
         log.info("Processing step with fencing token protection: step={}, sagaId={}",
                 saga.getCurrentStep(), saga.getSagaId());
 
         try {
-            // PHASE 3: Acquire appropriate lock with fencing token based on step type
-            String lockKey;
-            FencingLockResult lockResult;
+            // PHASE 3: Acquire the lock the step declares, with a fencing token
+            SagaStepLock<OrderPurchaseSagaState> stepLock = stepLock(saga.getCurrentStep());
+            String lockKey = stepLock.key(saga);
 
-            if (saga.getCurrentStep().getCommandType().name().contains("PAYMENT")) {
-                lockKey = RedisLockService.buildPaymentLockKey(saga.getOrderId().toString());
-                lockResult = redisLockService.tryLockWithFencing(lockKey, 1, TimeUnit.MINUTES);
-            } else {
-                lockKey = RedisLockService.buildOrderLockKey(saga.getOrderId().toString());
-                lockResult = redisLockService.tryLockWithFencing(lockKey, 30, TimeUnit.SECONDS);
-            }
+            long lockWaitStart = latencyRecorder.mark();
+            FencingLockResult lockResult = redisLockService.tryLockWithFencing(
+                    lockKey, stepLock.ttl().toSeconds(), TimeUnit.SECONDS);
+            latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, lockWaitStart);
 
             if (lockResult.isAcquired() && lockResult.isValid()) {
                 try {
-                    // PRESERVE EXISTING - Build command using existing logic
-                    Map<String, Object> command = createCommandForCurrentStep(saga);
-
-                    // PHASE 3: Add fencing token to command
-                    command.put("fencingToken", lockResult.getFencingToken());
+                    enqueueStepCommand(saga, saga.getCurrentStep(), lockResult.getFencingToken());
 
-                    // PRESERVE EXISTING - Determine target topic
-                    String targetTopic = getTopicForCommand(saga.getCurrentStep().getCommandType());
-
-                    // PRESERVE EXISTING - Publish command
-                    messagePublisher.publishSagaStepCommand(
-                            saga.getSagaId(),
-                            saga.getCurrentStep().getStepNumber(),
-                            saga.getCurrentStep().getCommandType().name(),
-                            command,
-                            targetTopic
-                    );
-
-                    log.info("Step command with fencing token published: step={}, sagaId={}, token={}",
+                    log.info("Step command with fencing token enqueued: step={}, sagaId={}, token={}",
                             saga.getCurrentStep().getCommandType(), saga.getSagaId(), lockResult.getFencingToken());
 
                 } finally {
@@ -584,6 +870,86 @@ public class OrderPurchaseSagaService {
     }
 
 
+    /**
+     * Fork: send the commands of every branch of the current step that has not answered yet.
+     * The branch locks are taken all-or-nothing in one Redis call and each command carries
+     * the fencing token of its own resource.
+     */
+    private void processParallelStepsWithFencing(OrderPurchaseSagaState saga) {
+        List<OrderPurchaseSagaStep> pending =
+                SAGA_DEFINITION.pendingBranches(saga.getCurrentStep(), saga.getJoinedBranches());
+
+        log.info("Processing parallel steps with fencing token protection: steps={}, sagaId={}",
+                pending, saga.getSagaId());
+
+        try {
+            Set<String> lockKeys = new LinkedHashSet<>();
+            long ttlSeconds = 0;
+            for (OrderPurchaseSagaStep step : pending) {
+                SagaStepLock<OrderPurchaseSagaState> stepLock = stepLock(step);
+                lockKeys.add(stepLock.key(saga));
+                ttlSeconds = Math.max(ttlSeconds, stepLock.ttl().toSeconds());
+            }
+
+            long lockWaitStart = latencyRecorder.mark();
+            MultiFencingLockResult locks = redisLockService.tryLockAllWithFencing(lockKeys, ttlSeconds, TimeUnit.SECONDS);
+            latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, lockWaitStart);
+
+            if (!locks.isAcquired()) {
+                log.error("Failed to acquire locks for parallel steps: steps={}, blockedBy={}, sagaId={}",
+                        pending, locks.getBlockedBy(), saga.getSagaId());
+                handleStepFailure(saga, "Failed to acquire locks with fencing tokens for parallel steps");
+                return;
+            }
+
+            try {
+                for (OrderPurchaseSagaStep step : pending) {
+                    enqueueStepCommand(saga, step, locks.getFencingToken(buildStepLockKey(saga, step)));
+                }
+
+                log.info("Parallel step commands with fencing tokens enqueued: steps={}, sagaId={}, tokens={}",
+                        pending, saga.getSagaId(), locks.getFencingTokens());
+            } finally {
+                redisLockService.releaseAll(locks);
+            }
+
+        } catch (Exception e) {
+            log.error("Error processing parallel steps with fencing tokens: steps={}, sagaId={}",
+                    pending, saga.getSagaId(), e);
+            handleStepFailure(saga, "Failed to process parallel steps with fencing tokens: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build a step's typed command and enqueue it in the outbox within the saga transaction;
+     * the fencing token travels in the envelope
+     */
+    private void enqueueStepCommand(OrderPurchaseSagaState saga, OrderPurchaseSagaStep step, Long fencingToken) {
+        SagaCommand command = createCommandForStep(saga, step, fencingToken);
+        if (command == null) {
+            throw new IllegalStateException("No command mapping for step " + step);
+        }
+
+        long enqueueStart = latencyRecorder.mark();
+        outboxService.enqueueSagaCommand(command, getTopicForCommand(step.getCommandType()));
+        latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.DB, enqueueStart);
+    }
+
+    /**
+     * Lock guarding the resource a step's command changes, as declared in the saga definition
+     */
+    private SagaStepLock<OrderPurchaseSagaState> stepLock(OrderPurchaseSagaStep step) {
+        SagaStepLock<OrderPurchaseSagaState> stepLock = SAGA_DEFINITION.lock(step);
+        if (stepLock == null) {
+            throw new IllegalStateException("No lock declared for step " + step);
+        }
+        return stepLock;
+    }
+
+    private String buildStepLockKey(OrderPurchaseSagaState saga, OrderPurchaseSagaStep step) {
+        return stepLock(step).key(saga);
+    }
+
     /**
      * Handle successful completion of a compensation step
      */
@@ -604,6 +970,7 @@ public class OrderPurchaseSagaService {
         } else {
             // Move to next compensation step
             saga.setCurrentStep(nextStep);
+            saga.setJoinedBranches(0L);
             saga.setCurrentStepStartTime(Instant.now());
             saga.setLastUpdatedTime(Instant.now());
             saga.addEvent(SagaEvent.of(Constant.SAGA_EVENT_COMPENSATION_STEP,
@@ -628,7 +995,7 @@ public class OrderPurchaseSagaService {
             log.info(Constant.LOG_RETRYING_COMPENSATION,
                     saga.getSagaId(), saga.getCompensationRetryCount(), saga.getMaxCompensationRetries());
 
-            sagaRepository.save(saga);
+            saveSaga(saga);
 
             // Retry the current compensation step
             processNextStepWithFencing(saga);
@@ -643,7 +1010,7 @@ public class OrderPurchaseSagaService {
             saga.addEvent(SagaEvent.of(Constant.SAGA_EVENT_COMPENSATION_FAILED,
                     String.format(Constant.DESC_COMPENSATION_FAILED, saga.getMaxCompensationRetries(), reason)));
 
-            sagaRepository.save(saga);
+            saveSaga(saga);
 
             // Record the compensation failure
             monitoringService.recordSagaFailed(saga.getSagaId(),
@@ -663,7 +1030,7 @@ public class OrderPurchaseSagaService {
         saga.setEndTime(Instant.now());
         saga.addEvent(SagaEvent.sagaCompleted());
 
-        sagaRepository.save(saga);
+        saveSaga(saga);
         monitoringService.recordSagaCompleted(saga.getSagaId());
 
         // Clean up locks for completed saga
@@ -671,52 +1038,14 @@ public class OrderPurchaseSagaService {
     }
 
     /**
-     * Create command for the current step
+     * Create command for a step, carrying the fencing token of the lock held for it
      */
-    private Map<String, Object> createCommandForCurrentStep(OrderPurchaseSagaState saga) {
-        Map<String, Object> command = new HashMap<>();
-        command.put(Constant.FIELD_SAGA_ID, saga.getSagaId());
-        command.put(Constant.FIELD_MESSAGE_ID, UUID.randomUUID().toString());
-        command.put(Constant.FIELD_TIMESTAMP, System.currentTimeMillis());
-
-        // Add step-specific payload
-        switch (saga.getCurrentStep()) {
-            case PROCESS_PAYMENT:
-                command.put(Constant.FIELD_ORDER_ID, saga.getOrderId().toString());
-                command.put(Constant.FIELD_USER_ID, saga.getUserId());
-                command.put(Constant.FIELD_TOTAL_AMOUNT, saga.getTotalAmount());
-                break;
-
-            case UPDATE_ORDER_STATUS_CONFIRMED:
-                command.put(Constant.FIELD_ORDER_ID, saga.getOrderId().toString());
-                command.put(Constant.FIELD_NEW_STATUS, Constant.ORDER_STATUS_CONFIRMED);
-                command.put(Constant.FIELD_REASON, Constant.REASON_PAYMENT_PROCESSED_SUCCESS);
-                break;
-
-            case UPDATE_ORDER_STATUS_DELIVERED:
-                command.put(Constant.FIELD_ORDER_ID, saga.getOrderId().toString());
-                command.put(Constant.FIELD_NEW_STATUS, Constant.ORDER_STATUS_DELIVERED);
-                command.put(Constant.FIELD_REASON, Constant.REASON_ORDER_CONFIRMED_SUCCESS);
-                break;
+    private SagaCommand createCommandForStep(OrderPurchaseSagaState saga, OrderPurchaseSagaStep step,
+                                             Long fencingToken) {
+        int stepId = step.getStepNumber();
+        String messageId = MessageIdGenerator.generateForSagaStep(saga.getSagaId(), stepId);
 
-            case CANCEL_PAYMENT:
-                command.put(Constant.FIELD_ORDER_ID, saga.getOrderId().toString());
-                command.put(Constant.FIELD_PAYMENT_TRANSACTION_ID, saga.getPaymentTransactionId());
-                command.put(Constant.FIELD_REASON, saga.getFailureReason());
-                break;
-
-            case CANCEL_ORDER:
-                command.put(Constant.FIELD_ORDER_ID, saga.getOrderId().toString());
-                command.put(Constant.FIELD_REASON, saga.getFailureReason());
-                command.put(Constant.FIELD_CANCELLED_BY, Constant.ACTOR_SAGA_COMPENSATION);
-                break;
-
-            default:
-                log.warn("No command mapping for step: {}", saga.getCurrentStep());
-                return null;
-        }
-
-        return command;
+        return SAGA_DEFINITION.createCommand(step, saga, messageId, stepId, System.currentTimeMillis(), fencingToken);
     }
 
     /**
@@ -734,20 +1063,8 @@ public class OrderPurchaseSagaService {
      * Check if event matches current saga step
      */
     private boolean isEventForCurrentStep(OrderPurchaseSagaState saga, String eventType) {
-        if (saga.getCurrentStep() == null) {
-            return false;
-        }
-
-        try {
-            EventType event = EventType.valueOf(eventType);
-            CommandType expectedCommandType = saga.getCurrentStep().getCommandType();
-            CommandType eventCommandType = event.getAssociatedCommandType();
-
-            return eventCommandType == expectedCommandType;
-        } catch (Exception e) {
-            log.error("Error checking event match for saga {}: {}", saga.getSagaId(), e.getMessage());
-            return false;
-        }
+        return SAGA_DEFINITION.isEventForStep(saga.getCurrentStep(), EventType.fromName(eventType),
+                saga.getJoinedBranches());
     }
 
     /**
@@ -781,7 +1098,10 @@ public class OrderPurchaseSagaService {
         processingResult.put("sagaStatus", saga.getStatus().name());
         processingResult.put("currentStep", saga.getCurrentStep() != null ? saga.getCurrentStep().name() : "null");
 
-        idempotencyService.recordProcessing(messageId, saga.getSagaId(), stepId, eventType, processingResult);
+        long recordStart = latencyRecorder.mark();
+        idempotencyService.recordProcessing(messageId, saga.getSagaId(), stepId, eventType,
+                sentTimestamp(eventData), processingResult);
+        latencyRecorder.addSince(SagaStepLatencyRecorder.Phase.DB, recordStart);
     }
 
     /**
@@ -792,75 +1112,66 @@ public class OrderPurchaseSagaService {
     public void checkForTimeouts() {
         log.debug("Checking for timed-out saga steps with distributed coordination");
 
-        // PRESERVE EXISTING - Use your proven timeout detection logic
-        List<SagaStatus> activeStatuses = Arrays.asList(SagaStatus.STARTED, SagaStatus.IN_PROGRESS, SagaStatus.COMPENSATING);
-        Instant cutoffTime = Instant.now().minus(Duration.ofMinutes(defaultTimeoutMinutes));
-
-        List<OrderPurchaseSagaState> timedOutSagas = sagaRepository.findSagasWithStepTimeout(activeStatuses, cutoffTime);
-
-        log.debug("Found {} potentially timed-out sagas", timedOutSagas.size());
-
-        // PHASE 2: Process each timeout with distributed coordination
-        for (OrderPurchaseSagaState saga : timedOutSagas) {
-            processTimeoutWithDistributedLocking(saga);
-        }
+        // Keyset scan of passed step deadlines; projects ids only, no saga history is loaded
+        deadlineTracker.forEachDeadlineUpTo(Instant.now(), row -> processStepTimeout(row.getSagaId()));
     }
 
     /**
-     * PHASE 2: Process individual timeout with distributed locking
-     * Returns true if this instance processed the timeout, false if another instance is handling it
+     * Handle a passed step deadline (from SagaDeadlineTracker) with distributed coordination.
+     * Returns TRUE if the timeout was handled, FALSE if the saga is no longer due or is owned
+     * by another instance, and null if it could not be checked right now (saga lock contended).
      */
-    private boolean processTimeoutWithDistributedLocking(OrderPurchaseSagaState saga) {
-        String sagaLockKey = RedisLockService.buildSagaLockKey(saga.getSagaId());
+    public Boolean processStepTimeout(String sagaId) {
+        // Partition-affine mode: only the partition owner handles the timeout, no Redis lock
+        if (partitionOwnership.isEnabled()) {
+            Boolean handled = partitionOwnership.callExclusively(sagaId, () -> reloadAndHandleTimeout(sagaId));
+            return handled != null ? handled : Boolean.FALSE;
+        }
 
-        // Try to acquire lock with shorter timeout for batch processing
+        String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
         if (redisLockService.tryLock(sagaLockKey, 30, TimeUnit.SECONDS)) {
             try {
-                // Re-check saga status after acquiring lock (another instance might have processed it)
-                Optional<OrderPurchaseSagaState> latestSaga = sagaRepository.findById(saga.getSagaId());
-                if (latestSaga.isPresent() && latestSaga.get().getStatus().isActive()) {
-                    // PRESERVE EXISTING - Use your proven handleSagaTimeout logic
-                    handleSagaTimeout(latestSaga.get());
-                    return true;
-                } else {
-                    log.debug("Saga {} was processed by another instance or is no longer active", saga.getSagaId());
-                    return false;
-                }
+                return reloadAndHandleTimeout(sagaId);
             } finally {
                 redisLockService.releaseLock(sagaLockKey);
             }
-        } else {
-            log.debug("Another instance is processing timeout for saga: {}", saga.getSagaId());
-            return false;
         }
-    }
 
+        log.debug("Saga lock contended, timeout check deferred for saga: {}", sagaId);
+        return null;
+    }
 
     /**
-     * PHASE 2 ENHANCEMENT: Check for timed-out sagas with specific duration and DISTRIBUTED COORDINATION
-     * Preserves existing timeout detection logic
+     * Re-check saga status under the saga lock and handle its timeout in one transaction,
+     * so the saga state, the retry row and any outbox command commit together before the
+     * lock is released. Returns false if another instance already processed it or it is no
+     * longer active
      */
-    public int checkForTimeoutsWithDuration(Duration timeout) {
-        log.debug("Checking for timed-out saga steps with timeout: {} and distributed coordination", timeout);
-
-        // PRESERVE EXISTING - Use your proven timeout detection logic
-        List<SagaStatus> activeStatuses = Arrays.asList(SagaStatus.STARTED, SagaStatus.IN_PROGRESS, SagaStatus.COMPENSATING);
-        Instant cutoffTime = Instant.now().minus(timeout);
-
-        List<OrderPurchaseSagaState> timedOutSagas = sagaRepository.findSagasWithStepTimeout(activeStatuses, cutoffTime);
-
-        log.debug("Found {} timed-out sagas with timeout {} and distributed coordination", timedOutSagas.size(), timeout);
+    private boolean reloadAndHandleTimeout(String sagaId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> reloadAndHandleTimeoutInTransaction(sagaId)));
+    }
 
-        // PHASE 2: Process each timeout with distributed coordination
-        int processedCount = 0;
-        for (OrderPurchaseSagaState saga : timedOutSagas) {
-            if (processTimeoutWithDistributedLocking(saga)) {
-                processedCount++;
-            }
+    private boolean reloadAndHandleTimeoutInTransaction(String sagaId) {
+        // Re-check saga status after acquiring lock (another instance might have processed it)
+        Optional<OrderPurchaseSagaState> latestSaga = loadSaga(sagaId);
+        if (latestSaga.isPresent() && latestSaga.get().getStatus().isActive()
+                && isStepDeadlinePassed(latestSaga.get())
+                && claimPartitionOwnership(latestSaga.get())) {
+            // PRESERVE EXISTING - Use your proven handleSagaTimeout logic
+            handleSagaTimeout(latestSaga.get());
+            return true;
+        } else {
+            log.debug("Saga {} was processed by another instance or is no longer active", sagaId);
+            return false;
         }
+    }
 
-        log.debug("Processed {} timeouts with distributed coordination", processedCount);
-        return processedCount;
+    /**
+     * Whether the saga's current step deadline has passed (sagas written before
+     * step_deadline existed have none and are treated as due)
+     */
+    private boolean isStepDeadlinePassed(OrderPurchaseSagaState saga) {
+        return saga.getStepDeadline() == null || !saga.getStepDeadline().isAfter(Instant.now());
     }
 
     /**
@@ -872,8 +1183,10 @@ public class OrderPurchaseSagaService {
         if (saga.getRetryCount() < saga.getMaxRetries()) {
             // Retry the step with exponential backoff delay
             saga.incrementRetryCount();
+            // The retry re-sends the step command, so restart the step clock (re-arms the step deadline)
+            saga.setCurrentStepStartTime(Instant.now());
             saga.addEvent(SagaEvent.of("RETRY", "Retrying step " + saga.getCurrentStep() + " after timeout (attempt " + saga.getRetryCount() + ")"));
-            sagaRepository.save(saga);
+            saveSaga(saga);
 
             // Apply exponential backoff delay
             scheduleRetryWithDelay(saga);
@@ -886,46 +1199,58 @@ public class OrderPurchaseSagaService {
     /**
      * PHASE 2 ENHANCEMENT: Handle a timed-out saga manually with DISTRIBUTED LOCKING
      * Preserves all existing timeout and retry logic
-     * Adds distributed coordination to prevent multiple instances from handling same timeout
+     * A single non-blocking lock attempt: if the saga lock is held, another instance is
+     * already working on the saga and this call returns false instead of waiting
      */
     @Transactional
-    public void handleSagaTimeoutManually(String sagaId, String reason) {
+    public boolean handleSagaTimeoutManually(String sagaId, String reason) {
         log.warn("Handling manual timeout for saga: {} - {}", sagaId, reason);
 
-        // PHASE 2: Use distributed saga lock instead of ReentrantLock
-        String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
-
-        if (acquireSagaLockWithRetry(sagaLockKey, sagaId)) {
-            try {
-                // PRESERVE ALL EXISTING LOGIC
-                Optional<OrderPurchaseSagaState> optionalSaga = sagaRepository.findById(sagaId);
-                if (optionalSaga.isPresent()) {
-                    OrderPurchaseSagaState saga = optionalSaga.get();
-
-                    // Only handle timeout if saga is still active
-                    if (saga.getStatus().isActive()) {
-                        // PRESERVE EXISTING - Use your proven handleSagaTimeout logic
-                        handleSagaTimeout(saga);
-                    } else {
-                        log.info("Saga {} is no longer active, skipping timeout handling", sagaId);
-                    }
-                } else {
-                    log.warn("Saga {} not found for manual timeout handling", sagaId);
-                }
-            } finally {
-                // PHASE 2: Release distributed saga lock
-                boolean released = redisLockService.releaseLock(sagaLockKey);
-                log.debug("Distributed saga lock released after timeout handling: sagaId={}, released={}",
-                        sagaId, released);
+        // Partition-affine mode: only the partition owner handles the timeout
+        if (partitionOwnership.isEnabled()) {
+            if (!partitionOwnership.runExclusively(sagaId, () -> handleManualTimeout(sagaId))) {
+                log.info("Saga {} is owned by another instance, skipping manual timeout", sagaId);
+                return false;
             }
-        } else {
-            // Another instance is likely handling this timeout
+            return true;
+        }
+
+        // PHASE 2: Use distributed saga lock instead of ReentrantLock
+        LockLease lease = redisLockService.tryLease(RedisLockService.buildSagaLockKey(sagaId), sagaLeaseTtlSeconds, TimeUnit.SECONDS);
+        if (lease == null) {
             log.info("Could not acquire saga lock for timeout handling, another instance may be processing: sagaId={}",
                     sagaId);
+            return false;
         }
+
+        try (lease) {
+            handleManualTimeout(sagaId);
+        }
+        return true;
     }
 
 
+    /**
+     * Manual timeout body; the caller must hold the saga lock
+     */
+    private void handleManualTimeout(String sagaId) {
+        // PRESERVE ALL EXISTING LOGIC
+        Optional<OrderPurchaseSagaState> optionalSaga = loadSaga(sagaId);
+        if (optionalSaga.isPresent()) {
+            OrderPurchaseSagaState saga = optionalSaga.get();
+
+            // Only handle timeout if saga is still active
+            if (saga.getStatus().isActive() && claimPartitionOwnership(saga)) {
+                // PRESERVE EXISTING - Use your proven handleSagaTimeout logic
+                handleSagaTimeout(saga);
+            } else {
+                log.info("Saga {} is no longer active, skipping timeout handling", sagaId);
+            }
+        } else {
+            log.warn("Saga {} not found for manual timeout handling", sagaId);
+        }
+    }
+
     /**
      * PHASE 2 ENHANCEMENT: Schedule a retry with exponential backoff delay using DISTRIBUTED LOCKING
      * Preserves all your excellent retry logic while making it distributed-safe
@@ -937,48 +1262,69 @@ public class OrderPurchaseSagaService {
         log.info("Scheduling retry for saga {} with delay of {}ms (attempt {}) - distributed safe",
                 saga.getSagaId(), delayMs, saga.getRetryCount());
 
-        // PRESERVE EXISTING - Use CompletableFuture for async delay
-        java.util.concurrent.CompletableFuture.delayedExecutor(delayMs, java.util.concurrent.TimeUnit.MILLISECONDS)
-                .execute(() -> {
-                    // PHASE 2: Add distributed locking to retry execution
-                    executeDelayedRetryWithDistributedLocking(saga.getSagaId());
-                });
+        // Durable retry queue: survives restarts and is fired by exactly one instance (SagaRetryScheduler)
+        retryQueueService.schedule(saga.getSagaId(), Instant.now().plusMillis(delayMs), saga.getRetryCount());
     }
 
     /**
-     * PHASE 2: Execute delayed retry with distributed saga locking
-     * Ensures only one instance executes the retry even in distributed environment
+     * PHASE 2: Execute a due retry with distributed saga locking
+     * Called by SagaRetryScheduler; returns false if the retry could not run here right now
+     * (saga lock held elsewhere or partition not owned) and throws if it failed, so the
+     * scheduler hands it back in both cases.
      */
-    private void executeDelayedRetryWithDistributedLocking(String sagaId) {
+    public boolean executeScheduledRetry(String sagaId) {
+        // Partition-affine mode: only the partition owner runs the retry
+        if (partitionOwnership.isEnabled()) {
+            if (!partitionOwnership.runExclusively(sagaId, () -> executeDelayedRetry(sagaId))) {
+                log.debug("Saga {} is not owned by this instance, handing retry back", sagaId);
+                return false;
+            }
+            return true;
+        }
+
         String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
 
         if (redisLockService.tryLock(sagaLockKey, 2, TimeUnit.MINUTES)) {
             try {
-                // PRESERVE EXISTING - Reload saga to ensure we have the latest state
-                Optional<OrderPurchaseSagaState> optionalSaga = sagaRepository.findById(sagaId);
-                if (optionalSaga.isPresent()) {
-                    OrderPurchaseSagaState currentSaga = optionalSaga.get();
-
-                    // PRESERVE EXISTING - Only retry if still in a retryable state
-                    if (currentSaga.getStatus().isActive() && currentSaga.getRetryCount() <= currentSaga.getMaxRetries()) {
-                        log.info("Executing delayed retry for saga {} (attempt {}) with distributed coordination",
-                                currentSaga.getSagaId(), currentSaga.getRetryCount());
-
-                        // PRESERVE EXISTING
-                        processNextStepWithFencing(currentSaga);
-                    } else {
-                        log.warn("Saga {} state changed during retry delay, skipping retry", sagaId);
-                    }
-                } else {
-                    log.warn("Saga {} not found during delayed retry", sagaId);
-                }
-            } catch (Exception e) {
-                log.error("Error during delayed retry for saga {}", sagaId, e);
+                executeDelayedRetry(sagaId);
+                return true;
             } finally {
                 redisLockService.releaseLock(sagaLockKey);
             }
         } else {
-            log.debug("Another instance is processing retry for saga: {}", sagaId);
+            log.debug("Saga lock held elsewhere, deferring retry for saga: {}", sagaId);
+            return false;
+        }
+    }
+
+    /**
+     * Delayed retry body; the caller must hold the saga lock.
+     * Runs in its own transaction so the re-sent command is enqueued atomically with the saga state.
+     * A failed transaction propagates, so the scheduler keeps the durable retry and hands it back.
+     */
+    private void executeDelayedRetry(String sagaId) {
+        transactionTemplate.executeWithoutResult(status -> executeDelayedRetryInTransaction(sagaId));
+    }
+
+    private void executeDelayedRetryInTransaction(String sagaId) {
+        // PRESERVE EXISTING - Reload saga to ensure we have the latest state
+        Optional<OrderPurchaseSagaState> optionalSaga = loadSaga(sagaId);
+        if (optionalSaga.isPresent()) {
+            OrderPurchaseSagaState currentSaga = optionalSaga.get();
+
+            // PRESERVE EXISTING - Only retry if still in a retryable state
+            if (currentSaga.getStatus().isActive() && currentSaga.getRetryCount() <= currentSaga.getMaxRetries()
+                    && claimPartitionOwnership(currentSaga)) {
+                log.info("Executing delayed retry for saga {} (attempt {}) with distributed coordination",
+                        currentSaga.getSagaId(), currentSaga.getRetryCount());
+
+                // PRESERVE EXISTING
+                processNextStepWithFencing(currentSaga);
+            } else {
+                log.warn("Saga {} state changed during retry delay, skipping retry", sagaId);
+            }
+        } else {
+            log.warn("Saga {} not found during delayed retry", sagaId);
         }
     }
 
@@ -1047,87 +1393,80 @@ public class OrderPurchaseSagaService {
 
     /**
      * PHASE 3 ENHANCEMENT: Cancel saga by user request with FENCING TOKENS
-     * Provides bulletproof protection against split-brain scenarios
-     * Preserves all existing compensation logic while eliminating race conditions
+     * The payment, saga and order locks are taken all-or-nothing in one Redis call, so
+     * concurrent cancellations never hold one lock while waiting on another
      */
     @Transactional
     public boolean cancelSagaByUserWithFencing(String sagaId, String orderId, String reason) {
         log.info("Processing user cancellation request with fencing tokens: sagaId={}, orderId={}, reason={}",
                 sagaId, orderId, reason);
 
-        // PHASE 3: Try to acquire payment lock with fencing token
         String paymentLockKey = RedisLockService.buildPaymentLockKey(orderId);
+        String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
+        String orderLockKey = RedisLockService.buildOrderLockKey(orderId);
+
+        MultiFencingLockResult locks = redisLockService.tryLockAllWithFencing(
+                List.of(paymentLockKey, sagaLockKey, orderLockKey), 2, TimeUnit.MINUTES);
+
+        if (!locks.isAcquired()) {
+            String blockedBy = locks.getBlockedBy();
+            String lockHolder = blockedBy != null ? redisLockService.getLockHolder(blockedBy) : null;
+            if (paymentLockKey.equals(blockedBy)) {
+                // Payment is currently in progress
+                log.warn("Cannot cancel saga - payment in progress (lock held by: {}): sagaId={}, orderId={}",
+                        lockHolder, sagaId, orderId);
+            } else {
+                log.warn("Cannot cancel saga - lock {} held by: {}: sagaId={}, orderId={}",
+                        blockedBy, lockHolder, sagaId, orderId);
+            }
+            return false;
+        }
 
-        log.debug("Attempting to acquire payment lock with fencing token for cancellation: lockKey={}", paymentLockKey);
-
-        FencingLockResult paymentLockResult = redisLockService.tryLockWithFencing(paymentLockKey, 30, TimeUnit.SECONDS);
+        try {
+            log.info("Cancellation locks acquired with fencing tokens: sagaId={}, orderId={}, tokens={}",
+                    sagaId, orderId, locks.getFencingTokens());
+
+            // PRESERVE EXISTING - Validate saga exists and is in active state
+            Optional<OrderPurchaseSagaState> optionalSaga = loadSaga(sagaId);
+            if (optionalSaga.isEmpty()) {
+                log.warn("Saga not found for cancellation: sagaId={}", sagaId);
+                return false;
+            }
 
-        if (paymentLockResult.isAcquired() && paymentLockResult.isValid()) {
-            try {
-                log.info("Payment lock with fencing token acquired for cancellation: sagaId={}, orderId={}, token={}",
-                        sagaId, orderId, paymentLockResult.getFencingToken());
-
-                // PHASE 3: Acquire distributed saga lock with fencing token
-                String sagaLockKey = RedisLockService.buildSagaLockKey(sagaId);
-                FencingLockResult sagaLockResult = redisLockService.tryLockWithFencing(sagaLockKey, 2, TimeUnit.MINUTES);
-
-                if (sagaLockResult.isAcquired() && sagaLockResult.isValid()) {
-                    try {
-                        // PRESERVE EXISTING - Validate saga exists and is in active state
-                        Optional<OrderPurchaseSagaState> optionalSaga = sagaRepository.findById(sagaId);
-                        if (optionalSaga.isEmpty()) {
-                            log.warn("Saga not found for cancellation: sagaId={}", sagaId);
-                            return false;
-                        }
-
-                        OrderPurchaseSagaState saga = optionalSaga.get();
-
-                        // Validate saga is in active state
-                        if (saga.getStatus() == SagaStatus.COMPLETED || saga.getStatus() == SagaStatus.FAILED) {
-                            log.warn("Cannot cancel saga in final state: sagaId={}, status={}", sagaId, saga.getStatus());
-                            return false;
-                        }
-
-                        log.info("Proceeding with saga cancellation - all locks secured with fencing tokens: sagaId={}", sagaId);
-
-                        // PHASE 3: Set failure reason and add fencing token info
-                        saga.setFailureReason("User cancellation with fencing tokens: " + reason);
-                        saga.addEvent(SagaEvent.of("USER_CANCELLATION_REQUESTED_WITH_FENCING",
-                                "User requested cancellation with fencing protection: " + reason +
-                                        ", paymentToken=" + paymentLockResult.getFencingToken() +
-                                        ", sagaToken=" + sagaLockResult.getFencingToken()));
-
-                        // PHASE 3: Update saga with fencing token
-                        saga.setFencingToken(Long.valueOf(sagaLockResult.getFencingToken()));
-
-                        // PRESERVE EXISTING - Use existing compensation strategy
-                        startCompensationWithFencing(saga, paymentLockResult.getFencingToken());
-
-                        log.info("User cancellation with fencing tokens initiated successfully: sagaId={}, orderId={}",
-                                sagaId, orderId);
-                        return true;
-
-                    } finally {
-                        redisLockService.releaseLock(sagaLockKey);
-                    }
-                } else {
-                    log.warn("Failed to acquire saga lock with fencing token for cancellation: sagaId={}", sagaId);
-                    return false;
-                }
+            OrderPurchaseSagaState saga = optionalSaga.get();
 
-            } finally {
-                // Always release payment lock
-                boolean released = redisLockService.releaseLock(paymentLockKey);
-                log.info("Payment lock released after cancellation attempt: sagaId={}, orderId={}, released={}",
-                        sagaId, orderId, released);
+            // Validate saga is in active state
+            if (saga.getStatus() == SagaStatus.COMPLETED || saga.getStatus() == SagaStatus.FAILED) {
+                log.warn("Cannot cancel saga in final state: sagaId={}, status={}", sagaId, saga.getStatus());
+                return false;
             }
-        } else {
-            // Failed to acquire payment lock - payment is currently in progress
-            String lockHolder = redisLockService.getLockHolder(paymentLockKey);
-            log.warn("Cannot cancel saga - payment in progress (lock held by: {}): sagaId={}, orderId={}",
-                    lockHolder, sagaId, orderId);
 
-            return false;
+            log.info("Proceeding with saga cancellation - all locks secured with fencing tokens: sagaId={}", sagaId);
+
+            long paymentToken = locks.getFencingToken(paymentLockKey);
+            long sagaToken = locks.getFencingToken(sagaLockKey);
+
+            // PHASE 3: Set failure reason and add fencing token info
+            saga.setFailureReason("User cancellation with fencing tokens: " + reason);
+            saga.addEvent(SagaEvent.of("USER_CANCELLATION_REQUESTED_WITH_FENCING",
+                    "User requested cancellation with fencing protection: " + reason +
+                            ", paymentToken=" + paymentToken +
+                            ", sagaToken=" + sagaToken));
+
+            // PHASE 3: Update saga with fencing token
+            saga.setFencingToken(sagaToken);
+
+            // PRESERVE EXISTING - Use existing compensation strategy
+            startCompensationWithFencing(saga, locks);
+
+            log.info("User cancellation with fencing tokens initiated successfully: sagaId={}, orderId={}",
+                    sagaId, orderId);
+            return true;
+
+        } finally {
+            // Always release all cancellation locks
+            int released = redisLockService.releaseAll(locks);
+            log.info("Cancellation locks released: sagaId={}, orderId={}, released={}", sagaId, orderId, released);
         }
     }
 
@@ -1199,7 +1538,9 @@ public class OrderPurchaseSagaService {
      */
     private boolean isSagaLockPotentiallyStale(String sagaId, long staleThresholdMs) {
         try {
-            Optional<OrderPurchaseSagaState> saga = sagaRepository.findById(sagaId);
+            // Prefer the cached state; the health check only reads
+            OrderPurchaseSagaState cached = stateCache.peek(sagaId);
+            Optional<OrderPurchaseSagaState> saga = cached != null ? Optional.of(cached) : sagaRepository.findById(sagaId);
             if (saga.isEmpty()) {
                 return true; // Saga doesn't exist, lock is definitely stale
             }
@@ -0,0 +1,206 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveEntry;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveRecord;
+import com.graduation.sagaorchestratorservice.repository.SagaArchiveEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only, compressed archive segments on local disk, one segment file per UTC day.
+ *
+ * A segment is a sequence of frames: magic, payload length, CRC32 of the payload, then
+ * the payload, a gzip of one JSON line per saga. Each archiver chunk is one frame and is
+ * forced to disk before its rows are deleted. A torn frame left by a crash is cut off
+ * before the next append; its sagas are still in the database and get archived again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaArchiveStore {
+
+    private static final int FRAME_MAGIC = 0x53414741;
+    private static final int FRAME_HEADER_BYTES = 12;
+    private static final String SEGMENT_PREFIX = "sagas-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final ObjectMapper objectMapper;
+    private final SagaArchiveEntryRepository entryRepository;
+
+    @Value("${saga.archive.directory:./saga-archive}")
+    private String directory;
+
+    /**
+     * Name of the segment that appends go to today
+     */
+    public String currentSegment() {
+        return SEGMENT_PREFIX + DateTimeFormatter.BASIC_ISO_DATE.format(LocalDate.now(ZoneOffset.UTC)) + SEGMENT_SUFFIX;
+    }
+
+    /**
+     * Append one frame holding the given sagas and force it to disk; returns the frame offset
+     */
+    public synchronized long append(String segment, List<SagaArchiveRecord> records) throws IOException {
+        byte[] payload = compress(records);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        Path path = segmentPath(segment);
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = endOfValidFrames(channel);
+            if (offset < channel.size()) {
+                log.warn("Truncating torn frame in archive segment {} at offset {}", segment, offset);
+                channel.truncate(offset);
+            }
+
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+            frame.putInt(FRAME_MAGIC).putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            long position = offset;
+            while (frame.hasRemaining()) {
+                position += channel.write(frame, position);
+            }
+            channel.force(true);
+            return offset;
+        }
+    }
+
+    /**
+     * Look up an archived saga through the archive index
+     */
+    public Optional<SagaArchiveRecord> find(String sagaId) throws IOException {
+        Optional<SagaArchiveEntry> entry = entryRepository.findById(sagaId);
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        return read(entry.get().getSegment(), entry.get().getFrameOffset(), sagaId);
+    }
+
+    /**
+     * Read one saga from the frame at the given offset
+     */
+    public Optional<SagaArchiveRecord> read(String segment, long offset, String sagaId) throws IOException {
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            log.warn("Archive segment {} not found in {}", segment, directory);
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] payload = readFrame(channel, offset);
+            if (payload == null) {
+                throw new IOException("Corrupt archive frame in " + segment + " at offset " + offset);
+            }
+
+            SagaArchiveRecord found = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    SagaArchiveRecord record = objectMapper.readValue(line, SagaArchiveRecord.class);
+                    if (sagaId.equals(record.sagaId())) {
+                        found = record;
+                    }
+                }
+            }
+            return Optional.ofNullable(found);
+        }
+    }
+
+    private byte[] compress(List<SagaArchiveRecord> records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (SagaArchiveRecord record : records) {
+                gzip.write(objectMapper.writeValueAsBytes(record));
+                gzip.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Offset just past the last complete frame; only the last frame's checksum is verified
+     */
+    private long endOfValidFrames(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        long lastFrame = -1;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        while (offset + FRAME_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            int length = header.getInt(4);
+            if (header.getInt(0) != FRAME_MAGIC || length < 0 || offset + FRAME_HEADER_BYTES + length > size) {
+                break;
+            }
+            lastFrame = offset;
+            offset += FRAME_HEADER_BYTES + length;
+        }
+
+        if (lastFrame >= 0 && readFrame(channel, lastFrame) == null) {
+            return lastFrame;
+        }
+        return offset;
+    }
+
+    /**
+     * Frame payload, or null if the frame is incomplete or fails its checksum
+     */
+    private byte[] readFrame(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        if (readFully(channel, header, offset) < FRAME_HEADER_BYTES || header.getInt(0) != FRAME_MAGIC) {
+            return null;
+        }
+        int length = header.getInt(4);
+        if (length < 0 || offset + FRAME_HEADER_BYTES + length > channel.size()) {
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, offset + FRAME_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        return (int) crc.getValue() == header.getInt(8) ? payload.array() : null;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private Path segmentPath(String segment) {
+        return Paths.get(directory).resolve(segment);
+    }
+}
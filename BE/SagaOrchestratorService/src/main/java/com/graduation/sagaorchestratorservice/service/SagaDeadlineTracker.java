@@ -0,0 +1,144 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.repository.OrderPurchaseSagaStateRepository;
+import com.graduation.sagaorchestratorservice.repository.OrderPurchaseSagaStateRepository.StepDeadlineView;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * In-memory min-heap of upcoming saga step deadlines.
+ *
+ * The heap is filled by a keyset scan over the partial deadline index that only reads
+ * rows whose deadline falls before now + lookahead, continuing from the last row read.
+ * Steps start with a deadline at least one full step timeout ahead, which is beyond the
+ * lookahead, so new deadlines always land after the watermark. Each check therefore
+ * touches only sagas that are about to expire, not every active saga. A periodic resync
+ * restarts the scan from the beginning to pick up anything handed back or re-owned.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaDeadlineTracker {
+
+    private final OrderPurchaseSagaStateRepository sagaRepository;
+    private final SagaStepTimeoutPolicy timeoutPolicy;
+
+    @Value("${saga.timeout.scan.lookahead-seconds:60}")
+    private long lookaheadSeconds;
+
+    @Value("${saga.timeout.scan.page-size:500}")
+    private int pageSize;
+
+    @Value("${saga.timeout.scan.resync-minutes:10}")
+    private long resyncMinutes;
+
+    private final PriorityQueue<TrackedDeadline> heap = new PriorityQueue<>();
+    // Latest deadline per saga in the heap; older heap entries for the saga are ignored
+    private final Map<String, Instant> trackedDeadlines = new HashMap<>();
+
+    private Instant watermarkDeadline = Instant.EPOCH;
+    private String watermarkSagaId = "";
+    private Instant lastResync = Instant.EPOCH;
+
+    @PostConstruct
+    public void validateLookahead() {
+        Duration lookahead = Duration.ofSeconds(lookaheadSeconds);
+        if (lookahead.compareTo(timeoutPolicy.shortestTimeout()) >= 0) {
+            log.warn("Deadline scan lookahead {} is not shorter than the shortest step timeout {}; "
+                    + "deadlines may be missed until the next resync", lookahead, timeoutPolicy.shortestTimeout());
+        }
+    }
+
+    /**
+     * Load deadlines that entered the lookahead window and return every saga whose deadline has passed
+     */
+    public synchronized List<String> pollExpired(Instant now) {
+        if (Duration.between(lastResync, now).toMinutes() >= resyncMinutes) {
+            watermarkDeadline = Instant.EPOCH;
+            watermarkSagaId = "";
+            lastResync = now;
+        }
+
+        loadUpTo(now.plusSeconds(lookaheadSeconds));
+
+        List<String> expired = new ArrayList<>();
+        while (!heap.isEmpty() && !heap.peek().deadline().isAfter(now)) {
+            TrackedDeadline next = heap.poll();
+            if (trackedDeadlines.remove(next.sagaId(), next.deadline())) {
+                expired.add(next.sagaId());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Check a saga again later (its timeout could not be processed right now)
+     */
+    public synchronized void recheckAt(String sagaId, Instant when) {
+        track(sagaId, when);
+    }
+
+    /**
+     * Visit every saga whose deadline is up to {@code upTo}, straight from the index and in
+     * deadline order, without touching the heap or its watermark
+     */
+    public void forEachDeadlineUpTo(Instant upTo, Consumer<StepDeadlineView> action) {
+        scan(Instant.EPOCH, "", upTo, action);
+    }
+
+    /**
+     * Number of deadlines currently held in memory
+     */
+    public synchronized int size() {
+        return trackedDeadlines.size();
+    }
+
+    private void loadUpTo(Instant upTo) {
+        scan(watermarkDeadline, watermarkSagaId, upTo, row -> {
+            track(row.getSagaId(), row.getStepDeadline());
+            watermarkDeadline = row.getStepDeadline();
+            watermarkSagaId = row.getSagaId();
+        });
+    }
+
+    /**
+     * Keyset scan of the deadline index after (afterDeadline, afterSagaId) up to upTo
+     */
+    private void scan(Instant afterDeadline, String afterSagaId, Instant upTo, Consumer<StepDeadlineView> action) {
+        List<StepDeadlineView> page;
+        do {
+            page = sagaRepository.findStepDeadlinesAfter(afterDeadline, afterSagaId, upTo,
+                    PageRequest.of(0, pageSize));
+            for (StepDeadlineView row : page) {
+                action.accept(row);
+                afterDeadline = row.getStepDeadline();
+                afterSagaId = row.getSagaId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private void track(String sagaId, Instant deadline) {
+        trackedDeadlines.put(sagaId, deadline);
+        heap.add(new TrackedDeadline(sagaId, deadline));
+    }
+
+    private record TrackedDeadline(String sagaId, Instant deadline) implements Comparable<TrackedDeadline> {
+        @Override
+        public int compareTo(TrackedDeadline other) {
+            return deadline.compareTo(other.deadline);
+        }
+    }
+}
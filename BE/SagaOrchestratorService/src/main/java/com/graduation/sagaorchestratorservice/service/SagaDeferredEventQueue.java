@@ -0,0 +1,293 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.SagaParkedEvent;
+import com.graduation.sagaorchestratorservice.repository.SagaParkedEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-saga queue of events that arrived while the saga lock was held elsewhere.
+ *
+ * Instead of sleeping on the Kafka consumer thread, a contended event is parked here
+ * and the consumer moves on. SagaDeferredEventRedriver drains a saga's queue in arrival
+ * order once its lock frees.
+ *
+ * The Kafka record is acknowledged once the event is parked, so every parked event is
+ * first written to saga_parked_events; the in-memory queue only orders the rows this
+ * instance owns. A row is deleted in the transaction that applies its event and leaves
+ * the queue only after that commit, so a failed re-drive keeps the event at the head of
+ * its saga's queue. Rows are leased to the parking instance; after a crash a peer adopts
+ * them once the lease expires. Adoption may re-apply an event whose lease lapsed while
+ * it was being applied; the processed message check makes that a no-op.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaDeferredEventQueue {
+
+    private static final TypeReference<Map<String, Object>> EVENT_TYPE = new TypeReference<>() {};
+
+    private final SagaParkedEventRepository parkedEventRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${saga.lock.deferred.max-parked:10000}")
+    private int maxParked;
+
+    @Value("${saga.lock.deferred.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${saga.lock.deferred.failure-backoff-ms:1000}")
+    private long failureBackoffMs;
+
+    @Value("${saga.lock.deferred.max-failure-backoff-ms:30000}")
+    private long maxFailureBackoffMs;
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, Deque<ParkedEvent>> parkedBySaga = new ConcurrentHashMap<>();
+    private final AtomicInteger parkedDepth = new AtomicInteger();
+
+    private Counter parkedCounter;
+    private Counter failedCounter;
+    private Timer parkTimer;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        Gauge.builder(Constant.METRIC_SAGA_DEFERRED_DEPTH, parkedDepth, AtomicInteger::get)
+                .description(Constant.METRIC_DESC_DEFERRED_DEPTH)
+                .register(meterRegistry);
+        parkedCounter = Counter.builder(Constant.METRIC_SAGA_DEFERRED_PARKED)
+                .description(Constant.METRIC_DESC_DEFERRED_PARKED)
+                .register(meterRegistry);
+        failedCounter = Counter.builder(Constant.METRIC_SAGA_DEFERRED_FAILED)
+                .description(Constant.METRIC_DESC_DEFERRED_FAILED)
+                .register(meterRegistry);
+        parkTimer = Timer.builder(Constant.METRIC_SAGA_DEFERRED_PARK_TIME)
+                .description(Constant.METRIC_DESC_DEFERRED_PARK_TIME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Park an event behind any already parked for the same saga.
+     * Returns false if the queue is full or the event could not be stored, in which case
+     * the caller should fail the record and let Kafka retry it.
+     */
+    public boolean park(String sagaId, Map<String, Object> eventData) {
+        if (parkedDepth.incrementAndGet() > maxParked) {
+            parkedDepth.decrementAndGet();
+            log.warn("Deferred saga event queue full ({}), rejecting event for saga {}", maxParked, sagaId);
+            return false;
+        }
+
+        SagaParkedEvent row;
+        try {
+            row = parkedEventRepository.save(SagaParkedEvent.builder()
+                    .sagaId(sagaId)
+                    .eventData(objectMapper.writeValueAsString(eventData))
+                    .leaseOwner(instanceId)
+                    .leaseUntil(Instant.now().plusMillis(leaseMs))
+                    .build());
+        } catch (JsonProcessingException | RuntimeException e) {
+            parkedDepth.decrementAndGet();
+            log.error("Could not store parked event for saga {}, rejecting it", sagaId, e);
+            return false;
+        }
+
+        parkedBySaga.compute(sagaId, (id, queue) -> {
+            Deque<ParkedEvent> target = queue != null ? queue : new ArrayDeque<>();
+            target.addLast(new ParkedEvent(row.getId(), eventData, System.nanoTime()));
+            return target;
+        });
+        parkedCounter.increment();
+
+        log.debug("Parked event for contended saga: sagaId={}, type={}, depth={}",
+                sagaId, eventData.get(Constant.FIELD_TYPE), parkedDepth.get());
+        return true;
+    }
+
+    /**
+     * Whether events are already waiting for this saga (new events must queue behind them)
+     */
+    public boolean hasParked(String sagaId) {
+        return sagaId != null && parkedBySaga.containsKey(sagaId);
+    }
+
+    /**
+     * Next parked event for the saga in arrival order, or null if there is none or the
+     * head is backing off after a failed re-drive. The event stays queued until
+     * {@link #remove} is called.
+     */
+    public ParkedEvent peek(String sagaId) {
+        ParkedEvent[] head = new ParkedEvent[1];
+        parkedBySaga.computeIfPresent(sagaId, (id, queue) -> {
+            head[0] = queue.peekFirst();
+            return queue;
+        });
+        return head[0] != null && head[0].isReady() ? head[0] : null;
+    }
+
+    /**
+     * Delete the stored copy of an event; must join the transaction that applies it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteStored(ParkedEvent event) {
+        parkedEventRepository.deleteById(event.getId());
+    }
+
+    /**
+     * Drop an event from the queue once the transaction that applied it has committed
+     */
+    public void remove(String sagaId, ParkedEvent event) {
+        boolean[] removed = new boolean[1];
+        parkedBySaga.computeIfPresent(sagaId, (id, queue) -> {
+            removed[0] = queue.remove(event);
+            return queue.isEmpty() ? null : queue;
+        });
+
+        if (removed[0]) {
+            parkedDepth.decrementAndGet();
+            parkTimer.record(System.nanoTime() - event.parkedAtNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Keep a failed event at the head of its saga's queue and back off before the next
+     * attempt, so a persistently failing event does not spin the redriver
+     */
+    public void markFailed(ParkedEvent event) {
+        int failures = ++event.failures;
+        long backoffMs = Math.min(failureBackoffMs << Math.min(failures - 1, 20), maxFailureBackoffMs);
+        event.retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        failedCounter.increment();
+    }
+
+    /**
+     * Sagas that currently have parked events
+     */
+    public List<String> parkedSagaIds() {
+        return List.copyOf(parkedBySaga.keySet());
+    }
+
+    public int getParkedDepth() {
+        return parkedDepth.get();
+    }
+
+    /**
+     * Extend the lease on every event this instance has parked
+     */
+    @Transactional
+    public int renewLeases() {
+        return parkedEventRepository.renewLeases(instanceId, Instant.now().plusMillis(leaseMs));
+    }
+
+    /**
+     * Take over events whose owner stopped renewing its lease (crashed or shut down).
+     * Adopted events go ahead of any parked locally for the same saga, since they were
+     * parked earlier.
+     */
+    @Transactional
+    public int adoptOrphaned(int batchSize) {
+        int capacity = Math.min(batchSize, maxParked - parkedDepth.get());
+        if (capacity <= 0) {
+            return 0;
+        }
+
+        List<SagaParkedEvent> orphaned = parkedEventRepository.lockOrphanedBatch(Instant.now(), capacity);
+        if (orphaned.isEmpty()) {
+            return 0;
+        }
+        parkedEventRepository.lease(orphaned.stream().map(SagaParkedEvent::getId).toList(),
+                instanceId, Instant.now().plusMillis(leaseMs));
+
+        Map<String, Deque<ParkedEvent>> adoptedBySaga = new LinkedHashMap<>();
+        for (SagaParkedEvent row : orphaned) {
+            adoptedBySaga.computeIfAbsent(row.getSagaId(), id -> new ArrayDeque<>())
+                    .addLast(new ParkedEvent(row.getId(), readEvent(row), System.nanoTime()));
+        }
+        adoptedBySaga.forEach((sagaId, adopted) -> parkedBySaga.compute(sagaId, (id, queue) -> {
+            if (queue != null) {
+                adopted.addAll(queue);
+            }
+            return adopted;
+        }));
+        parkedDepth.addAndGet(orphaned.size());
+
+        log.info("Adopted {} orphaned parked events for {} sagas", orphaned.size(), adoptedBySaga.size());
+        return orphaned.size();
+    }
+
+    /**
+     * Release every lease held by this instance so peers adopt its events immediately
+     */
+    @Transactional
+    public int releaseAll() {
+        return parkedEventRepository.releaseAllLeases(instanceId);
+    }
+
+    private Map<String, Object> readEvent(SagaParkedEvent row) {
+        try {
+            return objectMapper.readValue(row.getEventData(), EVENT_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable parked event " + row.getId(), e);
+        }
+    }
+
+    /**
+     * An event waiting in the queue; identity is the stored row
+     */
+    public static final class ParkedEvent {
+        private final long id;
+        private final Map<String, Object> eventData;
+        private final long parkedAtNanos;
+        private int failures;
+        private long retryAtNanos;
+
+        ParkedEvent(long id, Map<String, Object> eventData, long parkedAtNanos) {
+            this.id = id;
+            this.eventData = eventData;
+            this.parkedAtNanos = parkedAtNanos;
+            this.retryAtNanos = parkedAtNanos;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Map<String, Object> getEventData() {
+            return eventData;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        private boolean isReady() {
+            return System.nanoTime() - retryAtNanos >= 0;
+        }
+    }
+}
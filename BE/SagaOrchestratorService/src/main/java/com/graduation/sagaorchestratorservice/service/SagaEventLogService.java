@@ -0,0 +1,98 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.SagaEvent;
+import com.graduation.sagaorchestratorservice.model.SagaEventRecord;
+import com.graduation.sagaorchestratorservice.repository.SagaEventRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only saga event history.
+ * New events are appended with one JDBC batch per saga write instead of rewriting the
+ * whole history; the history is only read when a caller explicitly asks for it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaEventLogService {
+
+    private static final String INSERT_SQL = "INSERT INTO " + Constant.TABLE_SAGA_EVENT_LOG + " ("
+            + Constant.COLUMN_SAGA_ID + ", "
+            + Constant.COLUMN_EVENT_LOG_SEQUENCE + ", "
+            + Constant.COLUMN_EVENT_LOG_TYPE + ", "
+            + Constant.COLUMN_EVENT_LOG_DESCRIPTION + ", "
+            + Constant.COLUMN_EVENT_LOG_OCCURRED_AT + ") VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SagaEventRecordRepository eventRecordRepository;
+
+    /**
+     * Append events to a saga's history; {@code firstSequence} is the position of the first one.
+     * Runs on the connection of the surrounding saga transaction.
+     */
+    public void append(String sagaId, int firstSequence, List<SagaEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SagaEvent event = events.get(i);
+                Instant occurredAt = event.getTimestamp() != null ? event.getTimestamp() : Instant.now();
+                ps.setString(1, sagaId);
+                ps.setInt(2, firstSequence + i);
+                ps.setString(3, event.getType());
+                ps.setString(4, event.getDescription());
+                ps.setTimestamp(5, Timestamp.from(occurredAt));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+
+        log.debug("Appended {} events to saga history: sagaId={}", events.size(), sagaId);
+    }
+
+    /**
+     * Full history of a saga: events from the legacy JSON column (sagas written before the
+     * event log existed) followed by the appended rows
+     */
+    public List<SagaEvent> loadHistory(OrderPurchaseSagaState saga) {
+        List<SagaEvent> history = new ArrayList<>(saga.getLegacySagaEvents());
+        for (SagaEventRecord record : eventRecordRepository.findBySagaIdOrderBySequenceAsc(saga.getSagaId())) {
+            history.add(record.toSagaEvent());
+        }
+        return history;
+    }
+
+    /**
+     * Full histories of several sagas with one query for the appended rows
+     */
+    public Map<String, List<SagaEvent>> loadHistories(List<OrderPurchaseSagaState> sagas) {
+        Map<String, List<SagaEvent>> histories = new HashMap<>();
+        for (OrderPurchaseSagaState saga : sagas) {
+            histories.put(saga.getSagaId(), new ArrayList<>(saga.getLegacySagaEvents()));
+        }
+        for (SagaEventRecord record : eventRecordRepository.findBySagaIdInOrderBySagaIdAscSequenceAsc(histories.keySet())) {
+            histories.get(record.getSagaId()).add(record.toSagaEvent());
+        }
+        return histories;
+    }
+}
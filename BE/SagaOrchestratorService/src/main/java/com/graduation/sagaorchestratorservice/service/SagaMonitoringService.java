@@ -1,6 +1,8 @@
 package com.graduation.sagaorchestratorservice.service;
 
 import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+import com.graduation.sagaorchestratorservice.repository.OrderPurchaseSagaStateRepository;
 import com.graduation.sagaorchestratorservice.repository.ProcessedMessageRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
@@ -14,6 +16,11 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -28,7 +35,12 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class SagaMonitoringService {
 
+    private static final Set<SagaStatus> ACTIVE_STATUSES =
+            EnumSet.of(SagaStatus.STARTED, SagaStatus.IN_PROGRESS, SagaStatus.COMPENSATING);
+    private static final int PRUNE_LOOKUP_CHUNK = 500;
+
     private final ProcessedMessageRepository processedMessageRepository;
+    private final OrderPurchaseSagaStateRepository sagaRepository;
     private final MeterRegistry meterRegistry;
 
     // Metrics counters and gauges
@@ -218,10 +230,8 @@ public class SagaMonitoringService {
         try {
             log.debug(Constant.LOG_UPDATING_METRICS);
 
-            // Clean up old saga metrics (older than 1 hour)
-            Instant oneHourAgo = Instant.now().minus(Duration.ofHours(1));
-            activeSagas.entrySet().removeIf(entry ->
-                    entry.getValue().startTime.isBefore(oneHourAgo));
+            // Clean up saga metrics older than 1 hour, unless the saga is still running
+            pruneFinishedSagas(Instant.now().minus(Duration.ofHours(1)));
 
             // Update active count from actual map size
             activeSagasGauge.set(activeSagas.size());
@@ -237,6 +247,29 @@ public class SagaMonitoringService {
         }
     }
 
+    /**
+     * Drop tracked sagas started before the cutoff whose saga is no longer active in the
+     * database (finished, archived or missing). Long-running sagas keep their metrics.
+     */
+    private void pruneFinishedSagas(Instant cutoff) {
+        List<String> candidates = new ArrayList<>();
+        for (SagaMetrics metrics : activeSagas.values()) {
+            if (metrics.startTime.isBefore(cutoff)) {
+                candidates.add(metrics.sagaId);
+            }
+        }
+
+        for (int from = 0; from < candidates.size(); from += PRUNE_LOOKUP_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(from + PRUNE_LOOKUP_CHUNK, candidates.size()));
+            Set<String> stillActive = new HashSet<>(sagaRepository.findIdsWithStatusIn(chunk, ACTIVE_STATUSES));
+            for (String sagaId : chunk) {
+                if (!stillActive.contains(sagaId)) {
+                    activeSagas.remove(sagaId);
+                }
+            }
+        }
+    }
+
     /**
      * Get detailed metrics for a specific saga
      */
@@ -0,0 +1,81 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.exception.SagaExecutionException;
+import com.graduation.sagaorchestratorservice.model.SagaOutboxMessage;
+import com.graduation.sagaorchestratorservice.repository.SagaOutboxRepository;
+import com.graduation.sagawirecodec.message.SagaCommand;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Transactional outbox for saga commands.
+ * Commands are stored next to the saga state inside the caller's transaction and
+ * relayed to Kafka afterwards by {@link com.graduation.sagaorchestratorservice.scheduler.SagaOutboxRelay},
+ * so a crash between the DB commit and the Kafka send can no longer lose a command.
+ */
+@Slf4j
+@Service
+public class SagaOutboxService {
+
+    private static final TypeReference<Map<String, Object>> MESSAGE_TYPE = new TypeReference<>() {};
+
+    private final SagaOutboxRepository outboxRepository;
+    private final KafkaMessagePublisher messagePublisher;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader messageReader;
+
+    public SagaOutboxService(SagaOutboxRepository outboxRepository,
+                             KafkaMessagePublisher messagePublisher,
+                             ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.messagePublisher = messagePublisher;
+        this.objectMapper = objectMapper;
+        // Keep amounts as BigDecimal when the relay reads the stored command back
+        this.messageReader = objectMapper.readerFor(MESSAGE_TYPE)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    /**
+     * Enqueue a typed saga step command
+     */
+    @Transactional
+    public SagaOutboxMessage enqueueSagaCommand(SagaCommand command, String topic) {
+        return enqueue(command.sagaId(), command.toMessage(), topic);
+    }
+
+    /**
+     * Read a stored command back into the map that is sent to Kafka
+     */
+    public Map<String, Object> readMessage(SagaOutboxMessage outboxMessage) throws JsonProcessingException {
+        return messageReader.readValue(outboxMessage.getPayloadJson());
+    }
+
+    private SagaOutboxMessage enqueue(String sagaId, Map<String, Object> message, String topic) {
+        if (topic == null || topic.trim().isEmpty()) {
+            throw new IllegalArgumentException(Constant.VALIDATION_TOPIC_NULL);
+        }
+
+        try {
+            String payloadJson = objectMapper.writeValueAsString(message);
+            // sagaId is the partition key, same as the direct publisher
+            SagaOutboxMessage saved = outboxRepository.save(
+                    SagaOutboxMessage.pending(sagaId, topic, sagaId, payloadJson));
+
+            log.debug("Command enqueued in outbox: sagaId={}, topic={}, type={}, outboxId={}",
+                    sagaId, topic, message.get(Constant.FIELD_TYPE), saved.getId());
+            return saved;
+
+        } catch (JsonProcessingException e) {
+            throw new SagaExecutionException(sagaId, "Failed to serialize outbox command", e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagacoordination.lock.RedisLockService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Partition-affine single-writer ownership of sagas.
+ *
+ * Order and payment events are keyed by sagaId and consumed by one consumer group
+ * with a range assignor, so partition N of both topics is owned by the same consumer.
+ * The owning instance serializes all work for a saga on an in-process partition lock,
+ * which replaces the per-event Redis saga lock. Redis is only touched on rebalance,
+ * to issue a new owner epoch that fences writes from a previous owner.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaPartitionOwnershipService implements ConsumerAwareRebalanceListener {
+
+    private final RedisLockService redisLockService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${saga.executor.partition-affine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.topics.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${kafka.topics.payment-events}")
+    private String paymentEventsTopic;
+
+    private final Map<Integer, PartitionOwner> owners = new ConcurrentHashMap<>();
+    private volatile int partitionCount = 0;
+
+    /**
+     * Payment events topic, used by the partitioned listener to route records to handlers
+     */
+    public String getPaymentEventsTopic() {
+        return paymentEventsTopic;
+    }
+
+    /**
+     * Whether the partition-affine executor mode is switched on
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Partition a saga's events land on (same formula as the Kafka default partitioner)
+     */
+    public int partitionFor(String sagaId) {
+        int count = partitionCount;
+        if (count <= 0) {
+            return -1;
+        }
+        return Utils.toPositive(Utils.murmur2(sagaId.getBytes(StandardCharsets.UTF_8))) % count;
+    }
+
+    /**
+     * Whether this instance currently owns the saga's partition
+     */
+    public boolean owns(String sagaId) {
+        return sagaId != null && owners.containsKey(partitionFor(sagaId));
+    }
+
+    /**
+     * Whether the current thread is already running work for the saga's partition
+     */
+    public boolean isHeldByCurrentThread(String sagaId) {
+        if (sagaId == null) {
+            return false;
+        }
+        PartitionOwner owner = owners.get(partitionFor(sagaId));
+        return owner != null && owner.lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Owner epoch of the saga's partition, or null if not owned here
+     */
+    public Long currentEpoch(String sagaId) {
+        PartitionOwner owner = sagaId != null ? owners.get(partitionFor(sagaId)) : null;
+        return owner != null ? owner.epoch : null;
+    }
+
+    /**
+     * Run work for a saga under its partition lock.
+     * Returns false without running the work if this instance does not own the partition.
+     */
+    public boolean runExclusively(String sagaId, Runnable work) {
+        return callExclusively(sagaId, () -> {
+            work.run();
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    /**
+     * Same as {@link #runExclusively} but returns the work's result, or null if not owned
+     */
+    public <T> T callExclusively(String sagaId, Supplier<T> work) {
+        PartitionOwner owner = sagaId != null ? owners.get(partitionFor(sagaId)) : null;
+        if (owner == null) {
+            return null;
+        }
+
+        owner.lock.lock();
+        try {
+            // Ownership may have been revoked while waiting for the lock
+            if (owners.get(owner.partition) != owner) {
+                return null;
+            }
+            return work.get();
+        } finally {
+            owner.lock.unlock();
+        }
+    }
+
+    // ===================== Rebalance callbacks =====================
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!enabled) {
+            return;
+        }
+
+        for (TopicPartition topicPartition : partitions) {
+            if (!isSagaEventTopic(topicPartition.topic())) {
+                continue;
+            }
+
+            learnPartitionCount(consumer, topicPartition.topic());
+
+            owners.compute(topicPartition.partition(), (partition, existing) -> {
+                PartitionOwner owner = existing;
+                if (owner == null) {
+                    // One Redis round trip per newly owned partition
+                    long epoch = redisLockService.generatePartitionEpoch(partition);
+                    owner = new PartitionOwner(partition, epoch);
+                    log.info("Saga partition assigned: partition={}, epoch={}", partition, epoch);
+                    eventPublisher.publishEvent(new PartitionOwnershipChanged(partition, true));
+                }
+                owner.topics.add(topicPartition.topic());
+                return owner;
+            });
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions, "revoked");
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions, "lost");
+    }
+
+    private void release(Collection<TopicPartition> partitions, String reason) {
+        if (!enabled) {
+            return;
+        }
+
+        for (TopicPartition topicPartition : partitions) {
+            PartitionOwner owner = owners.get(topicPartition.partition());
+            if (owner == null) {
+                continue;
+            }
+
+            owner.topics.remove(topicPartition.topic());
+            if (owner.topics.isEmpty()) {
+                // Wait for in-flight scheduler work on this partition before giving it up
+                owner.lock.lock();
+                try {
+                    owners.remove(owner.partition, owner);
+                } finally {
+                    owner.lock.unlock();
+                }
+                log.info("Saga partition {}: partition={}, epoch={}", reason, owner.partition, owner.epoch);
+                eventPublisher.publishEvent(new PartitionOwnershipChanged(owner.partition, false));
+            }
+        }
+    }
+
+    private void learnPartitionCount(Consumer<?, ?> consumer, String topic) {
+        try {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos != null && !infos.isEmpty()) {
+                if (partitionCount > 0 && partitionCount != infos.size()) {
+                    log.warn("Saga event topics are not co-partitioned: {} has {} partitions, expected {}",
+                            topic, infos.size(), partitionCount);
+                }
+                partitionCount = infos.size();
+            }
+        } catch (Exception e) {
+            log.error("Failed to read partition count for topic {}", topic, e);
+        }
+    }
+
+    private boolean isSagaEventTopic(String topic) {
+        return topic.equals(orderEventsTopic) || topic.equals(paymentEventsTopic);
+    }
+
+    /**
+     * Published when this instance gains or loses a saga partition
+     */
+    public record PartitionOwnershipChanged(int partition, boolean assigned) {
+    }
+
+    /**
+     * In-process ownership record for one partition number
+     */
+    private static class PartitionOwner {
+        private final int partition;
+        private final long epoch;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+        private PartitionOwner(int partition, long epoch) {
+            this.partition = partition;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.SagaRetryTask;
+import com.graduation.sagaorchestratorservice.repository.SagaRetryTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable queue of delayed saga step retries.
+ * Rows are written in the caller's transaction, so a retry is scheduled if and only
+ * if the saga state that asked for it commits; scheduling outside a transaction is
+ * rejected. Instances claim due rows with a lease.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaRetryQueueService {
+
+    private final SagaRetryTaskRepository retryTaskRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private Counter scheduledCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        scheduledCounter = Counter.builder(Constant.METRIC_SAGA_RETRY_SCHEDULED)
+                .description(Constant.METRIC_DESC_RETRY_SCHEDULED)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedule the saga's next retry; replaces any retry already pending for it.
+     * Must join the transaction that writes the saga state.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void schedule(String sagaId, Instant dueAt, int attempt) {
+        retryTaskRepository.upsert(sagaId, dueAt, attempt, Instant.now());
+        scheduledCounter.increment();
+        log.debug("Saga retry scheduled: sagaId={}, dueAt={}, attempt={}", sagaId, dueAt, attempt);
+    }
+
+    /**
+     * Lease retries due before {@code horizon} to this instance
+     */
+    @Transactional
+    public List<SagaRetryTask> claimDue(Instant horizon, Instant leaseUntil, int batchSize) {
+        List<SagaRetryTask> batch = retryTaskRepository.lockClaimableBatch(Instant.now(), horizon, batchSize);
+        if (!batch.isEmpty()) {
+            retryTaskRepository.lease(batch.stream().map(SagaRetryTask::getId).toList(), instanceId, leaseUntil);
+        }
+        return batch;
+    }
+
+    /**
+     * The retry has fired; drop it unless it was re-scheduled meanwhile
+     */
+    @Transactional
+    public void complete(String sagaId) {
+        retryTaskRepository.deleteLeased(sagaId, instanceId);
+    }
+
+    /**
+     * The retry could not run here right now; hand it back with a new due time
+     */
+    @Transactional
+    public void release(String sagaId, Instant dueAt) {
+        retryTaskRepository.releaseLease(sagaId, instanceId, dueAt);
+    }
+
+    /**
+     * Release every lease held by this instance so peers pick the retries up immediately
+     */
+    @Transactional
+    public int releaseAll() {
+        return retryTaskRepository.releaseAllLeases(instanceId);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
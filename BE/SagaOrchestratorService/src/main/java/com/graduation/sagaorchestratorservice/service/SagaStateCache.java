@@ -0,0 +1,179 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-process cache of active saga states for the partition-affine executor.
+ *
+ * Only valid while this instance is the single writer of a saga, so it is used only
+ * for sagas whose partition lock is held by the calling thread, and a partition's
+ * entries are dropped whenever its ownership changes. Entries are written through on
+ * every save and removed once the saga reaches a final status. The cache is bounded
+ * both by entry count and by an estimate of the entries' size.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaStateCache {
+
+    private final SagaPartitionOwnershipService partitionOwnership;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${saga.state-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${saga.state-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${saga.state-cache.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedSaga> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalWeight = 0;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        hitCounter = Counter.builder(Constant.METRIC_SAGA_STATE_CACHE_HITS)
+                .description(Constant.METRIC_DESC_STATE_CACHE_HITS)
+                .register(meterRegistry);
+        missCounter = Counter.builder(Constant.METRIC_SAGA_STATE_CACHE_MISSES)
+                .description(Constant.METRIC_DESC_STATE_CACHE_MISSES)
+                .register(meterRegistry);
+        evictionCounter = Counter.builder(Constant.METRIC_SAGA_STATE_CACHE_EVICTIONS)
+                .description(Constant.METRIC_DESC_STATE_CACHE_EVICTIONS)
+                .register(meterRegistry);
+        Gauge.builder(Constant.METRIC_SAGA_STATE_CACHE_SIZE, this, SagaStateCache::size)
+                .description(Constant.METRIC_DESC_STATE_CACHE_SIZE)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the cache may be used for this saga on the current thread
+     */
+    public boolean isUsable(String sagaId) {
+        return enabled && partitionOwnership.isEnabled() && partitionOwnership.isHeldByCurrentThread(sagaId);
+    }
+
+    /**
+     * Cached state, or null on a miss
+     */
+    public synchronized OrderPurchaseSagaState get(String sagaId) {
+        CachedSaga cached = entries.get(sagaId);
+        if (cached == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return cached.saga;
+    }
+
+    /**
+     * Cached state without touching hit/miss statistics or recency
+     */
+    public synchronized OrderPurchaseSagaState peek(String sagaId) {
+        CachedSaga cached = entries.get(sagaId);
+        return cached != null ? cached.saga : null;
+    }
+
+    /**
+     * Write-through after a save: keep active sagas, drop finished ones
+     */
+    public synchronized void put(OrderPurchaseSagaState saga) {
+        if (saga.getStatus() == null || !saga.getStatus().isActive()) {
+            remove(saga.getSagaId());
+            return;
+        }
+
+        long weight = estimateWeight(saga);
+        CachedSaga previous = entries.put(saga.getSagaId(), new CachedSaga(saga, weight));
+        totalWeight += weight - (previous != null ? previous.weight : 0);
+        evictOverflow();
+    }
+
+    /**
+     * Drop a saga (final status, rolled back transaction, or stale state)
+     */
+    public synchronized void evict(String sagaId) {
+        remove(sagaId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop every entry of a partition whose ownership changed
+     */
+    @EventListener
+    public synchronized void onPartitionOwnershipChanged(SagaPartitionOwnershipService.PartitionOwnershipChanged event) {
+        int removed = 0;
+        Iterator<Map.Entry<String, CachedSaga>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedSaga> entry = iterator.next();
+            if (partitionOwnership.partitionFor(entry.getKey()) == event.partition()) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            evictionCounter.increment(removed);
+            log.info("Invalidated {} cached saga states for partition {}", removed, event.partition());
+        }
+    }
+
+    private void remove(String sagaId) {
+        CachedSaga removed = entries.remove(sagaId);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+            evictionCounter.increment();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CachedSaga>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeightBytes) && iterator.hasNext()) {
+            totalWeight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    /**
+     * Rough heap footprint: fixed object overhead plus the JSON and text columns
+     */
+    private long estimateWeight(OrderPurchaseSagaState saga) {
+        long weight = 512;
+        weight += 2L * length(saga.getCompletedStepsJson());
+        weight += 2L * length(saga.getSagaEventsJson());
+        weight += 2L * length(saga.getOrderDescription());
+        weight += 2L * length(saga.getFailureReason());
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private record CachedSaga(OrderPurchaseSagaState saga, long weight) {
+    }
+}
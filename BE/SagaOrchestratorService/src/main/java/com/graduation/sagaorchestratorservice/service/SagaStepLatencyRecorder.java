@@ -0,0 +1,220 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-step latency breakdown of saga event handling, exported as Micrometer timers
+ * tagged by step and phase.
+ *
+ * The timers publish fixed-bucket percentile histograms, which the backend can merge
+ * across instances (client-side percentiles cannot be merged). All timers are registered
+ * up front, so the hot path is an array lookup and a bucket increment.
+ *
+ * Phases of one event are accumulated on the handling thread between
+ * {@link #beginEvent} and {@link #endEvent} and recorded under the step the event
+ * completes, which is only known once the saga is loaded. Publish latency is recorded
+ * directly by the outbox relay under the step of the command it sends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaStepLatencyRecorder {
+
+    public enum Phase {
+        QUEUE_WAIT("queue_wait"),
+        LOCK_WAIT("lock_wait"),
+        HANDLER_CPU("handler_cpu"),
+        DB("db"),
+        PUBLISH("publish");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${saga.latency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${saga.latency.max-expected-ms:60000}")
+    private long maxExpectedMs;
+
+    private final Map<OrderPurchaseSagaStep, Timer[]> timers = new EnumMap<>(OrderPurchaseSagaStep.class);
+    private final ThreadLocal<EventTiming> currentEvent = ThreadLocal.withInitial(EventTiming::new);
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private boolean cpuTimeSupported;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+
+        for (OrderPurchaseSagaStep step : OrderPurchaseSagaStep.values()) {
+            Timer[] stepTimers = new Timer[PHASES.length];
+            for (Phase phase : PHASES) {
+                stepTimers[phase.ordinal()] = Timer.builder(Constant.METRIC_SAGA_STEP_LATENCY)
+                        .description(Constant.METRIC_DESC_STEP_LATENCY)
+                        .tag(Constant.METRIC_TAG_STEP, step.name())
+                        .tag(Constant.METRIC_TAG_PHASE, phase.tag)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(10_000))
+                        .maximumExpectedValue(Duration.ofMillis(maxExpectedMs))
+                        .register(meterRegistry);
+            }
+            timers.put(step, stepTimers);
+        }
+    }
+
+    /**
+     * Start timing an event on this thread; recordTimestampMs is the Kafka record timestamp
+     */
+    public void beginEvent(long recordTimestampMs) {
+        if (!enabled) {
+            return;
+        }
+        EventTiming timing = currentEvent.get();
+        timing.reset();
+        timing.active = true;
+        timing.cpuStartNanos = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+        if (recordTimestampMs > 0) {
+            timing.add(Phase.QUEUE_WAIT, TimeUnit.MILLISECONDS.toNanos(
+                    Math.max(0L, System.currentTimeMillis() - recordTimestampMs)));
+        }
+    }
+
+    /**
+     * Start of a measured section; pass the result to {@link #addSince}
+     */
+    public long mark() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Add the time since a {@link #mark} to a phase of the current event
+     */
+    public void addSince(Phase phase, long markNanos) {
+        EventTiming timing = currentEvent.get();
+        if (timing.active) {
+            timing.add(phase, System.nanoTime() - markNanos);
+        }
+    }
+
+    /**
+     * Called as the last statement inside the event's transaction callback
+     */
+    public void beforeCommit() {
+        EventTiming timing = currentEvent.get();
+        if (timing.active) {
+            timing.commitMarkNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called once the transaction returned; the commit (where JPA flushes) counts as DB time
+     */
+    public void afterCommit() {
+        EventTiming timing = currentEvent.get();
+        if (timing.active && timing.commitMarkNanos != 0) {
+            timing.add(Phase.DB, System.nanoTime() - timing.commitMarkNanos);
+            timing.commitMarkNanos = 0;
+        }
+    }
+
+    /**
+     * The step the current event belongs to; the first call wins
+     */
+    public void step(OrderPurchaseSagaStep step) {
+        EventTiming timing = currentEvent.get();
+        if (timing.active && timing.step == null) {
+            timing.step = step;
+        }
+    }
+
+    /**
+     * Wall time since {@link #beginEvent} on this thread, or 0 outside an event
+     */
+    public long elapsedMillis() {
+        EventTiming timing = currentEvent.get();
+        return timing.active ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timing.startNanos) : 0L;
+    }
+
+    /**
+     * Record the current event's phases under its step. Events that never reached a saga
+     * step (unknown saga, parked on a contended lock) are dropped.
+     */
+    public void endEvent() {
+        EventTiming timing = currentEvent.get();
+        if (!timing.active) {
+            return;
+        }
+        if (timing.step != null) {
+            if (timing.cpuStartNanos >= 0) {
+                timing.add(Phase.HANDLER_CPU, threadMXBean.getCurrentThreadCpuTime() - timing.cpuStartNanos);
+            }
+            Timer[] stepTimers = timers.get(timing.step);
+            for (Phase phase : PHASES) {
+                if ((timing.measuredPhases & (1 << phase.ordinal())) != 0) {
+                    stepTimers[phase.ordinal()].record(timing.nanos[phase.ordinal()], TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        timing.reset();
+    }
+
+    /**
+     * Record a measurement that is not tied to the current thread's event
+     */
+    public void record(OrderPurchaseSagaStep step, Phase phase, long nanos) {
+        if (enabled && step != null) {
+            timers.get(step)[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Phase accumulator of the event a thread is handling; reused across events
+     */
+    private static final class EventTiming {
+        private final long[] nanos = new long[PHASES.length];
+        private int measuredPhases;
+        private boolean active;
+        private long startNanos;
+        private long cpuStartNanos;
+        private long commitMarkNanos;
+        private OrderPurchaseSagaStep step;
+
+        void add(Phase phase, long value) {
+            nanos[phase.ordinal()] += Math.max(0L, value);
+            measuredPhases |= 1 << phase.ordinal();
+        }
+
+        void reset() {
+            Arrays.fill(nanos, 0L);
+            measuredPhases = 0;
+            active = false;
+            startNanos = System.nanoTime();
+            cpuStartNanos = -1;
+            commitMarkNanos = 0;
+            step = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-step timeout policy used to compute a saga's step deadline
+ */
+@Component
+public class SagaStepTimeoutPolicy {
+
+    @Value("${saga.timeout.default-minutes:10}")
+    private int defaultTimeoutMinutes;
+
+    @Value("${saga.timeout.payment-minutes:5}")
+    private int paymentTimeoutMinutes;
+
+    @Value("${saga.timeout.order-minutes:15}")
+    private int orderTimeoutMinutes;
+
+    /**
+     * How long the given step may run before it is considered timed out
+     */
+    public Duration timeoutFor(OrderPurchaseSagaStep step) {
+        if (step == null) {
+            return Duration.ofMinutes(defaultTimeoutMinutes);
+        }
+
+        return switch (step) {
+            case PROCESS_PAYMENT, CANCEL_PAYMENT -> Duration.ofMinutes(paymentTimeoutMinutes);
+            case UPDATE_ORDER_STATUS_CONFIRMED, UPDATE_ORDER_STATUS_DELIVERED, CANCEL_ORDER ->
+                    Duration.ofMinutes(orderTimeoutMinutes);
+            default -> Duration.ofMinutes(defaultTimeoutMinutes);
+        };
+    }
+
+    /**
+     * Shortest timeout of any step; the deadline scan lookahead must stay below it
+     */
+    public Duration shortestTimeout() {
+        return Duration.ofMinutes(Math.min(defaultTimeoutMinutes, Math.min(paymentTimeoutMinutes, orderTimeoutMinutes)));
+    }
+}
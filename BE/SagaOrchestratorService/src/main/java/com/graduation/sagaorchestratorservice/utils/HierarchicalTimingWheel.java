@@ -0,0 +1,124 @@
+package com.graduation.sagaorchestratorservice.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck, as used by Kafka's purgatory).
+ *
+ * Each level has {@code wheelSize} buckets of {@code tickMs}; a deadline beyond the
+ * level's span goes to a coarser overflow level and cascades down as time advances.
+ * Adding is O(1) and advancing costs one bucket visit per elapsed tick, instead of
+ * a thread or heap entry per pending timer. Not thread-safe on its own; callers
+ * synchronize on the wheel.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final List<Entry<T>>[] buckets;
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflowWheel;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+
+        @SuppressWarnings("unchecked")
+        List<Entry<T>>[] created = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            created[i] = new ArrayList<>();
+        }
+        this.buckets = created;
+    }
+
+    /**
+     * Schedule an item. Returns false if the deadline has already passed,
+     * in which case the caller should fire the item immediately.
+     */
+    public boolean add(T item, long deadlineMs) {
+        // Round up to a tick boundary so an item never fires before its deadline
+        long roundedDeadline = ((deadlineMs + tickMs - 1) / tickMs) * tickMs;
+        if (!place(new Entry<>(item, roundedDeadline))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Advance the clock to {@code nowMs} and return every item whose deadline has passed
+     */
+    public List<T> advance(long nowMs) {
+        List<Entry<T>> expired = new ArrayList<>();
+        advanceTo(nowMs, expired);
+
+        List<T> items = new ArrayList<>(expired.size());
+        for (Entry<T> entry : expired) {
+            items.add(entry.item);
+        }
+        size -= items.size();
+        return items;
+    }
+
+    /**
+     * Number of items waiting in the wheel (all levels)
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.deadlineMs < currentTime + tickMs) {
+            return false;
+        }
+        if (entry.deadlineMs < currentTime + interval) {
+            buckets[(int) ((entry.deadlineMs / tickMs) % wheelSize)].add(entry);
+        } else {
+            overflow().place(entry);
+        }
+        return true;
+    }
+
+    private void advanceTo(long nowMs, List<Entry<T>> expired) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+
+            // Pull the next coarse bucket down into this level once per revolution
+            if (overflowWheel != null && currentTime % interval == 0) {
+                List<Entry<T>> cascaded = new ArrayList<>();
+                overflowWheel.advanceTo(currentTime, cascaded);
+                for (Entry<T> entry : cascaded) {
+                    if (!place(entry)) {
+                        expired.add(entry);
+                    }
+                }
+            }
+
+            List<Entry<T>> bucket = buckets[(int) ((currentTime / tickMs) % wheelSize)];
+            if (!bucket.isEmpty()) {
+                List<Entry<T>> due = new ArrayList<>(bucket);
+                bucket.clear();
+                for (Entry<T> entry : due) {
+                    if (!place(entry)) {
+                        expired.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private HierarchicalTimingWheel<T> overflow() {
+        if (overflowWheel == null) {
+            overflowWheel = new HierarchicalTimingWheel<>(interval, wheelSize, currentTime);
+        }
+        return overflowWheel;
+    }
+
+    private record Entry<T>(T item, long deadlineMs) {
+    }
+}
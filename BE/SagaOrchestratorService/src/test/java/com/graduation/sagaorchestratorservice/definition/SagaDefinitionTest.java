@@ -0,0 +1,276 @@
+package com.graduation.sagaorchestratorservice.definition;
+
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.enums.EventType;
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import com.graduation.sagawirecodec.message.ProcessPaymentCommand;
+import com.graduation.sagawirecodec.message.SagaCommand;
+import com.graduation.sagawirecodec.message.SagaCommandType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SagaDefinitionTest {
+
+    private static final SagaDefinition<OrderPurchaseSagaStep, OrderPurchaseSagaState> ORDER_PURCHASE =
+            OrderPurchaseSagaDefinition.DEFINITION;
+
+    private static final SagaCommandFactory<String> NO_COMMAND = (saga, messageId, stepId, timestamp, token) -> null;
+    private static final SagaStepLock<String> TEST_LOCK = new SagaStepLock<>(saga -> "lock:" + saga, Duration.ofSeconds(30));
+
+    enum Step {
+        FIRST, SECOND, THIRD, DONE
+    }
+
+    @Test
+    void compilesOrderPurchaseForwardAndCompensationFlows() {
+        assertEquals(UPDATE_ORDER_STATUS_CONFIRMED, ORDER_PURCHASE.nextStep(PROCESS_PAYMENT));
+        assertEquals(UPDATE_ORDER_STATUS_DELIVERED, ORDER_PURCHASE.nextStep(UPDATE_ORDER_STATUS_CONFIRMED));
+        assertEquals(COMPLETE_SAGA, ORDER_PURCHASE.nextStep(UPDATE_ORDER_STATUS_DELIVERED));
+        assertNull(ORDER_PURCHASE.nextStep(COMPLETE_SAGA));
+        assertNull(ORDER_PURCHASE.nextStep(CANCEL_PAYMENT));
+
+        assertEquals(CANCEL_ORDER, ORDER_PURCHASE.nextCompensationStep(CANCEL_PAYMENT));
+        assertEquals(COMPLETE_SAGA, ORDER_PURCHASE.nextCompensationStep(CANCEL_ORDER));
+        assertNull(ORDER_PURCHASE.nextCompensationStep(PROCESS_PAYMENT));
+
+        // The enum delegates to the definition
+        assertEquals(UPDATE_ORDER_STATUS_CONFIRMED, PROCESS_PAYMENT.getNextStep());
+        assertEquals(CANCEL_ORDER, CANCEL_PAYMENT.getNextCompensationStep());
+    }
+
+    @Test
+    void mapsEveryReplyEventToItsStep() {
+        assertEquals(PROCESS_PAYMENT, ORDER_PURCHASE.stepForEvent(EventType.PAYMENT_PROCESSED));
+        assertEquals(PROCESS_PAYMENT, ORDER_PURCHASE.stepForEvent(EventType.PAYMENT_FAILED));
+        assertEquals(UPDATE_ORDER_STATUS_CONFIRMED, ORDER_PURCHASE.stepForEvent(EventType.ORDER_STATUS_UPDATED_CONFIRMED));
+        assertEquals(UPDATE_ORDER_STATUS_CONFIRMED, ORDER_PURCHASE.stepForEvent(EventType.ORDER_STATUS_UPDATE_FAILED));
+        assertEquals(UPDATE_ORDER_STATUS_DELIVERED, ORDER_PURCHASE.stepForEvent(EventType.ORDER_STATUS_UPDATED_DELIVERED));
+        assertEquals(CANCEL_PAYMENT, ORDER_PURCHASE.stepForEvent(EventType.PAYMENT_REVERSED));
+        assertEquals(CANCEL_PAYMENT, ORDER_PURCHASE.stepForEvent(EventType.PAYMENT_REVERSED_FAILED));
+        assertEquals(CANCEL_ORDER, ORDER_PURCHASE.stepForEvent(EventType.ORDER_CANCELLED));
+        assertEquals(CANCEL_ORDER, ORDER_PURCHASE.stepForEvent(EventType.ORDER_CANCELLATION_FAILED));
+
+        assertNull(ORDER_PURCHASE.stepForEvent(EventType.ORDER_CREATED));
+        assertNull(ORDER_PURCHASE.stepForEvent(null));
+        assertTrue(ORDER_PURCHASE.isEventForStep(PROCESS_PAYMENT, EventType.PAYMENT_FAILED, 0L));
+        assertFalse(ORDER_PURCHASE.isEventForStep(PROCESS_PAYMENT, EventType.ORDER_CANCELLED, 0L));
+    }
+
+    @Test
+    void buildsStepCommandsFromSagaState() {
+        OrderPurchaseSagaState saga = OrderPurchaseSagaState.builder()
+                .sagaId("SAGA_1")
+                .orderId(42L)
+                .userId("user123")
+                .totalAmount(new BigDecimal("99.90"))
+                .build();
+
+        SagaCommand command = ORDER_PURCHASE.createCommand(PROCESS_PAYMENT, saga, "MSG_1", 1, 1000L, 7L);
+
+        assertEquals(new ProcessPaymentCommand("MSG_1", "SAGA_1", 1, 1000L, 7L,
+                "42", "user123", new BigDecimal("99.90"), null), command);
+        assertEquals(SagaCommandType.ORDER_UPDATE_CONFIRMED,
+                ORDER_PURCHASE.createCommand(UPDATE_ORDER_STATUS_CONFIRMED, saga, "MSG_2", 2, 1000L, 8L).type());
+        assertNull(ORDER_PURCHASE.createCommand(COMPLETE_SAGA, saga, "MSG_3", 4, 1000L, null));
+    }
+
+    @Test
+    void rejectsStepDeclaredTwice() {
+        SagaDefinition.Builder<Step, String> builder = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, null, NO_COMMAND);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> builder.step(Step.FIRST, null, NO_COMMAND));
+        assertEquals("Saga TEST declares step FIRST twice", e.getMessage());
+    }
+
+    @Test
+    void rejectsSuccessorThatIsNotDeclared() {
+        SagaDefinition.Builder<Step, String> builder = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, Step.SECOND, NO_COMMAND)
+                .lock(TEST_LOCK, Step.FIRST);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertEquals("Saga TEST step FIRST points to undeclared step SECOND", e.getMessage());
+    }
+
+    @Test
+    void rejectsEventExpectedByTwoSteps() {
+        SagaDefinition.Builder<Step, String> builder = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, Step.SECOND, NO_COMMAND, EventType.PAYMENT_PROCESSED)
+                .step(Step.SECOND, null, NO_COMMAND, EventType.PAYMENT_PROCESSED)
+                .lock(TEST_LOCK, Step.FIRST, Step.SECOND);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertEquals("Saga TEST maps event PAYMENT_PROCESSED to both FIRST and SECOND", e.getMessage());
+    }
+
+    @Test
+    void rejectsCycles() {
+        SagaDefinition.Builder<Step, String> forward = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, Step.SECOND, NO_COMMAND)
+                .step(Step.SECOND, Step.THIRD, NO_COMMAND)
+                .step(Step.THIRD, Step.FIRST, NO_COMMAND)
+                .lock(TEST_LOCK, Step.FIRST, Step.SECOND, Step.THIRD);
+        SagaDefinition.Builder<Step, String> compensation = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .compensationStep(Step.FIRST, Step.FIRST, NO_COMMAND)
+                .lock(TEST_LOCK, Step.FIRST);
+
+        assertTrue(assertThrows(IllegalStateException.class, forward::build).getMessage()
+                .startsWith("Saga TEST has a cycle through step"));
+        assertEquals("Saga TEST has a cycle through step FIRST",
+                assertThrows(IllegalStateException.class, compensation::build).getMessage());
+    }
+
+    @Test
+    void declaresPaymentAndOrderLocksPerStep() {
+        OrderPurchaseSagaState saga = OrderPurchaseSagaState.builder().sagaId("SAGA_1").orderId(42L).build();
+
+        assertEquals(OrderPurchaseSagaDefinition.PAYMENT_LOCK, ORDER_PURCHASE.lock(PROCESS_PAYMENT));
+        assertEquals(OrderPurchaseSagaDefinition.PAYMENT_LOCK, ORDER_PURCHASE.lock(CANCEL_PAYMENT));
+        assertEquals(OrderPurchaseSagaDefinition.ORDER_LOCK, ORDER_PURCHASE.lock(UPDATE_ORDER_STATUS_CONFIRMED));
+        assertEquals(OrderPurchaseSagaDefinition.ORDER_LOCK, ORDER_PURCHASE.lock(UPDATE_ORDER_STATUS_DELIVERED));
+        assertEquals(OrderPurchaseSagaDefinition.ORDER_LOCK, ORDER_PURCHASE.lock(CANCEL_ORDER));
+        assertNull(ORDER_PURCHASE.lock(COMPLETE_SAGA));
+
+        assertEquals(RedisLockService.buildPaymentLockKey("42"), ORDER_PURCHASE.lock(PROCESS_PAYMENT).key(saga));
+        assertEquals(Duration.ofMinutes(1), ORDER_PURCHASE.lock(PROCESS_PAYMENT).ttl());
+        assertEquals(RedisLockService.buildOrderLockKey("42"), ORDER_PURCHASE.lock(CANCEL_ORDER).key(saga));
+        assertEquals(Duration.ofSeconds(30), ORDER_PURCHASE.lock(CANCEL_ORDER).ttl());
+    }
+
+    @Test
+    void rejectsCommandStepWithoutLockAndLockOnStepWithoutCommand() {
+        SagaDefinition.Builder<Step, String> unlocked = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, null, NO_COMMAND);
+        SagaDefinition.Builder<Step, String> lockedTerminal = SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .terminalStep(Step.DONE)
+                .lock(TEST_LOCK, Step.DONE);
+
+        assertEquals("Saga TEST step FIRST sends a command but declares no lock",
+                assertThrows(IllegalStateException.class, unlocked::build).getMessage());
+        assertEquals("Saga TEST locks step DONE which is not declared with a command",
+                assertThrows(IllegalStateException.class, lockedTerminal::build).getMessage());
+        assertThrows(IllegalStateException.class, () -> SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .lock(TEST_LOCK, Step.FIRST)
+                .lock(TEST_LOCK, Step.FIRST));
+    }
+
+    @Test
+    void compilesBranchMasksAndJoinStepOfParallelRun() {
+        SagaDefinition<Step, String> definition = parallelDefinition();
+
+        assertEquals(SagaDefinition.bit(Step.FIRST), definition.branchMask(Step.FIRST));
+        assertEquals(SagaDefinition.bit(Step.SECOND) | SagaDefinition.bit(Step.THIRD), definition.branchMask(Step.SECOND));
+        assertEquals(SagaDefinition.bit(Step.THIRD), definition.branchMask(Step.THIRD));
+
+        assertEquals(List.of(Step.FIRST), definition.branches(Step.FIRST));
+        assertEquals(List.of(Step.SECOND, Step.THIRD), definition.branches(Step.SECOND));
+        assertEquals(List.of(Step.THIRD), definition.branches(Step.THIRD));
+        assertFalse(definition.isParallel(Step.FIRST));
+        assertTrue(definition.isParallel(Step.SECOND));
+        // Entering the run at its last step is a plain sequential step
+        assertFalse(definition.isParallel(Step.THIRD));
+
+        assertEquals(Step.FIRST, definition.joinStep(Step.FIRST));
+        assertEquals(Step.THIRD, definition.joinStep(Step.SECOND));
+        assertEquals(Step.THIRD, definition.joinStep(Step.THIRD));
+        assertEquals(Step.DONE, definition.nextStep(definition.joinStep(Step.SECOND)));
+    }
+
+    @Test
+    void rejectsParallelRunsThatAreNotChainsOfCommandSteps() {
+        assertEquals("Saga TEST parallel run needs at least two steps",
+                assertThrows(IllegalStateException.class, () -> parallelBuilder().parallel(Step.FIRST)).getMessage());
+        assertEquals("Saga TEST parallel run [FIRST, THIRD] is not a chain at step FIRST",
+                assertThrows(IllegalStateException.class, parallelBuilder().parallel(Step.FIRST, Step.THIRD)::build)
+                        .getMessage());
+        assertEquals("Saga TEST parallel step DONE is not declared with a command",
+                assertThrows(IllegalStateException.class, parallelBuilder().parallel(Step.THIRD, Step.DONE)::build)
+                        .getMessage());
+        assertEquals("Saga TEST step SECOND is in more than one parallel run",
+                assertThrows(IllegalStateException.class, parallelBuilder()
+                        .parallel(Step.FIRST, Step.SECOND)
+                        .parallel(Step.SECOND, Step.THIRD)::build).getMessage());
+    }
+
+    @Test
+    void resendsOnlyBranchesThatHaveNotAnswered() {
+        SagaDefinition<Step, String> definition = parallelDefinition();
+
+        assertEquals(List.of(Step.SECOND, Step.THIRD), definition.pendingBranches(Step.SECOND, 0L));
+        assertEquals(List.of(Step.THIRD), definition.pendingBranches(Step.SECOND, SagaDefinition.bit(Step.SECOND)));
+        assertEquals(List.of(Step.SECOND), definition.pendingBranches(Step.SECOND, SagaDefinition.bit(Step.THIRD)));
+        assertEquals(List.of(), definition.pendingBranches(Step.SECOND,
+                SagaDefinition.bit(Step.SECOND) | SagaDefinition.bit(Step.THIRD)));
+    }
+
+    @Test
+    void joinsBranchesAnsweringOutOfOrder() {
+        SagaDefinition<Step, String> definition = parallelDefinition();
+
+        // The last branch answers first
+        long joined = SagaDefinition.bit(Step.THIRD);
+        assertFalse(definition.isJoined(Step.SECOND, joined));
+        assertFalse(definition.isEventForStep(Step.SECOND, EventType.ORDER_CANCELLED, joined));
+        assertTrue(definition.isEventForStep(Step.SECOND, EventType.PAYMENT_REVERSED, joined));
+
+        joined |= SagaDefinition.bit(Step.SECOND);
+        assertTrue(definition.isJoined(Step.SECOND, joined));
+        assertFalse(definition.isEventForStep(Step.SECOND, EventType.PAYMENT_REVERSED, joined));
+
+        // Outside a run, a step joins on its own answer
+        assertFalse(definition.isJoined(Step.FIRST, 0L));
+        assertTrue(definition.isJoined(Step.FIRST, SagaDefinition.bit(Step.FIRST)));
+    }
+
+    @Test
+    void runsOrderPurchaseCompensationInParallel() {
+        assertTrue(ORDER_PURCHASE.isParallel(CANCEL_PAYMENT));
+        assertEquals(List.of(CANCEL_PAYMENT, CANCEL_ORDER), ORDER_PURCHASE.branches(CANCEL_PAYMENT));
+        assertEquals(CANCEL_ORDER, ORDER_PURCHASE.joinStep(CANCEL_PAYMENT));
+        assertEquals(COMPLETE_SAGA, ORDER_PURCHASE.nextCompensationStep(ORDER_PURCHASE.joinStep(CANCEL_PAYMENT)));
+
+        // Both answers belong to the run, in either order
+        assertTrue(ORDER_PURCHASE.isEventForStep(CANCEL_PAYMENT, EventType.ORDER_CANCELLED, 0L));
+        assertTrue(ORDER_PURCHASE.isEventForStep(CANCEL_PAYMENT, EventType.PAYMENT_REVERSED_FAILED, 0L));
+        assertEquals(List.of(CANCEL_PAYMENT),
+                ORDER_PURCHASE.pendingBranches(CANCEL_PAYMENT, SagaDefinition.bit(CANCEL_ORDER)));
+
+        // The branches change different resources, so they lock different keys
+        OrderPurchaseSagaState saga = OrderPurchaseSagaState.builder().sagaId("SAGA_1").orderId(42L).build();
+        assertNotEquals(ORDER_PURCHASE.lock(CANCEL_PAYMENT).key(saga), ORDER_PURCHASE.lock(CANCEL_ORDER).key(saga));
+
+        // Compensation entered at the order cancellation waits for that answer alone
+        assertFalse(ORDER_PURCHASE.isParallel(CANCEL_ORDER));
+        assertFalse(ORDER_PURCHASE.isEventForStep(CANCEL_ORDER, EventType.PAYMENT_REVERSED, 0L));
+    }
+
+    /**
+     * FIRST → SECOND ∥ THIRD → DONE, each branch answered by its own events
+     */
+    private static SagaDefinition<Step, String> parallelDefinition() {
+        return parallelBuilder().parallel(Step.SECOND, Step.THIRD).build();
+    }
+
+    private static SagaDefinition.Builder<Step, String> parallelBuilder() {
+        return SagaDefinition.<Step, String>builder("TEST", Step.class)
+                .step(Step.FIRST, Step.SECOND, NO_COMMAND, EventType.PAYMENT_PROCESSED)
+                .step(Step.SECOND, Step.THIRD, NO_COMMAND, EventType.PAYMENT_REVERSED)
+                .step(Step.THIRD, Step.DONE, NO_COMMAND, EventType.ORDER_CANCELLED)
+                .terminalStep(Step.DONE)
+                .lock(TEST_LOCK, Step.FIRST, Step.SECOND, Step.THIRD);
+    }
+}
@@ -0,0 +1,88 @@
+package com.graduation.sagaorchestratorservice.listener;
+
+import com.graduation.sagaorchestratorservice.exception.SagaEventBatchException;
+import com.graduation.sagaorchestratorservice.handler.OrderEventHandler;
+import com.graduation.sagaorchestratorservice.handler.PaymentEventHandler;
+import com.graduation.sagaorchestratorservice.handler.SagaEventHandler;
+import com.graduation.sagaorchestratorservice.service.KafkaMessagePublisher;
+import com.graduation.sagaorchestratorservice.service.SagaPartitionOwnershipService;
+import com.graduation.sagaorchestratorservice.service.SagaStepLatencyRecorder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SagaOrchestratorKafkaListenerTest {
+
+    @Mock
+    private OrderEventHandler orderEventHandler;
+
+    @Mock
+    private PaymentEventHandler paymentEventHandler;
+
+    @Mock
+    private SagaEventHandler sagaEventHandler;
+
+    @Mock
+    private SagaPartitionOwnershipService partitionOwnership;
+
+    @Mock
+    private KafkaMessagePublisher messagePublisher;
+
+    @Mock
+    private SagaStepLatencyRecorder latencyRecorder;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private SagaOrchestratorKafkaListener listener;
+
+    @Test
+    void reportsUndecodableRecordAfterHandlingTheRecordsBeforeIt() {
+        Map<String, Object> first = Map.of("messageId", "m0");
+        List<ConsumerRecord<String, Object>> records = List.of(record(0, first), record(1, null), record(2, Map.of()));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.consumePaymentEventBatch(records, ack));
+
+        assertEquals(1, e.getIndex());
+        verify(paymentEventHandler).handlePaymentEventBatch(List.of(first));
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    void reportsIndexOfEventThatFailedMidBatch() {
+        Map<String, Object> first = Map.of("messageId", "m0");
+        Map<String, Object> failing = Map.of("messageId", "m1");
+        List<ConsumerRecord<String, Object>> records = List.of(record(0, first), record(1, failing), record(2, Map.of()));
+        doThrow(new SagaEventBatchException(failing, new IllegalStateException("boom")))
+                .when(orderEventHandler).handleOrderEventBatch(any());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.consumeOrderEventBatch(records, ack));
+
+        assertEquals(1, e.getIndex());
+        assertEquals("boom", e.getCause().getMessage());
+        verify(ack, never()).acknowledge();
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>("order-events", 0, offset, "key", value);
+    }
+}
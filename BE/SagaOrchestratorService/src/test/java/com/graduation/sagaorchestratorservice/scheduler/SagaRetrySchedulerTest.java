@@ -0,0 +1,70 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
+import com.graduation.sagaorchestratorservice.service.SagaRetryQueueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SagaRetrySchedulerTest {
+
+    private static final String SAGA_ID = "SAGA_1";
+
+    @Mock
+    private SagaRetryQueueService retryQueueService;
+
+    @Mock
+    private OrderPurchaseSagaService sagaService;
+
+    private SagaRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new SagaRetryScheduler(retryQueueService, sagaService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "wheelTickMs", 100L);
+        ReflectionTestUtils.setField(scheduler, "wheelSize", 64);
+        ReflectionTestUtils.setField(scheduler, "workerThreads", 1);
+        ReflectionTestUtils.setField(scheduler, "contendedBackoffMs", 1000L);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void completesRetryThatRan() {
+        when(sagaService.executeScheduledRetry(SAGA_ID)).thenReturn(true);
+
+        ReflectionTestUtils.invokeMethod(scheduler, "runRetry", SAGA_ID);
+
+        verify(retryQueueService).complete(SAGA_ID);
+        verify(retryQueueService, never()).release(any(), any(Instant.class));
+    }
+
+    @Test
+    void keepsRetryWhoseTransactionFailed() {
+        when(sagaService.executeScheduledRetry(SAGA_ID))
+                .thenThrow(new CannotAcquireLockException("could not serialize access"));
+
+        ReflectionTestUtils.invokeMethod(scheduler, "runRetry", SAGA_ID);
+
+        verify(retryQueueService, never()).complete(SAGA_ID);
+        verify(retryQueueService).release(any(), any(Instant.class));
+    }
+}
@@ -0,0 +1,56 @@
+package com.graduation.sagaorchestratorservice.scheduler;
+
+import com.graduation.sagaorchestratorservice.service.OrderPurchaseSagaService;
+import com.graduation.sagaorchestratorservice.service.SagaDeadlineTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SagaTimeoutSchedulerTest {
+
+    @Mock
+    private OrderPurchaseSagaService sagaService;
+
+    @Mock
+    private SagaDeadlineTracker deadlineTracker;
+
+    @InjectMocks
+    private SagaTimeoutScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "contendedRecheckSeconds", 30L);
+        ReflectionTestUtils.setField(scheduler, "failedRecheckSeconds", 30L);
+    }
+
+    @Test
+    void failedSagaIsTrackedAgainAndOthersStillFire() {
+        when(deadlineTracker.pollExpired(any())).thenReturn(List.of("SAGA_1", "SAGA_2", "SAGA_3"));
+        when(sagaService.processStepTimeout("SAGA_1"))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        when(sagaService.processStepTimeout("SAGA_2")).thenReturn(null);
+        when(sagaService.processStepTimeout("SAGA_3")).thenReturn(true);
+
+        scheduler.checkForTimeouts();
+
+        verify(deadlineTracker).recheckAt(eq("SAGA_1"), any(Instant.class));
+        verify(deadlineTracker).recheckAt(eq("SAGA_2"), any(Instant.class));
+        verify(deadlineTracker, never()).recheckAt(eq("SAGA_3"), any(Instant.class));
+        verify(sagaService).processStepTimeout("SAGA_3");
+    }
+}
@@ -0,0 +1,67 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagacoordination.idempotency.ProcessedMessageFilter;
+import com.graduation.sagacoordination.idempotency.ProcessedMessagePartitionService;
+import com.graduation.sagaorchestratorservice.model.ProcessedMessage;
+import com.graduation.sagaorchestratorservice.model.enums.ActionType;
+import com.graduation.sagaorchestratorservice.repository.ProcessedMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private ProcessedMessageRepository processedMessageRepository;
+
+    @Mock
+    private ProcessedMessageFilter processedMessageFilter;
+
+    @Mock
+    private ProcessedMessagePartitionService partitionService;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void stepKeyIsLookedUpEvenWhenFilterAnswersNew() {
+        when(processedMessageFilter.check(anyString(), any())).thenReturn(ProcessedMessageFilter.Verdict.NEW);
+        when(processedMessageRepository.findBySagaIdAndStepIdAndActionType("SAGA_1", 2, ActionType.FORWARD))
+                .thenReturn(Optional.of(ProcessedMessage.create("other", "SAGA_1", 2, "PAYMENT_PROCESSED", null, Map.of())));
+
+        assertTrue(idempotencyService.isProcessed("m1", "SAGA_1", 2, "PAYMENT_PROCESSED", ActionType.FORWARD, 0L));
+        verify(processedMessageRepository, never()).findByMessageId("m1");
+    }
+
+    @Test
+    void newMessageAndStepAreNotProcessed() {
+        when(processedMessageFilter.check(anyString(), any())).thenReturn(ProcessedMessageFilter.Verdict.NEW);
+        when(processedMessageRepository.findBySagaIdAndStepIdAndActionType("SAGA_1", 2, ActionType.FORWARD))
+                .thenReturn(Optional.empty());
+
+        assertFalse(idempotencyService.isProcessed("m1", "SAGA_1", 2, "PAYMENT_PROCESSED", ActionType.FORWARD, 0L));
+    }
+
+    @Test
+    void createdMessageIsNewUntilPersisted() {
+        ProcessedMessage message = ProcessedMessage.create("m1", "SAGA_1", 2, "PAYMENT_PROCESSED", null, Map.of());
+        assertTrue(message.isNew());
+
+        message.markPersisted();
+        assertFalse(message.isNew());
+    }
+}
@@ -0,0 +1,98 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagacoordination.lock.LockLease;
+import com.graduation.sagacoordination.lock.RedisLockService;
+import com.graduation.sagaorchestratorservice.service.SagaDeferredEventQueue.ParkedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPurchaseSagaServiceDeferredTest {
+
+    private static final String SAGA_ID = "SAGA_1";
+    private static final String SAGA_LOCK_KEY = RedisLockService.buildSagaLockKey(SAGA_ID);
+
+    @Mock
+    private RedisLockService redisLockService;
+
+    @Mock
+    private SagaPartitionOwnershipService partitionOwnership;
+
+    @Mock
+    private SagaDeferredEventQueue deferredEventQueue;
+
+    @Mock
+    private SagaStepLatencyRecorder latencyRecorder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderPurchaseSagaService sagaService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sagaService, "sagaLeaseTtlSeconds", 5L);
+    }
+
+    @Test
+    void redrivenEventLeavesQueueAfterCommit() {
+        ParkedEvent event = mock(ParkedEvent.class);
+        LockLease lease = mock(LockLease.class);
+        when(deferredEventQueue.peek(SAGA_ID)).thenReturn(event, event, null);
+        when(redisLockService.tryLease(SAGA_LOCK_KEY, 5, TimeUnit.SECONDS)).thenReturn(lease);
+
+        assertEquals(1, sagaService.redriveParkedEvents(SAGA_ID));
+
+        verify(transactionTemplate).executeWithoutResult(any());
+        verify(deferredEventQueue).remove(SAGA_ID, event);
+        verify(lease).close();
+    }
+
+    @Test
+    void failedRedriveKeepsEventParked() {
+        ParkedEvent event = mock(ParkedEvent.class);
+        LockLease lease = mock(LockLease.class);
+        when(deferredEventQueue.peek(SAGA_ID)).thenReturn(event);
+        when(redisLockService.tryLease(SAGA_LOCK_KEY, 5, TimeUnit.SECONDS)).thenReturn(lease);
+        doThrow(new ObjectOptimisticLockingFailureException("OrderPurchaseSagaState", SAGA_ID))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sagaService.redriveParkedEvents(SAGA_ID));
+
+        verify(deferredEventQueue).markFailed(event);
+        verify(deferredEventQueue, never()).remove(any(), any());
+        verify(lease).close();
+    }
+
+    @Test
+    void contendedManualTimeoutReturnsWithoutWaiting() {
+        when(redisLockService.tryLease(SAGA_LOCK_KEY, 5, TimeUnit.SECONDS)).thenReturn(null);
+
+        assertFalse(sagaService.handleSagaTimeoutManually(SAGA_ID, "TIMEOUT"));
+
+        verify(redisLockService).tryLease(SAGA_LOCK_KEY, 5, TimeUnit.SECONDS);
+        verify(redisLockService, never()).tryLock(anyString(), anyLong(), any());
+    }
+}
@@ -0,0 +1,48 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagacoordination.lock.RedisLockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPurchaseSagaServiceRetryTest {
+
+    private static final String SAGA_ID = "SAGA_1";
+
+    @Mock
+    private RedisLockService redisLockService;
+
+    @Mock
+    private SagaPartitionOwnershipService partitionOwnership;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderPurchaseSagaService sagaService;
+
+    @Test
+    void failedRetryTransactionPropagatesAndReleasesSagaLock() {
+        String sagaLockKey = RedisLockService.buildSagaLockKey(SAGA_ID);
+        when(redisLockService.tryLock(sagaLockKey, 2, TimeUnit.MINUTES)).thenReturn(true);
+        doThrow(new ObjectOptimisticLockingFailureException("OrderPurchaseSagaState", SAGA_ID))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        // Not reported as done, so the scheduler keeps the durable retry row
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sagaService.executeScheduledRetry(SAGA_ID));
+        verify(redisLockService).releaseLock(sagaLockKey);
+    }
+}
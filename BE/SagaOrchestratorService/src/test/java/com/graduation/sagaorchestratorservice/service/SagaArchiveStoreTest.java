@@ -0,0 +1,100 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveEntry;
+import com.graduation.sagaorchestratorservice.model.SagaArchiveRecord;
+import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+import com.graduation.sagaorchestratorservice.repository.SagaArchiveEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SagaArchiveStoreTest {
+
+    private static final String SEGMENT = "sagas-20260101.seg";
+
+    @TempDir
+    Path directory;
+
+    private SagaArchiveEntryRepository entryRepository;
+    private SagaArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        entryRepository = mock(SagaArchiveEntryRepository.class);
+        store = new SagaArchiveStore(new ObjectMapper().findAndRegisterModules(), entryRepository);
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+    }
+
+    @Test
+    void framesAreAppendedBackToBackAndReadByOffset() throws IOException {
+        long first = store.append(SEGMENT, List.of(record("SAGA_1"), record("SAGA_2")));
+        long second = store.append(SEGMENT, List.of(record("SAGA_3")));
+
+        assertEquals(0, first);
+        assertTrue(second > first);
+        assertEquals("SAGA_2", store.read(SEGMENT, first, "SAGA_2").orElseThrow().sagaId());
+        assertEquals(SagaStatus.COMPLETED, store.read(SEGMENT, second, "SAGA_3").orElseThrow().status());
+        assertTrue(store.read(SEGMENT, second, "SAGA_1").isEmpty());
+    }
+
+    @Test
+    void tornTailIsCutOffBeforeTheNextAppend() throws IOException {
+        store.append(SEGMENT, List.of(record("SAGA_1")));
+        Path segment = directory.resolve(SEGMENT);
+        long validEnd = Files.size(segment);
+        Files.write(segment, new byte[]{0x53, 0x41, 0x47, 0x41, 0, 0, 0x10, 0}, StandardOpenOption.APPEND);
+
+        long offset = store.append(SEGMENT, List.of(record("SAGA_2")));
+
+        assertEquals(validEnd, offset);
+        assertEquals("SAGA_1", store.read(SEGMENT, 0, "SAGA_1").orElseThrow().sagaId());
+        assertEquals("SAGA_2", store.read(SEGMENT, offset, "SAGA_2").orElseThrow().sagaId());
+    }
+
+    @Test
+    void corruptFrameIsReportedOnRead() throws IOException {
+        store.append(SEGMENT, List.of(record("SAGA_1")));
+        Path segment = directory.resolve(SEGMENT);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        assertThrows(IOException.class, () -> store.read(SEGMENT, 0, "SAGA_1"));
+    }
+
+    @Test
+    void findResolvesThroughTheArchiveIndex() throws IOException {
+        store.append(SEGMENT, List.of(record("SAGA_1")));
+        long offset = store.append(SEGMENT, List.of(record("SAGA_2")));
+        when(entryRepository.findById("SAGA_2"))
+                .thenReturn(Optional.of(new SagaArchiveEntry("SAGA_2", SEGMENT, offset, Instant.now())));
+        when(entryRepository.findById("SAGA_9")).thenReturn(Optional.empty());
+
+        assertEquals("SAGA_2", store.find("SAGA_2").orElseThrow().sagaId());
+        assertTrue(store.find("SAGA_9").isEmpty());
+    }
+
+    private static SagaArchiveRecord record(String sagaId) {
+        Instant now = Instant.now();
+        return new SagaArchiveRecord(sagaId, "user-1", 1L, "user@example.com", "User", "order",
+                new BigDecimal("10.00"), 7L, null, SagaStatus.COMPLETED, List.of(), null,
+                now, now, now, 0, 0, List.of());
+    }
+}
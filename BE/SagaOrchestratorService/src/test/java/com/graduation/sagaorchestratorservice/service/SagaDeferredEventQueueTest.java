@@ -0,0 +1,140 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graduation.sagaorchestratorservice.model.SagaParkedEvent;
+import com.graduation.sagaorchestratorservice.repository.SagaParkedEventRepository;
+import com.graduation.sagaorchestratorservice.service.SagaDeferredEventQueue.ParkedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SagaDeferredEventQueueTest {
+
+    private SagaParkedEventRepository repository;
+    private SagaDeferredEventQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SagaParkedEventRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.save(any())).thenAnswer(invocation -> {
+            SagaParkedEvent row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            return row;
+        });
+
+        queue = new SagaDeferredEventQueue(repository, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "maxParked", 3);
+        ReflectionTestUtils.setField(queue, "leaseMs", 30_000L);
+        ReflectionTestUtils.setField(queue, "failureBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(queue, "maxFailureBackoffMs", 60_000L);
+        queue.initializeMetrics();
+    }
+
+    @Test
+    void drainsEachSagaInArrivalOrder() {
+        queue.park("SAGA_1", Map.of("type", "first"));
+        queue.park("SAGA_2", Map.of("type", "other"));
+        queue.park("SAGA_1", Map.of("type", "second"));
+
+        assertEquals("first", drain("SAGA_1").getEventData().get("type"));
+        assertEquals("second", drain("SAGA_1").getEventData().get("type"));
+        assertNull(queue.peek("SAGA_1"));
+        assertEquals("other", drain("SAGA_2").getEventData().get("type"));
+    }
+
+    @Test
+    void storesEventBeforeAcceptingIt() {
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).save(any());
+
+        assertFalse(queue.park("SAGA_1", Map.of("type", "lost")));
+        assertFalse(queue.hasParked("SAGA_1"));
+        assertEquals(0, queue.getParkedDepth());
+    }
+
+    @Test
+    void failedEventStaysAtHeadAndBacksOff() {
+        queue.park("SAGA_1", Map.of("type", "first"));
+        queue.park("SAGA_1", Map.of("type", "second"));
+        ParkedEvent head = queue.peek("SAGA_1");
+
+        queue.markFailed(head);
+
+        assertEquals(1, head.getFailures());
+        assertNull(queue.peek("SAGA_1"));
+        assertTrue(queue.hasParked("SAGA_1"));
+        assertEquals(2, queue.getParkedDepth());
+    }
+
+    @Test
+    void forgetsSagaOnceItsQueueIsDrained() {
+        queue.park("SAGA_1", Map.of("type", "only"));
+        assertTrue(queue.hasParked("SAGA_1"));
+        assertEquals(List.of("SAGA_1"), queue.parkedSagaIds());
+
+        drain("SAGA_1");
+
+        assertFalse(queue.hasParked("SAGA_1"));
+        assertTrue(queue.parkedSagaIds().isEmpty());
+        assertFalse(queue.hasParked(null));
+    }
+
+    @Test
+    void rejectsEventsBeyondCapacityAcrossSagas() {
+        assertTrue(queue.park("SAGA_1", Map.of()));
+        assertTrue(queue.park("SAGA_2", Map.of()));
+        assertTrue(queue.park("SAGA_3", Map.of()));
+
+        assertFalse(queue.park("SAGA_4", Map.of()));
+        assertEquals(3, queue.getParkedDepth());
+        assertFalse(queue.hasParked("SAGA_4"));
+
+        drain("SAGA_1");
+        assertEquals(2, queue.getParkedDepth());
+        assertTrue(queue.park("SAGA_4", Map.of()));
+    }
+
+    @Test
+    void adoptedEventsGoAheadOfLocalOnes() {
+        queue.park("SAGA_1", Map.of("type", "local"));
+        SagaParkedEvent orphan = SagaParkedEvent.builder()
+                .id(100L).sagaId("SAGA_1").eventData("{\"type\":\"orphan\"}").build();
+        when(repository.lockOrphanedBatch(any(), anyInt())).thenReturn(List.of(orphan));
+
+        assertEquals(1, queue.adoptOrphaned(10));
+
+        verify(repository).lockOrphanedBatch(any(), eq(2));
+        verify(repository).lease(eq(List.of(100L)), any(), any());
+        assertEquals(2, queue.getParkedDepth());
+        ParkedEvent adopted = drain("SAGA_1");
+        assertEquals(100L, adopted.getId());
+        assertEquals("orphan", adopted.getEventData().get("type"));
+        assertEquals("local", drain("SAGA_1").getEventData().get("type"));
+    }
+
+    private ParkedEvent drain(String sagaId) {
+        ParkedEvent event = queue.peek(sagaId);
+        queue.deleteStored(event);
+        queue.remove(sagaId, event);
+        verify(repository).deleteById(event.getId());
+        return event;
+    }
+}
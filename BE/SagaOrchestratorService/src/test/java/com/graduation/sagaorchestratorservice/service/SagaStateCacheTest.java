@@ -0,0 +1,95 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.model.OrderPurchaseSagaState;
+import com.graduation.sagaorchestratorservice.model.enums.SagaStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SagaStateCacheTest {
+
+    @Mock
+    private SagaPartitionOwnershipService partitionOwnership;
+
+    private SagaStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SagaStateCache(partitionOwnership, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "maxWeightBytes", 1_000_000L);
+        cache.initializeMetrics();
+    }
+
+    @Test
+    void writesThroughActiveSagasAndDropsFinishedOnes() {
+        OrderPurchaseSagaState saga = saga("SAGA_1", SagaStatus.IN_PROGRESS);
+        cache.put(saga);
+        assertSame(saga, cache.get("SAGA_1"));
+
+        saga.setStatus(SagaStatus.COMPLETED);
+        cache.put(saga);
+
+        assertNull(cache.get("SAGA_1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        cache.put(saga("SAGA_1", SagaStatus.IN_PROGRESS));
+        cache.put(saga("SAGA_2", SagaStatus.IN_PROGRESS));
+        cache.get("SAGA_1");
+
+        cache.put(saga("SAGA_3", SagaStatus.IN_PROGRESS));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.peek("SAGA_1"));
+        assertNull(cache.peek("SAGA_2"));
+        assertNotNull(cache.peek("SAGA_3"));
+    }
+
+    @Test
+    void evictsByEstimatedWeight() {
+        ReflectionTestUtils.setField(cache, "maxWeightBytes", 3_000L);
+        OrderPurchaseSagaState heavy = saga("SAGA_1", SagaStatus.IN_PROGRESS);
+        heavy.setOrderDescription("x".repeat(1_000));
+
+        cache.put(heavy);
+        cache.put(saga("SAGA_2", SagaStatus.IN_PROGRESS));
+
+        assertNull(cache.peek("SAGA_1"));
+        assertNotNull(cache.peek("SAGA_2"));
+    }
+
+    @Test
+    void dropsEntriesOfAPartitionWhoseOwnershipChanged() {
+        when(partitionOwnership.partitionFor("SAGA_1")).thenReturn(0);
+        when(partitionOwnership.partitionFor("SAGA_2")).thenReturn(1);
+        cache.put(saga("SAGA_1", SagaStatus.IN_PROGRESS));
+        cache.put(saga("SAGA_2", SagaStatus.COMPENSATING));
+
+        cache.onPartitionOwnershipChanged(new SagaPartitionOwnershipService.PartitionOwnershipChanged(0, false));
+
+        assertNull(cache.peek("SAGA_1"));
+        assertNotNull(cache.peek("SAGA_2"));
+    }
+
+    private static OrderPurchaseSagaState saga(String sagaId, SagaStatus status) {
+        OrderPurchaseSagaState saga = new OrderPurchaseSagaState();
+        saga.setSagaId(sagaId);
+        saga.setStatus(status);
+        return saga;
+    }
+}
@@ -0,0 +1,101 @@
+package com.graduation.sagaorchestratorservice.service;
+
+import com.graduation.sagaorchestratorservice.constants.Constant;
+import com.graduation.sagaorchestratorservice.model.enums.OrderPurchaseSagaStep;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SagaStepLatencyRecorderTest {
+
+    private SimpleMeterRegistry registry;
+    private SagaStepLatencyRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        recorder = new SagaStepLatencyRecorder(registry);
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "maxExpectedMs", 60_000L);
+        recorder.initializeMetrics();
+    }
+
+    @Test
+    void registersOneTimerPerStepAndPhaseUpFront() {
+        int expected = OrderPurchaseSagaStep.values().length * SagaStepLatencyRecorder.Phase.values().length;
+
+        assertEquals(expected, registry.find(Constant.METRIC_SAGA_STEP_LATENCY).timers().size());
+    }
+
+    @Test
+    void phasesOfOneEventAreRecordedUnderItsFirstStep() {
+        recorder.beginEvent(System.currentTimeMillis() - 50);
+        recorder.step(OrderPurchaseSagaStep.PROCESS_PAYMENT);
+        recorder.step(OrderPurchaseSagaStep.CANCEL_PAYMENT);
+        long mark = recorder.mark();
+        recorder.addSince(SagaStepLatencyRecorder.Phase.DB, mark);
+        recorder.addSince(SagaStepLatencyRecorder.Phase.DB, mark);
+        recorder.endEvent();
+
+        Timer queueWait = timer(OrderPurchaseSagaStep.PROCESS_PAYMENT, "queue_wait");
+        assertEquals(1, queueWait.count());
+        assertTrue(queueWait.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1, timer(OrderPurchaseSagaStep.PROCESS_PAYMENT, "db").count());
+        assertEquals(0, timer(OrderPurchaseSagaStep.PROCESS_PAYMENT, "lock_wait").count());
+        assertEquals(0, timer(OrderPurchaseSagaStep.CANCEL_PAYMENT, "queue_wait").count());
+    }
+
+    @Test
+    void commitTimeCountsAsDb() {
+        recorder.beginEvent(0);
+        recorder.step(OrderPurchaseSagaStep.CANCEL_ORDER);
+        recorder.beforeCommit();
+        recorder.afterCommit();
+        recorder.endEvent();
+
+        assertEquals(1, timer(OrderPurchaseSagaStep.CANCEL_ORDER, "db").count());
+        assertEquals(0, timer(OrderPurchaseSagaStep.CANCEL_ORDER, "queue_wait").count());
+    }
+
+    @Test
+    void eventsWithoutStepAreDroppedAndStateIsReset() {
+        recorder.beginEvent(System.currentTimeMillis());
+        recorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, recorder.mark());
+        recorder.endEvent();
+
+        recorder.step(OrderPurchaseSagaStep.PROCESS_PAYMENT);
+        recorder.addSince(SagaStepLatencyRecorder.Phase.LOCK_WAIT, recorder.mark());
+        recorder.endEvent();
+
+        assertEquals(0, registry.find(Constant.METRIC_SAGA_STEP_LATENCY).timers().stream()
+                .mapToLong(Timer::count).sum());
+        assertEquals(0L, recorder.elapsedMillis());
+    }
+
+    @Test
+    void disabledRecorderIgnoresEvents() {
+        ReflectionTestUtils.setField(recorder, "enabled", false);
+
+        recorder.beginEvent(System.currentTimeMillis() - 50);
+        recorder.step(OrderPurchaseSagaStep.PROCESS_PAYMENT);
+        recorder.endEvent();
+        recorder.record(OrderPurchaseSagaStep.PROCESS_PAYMENT, SagaStepLatencyRecorder.Phase.PUBLISH, 1_000);
+
+        assertEquals(0, timer(OrderPurchaseSagaStep.PROCESS_PAYMENT, "queue_wait").count());
+        assertEquals(0, timer(OrderPurchaseSagaStep.PROCESS_PAYMENT, "publish").count());
+    }
+
+    private Timer timer(OrderPurchaseSagaStep step, String phase) {
+        return registry.get(Constant.METRIC_SAGA_STEP_LATENCY)
+                .tag(Constant.METRIC_TAG_STEP, step.name())
+                .tag(Constant.METRIC_TAG_PHASE, phase)
+                .timer();
+    }
+}
@@ -0,0 +1,71 @@
+package com.graduation.sagaorchestratorservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesItemsAtTheirTickAndNeverEarly() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1_000);
+
+        assertTrue(wheel.add("a", 1_025));
+        assertTrue(wheel.add("b", 1_030));
+        assertEquals(2, wheel.size());
+
+        // 1_025 is rounded up to the 1_030 tick
+        assertEquals(List.of(), wheel.advance(1_029));
+        assertEquals(List.of("a", "b"), wheel.advance(1_030));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsDeadlinesThatAlreadyPassed() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1_000);
+
+        assertFalse(wheel.add("late", 1_000));
+        assertFalse(wheel.add("later", 990));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesDeadlinesBeyondTheFirstLevel() {
+        // Level 0 spans 80ms, level 1 spans 640ms, level 2 spans 5_120ms
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        long[] deadlines = {70, 90, 650, 3_000, 5_000};
+        for (long deadline : deadlines) {
+            assertTrue(wheel.add(deadline, deadline));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 5_000; now += 10) {
+            for (Long deadline : wheel.advance(now)) {
+                assertEquals(roundUp(deadline), now, "item fired at the wrong tick");
+                fired.add(deadline);
+            }
+        }
+
+        assertEquals(List.of(70L, 90L, 650L, 3_000L, 5_000L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void catchesUpAfterALongPause() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        wheel.add("near", 50);
+        wheel.add("far", 2_000);
+
+        assertEquals(List.of("near", "far"), wheel.advance(10_000));
+        assertEquals(0, wheel.size());
+    }
+
+    private static long roundUp(long deadline) {
+        return ((deadline + 9) / 10) * 10;
+    }
+}
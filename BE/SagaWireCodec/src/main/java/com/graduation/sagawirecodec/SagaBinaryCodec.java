@@ -0,0 +1,346 @@
+package com.graduation.sagawirecodec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of saga command/event maps.
+ *
+ * Layout: magic byte, version byte, then the top-level map. A map is a varint entry
+ * count followed by entries; an entry is a varint field index from
+ * {@link SagaWireFormat#FIELDS} (0 = inline UTF-8 name follows) and a tagged value.
+ * Integers are zigzag varints and decimals keep their exact scale, so amounts arrive
+ * as {@link BigDecimal} instead of being parsed back from a double's string form.
+ *
+ * Decoded maps use the same Java types the JSON deserializer produces (Integer for
+ * values that fit, Long otherwise, String, Boolean, LinkedHashMap, ArrayList), with
+ * BigDecimal for decimals. Values with no binary representation make
+ * {@link #tryEncode} return null so the caller can fall back to JSON.
+ */
+public final class SagaBinaryCodec {
+
+    private SagaBinaryCodec() {
+    }
+
+    private static final byte MAGIC = (byte) 0xA5;
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_STRING = 7;
+    private static final byte TAG_MAP = 8;
+    private static final byte TAG_LIST = 9;
+
+    private static final int MAX_DEPTH = 32;
+
+    private static final Map<String, Integer> FIELD_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 1; i < SagaWireFormat.FIELDS.size(); i++) {
+            FIELD_INDEX.put(SagaWireFormat.FIELDS.get(i), i);
+        }
+    }
+
+    /**
+     * Encode a message map, or return null if it holds a value with no binary representation
+     */
+    public static byte[] tryEncode(Map<?, ?> message) {
+        Writer writer = new Writer();
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        if (!writer.writeMap(message, 0)) {
+            return null;
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a message map written by {@link #tryEncode}
+     */
+    public static Map<String, Object> decode(byte[] data) {
+        if (data == null || data.length < 2 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary saga message");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary saga message version: " + data[1]);
+        }
+
+        Reader reader = new Reader(data, 2);
+        Map<String, Object> message = reader.readMap(0);
+        if (reader.position != data.length) {
+            throw new IllegalArgumentException("Trailing bytes after binary saga message");
+        }
+        return message;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int size = 0;
+
+        boolean writeMap(Map<?, ?> map, int depth) {
+            if (depth > MAX_DEPTH) {
+                return false;
+            }
+
+            writeVarint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    return false;
+                }
+
+                Integer fieldIndex = FIELD_INDEX.get(key);
+                if (fieldIndex != null) {
+                    writeVarint(fieldIndex);
+                } else {
+                    writeVarint(0);
+                    writeString(key);
+                }
+
+                if (!writeValue(entry.getValue(), depth)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean writeValue(Object value, int depth) {
+            if (value == null) {
+                writeByte(TAG_NULL);
+            } else if (value instanceof Boolean bool) {
+                writeByte(bool ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                writeByte(TAG_INT);
+                writeVarlong(zigzag(((Number) value).longValue()));
+            } else if (value instanceof Long longValue) {
+                // Same narrowing as JSON: small longs come back as Integer
+                boolean fitsInt = longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+                writeByte(fitsInt ? TAG_INT : TAG_LONG);
+                writeVarlong(zigzag(longValue));
+            } else if (value instanceof Double || value instanceof Float) {
+                writeByte(TAG_DOUBLE);
+                writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+            } else if (value instanceof BigDecimal decimal) {
+                writeByte(TAG_DECIMAL);
+                writeVarlong(zigzag(decimal.scale()));
+                writeBytes(decimal.unscaledValue().toByteArray());
+            } else if (value instanceof String string) {
+                writeByte(TAG_STRING);
+                writeString(string);
+            } else if (value instanceof Enum<?> enumValue) {
+                writeByte(TAG_STRING);
+                writeString(enumValue.name());
+            } else if (value instanceof Map<?, ?> map) {
+                writeByte(TAG_MAP);
+                return writeMap(map, depth + 1);
+            } else if (value instanceof Collection<?> collection) {
+                if (depth + 1 > MAX_DEPTH) {
+                    return false;
+                }
+                writeByte(TAG_LIST);
+                writeVarint(collection.size());
+                for (Object element : collection) {
+                    if (!writeValue(element, depth + 1)) {
+                        return false;
+                    }
+                }
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarlong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[size++] = value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        Map<String, Object> readMap(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("Binary saga message nested too deeply");
+            }
+
+            int count = readLength();
+            Map<String, Object> map = new LinkedHashMap<>(Math.max(4, count * 4 / 3 + 1));
+            for (int i = 0; i < count; i++) {
+                long fieldIndex = readVarlong();
+                String key;
+                if (fieldIndex == 0) {
+                    key = readString();
+                } else if (fieldIndex > 0 && fieldIndex < SagaWireFormat.FIELDS.size()) {
+                    key = SagaWireFormat.FIELDS.get((int) fieldIndex);
+                } else {
+                    throw new IllegalArgumentException("Unknown field index in binary saga message: " + fieldIndex);
+                }
+                map.put(key, readValue(depth));
+            }
+            return map;
+        }
+
+        Object readValue(int depth) {
+            byte tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_INT:
+                    return (int) unzigzag(readVarlong());
+                case TAG_LONG:
+                    return unzigzag(readVarlong());
+                case TAG_DOUBLE:
+                    return Double.longBitsToDouble(readLong());
+                case TAG_DECIMAL:
+                    int scale = (int) unzigzag(readVarlong());
+                    return new BigDecimal(new BigInteger(readBytes()), scale);
+                case TAG_STRING:
+                    return readString();
+                case TAG_MAP:
+                    return readMap(depth + 1);
+                case TAG_LIST:
+                    if (depth + 1 > MAX_DEPTH) {
+                        throw new IllegalArgumentException("Binary saga message nested too deeply");
+                    }
+                    int count = readLength();
+                    List<Object> list = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        list.add(readValue(depth + 1));
+                    }
+                    return list;
+                default:
+                    throw new IllegalArgumentException("Unknown value tag in binary saga message: " + tag);
+            }
+        }
+
+        String readString() {
+            int length = readLength();
+            require(length);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = readLength();
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        int readLength() {
+            long value = readVarlong();
+            if (value < 0 || value > data.length) {
+                throw new IllegalArgumentException("Invalid length in binary saga message: " + value);
+            }
+            return (int) value;
+        }
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in binary saga message");
+        }
+
+        long readLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte readByte() {
+            require(1);
+            return data[position++];
+        }
+
+        private void require(int length) {
+            if (position + length > data.length) {
+                throw new IllegalArgumentException("Truncated binary saga message");
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
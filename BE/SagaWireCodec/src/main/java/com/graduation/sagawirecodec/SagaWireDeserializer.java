@@ -0,0 +1,54 @@
+package com.graduation.sagawirecodec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for saga messages.
+ * Records tagged with the binary wire format header are decoded by {@link SagaBinaryCodec};
+ * untagged records are JSON and go to Spring's JSON deserializer, configured from the
+ * same consumer properties as before.
+ */
+public class SagaWireDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        Header format = headers.lastHeader(SagaWireFormat.HEADER_WIRE_FORMAT);
+        if (format != null && Arrays.equals(format.value(), SagaWireFormat.FORMAT_BINARY_BYTES)) {
+            try {
+                return SagaBinaryCodec.decode(data);
+            } catch (IllegalArgumentException e) {
+                throw new SerializationException("Failed to decode binary saga message on topic " + topic, e);
+            }
+        }
+
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
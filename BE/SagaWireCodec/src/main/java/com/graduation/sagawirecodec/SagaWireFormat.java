@@ -0,0 +1,69 @@
+package com.graduation.sagawirecodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Wire format negotiation and the field schema of the binary saga envelope.
+ *
+ * Records written in the binary format carry the {@link #HEADER_WIRE_FORMAT} header;
+ * records without it are JSON. Consumers read both, so producers can be switched to
+ * binary one service at a time once every consumer runs the shared deserializer.
+ */
+public final class SagaWireFormat {
+
+    private SagaWireFormat() {
+    }
+
+    /** Record header naming the value encoding */
+    public static final String HEADER_WIRE_FORMAT = "saga-wire-format";
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary-v1";
+
+    static final byte[] FORMAT_BINARY_BYTES = FORMAT_BINARY.getBytes(StandardCharsets.UTF_8);
+
+    /** Producer config key: "binary" writes the binary format, anything else writes JSON */
+    public static final String CONFIG_WRITE_FORMAT = "saga.wire.format";
+    public static final String WRITE_FORMAT_BINARY = "binary";
+
+    /**
+     * Field schema: keys at any nesting level are written as their index in this list
+     * instead of by name. Append only; an index must never be reused or reordered, since
+     * records written by older producers stay on the topics until retention expires.
+     * Index 0 means the key name follows inline.
+     */
+    static final List<String> FIELDS = List.of(
+            "",
+            // Envelope
+            "messageId",
+            "sagaId",
+            "stepId",
+            "type",
+            "timestamp",
+            "payload",
+            "fencingToken",
+            // Common payload and event fields
+            "orderId",
+            "userId",
+            "userEmail",
+            "userName",
+            "orderDescription",
+            "totalAmount",
+            "success",
+            "errorMessage",
+            "paymentTransactionId",
+            "newStatus",
+            "reason",
+            "cancelledBy",
+            "requestedBy",
+            "updateType",
+            "cancellationReason",
+            "currentStep",
+            "compensationStrategy",
+            "partitionForwardHops",
+            "status",
+            "amount",
+            "message"
+    );
+}
@@ -0,0 +1,51 @@
+package com.graduation.sagawirecodec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for saga messages.
+ * With {@code saga.wire.format=binary} map values are written in the binary format and
+ * tagged with the wire format header; everything else (and any map holding a value the
+ * binary format cannot represent) is delegated to Spring's JSON serializer.
+ */
+public class SagaWireSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private boolean writeBinary = false;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        writeBinary = SagaWireFormat.WRITE_FORMAT_BINARY.equalsIgnoreCase(
+                String.valueOf(configs.get(SagaWireFormat.CONFIG_WRITE_FORMAT)));
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        headers.remove(SagaWireFormat.HEADER_WIRE_FORMAT);
+
+        if (writeBinary && data instanceof Map<?, ?> message) {
+            byte[] encoded = SagaBinaryCodec.tryEncode(message);
+            if (encoded != null) {
+                headers.add(SagaWireFormat.HEADER_WIRE_FORMAT, SagaWireFormat.FORMAT_BINARY_BYTES);
+                return encoded;
+            }
+        }
+
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
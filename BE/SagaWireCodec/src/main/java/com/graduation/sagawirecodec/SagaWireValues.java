@@ -0,0 +1,42 @@
+package com.graduation.sagawirecodec;
+
+import java.math.BigDecimal;
+
+/**
+ * Typed reads of message values that work for both wire formats.
+ * JSON delivers numbers as Integer/Long/Double, the binary format delivers exact types.
+ */
+public final class SagaWireValues {
+
+    private SagaWireValues() {
+    }
+
+    /**
+     * Decimal value; exact for binary messages, parsed from the number's text for JSON ones
+     */
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * Long value from a number or its string form
+     */
+    public static Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        return Long.valueOf(value.toString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * ORDER_CANCEL: cancel the order (compensation)
+ */
+public record CancelOrderCommand(String messageId, String sagaId, int stepId, long timestamp, Long fencingToken,
+                                 long orderId, String reason, String cancelledBy)
+        implements SagaCommand {
+
+    @Override
+    public SagaCommandType type() {
+        return SagaCommandType.ORDER_CANCEL;
+    }
+
+    @Override
+    public Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<>(4);
+        payload.put(SagaMessageFields.ORDER_ID, String.valueOf(orderId));
+        putIfNotNull(payload, SagaMessageFields.REASON, reason);
+        putIfNotNull(payload, SagaMessageFields.CANCELLED_BY, cancelledBy);
+        return payload;
+    }
+
+    static CancelOrderCommand fromMessage(Map<String, Object> message) {
+        Map<String, Object> payload = payloadOf(message);
+        return new CancelOrderCommand(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                (int) longValue(message, SagaMessageFields.STEP_ID, 0),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                fencingTokenOf(message, payload),
+                longValue(payload, SagaMessageFields.ORDER_ID, 0),
+                string(payload, SagaMessageFields.REASON),
+                string(payload, SagaMessageFields.CANCELLED_BY));
+    }
+}
@@ -0,0 +1,54 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * CANCEL_REQUEST_RECEIVED: the user asked to cancel an order with a running saga
+ */
+public record CancelRequestEvent(String messageId, String sagaId, long timestamp, long orderId, String userId,
+                                 String orderStatus, String reason, String userEmail, String userName,
+                                 BigDecimal totalAmount)
+        implements SagaEvent {
+
+    @Override
+    public SagaEventType type() {
+        return SagaEventType.CANCEL_REQUEST_RECEIVED;
+    }
+
+    @Override
+    public Map<String, Object> toMessage() {
+        Map<String, Object> event = new LinkedHashMap<>(12);
+        event.put(SagaMessageFields.MESSAGE_ID, messageId);
+        event.put(SagaMessageFields.TYPE, type().name());
+        event.put(SagaMessageFields.TIMESTAMP, timestamp);
+        event.put(SagaMessageFields.ORDER_ID, orderId);
+        event.put(SagaMessageFields.USER_ID, userId);
+        event.put(SagaMessageFields.SAGA_ID, sagaId);
+        event.put(SagaMessageFields.ORDER_STATUS, orderStatus);
+        event.put(SagaMessageFields.REASON, reason);
+        event.put(SagaMessageFields.USER_EMAIL, userEmail);
+        event.put(SagaMessageFields.USER_NAME, userName);
+        event.put(SagaMessageFields.TOTAL_AMOUNT, totalAmount);
+        return event;
+    }
+
+    static CancelRequestEvent fromMessage(Map<String, Object> message) {
+        return new CancelRequestEvent(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                longValue(message, SagaMessageFields.ORDER_ID, 0),
+                string(message, SagaMessageFields.USER_ID),
+                string(message, SagaMessageFields.ORDER_STATUS),
+                string(message, SagaMessageFields.REASON),
+                string(message, SagaMessageFields.USER_EMAIL),
+                string(message, SagaMessageFields.USER_NAME),
+                SagaWireValues.toBigDecimal(message.get(SagaMessageFields.TOTAL_AMOUNT)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * ORDER_CREATED: a new order that starts an order purchase saga
+ */
+public record OrderCreatedEvent(String messageId, long timestamp, long orderId, String userId, String userEmail,
+                                String userName, String orderDescription, BigDecimal totalAmount,
+                                String orderStatus, String createdAt)
+        implements SagaEvent {
+
+    @Override
+    public String sagaId() {
+        return null;
+    }
+
+    @Override
+    public SagaEventType type() {
+        return SagaEventType.ORDER_CREATED;
+    }
+
+    @Override
+    public Map<String, Object> toMessage() {
+        Map<String, Object> event = new LinkedHashMap<>(12);
+        event.put(SagaMessageFields.MESSAGE_ID, messageId);
+        event.put(SagaMessageFields.TYPE, type().name());
+        event.put(SagaMessageFields.TIMESTAMP, timestamp);
+        event.put(SagaMessageFields.ORDER_ID, orderId);
+        event.put(SagaMessageFields.USER_ID, userId);
+        event.put(SagaMessageFields.USER_EMAIL, userEmail);
+        event.put(SagaMessageFields.USER_NAME, userName);
+        event.put(SagaMessageFields.ORDER_DESCRIPTION, orderDescription);
+        event.put(SagaMessageFields.TOTAL_AMOUNT, totalAmount);
+        event.put(SagaMessageFields.ORDER_STATUS, orderStatus);
+        event.put(SagaMessageFields.CREATED_AT, createdAt);
+        return event;
+    }
+
+    static OrderCreatedEvent fromMessage(Map<String, Object> message) {
+        return new OrderCreatedEvent(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                longValue(message, SagaMessageFields.ORDER_ID, 0),
+                string(message, SagaMessageFields.USER_ID),
+                string(message, SagaMessageFields.USER_EMAIL),
+                string(message, SagaMessageFields.USER_NAME),
+                string(message, SagaMessageFields.ORDER_DESCRIPTION),
+                SagaWireValues.toBigDecimal(message.get(SagaMessageFields.TOTAL_AMOUNT)),
+                string(message, SagaMessageFields.ORDER_STATUS),
+                string(message, SagaMessageFields.CREATED_AT));
+    }
+}
@@ -0,0 +1,46 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * PAYMENT_PROCESS: charge the order's total amount
+ */
+public record ProcessPaymentCommand(String messageId, String sagaId, int stepId, long timestamp, Long fencingToken,
+                                    String orderId, String userId, BigDecimal totalAmount, String paymentMethod)
+        implements SagaCommand {
+
+    @Override
+    public SagaCommandType type() {
+        return SagaCommandType.PAYMENT_PROCESS;
+    }
+
+    @Override
+    public Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<>(6);
+        payload.put(SagaMessageFields.ORDER_ID, orderId);
+        payload.put(SagaMessageFields.USER_ID, userId);
+        payload.put(SagaMessageFields.TOTAL_AMOUNT, totalAmount);
+        putIfNotNull(payload, SagaMessageFields.PAYMENT_METHOD, paymentMethod);
+        return payload;
+    }
+
+    static ProcessPaymentCommand fromMessage(Map<String, Object> message) {
+        Map<String, Object> payload = payloadOf(message);
+        return new ProcessPaymentCommand(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                (int) longValue(message, SagaMessageFields.STEP_ID, 0),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                fencingTokenOf(message, payload),
+                string(payload, SagaMessageFields.ORDER_ID),
+                string(payload, SagaMessageFields.USER_ID),
+                SagaWireValues.toBigDecimal(payload.get(SagaMessageFields.TOTAL_AMOUNT)),
+                string(payload, SagaMessageFields.PAYMENT_METHOD));
+    }
+}
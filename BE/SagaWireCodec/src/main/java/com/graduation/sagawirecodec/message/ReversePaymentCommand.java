@@ -0,0 +1,43 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * PAYMENT_REVERSE: refund the order's payment (compensation)
+ */
+public record ReversePaymentCommand(String messageId, String sagaId, int stepId, long timestamp, Long fencingToken,
+                                    String orderId, Long paymentTransactionId, String reason)
+        implements SagaCommand {
+
+    @Override
+    public SagaCommandType type() {
+        return SagaCommandType.PAYMENT_REVERSE;
+    }
+
+    @Override
+    public Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<>(4);
+        payload.put(SagaMessageFields.ORDER_ID, orderId);
+        putIfNotNull(payload, SagaMessageFields.PAYMENT_TRANSACTION_ID, paymentTransactionId);
+        putIfNotNull(payload, SagaMessageFields.REASON, reason);
+        return payload;
+    }
+
+    static ReversePaymentCommand fromMessage(Map<String, Object> message) {
+        Map<String, Object> payload = payloadOf(message);
+        return new ReversePaymentCommand(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                (int) longValue(message, SagaMessageFields.STEP_ID, 0),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                fencingTokenOf(message, payload),
+                string(payload, SagaMessageFields.ORDER_ID),
+                SagaWireValues.toLong(payload.get(SagaMessageFields.PAYMENT_TRANSACTION_ID)),
+                string(payload, SagaMessageFields.REASON));
+    }
+}
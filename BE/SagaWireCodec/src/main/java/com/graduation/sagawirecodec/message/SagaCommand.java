@@ -0,0 +1,40 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Saga step command sent by the orchestrator.
+ * Records are immutable; {@link #toMessage()} gives the map that goes on the wire.
+ */
+public sealed interface SagaCommand
+        permits ProcessPaymentCommand, ReversePaymentCommand, UpdateOrderStatusCommand, CancelOrderCommand {
+
+    String messageId();
+
+    String sagaId();
+
+    int stepId();
+
+    SagaCommandType type();
+
+    long timestamp();
+
+    /** Fencing token of the resource lock held when the command was issued, or null */
+    Long fencingToken();
+
+    /** Command-specific payload fields */
+    Map<String, Object> payload();
+
+    default Map<String, Object> toMessage() {
+        Map<String, Object> message = new LinkedHashMap<>(10);
+        message.put(SagaMessageFields.MESSAGE_ID, messageId());
+        message.put(SagaMessageFields.SAGA_ID, sagaId());
+        message.put(SagaMessageFields.STEP_ID, stepId());
+        message.put(SagaMessageFields.TYPE, type().name());
+        message.put(SagaMessageFields.TIMESTAMP, timestamp());
+        SagaMessageValues.putIfNotNull(message, SagaMessageFields.FENCING_TOKEN, fencingToken());
+        message.put(SagaMessageFields.PAYLOAD, payload());
+        return message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Saga step commands, each bound to the record it decodes into
+ */
+public enum SagaCommandType {
+
+    PAYMENT_PROCESS(ProcessPaymentCommand::fromMessage),
+    PAYMENT_REVERSE(ReversePaymentCommand::fromMessage),
+    ORDER_UPDATE_CONFIRMED(UpdateOrderStatusCommand::fromMessage),
+    ORDER_UPDATE_DELIVERED(UpdateOrderStatusCommand::fromMessage),
+    ORDER_CANCEL(CancelOrderCommand::fromMessage);
+
+    private final Function<Map<String, Object>, ? extends SagaCommand> decoder;
+
+    SagaCommandType(Function<Map<String, Object>, ? extends SagaCommand> decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Decode a command message of this type
+     */
+    public SagaCommand decode(Map<String, Object> message) {
+        return decoder.apply(message);
+    }
+
+    /**
+     * Command type for a wire name, or null if unknown
+     */
+    public static SagaCommandType fromWireName(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
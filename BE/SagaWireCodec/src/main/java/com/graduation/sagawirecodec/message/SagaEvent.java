@@ -0,0 +1,21 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.Map;
+
+/**
+ * Event sent to the orchestrator.
+ * Records are immutable; {@link #toMessage()} gives the map that goes on the wire.
+ */
+public sealed interface SagaEvent permits SagaReplyEvent, OrderCreatedEvent, CancelRequestEvent {
+
+    String messageId();
+
+    /** Saga the event belongs to; null for ORDER_CREATED, which starts the saga */
+    String sagaId();
+
+    SagaEventType type();
+
+    long timestamp();
+
+    Map<String, Object> toMessage();
+}
@@ -0,0 +1,52 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Events sent to the orchestrator by the order and payment services
+ */
+public enum SagaEventType {
+
+    // Order Service
+    ORDER_CREATED(OrderCreatedEvent::fromMessage),
+    CANCEL_REQUEST_RECEIVED(CancelRequestEvent::fromMessage),
+    ORDER_STATUS_UPDATED_CONFIRMED(SagaReplyEvent::fromMessage),
+    ORDER_STATUS_UPDATED_DELIVERED(SagaReplyEvent::fromMessage),
+    ORDER_STATUS_UPDATE_FAILED(SagaReplyEvent::fromMessage),
+    ORDER_CANCELLED(SagaReplyEvent::fromMessage),
+    ORDER_CANCELLATION_FAILED(SagaReplyEvent::fromMessage),
+
+    // Payment Service
+    PAYMENT_PROCESSED(SagaReplyEvent::fromMessage),
+    PAYMENT_FAILED(SagaReplyEvent::fromMessage),
+    PAYMENT_REVERSED(SagaReplyEvent::fromMessage),
+    PAYMENT_REVERSE_FAILED(SagaReplyEvent::fromMessage);
+
+    private final Function<Map<String, Object>, ? extends SagaEvent> decoder;
+
+    SagaEventType(Function<Map<String, Object>, ? extends SagaEvent> decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Decode an event message of this type
+     */
+    public SagaEvent decode(Map<String, Object> message) {
+        return decoder.apply(message);
+    }
+
+    /**
+     * Event type for a wire name, or null if unknown
+     */
+    public static SagaEventType fromWireName(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Routes an incoming message map to a handler by its type field.
+ *
+ * The message is decoded into its typed record once, here, so handlers work with
+ * records instead of casting map entries. Register every handled type up front, then
+ * share the dispatcher between threads; it is not modified after construction.
+ */
+public final class SagaMessageDispatcher {
+
+    private final Map<String, Consumer<Map<String, Object>>> handlers = new HashMap<>();
+
+    /**
+     * Handle a command type
+     */
+    public <C extends SagaCommand> SagaMessageDispatcher on(SagaCommandType type, Class<C> commandClass,
+                                                            Consumer<? super C> handler) {
+        return register(type.name(), message -> commandClass.cast(type.decode(message)), handler);
+    }
+
+    /**
+     * Handle an event type
+     */
+    public <E extends SagaEvent> SagaMessageDispatcher on(SagaEventType type, Class<E> eventClass,
+                                                          Consumer<? super E> handler) {
+        return register(type.name(), message -> eventClass.cast(type.decode(message)), handler);
+    }
+
+    /**
+     * Handle a type by name, with the raw message map
+     */
+    public SagaMessageDispatcher onRaw(String type, Consumer<Map<String, Object>> handler) {
+        return register(type, Function.identity(), handler);
+    }
+
+    /**
+     * Whether a handler is registered for the type
+     */
+    public boolean handles(String type) {
+        return type != null && handlers.containsKey(type);
+    }
+
+    /**
+     * Dispatch a message; returns false if no handler is registered for its type
+     */
+    public boolean dispatch(Map<String, Object> message) {
+        Object type = message.get(SagaMessageFields.TYPE);
+        Consumer<Map<String, Object>> handler = type != null ? handlers.get(type.toString()) : null;
+        if (handler == null) {
+            return false;
+        }
+        handler.accept(message);
+        return true;
+    }
+
+    private <T> SagaMessageDispatcher register(String type, Function<Map<String, Object>, T> decoder,
+                                               Consumer<? super T> handler) {
+        if (handlers.putIfAbsent(type, message -> handler.accept(decoder.apply(message))) != null) {
+            throw new IllegalStateException("Handler already registered for message type " + type);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,37 @@
+package com.graduation.sagawirecodec.message;
+
+/**
+ * Field names of saga commands and events on the wire
+ */
+public final class SagaMessageFields {
+
+    private SagaMessageFields() {
+    }
+
+    // Envelope
+    public static final String MESSAGE_ID = "messageId";
+    public static final String SAGA_ID = "sagaId";
+    public static final String STEP_ID = "stepId";
+    public static final String TYPE = "type";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String PAYLOAD = "payload";
+    public static final String FENCING_TOKEN = "fencingToken";
+
+    // Payload and event fields
+    public static final String ORDER_ID = "orderId";
+    public static final String USER_ID = "userId";
+    public static final String USER_EMAIL = "userEmail";
+    public static final String USER_NAME = "userName";
+    public static final String ORDER_DESCRIPTION = "orderDescription";
+    public static final String ORDER_STATUS = "orderStatus";
+    public static final String CREATED_AT = "createdAt";
+    public static final String TOTAL_AMOUNT = "totalAmount";
+    public static final String PAYMENT_METHOD = "paymentMethod";
+    public static final String PAYMENT_TRANSACTION_ID = "paymentTransactionId";
+    public static final String NEW_STATUS = "newStatus";
+    public static final String REASON = "reason";
+    public static final String CANCELLED_BY = "cancelledBy";
+    public static final String SUCCESS = "success";
+    public static final String MESSAGE = "message";
+    public static final String ERROR_MESSAGE = "errorMessage";
+}
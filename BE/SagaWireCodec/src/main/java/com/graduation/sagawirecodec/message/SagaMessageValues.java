@@ -0,0 +1,52 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.util.Map;
+
+/**
+ * Field reads shared by the typed message decoders
+ */
+final class SagaMessageValues {
+
+    private SagaMessageValues() {
+    }
+
+    static String string(Map<String, Object> message, String field) {
+        Object value = message.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    static long longValue(Map<String, Object> message, String field, long defaultValue) {
+        Long value = SagaWireValues.toLong(message.get(field));
+        return value != null ? value : defaultValue;
+    }
+
+    static boolean bool(Map<String, Object> message, String field) {
+        Object value = message.get(field);
+        return value instanceof Boolean bool ? bool : Boolean.parseBoolean(String.valueOf(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> payloadOf(Map<String, Object> message) {
+        Object payload = message.get(SagaMessageFields.PAYLOAD);
+        return payload instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    /**
+     * Fencing token from the envelope; older orchestrators nested it in the payload
+     */
+    static Long fencingTokenOf(Map<String, Object> message, Map<String, Object> payload) {
+        Object token = message.get(SagaMessageFields.FENCING_TOKEN);
+        if (token == null) {
+            token = payload.get(SagaMessageFields.FENCING_TOKEN);
+        }
+        return SagaWireValues.toLong(token);
+    }
+
+    static void putIfNotNull(Map<String, Object> message, String field, Object value) {
+        if (value != null) {
+            message.put(field, value);
+        }
+    }
+}
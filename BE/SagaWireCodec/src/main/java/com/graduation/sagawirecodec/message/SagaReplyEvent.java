@@ -0,0 +1,47 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaWireValues;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * Result of a saga step command, sent back by the order or payment service
+ */
+public record SagaReplyEvent(String messageId, String sagaId, SagaEventType type, long timestamp, boolean success,
+                             String orderId, Long paymentTransactionId, String message, String errorMessage)
+        implements SagaEvent {
+
+    @Override
+    public Map<String, Object> toMessage() {
+        Map<String, Object> event = new LinkedHashMap<>(10);
+        event.put(SagaMessageFields.MESSAGE_ID, messageId);
+        event.put(SagaMessageFields.SAGA_ID, sagaId);
+        event.put(SagaMessageFields.TYPE, type.name());
+        event.put(SagaMessageFields.SUCCESS, success);
+        event.put(SagaMessageFields.ORDER_ID, orderId);
+        event.put(SagaMessageFields.TIMESTAMP, timestamp);
+        putIfNotNull(event, SagaMessageFields.PAYMENT_TRANSACTION_ID, paymentTransactionId);
+        if (success) {
+            event.put(SagaMessageFields.MESSAGE, message);
+        } else {
+            event.put(SagaMessageFields.ERROR_MESSAGE, errorMessage);
+        }
+        return event;
+    }
+
+    static SagaReplyEvent fromMessage(Map<String, Object> message) {
+        return new SagaReplyEvent(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                SagaEventType.valueOf(string(message, SagaMessageFields.TYPE)),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                bool(message, SagaMessageFields.SUCCESS),
+                string(message, SagaMessageFields.ORDER_ID),
+                SagaWireValues.toLong(message.get(SagaMessageFields.PAYMENT_TRANSACTION_ID)),
+                string(message, SagaMessageFields.MESSAGE),
+                string(message, SagaMessageFields.ERROR_MESSAGE));
+    }
+}
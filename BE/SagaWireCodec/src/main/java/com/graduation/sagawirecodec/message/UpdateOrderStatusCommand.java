@@ -0,0 +1,49 @@
+package com.graduation.sagawirecodec.message;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.graduation.sagawirecodec.message.SagaMessageValues.*;
+
+/**
+ * ORDER_UPDATE_CONFIRMED / ORDER_UPDATE_DELIVERED: move the order to the next status
+ */
+public record UpdateOrderStatusCommand(String messageId, String sagaId, int stepId, SagaCommandType type,
+                                       long timestamp, Long fencingToken, long orderId, String reason)
+        implements SagaCommand {
+
+    public UpdateOrderStatusCommand {
+        if (type != SagaCommandType.ORDER_UPDATE_CONFIRMED && type != SagaCommandType.ORDER_UPDATE_DELIVERED) {
+            throw new IllegalArgumentException("Not an order status command: " + type);
+        }
+    }
+
+    /**
+     * Target order status name
+     */
+    public String newStatus() {
+        return type == SagaCommandType.ORDER_UPDATE_CONFIRMED ? "CONFIRMED" : "DELIVERED";
+    }
+
+    @Override
+    public Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<>(4);
+        payload.put(SagaMessageFields.ORDER_ID, String.valueOf(orderId));
+        payload.put(SagaMessageFields.NEW_STATUS, newStatus());
+        putIfNotNull(payload, SagaMessageFields.REASON, reason);
+        return payload;
+    }
+
+    static UpdateOrderStatusCommand fromMessage(Map<String, Object> message) {
+        Map<String, Object> payload = payloadOf(message);
+        return new UpdateOrderStatusCommand(
+                string(message, SagaMessageFields.MESSAGE_ID),
+                string(message, SagaMessageFields.SAGA_ID),
+                (int) longValue(message, SagaMessageFields.STEP_ID, 0),
+                SagaCommandType.valueOf(string(message, SagaMessageFields.TYPE)),
+                longValue(message, SagaMessageFields.TIMESTAMP, 0),
+                fencingTokenOf(message, payload),
+                longValue(payload, SagaMessageFields.ORDER_ID, 0),
+                string(payload, SagaMessageFields.REASON));
+    }
+}
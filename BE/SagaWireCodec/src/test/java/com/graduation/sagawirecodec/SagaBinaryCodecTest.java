@@ -0,0 +1,91 @@
+package com.graduation.sagawirecodec;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaBinaryCodecTest {
+
+    @Test
+    void roundTripsCommandEnvelope() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", "42");
+        payload.put("totalAmount", new BigDecimal("1999.90"));
+        payload.put("items", List.of(1, "two", false));
+
+        Map<String, Object> command = new LinkedHashMap<>();
+        command.put("messageId", "S1_1_abc");
+        command.put("sagaId", "SAGA_1");
+        command.put("stepId", 1);
+        command.put("type", "PAYMENT_PROCESS");
+        command.put("timestamp", 1_760_000_000_000L);
+        command.put("fencingToken", "token-7");
+        command.put("customField", null);
+        command.put("payload", payload);
+
+        Map<String, Object> decoded = SagaBinaryCodec.decode(SagaBinaryCodec.tryEncode(command));
+
+        assertEquals(command, decoded);
+        assertEquals(new BigDecimal("1999.90"), ((Map<?, ?>) decoded.get("payload")).get("totalAmount"));
+        assertInstanceOf(Long.class, decoded.get("timestamp"));
+    }
+
+    @Test
+    void narrowsSmallLongsLikeJson() {
+        Map<String, Object> decoded = SagaBinaryCodec.decode(SagaBinaryCodec.tryEncode(Map.of("orderId", 42L)));
+
+        assertEquals(42, decoded.get("orderId"));
+    }
+
+    @Test
+    void unsupportedValueFallsBackToJson() {
+        Map<String, Object> message = new HashMap<>();
+        message.put("sagaId", "SAGA_1");
+        message.put("at", Instant.EPOCH);
+
+        assertNull(SagaBinaryCodec.tryEncode(message));
+    }
+
+    @Test
+    void deserializerNegotiatesFormatFromHeader() {
+        SagaWireSerializer binarySerializer = new SagaWireSerializer();
+        binarySerializer.configure(Map.of(SagaWireFormat.CONFIG_WRITE_FORMAT, "binary"), false);
+        SagaWireSerializer jsonSerializer = new SagaWireSerializer();
+        jsonSerializer.configure(Map.of(), false);
+        SagaWireDeserializer deserializer = new SagaWireDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, "java.lang.Object",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false), false);
+
+        Map<String, Object> event = Map.of("sagaId", "SAGA_1", "type", "ORDER_CREATED", "success", true);
+
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        byte[] binary = binarySerializer.serialize("order.events", binaryHeaders, event);
+        assertNotNull(binaryHeaders.lastHeader(SagaWireFormat.HEADER_WIRE_FORMAT));
+
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = jsonSerializer.serialize("order.events", jsonHeaders, event);
+        assertNull(jsonHeaders.lastHeader(SagaWireFormat.HEADER_WIRE_FORMAT));
+
+        assertTrue(binary.length < json.length);
+        assertEquals(event, deserializer.deserialize("order.events", binaryHeaders, binary));
+        assertEquals(event, deserializer.deserialize("order.events", jsonHeaders, json));
+    }
+
+    @Test
+    void rejectsTruncatedMessages() {
+        byte[] encoded = SagaBinaryCodec.tryEncode(Map.of("sagaId", "SAGA_1"));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> SagaBinaryCodec.decode(truncated));
+    }
+}
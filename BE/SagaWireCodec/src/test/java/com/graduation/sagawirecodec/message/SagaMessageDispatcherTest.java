@@ -0,0 +1,66 @@
+package com.graduation.sagawirecodec.message;
+
+import com.graduation.sagawirecodec.SagaBinaryCodec;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaMessageDispatcherTest {
+
+    @Test
+    void dispatchesDecodedCommandAfterBinaryRoundTrip() {
+        ProcessPaymentCommand sent = new ProcessPaymentCommand("S1_1_abc", "SAGA_1", 1, 1_760_000_000_000L, 7L,
+                "42", "user-1", new BigDecimal("1999.90"), null);
+        List<ProcessPaymentCommand> received = new ArrayList<>();
+        SagaMessageDispatcher dispatcher = new SagaMessageDispatcher()
+                .on(SagaCommandType.PAYMENT_PROCESS, ProcessPaymentCommand.class, received::add);
+
+        assertTrue(dispatcher.dispatch(SagaBinaryCodec.decode(SagaBinaryCodec.tryEncode(sent.toMessage()))));
+
+        assertEquals(List.of(sent), received);
+    }
+
+    @Test
+    void readsFencingTokenNestedInLegacyPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", "42");
+        payload.put("newStatus", "CONFIRMED");
+        payload.put("fencingToken", "7");
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("messageId", "S1_2_abc");
+        message.put("sagaId", "SAGA_1");
+        message.put("stepId", 2);
+        message.put("type", "ORDER_UPDATE_CONFIRMED");
+        message.put("payload", payload);
+
+        UpdateOrderStatusCommand command = (UpdateOrderStatusCommand) SagaCommandType.ORDER_UPDATE_CONFIRMED.decode(message);
+
+        assertEquals(7L, command.fencingToken());
+        assertEquals(42L, command.orderId());
+        assertEquals("CONFIRMED", command.newStatus());
+    }
+
+    @Test
+    void unknownTypeIsNotDispatched() {
+        SagaMessageDispatcher dispatcher = new SagaMessageDispatcher()
+                .on(SagaEventType.ORDER_CREATED, OrderCreatedEvent.class, event -> fail());
+
+        assertFalse(dispatcher.dispatch(Map.of("type", "REVERSE_PAYMENT_WITH_FENCING")));
+        assertFalse(dispatcher.handles(null));
+    }
+
+    @Test
+    void rejectsDuplicateRegistration() {
+        SagaMessageDispatcher dispatcher = new SagaMessageDispatcher()
+                .on(SagaCommandType.ORDER_CANCEL, CancelOrderCommand.class, command -> { });
+
+        assertThrows(IllegalStateException.class,
+                () -> dispatcher.on(SagaCommandType.ORDER_CANCEL, CancelOrderCommand.class, command -> { }));
+    }
+}